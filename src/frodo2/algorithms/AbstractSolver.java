@@ -31,6 +31,7 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 
 import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.ProblemChange;
 import frodo2.solutionSpaces.ProblemInterface;
 
 /** A solver for a general problem
@@ -190,6 +191,13 @@ public abstract class AbstractSolver < P extends ProblemInterface<V, U>, V exten
 		this.agentDesc.getRootElement().getChild("parser").setAttribute("utilClass", utilClass.getName());
 	}
 	
+	/** Sets the master seed of the random number streams used by the agents, such that runs are reproducible
+	 * @param seed 	the master seed
+	 */
+	public void setSeed (long seed) {
+		this.agentDesc.getRootElement().setAttribute("seed", Long.toString(seed));
+	}
+	
 	/** @return the agent description file */
 	public Document getAgentDesc () {
 		return this.agentDesc;
@@ -437,6 +445,38 @@ public abstract class AbstractSolver < P extends ProblemInterface<V, U>, V exten
 		return solution;
 	}
 	
+	/** Applies a change to the problem last solved, and re-solves it without re-creating the agents
+	 * @param change 			the change to the problem
+	 * @param cleanAfterwards 	if \c true, cleans all the agents and the queue when they're done
+	 * @return 					an optimal solution to the modified problem
+	 * @warning The previous call to solve() must have been made with \c cleanAfterwards set to \c false. 
+	 */
+	public S update (ProblemChange<V, U> change, boolean cleanAfterwards) {
+		
+		assert this.factory != null : "No problem has been solved yet, or the agents have been cleaned";
+		timedOut = false;
+		outOfMem = false;
+		
+		for (StatsReporter module : this.solGatherers) 
+			module.reset();
+		this.factory.update(change);
+		
+		if(factory.timedOut() || factory.outOfMemory()) {
+			outOfMem = factory.outOfMemory();
+			timedOut = factory.timedOut();
+			if (cleanAfterwards)
+				this.clear();
+			return null;
+		}
+		
+		S solution = this.buildSolution();
+		
+		if (cleanAfterwards) 
+			this.clear();
+
+		return solution;
+	}
+	
 	/**
 	 * Puts the statistics in a format that can easily be processed after the experiments
 	 * @author Brammert Ottens, Dec 29, 2011
@@ -34,6 +34,7 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +48,7 @@ import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 
 import frodo2.algorithms.AgentInterface.ComStatsMessage;
+import frodo2.algorithms.AgentInterface.ProblemChangeMessage;
 import frodo2.algorithms.test.AllTests;
 import frodo2.communication.IncomingMsgPolicyInterface;
 import frodo2.communication.Message;
@@ -62,6 +64,7 @@ import frodo2.controller.WhitePages;
 import frodo2.daemon.LocalAgentReport;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.ProblemChange;
 import frodo2.solutionSpaces.ProblemInterface;
 
 /** A convenience class to create agents
@@ -132,6 +135,33 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 
 	}
 
+	/** Creates an agent that connects with the controller through TCP
+	 * @param <V> 				the type used for variable values
+	 * @param toDaemonPipe 		output pipe used to send messages to the daemon
+	 * @param toControllerPipe 	output pipe used to send messages to the controller
+	 * @param probDesc 			the problem
+	 * @param agentDesc 		the compiled agent description
+	 * @param statsToController if true, stats should be sent to the controller; else, to the daemon
+	 * @param port 				the port number on which the agent should listen
+	 * @return a new instance of an agent
+	 */
+	public static < V extends Addable<V>, U extends Addable<U> > AgentInterface<V> createAgent (
+			QueueOutputPipeInterface toDaemonPipe, QueueOutputPipeInterface toControllerPipe, 
+			ProblemInterface<V, U> probDesc, CompiledAgentDescription<V> agentDesc, boolean statsToController, int port) {
+
+		assert ! agentDesc.measureTime() : "measureTime == true, but the Simulated Time metric does not support TCP pipes";
+
+		try {
+			AgentInterface<V> agent = agentDesc.newAgent(probDesc, null);
+			agent.setup(toDaemonPipe, toControllerPipe, statsToController, port);
+			return agent;
+		} catch (Exception e) {
+			e.printStackTrace();
+		} 
+
+		return null;
+	}
+
 	/** Creates an agent that runs in the same JVM as the controller
 	 * @param <V> 				the type used for variable values
 	 * @param controllerPipe 	the output pipe to send messages to the controller
@@ -154,33 +184,44 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 		return null;
 	}
 
-	/** Extracts the agent class from the input description, and creates an instance of it
+	/** Creates an agent that runs in the same JVM as the controller
+	 * @param <V> 				the type used for variable values
+	 * @param controllerPipe 	the output pipe to send messages to the controller
+	 * @param probDesc 			the problem
+	 * @param agentDesc 		the compiled agent description
+	 * @param mailman 			the CentralMailer; ignored if not measuring Simulated Time
+	 * @return a new instance of an agent
+	 */
+	public static < V extends Addable<V>, U extends Addable<U> > AgentInterface<V> createAgent(
+			QueueOutputPipeInterface controllerPipe, ProblemInterface<V, U> probDesc, CompiledAgentDescription<V> agentDesc, CentralMailer mailman) {
+
+		try {
+			AgentInterface<V> agent = agentDesc.newAgent(probDesc, mailman);
+			agent.setup(controllerPipe, controllerPipe, true, -1);
+			return agent;
+		} catch (Exception e) {
+			e.printStackTrace();
+		} 
+
+		return null;
+	}
+
+	/** Compiles the input description, and creates an instance of the agent
 	 * @param <V> 			the type used for variable values
 	 * @param probDesc 		the problem
 	 * @param agentDesc 	a JDOM Document describing the agent
 	 * @param mailman 		the CentralMailer; ignored if not measuring Simulated Time
 	 * @return the name of the agent's class to be used
-	 * @throws ClassNotFoundException 		thrown if the agent class mentioned in the description is unknown
-	 * @throws NoSuchMethodException 		thrown if the agent class used does not contain a constructor that takes in two JDOM Documents
+	 * @throws ClassNotFoundException 		thrown if a class mentioned in the description is unknown
+	 * @throws NoSuchMethodException 		thrown if the agent class or a module class does not contain the required constructor
 	 * @throws InvocationTargetException 	thrown if the agent constructor throws an exception
 	 * @throws IllegalAccessException 		if the constructor of the agent class is not accessible
-	 * @throws InstantiationException 		thrown if the agent class provided in the description is an abstract class
-	 * @throws IllegalArgumentException 	if an error occurs in passing arguments to the constructor of the agent class
+	 * @note When creating several agents from the same description, compile it only once using CompiledAgentDescription. 
 	 */
-	@SuppressWarnings("unchecked")
 	private static < V extends Addable<V>, U extends Addable<U> > AgentInterface<V> instantiateAgent (
 			ProblemInterface<V, U> probDesc, Document agentDesc, CentralMailer mailman) 
-	throws ClassNotFoundException, NoSuchMethodException, IllegalArgumentException, InstantiationException, 
-	IllegalAccessException, InvocationTargetException {
-
-		// Read the agent class name from the agent description
-		String agentClassName = agentDesc.getRootElement().getAttributeValue("className");
-		assert agentClassName != null : "The agent description does not have an attribute of name \"className\"";
-
-		// Create a new instance of that class, passing the two descriptions as input parameters
-		Class< ? extends AgentInterface<V> > agentClass = (Class<? extends AgentInterface<V>>) Class.forName(agentClassName);
-		Constructor< ? extends AgentInterface<V> > constructor = agentClass.getConstructor(ProblemInterface.class, Document.class, CentralMailer.class);
-		return constructor.newInstance(probDesc, agentDesc, mailman);
+	throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+		return new CompiledAgentDescription<V> (agentDesc).newAgent(probDesc, mailman);
 	}
 
 	/** Runs the input algorithm on the input problem
@@ -377,6 +418,9 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 
 	/** The agent configuration */
 	private Document agentDesc;
+	
+	/** The agent configuration, compiled once and shared by all agents */
+	private CompiledAgentDescription<V> compiledDesc;
 
 	/** The problem */
 	private ProblemInterface<V, U> problem;
@@ -645,6 +689,7 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 			}
 
 			// Go through the list of agents and instantiate them
+			this.compiledDesc = new CompiledAgentDescription<V> (this.agentDesc);
 			Set<String> agentNames = problem.getAgents();
 			nbrAgents = agentNames.size();
 			agents = new HashMap< String, AgentInterface<V> > (nbrAgents);
@@ -653,9 +698,9 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 				for (String agent : agentNames) {
 					ProblemInterface<V, U> subProb = problem.getSubProblem(agent);
 					if (this.useTCP) 
-						agents.put(agent, (AgentInterface<V>) AgentFactory.createAgent(pipe, pipe, subProb, agentDesc, statsToController, ++port));
+						agents.put(agent, (AgentInterface<V>) AgentFactory.createAgent(pipe, pipe, subProb, compiledDesc, statsToController, ++port));
 					else 
-						agents.put(agent, (AgentInterface<V>) AgentFactory.createAgent(pipe, subProb, agentDesc, mailman));
+						agents.put(agent, (AgentInterface<V>) AgentFactory.createAgent(pipe, subProb, compiledDesc, mailman));
 					subProbs.put(agent, subProb);
 				}
 
@@ -815,20 +860,11 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 		this.problem.reset((ProblemInterface) problem);
 
 		// Reset the relevant fields
-		this.done = false;
-		this.finalNCCCcount = -1;
-		this.finalTime = -1;
-		if (this.measureMsgs) {
-			this.msgNbrs = new TreeMap<MessageType, Integer> ();
-			this.msgSizes = new TreeMap<MessageType, Long> ();
-			this.maxMsgSizes = new TreeMap<MessageType, Long> ();
-		}
+		this.resetRun();
 		Set<String> agentNames = problem.getAgents();
 		this.nbrAgents = agentNames.size();
-		this.nbrAgentsFinished = 0;
 		this.nbrMsgsReceived = 0;
 		this.pipes.clear();
-		this.timedOut = false;
 
 		// First kill the agents that have disappeared since the previous run
 		for (Iterator< Map.Entry< String, AgentInterface<V> > > iter = this.agents.entrySet().iterator(); iter.hasNext(); ) {
@@ -855,9 +891,9 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 				} else { // new agent
 					ProblemInterface<V, U> subProb = problem.getSubProblem(agentName);
 					if (this.useTCP) 
-						agents.put(agentName, (AgentInterface<V>) AgentFactory.createAgent(pipe, pipe, subProb, agentDesc, statsToController, ++port));
+						agents.put(agentName, (AgentInterface<V>) AgentFactory.createAgent(pipe, pipe, subProb, compiledDesc, statsToController, ++port));
 					else 
-						agents.put(agentName, (AgentInterface<V>) AgentFactory.createAgent(pipe, subProb, agentDesc, mailman));
+						agents.put(agentName, (AgentInterface<V>) AgentFactory.createAgent(pipe, subProb, compiledDesc, mailman));
 					this.subProbs.put(agentName, subProb);
 				}
 			}
@@ -867,6 +903,56 @@ public class AgentFactory < V extends Addable<V>, U extends Addable<U> > impleme
 		this.waitForEnd();
 	}
 
+	/** Resets the fields describing the current run of the algorithm */
+	private void resetRun () {
+		this.done = false;
+		this.finalNCCCcount = -1;
+		this.finalTime = -1;
+		if (this.measureMsgs) {
+			this.msgNbrs = new TreeMap<MessageType, Integer> ();
+			this.msgSizes = new TreeMap<MessageType, Long> ();
+			this.maxMsgSizes = new TreeMap<MessageType, Long> ();
+		}
+		this.nbrAgentsFinished = 0;
+		this.timedOut = false;
+	}
+
+	/** Applies a change to the current problem and re-runs the algorithm without re-creating the agents
+	 * 
+	 * If the change is incremental, it is only sent to the agents it affects, and all agents are then told to start again 
+	 * without going through the connection phase. Otherwise, the change is sent to all agents so that they can discard 
+	 * any information they have kept from the previous run, and the algorithm is restarted on the new problem. 
+	 * @param change 	the change to the problem
+	 * @see ProblemChange#isIncremental()
+	 */
+	@SuppressWarnings("unchecked")
+	public void update (ProblemChange<V, U> change) {
+		
+		assert this.problem instanceof DCOPProblemInterface : "Incremental changes are only supported for DCOPs";
+		change.applyTo((DCOPProblemInterface<V, U>) this.problem);
+		
+		if (! change.isIncremental()) {
+			queue.sendMessageToMulti(pipes.keySet(), new ProblemChangeMessage<V, U> (change));
+			this.restart(this.problem);
+			return;
+		}
+		
+		this.resetRun();
+		
+		// Push the change to the affected agents only, and tell all agents to start again
+		synchronized (agents) {
+			Set<Object> affected = new HashSet<Object> (change.getAffectedAgents());
+			affected.retainAll(pipes.keySet());
+			queue.sendMessageToMulti(affected, new ProblemChangeMessage<V, U> (change));
+			
+			this.startTime = System.currentTimeMillis();
+			queue.sendMessageToMulti(pipes.keySet(), new Message (AgentInterface.START_AGENT));
+		}
+		
+		// Wait for all agents to finish
+		this.waitForEnd();
+	}
+
 	/** Kills all agents and threads */
 	public void end () {
 
@@ -31,8 +31,10 @@ import java.util.Map;
 
 import frodo2.communication.MessageType;
 import frodo2.communication.MessageWith3Payloads;
+import frodo2.communication.MessageWithPayload;
 import frodo2.communication.QueueOutputPipeInterface;
 import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.ProblemChange;
 
 /** All agents corresponding to various algorithms should implement this interface
  * @author Brammert Ottens
@@ -187,6 +189,32 @@ public interface AgentInterface < V extends Addable<V> > {
 	/** Message used to tell an agent to start its algorithm */
 	public static final MessageType START_AGENT = MessageType.SYSTEM.newChild("AgentInterface", "Start-Agent");
 	
+	/** Message used to notify an agent of a change in the problem */
+	public static final MessageType PROBLEM_CHANGE = MessageType.SYSTEM.newChild("AgentInterface", "Problem-Change");
+	
+	/** A message notifying an agent of a change in the problem
+	 * @author Thomas Leaute
+	 * @param <V> the type used for variable values
+	 * @param <U> the type used for utility values
+	 */
+	public static class ProblemChangeMessage < V extends Addable<V>, U extends Addable<U> > extends MessageWithPayload< ProblemChange<V, U> > {
+		
+		/** Empty constructor used for externalization */
+		public ProblemChangeMessage () { }
+		
+		/** Constructor
+		 * @param change 	the change, already applied to the overall problem
+		 */
+		public ProblemChangeMessage (ProblemChange<V, U> change) {
+			super (PROBLEM_CHANGE, change);
+		}
+		
+		/** @return the change */
+		public ProblemChange<V, U> getChange () {
+			return this.getPayload();
+		}
+	}
+	
 	/** Message used to tell an agent to stop */
 	public static final MessageType STOP_AGENT = MessageType.SYSTEM.newChild("AgentInterface", "Stop-Agent");
 	
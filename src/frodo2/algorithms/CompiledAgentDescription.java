@@ -0,0 +1,393 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.communication.MessageListener;
+import frodo2.communication.MessageType;
+import frodo2.communication.mailer.CentralMailer;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.ProblemInterface;
+
+/** An agent description that has been parsed once and for all, and that can be used to instantiate many agents cheaply
+ *
+ * All class names in the agent description are resolved, the module constructors are looked up and cached as MethodHandles,
+ * and the message type bindings specified in the \c messages elements are resolved. Creating an agent from a compiled
+ * description then no longer requires any parsing or reflective lookups.
+ *
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ */
+public class CompiledAgentDescription < V extends Addable<V> > {
+
+	/** The lookup object used to find constructors */
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	/** A message type binding that sets a public static MessageType field of a module class */
+	private static class MsgTypeBinding {
+
+		/** The field to be set */
+		final Field field;
+
+		/** The value for the field */
+		final MessageType type;
+
+		/** Constructor
+		 * @param field 	the field to be set
+		 * @param type 		the value for the field
+		 */
+		MsgTypeBinding(Field field, MessageType type) {
+			this.field = field;
+			this.type = type;
+		}
+
+		/** Sets the field to its value */
+		void apply () {
+			try {
+				this.field.set(null, this.type);
+			} catch (IllegalAccessException e) { // should never happen
+				System.err.println("Failed to set the field " + field.getDeclaringClass().getName() + "." + field.getName());
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/** A factory for one module of the agent */
+	public static class ModuleFactory {
+
+		/** The module's class name */
+		private final String className;
+
+		/** The XML element describing the module */
+		private final Element moduleElmt;
+
+		/** The constructor of the module, taking in a problem and an Element */
+		private final MethodHandle constructor;
+
+		/** The message type bindings for this module */
+		private final List<MsgTypeBinding> bindings;
+
+		/** Constructor
+		 * @param className 	the module's class name
+		 * @param moduleElmt 	the XML element describing the module
+		 * @param constructor 	the constructor of the module, taking in a problem and an Element
+		 * @param bindings 		the message type bindings for this module
+		 */
+		private ModuleFactory (String className, Element moduleElmt, MethodHandle constructor, List<MsgTypeBinding> bindings) {
+			this.className = className;
+			this.moduleElmt = moduleElmt;
+			this.constructor = constructor;
+			this.bindings = bindings;
+		}
+
+		/** @return the module's class name */
+		public String getClassName () {
+			return this.className;
+		}
+
+		/** @return the XML element describing the module */
+		public Element getDescription () {
+			return this.moduleElmt;
+		}
+
+		/** Instantiates the module
+		 * @param probDesc 	the agent's problem
+		 * @return a new module instance
+		 * @throws InvocationTargetException if the module constructor throws an exception
+		 */
+		@SuppressWarnings("unchecked")
+		public MessageListener<MessageType> newInstance (ProblemInterface<?, ?> probDesc) throws InvocationTargetException {
+
+			// Set the module's message types
+			for (MsgTypeBinding binding : this.bindings)
+				binding.apply();
+
+			try {
+				return (MessageListener<MessageType>) this.constructor.invoke(probDesc, this.moduleElmt);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new InvocationTargetException (e);
+			}
+		}
+	}
+
+	/** The agent description */
+	private final Document agentDesc;
+
+	/** The constructor of the agent class that takes in a compiled description, or \c null if there is none */
+	private final MethodHandle agentConstructor;
+
+	/** The constructor of the agent class that takes in a JDOM Document, only used if \a agentConstructor is \c null */
+	private final MethodHandle agentDocConstructor;
+
+	/** Whether the agent should use the CentralMailer */
+	private final boolean measureTime;
+
+	/** Whether to measure the number of messages and the total amount of information sent */
+	private final boolean measureMsgs;
+
+	/** The master seed of the random number streams, or \c null if none is specified */
+	private final Long seed;
+
+	/** The class used for the problem description */
+	private final Class<?> probDescClass;
+
+	/** The module factories, or \c null if the modules depend on the agent type */
+	private final List<ModuleFactory> modules;
+
+	/** For each agent type, the \c modules element */
+	private final Map<String, Element> modsElmtPerType;
+
+	/** For each agent type, the module factories, compiled the first time an agent of this type is created */
+	private final Map< String, List<ModuleFactory> > modulesPerType;
+
+	/** The name of the solution monitor module class, for each agent type (the key \c null is used when there is a single type) */
+	private final Map<String, String> solutionMonitors = new HashMap<String, String> ();
+
+	/** Compiles an agent description
+	 * @param agentDesc 	the agent description
+	 * @throws ClassNotFoundException 	if a class mentioned in the description is unknown
+	 * @throws NoSuchMethodException 	if the agent or one of its modules does not have the required public constructor
+	 * @throws IllegalAccessException 	if a constructor is not accessible
+	 */
+	public CompiledAgentDescription (Document agentDesc) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException {
+
+		this.agentDesc = agentDesc;
+		Element root = agentDesc.getRootElement();
+
+		String measureTimeString = root.getAttributeValue("measureTime");
+		this.measureTime = (measureTimeString == null || Boolean.parseBoolean(measureTimeString));
+		this.measureMsgs = Boolean.parseBoolean(root.getAttributeValue("measureMsgs"));
+		String seedString = root.getAttributeValue("seed");
+		this.seed = (seedString == null ? null : Long.valueOf(seedString));
+
+		// Look up the agent constructors
+		String agentClassName = root.getAttributeValue("className");
+		assert agentClassName != null : "The agent description does not have an attribute of name \"className\"";
+		Class<?> agentClass = Class.forName(agentClassName);
+		MethodHandle agentConstructor = null;
+		try {
+			agentConstructor = LOOKUP.findConstructor(agentClass,
+					MethodType.methodType(void.class, ProblemInterface.class, CompiledAgentDescription.class, CentralMailer.class));
+		} catch (NoSuchMethodException e) { } // the agent class only supports the JDOM Document constructor
+		this.agentConstructor = agentConstructor;
+		if (agentConstructor != null) 
+			this.agentDocConstructor = null;
+		else 
+			this.agentDocConstructor = LOOKUP.findConstructor(agentClass,
+					MethodType.methodType(void.class, ProblemInterface.class, Document.class, CentralMailer.class));
+
+		// Read the problem description class name from the agent description, the standard value is DCOPProblemInterface
+		Class<?> probDescClass = DCOPProblemInterface.class;
+		Element parserDesc = root.getChild("parser");
+		if (parserDesc != null) {
+			String probDescClassName = parserDesc.getAttributeValue("probDescClass");
+			if (probDescClassName != null)
+				probDescClass = Class.forName(probDescClassName);
+		}
+		this.probDescClass = probDescClass;
+
+		// Compile the modules
+		List<Element> types = root.getChildren("modules");
+		if (types.isEmpty()) {
+			this.modules = Collections.emptyList();
+			this.modsElmtPerType = null;
+			this.modulesPerType = null;
+		} else if (types.size() == 1) {
+			Element modsElmt = types.get(0);
+			this.modules = this.compileModules(modsElmt);
+			this.modsElmtPerType = null;
+			this.modulesPerType = null;
+			this.solutionMonitors.put(null, modsElmt.getAttributeValue("solutionMonitor"));
+		} else {
+			this.modules = null;
+			this.modsElmtPerType = new HashMap<String, Element> ();
+			this.modulesPerType = new HashMap< String, List<ModuleFactory> > ();
+			for (Element modsElmt : types) {
+				String type = modsElmt.getAttributeValue("agentType");
+				this.modsElmtPerType.put(type, modsElmt);
+				this.solutionMonitors.put(type, modsElmt.getAttributeValue("solutionMonitor"));
+			}
+		}
+	}
+
+	/** Compiles a list of modules
+	 * @param modsElmt 	the \c modules element
+	 * @return the list of module factories
+	 * @throws ClassNotFoundException 	if a class mentioned in the description is unknown
+	 * @throws NoSuchMethodException 	if a module does not have the required public constructor
+	 * @throws IllegalAccessException 	if a constructor is not accessible
+	 */
+	private List<ModuleFactory> compileModules (Element modsElmt) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException {
+
+		List<Element> moduleElmts = modsElmt.getChildren();
+		ArrayList<ModuleFactory> factories = new ArrayList<ModuleFactory> (moduleElmts.size());
+
+		for (Element moduleElmt : moduleElmts) {
+
+			String className = moduleElmt.getAttributeValue("className");
+			Class<?> moduleClass = Class.forName(className);
+
+			// Resolve the message types, in the order in which they appear
+			ArrayList<MsgTypeBinding> bindings = new ArrayList<MsgTypeBinding> ();
+			Element allMsgsElmt = moduleElmt.getChild("messages");
+			if (allMsgsElmt != null) {
+				for (Element msgElmt : allMsgsElmt.getChildren()) {
+
+					// Look up the new value for the message type
+					MessageType newType = MessageType.fromXML(msgElmt.getChild("type"));
+					String targetClassName = msgElmt.getAttributeValue("targetClass");
+					if (targetClassName != null) { // look up the value of a field in a class
+						String targetFieldName = msgElmt.getAttributeValue("targetFieldName");
+						Class<?> targetClass = Class.forName(targetClassName);
+						try {
+							newType = (MessageType) targetClass.getDeclaredField(targetFieldName).get(null);
+						} catch (NoSuchFieldException e) {
+							System.err.println("Unable to read the value of the field " + targetClass.getName() + "." + targetFieldName);
+							e.printStackTrace();
+						}
+					}
+
+					// Look up the field to be set, and set it right away, since later bindings might read it
+					String myFieldName = msgElmt.getAttributeValue("myFieldName");
+					try {
+						Field field = moduleClass.getField(myFieldName);
+						field.setAccessible(true);
+						MsgTypeBinding binding = new MsgTypeBinding (field, newType);
+						binding.apply();
+						bindings.add(binding);
+					} catch (NoSuchFieldException e) {
+						System.err.println("Unable to find the field " + moduleClass.getName() + "." + myFieldName);
+						e.printStackTrace();
+					}
+				}
+			}
+
+			// Look up the module constructor
+			MethodHandle constructor = LOOKUP.findConstructor(moduleClass, MethodType.methodType(void.class, this.probDescClass, Element.class))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+
+			bindings.trimToSize();
+			factories.add(new ModuleFactory (className, moduleElmt, constructor, bindings));
+		}
+
+		return Collections.unmodifiableList(factories);
+	}
+
+	/** @return the agent description */
+	public Document getDescription () {
+		return this.agentDesc;
+	}
+
+	/** @return whether the agent should use the CentralMailer */
+	public boolean measureTime () {
+		return this.measureTime;
+	}
+
+	/** @return whether to measure the number of messages and the total amount of information sent */
+	public boolean measureMsgs () {
+		return this.measureMsgs;
+	}
+
+	/** @return the master seed of the random number streams, or \c null if none is specified */
+	public Long getSeed () {
+		return this.seed;
+	}
+
+	/** Returns the module factories for a given agent type
+	 * @param agentType 	the agent type; ignored if the modules do not depend on the agent type
+	 * @return the module factories, or \c null if there are none for this type
+	 * @throws ClassNotFoundException 	if a class mentioned in the description of the modules is unknown
+	 * @throws NoSuchMethodException 	if a module does not have the required public constructor
+	 * @throws IllegalAccessException 	if a constructor is not accessible
+	 */
+	public List<ModuleFactory> getModules (String agentType) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException {
+
+		if (this.modules != null) 
+			return this.modules;
+
+		synchronized (this.modulesPerType) {
+			List<ModuleFactory> factories = this.modulesPerType.get(agentType);
+			if (factories == null) {
+				Element modsElmt = this.modsElmtPerType.get(agentType);
+				if (modsElmt == null) 
+					return null;
+				factories = this.compileModules(modsElmt);
+				this.modulesPerType.put(agentType, factories);
+			}
+			return factories;
+		}
+	}
+
+	/** @return whether the modules depend on the agent type */
+	public boolean hasAgentTypes () {
+		return this.modules == null;
+	}
+
+	/** Returns the name of the solution monitor class
+	 * @param agentType 	the agent type; ignored if the modules do not depend on the agent type
+	 * @return the name of the solution monitor class, or \c null if none
+	 */
+	public String getSolutionMonitor (String agentType) {
+		return this.solutionMonitors.get(this.modules != null ? null : agentType);
+	}
+
+	/** Creates a new agent
+	 * @param <U> 			the type used for utility values
+	 * @param probDesc 		the agent's problem
+	 * @param mailman 		the CentralMailer; ignored if not measuring Simulated Time
+	 * @return a new agent
+	 * @throws InvocationTargetException if the agent constructor throws an exception
+	 */
+	@SuppressWarnings("unchecked")
+	public < U extends Addable<U> > AgentInterface<V> newAgent (ProblemInterface<V, U> probDesc, CentralMailer mailman)
+	throws InvocationTargetException {
+
+		try {
+			if (this.agentConstructor != null)
+				return (AgentInterface<V>) this.agentConstructor.invoke(probDesc, this, mailman);
+			else
+				return (AgentInterface<V>) this.agentDocConstructor.invoke(probDesc, this.agentDesc, mailman);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException (e);
+		}
+	}
+
+}
@@ -30,10 +30,12 @@ import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 
 import frodo2.algorithms.StatsReporterWithConvergence.CurrentAssignment;
 import frodo2.solutionSpaces.Addable;
@@ -85,44 +87,31 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 	 * 
 	 */
 	@SuppressWarnings("unchecked")
-	public static <V extends Addable<V>, U extends Addable<U>> long processAssignmentHistories(HashMap<String, ArrayList<CurrentAssignment<V>>> assignmentHistories, List< ? extends UtilitySolutionSpace<V, U> > hypercubes, String experiment_number, String resultPath, U infeasibleUtil, boolean maximize, boolean time) {
+	public static <V extends Addable<V>, U extends Addable<U>> long processAssignmentHistories(HashMap<String, ArrayList<CurrentAssignment<V>>> assignmentHistories, List< ? extends UtilitySolutionSpace<V, U> > hypercubes, String experiment_number, String resultPath, U infeasibleUtil, boolean maximize, final boolean time) {
 		long finalConvergenceTimeStamp = -1;
 		try {
 			BufferedWriter timeWriterAll = new BufferedWriter(new FileWriter(resultPath + "timeConvergence-all-" + experiment_number + ".conv"));
 			ArrayList<TimeStamp<U>> convergenceAll = new ArrayList<TimeStamp<U>>();
 			int numberOfVariables = assignmentHistories.size();
 			
-			int[] currentIndexTime = new int[numberOfVariables];
-			int[] maxIndex = new int[numberOfVariables];
-			String[] variables = new String[numberOfVariables];
+			final int[] currentIndexTime = new int[numberOfVariables];
 			HashMap<String, V> timeValues = new HashMap<String, V>(numberOfVariables);
-			ArrayList<CurrentAssignment<V>>[] assHistory = (ArrayList<CurrentAssignment<V>>[])Array.newInstance((new ArrayList<CurrentAssignment<V>>(0)).getClass(), numberOfVariables);
+			final ArrayList<CurrentAssignment<V>>[] assHistory = (ArrayList<CurrentAssignment<V>>[])Array.newInstance((new ArrayList<CurrentAssignment<V>>(0)).getClass(), numberOfVariables);
 			String[] indexToString = new String[numberOfVariables];
 			HashMap<String, Integer> variablePointer = new HashMap<String, Integer>(numberOfVariables);
 
 			// initilize datastructures
-			// find the time that the first variabe obtained a value		- minTimeStamp
-			// find the earliest time at which all variables have a value	- firstTimeStamp
-			long firstTimeStamp = Long.MAX_VALUE;
+			// find the earliest time at which all variables have a value	- minTimeStamp
 			long minTimeStamp = -1;
-			int minimalSize = -1;
 			int index = 0; 
 			for(Entry<String, ArrayList<CurrentAssignment<V>>> e : assignmentHistories.entrySet()) {
-				int size = e.getValue().size();
 				indexToString[index] = e.getKey();
 				variablePointer.put(e.getKey(), index);
-				variables[index] = e.getKey();
-				maxIndex[index] = size;
 				assHistory[index] = e.getValue();
 				long nextTimeStamp = assHistory[index].get(0).getTimeStamp(time);
 				if(minTimeStamp == -1 || nextTimeStamp >= minTimeStamp)  {
 					minTimeStamp = nextTimeStamp;
 				}
-				if(firstTimeStamp > nextTimeStamp) {
-					firstTimeStamp = nextTimeStamp;
-				}
-				if(minimalSize == -1 || minimalSize >size)
-					minimalSize = size;
 				index++;
 			}
 			
@@ -134,7 +123,32 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 				timeValues.put(indexToString[i], assHistory[i].get(currentIndexTime[i]).getAssignment());
 			}
 			
-			U currentUtility = getUtility(timeValues, hypercubes);
+			// For each variable, the indexes of the hypercubes that involve it
+			int nbrSpaces = hypercubes.size();
+			ArrayList< ArrayList<Integer> > spacesOf = new ArrayList< ArrayList<Integer> > (numberOfVariables);
+			for(int i = 0; i < numberOfVariables; i++) 
+				spacesOf.add(new ArrayList<Integer> ());
+			for(int j = 0; j < nbrSpaces; j++) {
+				for(String var : hypercubes.get(j).getVariables()) {
+					Integer i = variablePointer.get(var);
+					if(i != null)
+						spacesOf.get(i).add(j);
+				}
+			}
+			
+			// The utilities of the hypercubes are stored in the leaves of a binary tree whose inner nodes contain partial sums, 
+			// such that a change of assignment only requires re-evaluating the hypercubes involving the variable and their ancestors
+			Class<V> domainClass = (Class<V>) hypercubes.get(0).getDomain(0)[0].getClass();
+			int nbrLeaves = 1;
+			while(nbrLeaves < nbrSpaces)
+				nbrLeaves <<= 1;
+			U[] sums = (U[]) new Addable [2 * nbrLeaves];
+			for(int j = 0; j < nbrSpaces; j++) 
+				sums[nbrLeaves + j] = getUtility(timeValues, hypercubes.get(j), domainClass);
+			for(int node = nbrLeaves - 1; node >= 1; node--) 
+				sums[node] = add(sums[2 * node], sums[2 * node + 1]);
+			
+			U currentUtility = sums[1];
 			U previousUtil = null;
 			U highestUtilSoFar = infeasibleUtil; 
 			finalConvergenceTimeStamp = -1;
@@ -143,66 +157,68 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 			// write the utilities to a file
 			TimeStamp<U> stamp = new TimeStamp<U> (currentUtility, minTimeStamp);
 			convergenceAll.add(stamp);
-						
-			boolean cont = true;
-
-			while(cont) {
-				cont = false;
-
-				// find the next time index
-				minTimeStamp = -1;
-				int timeIndex = -1;
-				for(int i = 0; i < numberOfVariables; i++) {
-					if(assHistory[i].size() > (currentIndexTime[i] + 1)) {
-						long nextTimeStamp = (assHistory[i].get(currentIndexTime[i] + 1).getTimeStamp(time));
-						if(minTimeStamp == -1 || nextTimeStamp <= minTimeStamp) {
-							minTimeStamp = nextTimeStamp;
-							timeIndex = i;
-						}
-					}
+			
+			// The variables that have further assignments, ordered by the time stamp of their next assignment
+			// (ties are broken in favor of the variable with the highest index)
+			PriorityQueue<Integer> nextVars = new PriorityQueue<Integer> (Math.max(1, numberOfVariables), new Comparator<Integer> () {
+				public int compare(Integer i, Integer j) {
+					long time1 = assHistory[i].get(currentIndexTime[i] + 1).getTimeStamp(time);
+					long time2 = assHistory[j].get(currentIndexTime[j] + 1).getTimeStamp(time);
+					if(time1 != time2)
+						return (time1 < time2 ? -1 : 1);
+					return j.compareTo(i);
 				}
-				
-				// update the current indices
-				if(timeIndex != -1) {
-					currentIndexTime[timeIndex] += 1;
-					cont = true;
+			});
+			for(int i = 0; i < numberOfVariables; i++) 
+				if(assHistory[i].size() > (currentIndexTime[i] + 1))
+					nextVars.add(i);
+
+			while(! nextVars.isEmpty()) {
+
+				// find the next time index and update the current indices
+				int timeIndex = nextVars.poll();
+				currentIndexTime[timeIndex] += 1;
+				minTimeStamp = assHistory[timeIndex].get(currentIndexTime[timeIndex]).getTimeStamp(time);
+				if(assHistory[timeIndex].size() > (currentIndexTime[timeIndex] + 1))
+					nextVars.add(timeIndex);
+
+				// calculate the current utilities, only re-evaluating the hypercubes involving the variable
+				timeValues.put(indexToString[timeIndex], assHistory[timeIndex].get(currentIndexTime[timeIndex]).getAssignment());
+				for(int j : spacesOf.get(timeIndex)) {
+					int node = nbrLeaves + j;
+					sums[node] = getUtility(timeValues, hypercubes.get(j), domainClass);
+					for(node >>= 1; node >= 1; node >>= 1) 
+						sums[node] = add(sums[2 * node], sums[2 * node + 1]);
+				}
+
+				currentUtility = sums[1];
+				stamp = new TimeStamp<U> (currentUtility, minTimeStamp);
+
+				// compare the current utility with the highest utility so far
+				int dif = currentUtility.compareTo(highestUtilSoFar); 
+				if((maximize && dif > 0) || (!maximize && dif < 0)) { // if it is better, store it
+					highestUtilSoFar = currentUtility;
+					finalConvergenceTimeStamp = minTimeStamp;
+				} else if ((maximize && dif < 0) || (!maximize && dif > 0)) { // else we have not yet converged
+					finalConvergenceTimeStamp = -1;
 				}
 
-				if(cont) {
-					// calculate the current utilities
-					for(int i = 0; i < numberOfVariables; i++) {
-						timeValues.put(indexToString[i], assHistory[i].get(currentIndexTime[i]).getAssignment());
+				// only write the current utility when it changes
+				if((previousUtil == null || !previousUtil.equals(currentUtility))) {
+					int lastIndex = convergenceAll.size() - 1;
+					if(stamp.equals(convergenceAll.get(lastIndex)))
+						convergenceAll.set(lastIndex, stamp);
+					else
+						convergenceAll.add(stamp);
+
+					if(minTimeStamp < 0) {
+						System.err.println("Encountered a negative timeStamp!!");
+						System.exit(-1);
 					}
-					
-					currentUtility = getUtility(timeValues, hypercubes);
-					stamp = new TimeStamp<U> (currentUtility, minTimeStamp);
-					
-					// compare the current utility with the highest utility so far
-					int dif = currentUtility.compareTo(highestUtilSoFar); 
-					if((maximize && dif > 0) || (!maximize && dif < 0)) { // if it is better, store it
-						highestUtilSoFar = currentUtility;
+					if(finalConvergenceTimeStamp == -1)
 						finalConvergenceTimeStamp = minTimeStamp;
-					} else if ((maximize && dif < 0) || (!maximize && dif > 0)) { // else we have not yet converged
-						finalConvergenceTimeStamp = -1;
-					}
 
-					// only write the current utility when it changes
-					if((previousUtil == null || !previousUtil.equals(currentUtility))) {
-						int lastIndex = convergenceAll.size() - 1;
-						if(stamp.equals(convergenceAll.get(lastIndex)))
-							convergenceAll.set(lastIndex, stamp);
-						else
-							convergenceAll.add(stamp);
-						
-						if(minTimeStamp < 0) {
-							System.err.println("Encountered a negative timeStamp!!");
-							System.exit(-1);
-						}
-						if(finalConvergenceTimeStamp == -1)
-							finalConvergenceTimeStamp = minTimeStamp;
-
-						previousUtil = currentUtility;
-					}
+					previousUtil = currentUtility;
 				}
 			}
 			
@@ -219,6 +235,21 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 		return finalConvergenceTimeStamp;
 	}
 	
+	/** Adds two partial sums of utilities
+	 * @param <U> 	type used for utilities
+	 * @param u1 	the first partial sum, or \c null if empty
+	 * @param u2 	the second partial sum, or \c null if empty
+	 * @return the sum, or \c null if both are empty
+	 */
+	private static <U extends Addable<U>> U add(U u1, U u2) {
+		if(u1 == null)
+			return u2;
+		else if(u2 == null)
+			return u1;
+		else 
+			return u1.add(u2);
+	}
+	
 	/**
 	 * Convenience class containing a timestamp and utility value
 	 * @author Brammert Ottens, 3 dec 2010
@@ -425,16 +456,7 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 		Class<V> domainClass = (Class<V>) hypercubes.get(0).getDomain(0)[0].getClass();
 		// Go through the list of hypercubes
 		for (UtilitySolutionSpace<V, U> hypercube : hypercubes) {
-			// Slice the hypercube over the input assignments
-			ArrayList<String> vars = new ArrayList<String> (hypercube.getNumberOfVariables());
-			for (String var : hypercube.getVariables()) 
-				if (assignments.containsKey(var)) 
-					vars.add(var);
-			int nbrVars = vars.size();
-			V[] values = (V[])Array.newInstance(domainClass, nbrVars);
-			for (int i = 0; i < nbrVars; i++) 
-				values[i] = assignments.get(vars.get(i));
-			U temp = hypercube.getUtility(vars.toArray(new String[0]), values);
+			U temp = getUtility(assignments, hypercube, domainClass);
 			if(sum == null)
 				sum = temp;
 			else
@@ -445,4 +467,28 @@ public class Convergence <V extends Addable<V>, U extends Addable<U>> {
 		assert sum != null;
 		return sum;
 	}
+	
+	/**
+	 * Computes the utility of a single hypercube for a given assignment
+	 * @param assignments	the current variable assignments
+	 * @param hypercube		the hypercube
+	 * @param domainClass	the class used for domain values
+	 * @return the utility of the hypercube, sliced over the input assignments
+	 * 
+	 * @param <V>	type used for domain values 
+	 * @param <U> 	type used for utilities
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V extends Addable<V>, U extends Addable<U>> U getUtility(Map<String, V> assignments, UtilitySolutionSpace<V, U> hypercube, Class<V> domainClass) {
+		// Slice the hypercube over the input assignments
+		ArrayList<String> vars = new ArrayList<String> (hypercube.getNumberOfVariables());
+		for (String var : hypercube.getVariables()) 
+			if (assignments.containsKey(var)) 
+				vars.add(var);
+		int nbrVars = vars.size();
+		V[] values = (V[])Array.newInstance(domainClass, nbrVars);
+		for (int i = 0; i < nbrVars; i++) 
+			values[i] = assignments.get(vars.get(i));
+		return hypercube.getUtility(vars.toArray(new String[0]), values);
+	}
 }
\ No newline at end of file
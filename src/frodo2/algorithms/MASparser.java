@@ -40,6 +40,7 @@ import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableInteger;
 import frodo2.solutionSpaces.MASProblemInterface;
 import frodo2.solutionSpaces.ProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
 
 /** A MASproblem parser that is able to handle multiple types of agents
  * @author Brammert Ottens, 8 jun 2010
@@ -75,6 +76,9 @@ public class MASparser <V extends Addable<V>, U extends Addable<U>> implements M
 	
 	/** The NCCC count */
 	private long ncccCount;
+
+	/** The random number streams used by the modules; created on demand if none is set */
+	private RandomStreams randomStreams;
 	
 	/** Creates a JDOM Document out of the input XML file
 	 * @param file 					the XML file
@@ -360,6 +364,18 @@ public class MASparser <V extends Addable<V>, U extends Addable<U>> implements M
 		return this.ncccCount;
 	}
 	
+	/** @see ProblemInterface#setRandomStreams(RandomStreams) */
+	public void setRandomStreams (RandomStreams streams) {
+		this.randomStreams = streams;
+	}
+	
+	/** @see ProblemInterface#getRandomStreams() */
+	public RandomStreams getRandomStreams () {
+		if (this.randomStreams == null) 
+			this.randomStreams = new RandomStreams ();
+		return this.randomStreams;
+	}
+	
 	/** @see java.lang.Object#toString() */
 	@Override
 	public String toString () {
@@ -41,6 +41,7 @@ import frodo2.solutionSpaces.AddableInteger;
 import frodo2.solutionSpaces.BasicUtilitySolutionSpace;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.ProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 import frodo2.solutionSpaces.hypercube.Hypercube;
 import frodo2.solutionSpaces.hypercube.ScalarHypercube;
@@ -81,6 +82,9 @@ public class Problem < V extends Addable<V>, U extends Addable<U> > implements D
 	/** The NCCC count */
 	private long ncccCount;
 
+	/** The random number streams used by the modules; created on demand if none is set */
+	private RandomStreams randomStreams;
+
 	/** Constructor
 	 * @param maximize 	Whether this is a maximization or a minimization problem
 	 */
@@ -356,6 +360,22 @@ public class Problem < V extends Addable<V>, U extends Addable<U> > implements D
 		return true;
 	}
 
+	/** @see DCOPProblemInterface#removeVariable(java.lang.String) */
+	public boolean removeVariable(String name) {
+		
+		if (! this.owners.containsKey(name)) 
+			return false;
+		this.owners.remove(name);
+		this.domains.remove(name);
+		
+		// Remove all spaces involving this variable
+		for (Iterator< ? extends UtilitySolutionSpace<V, U> > iter = this.spaces.iterator(); iter.hasNext(); ) 
+			if (Arrays.asList(iter.next().getVariables()).contains(name)) 
+				iter.remove();
+		
+		return true;
+	}
+
 	/** @see DCOPProblemInterface#getNbrIntVars() */
 	public int getNbrIntVars() {
 		return this.getMyVars().size();
@@ -410,8 +430,13 @@ public class Problem < V extends Addable<V>, U extends Addable<U> > implements D
 
 	/** @see DCOPProblemInterface#setDomain(java.lang.String, V[]) */
 	public void setDomain(String var, V[] dom) {
-		/// @todo Auto-generated method stub
-		assert false : "not implemented!";
+		
+		if (dom.length == 0) 
+			return;
+		
+		this.domains.put(var, dom);
+		if (! this.owners.containsKey(var)) 
+			this.owners.put(var, null);
 	}
 
 	/** @see DCOPProblemInterface#getNeighborhoods() */
@@ -647,6 +672,18 @@ public class Problem < V extends Addable<V>, U extends Addable<U> > implements D
 		return this.ncccCount;
 	}
 	
+	/** @see ProblemInterface#setRandomStreams(RandomStreams) */
+	public void setRandomStreams (RandomStreams streams) {
+		this.randomStreams = streams;
+	}
+	
+	/** @see ProblemInterface#getRandomStreams() */
+	public RandomStreams getRandomStreams () {
+		if (this.randomStreams == null) 
+			this.randomStreams = new RandomStreams ();
+		return this.randomStreams;
+	}
+	
 	/** @see DCOPProblemInterface#maximize() */
 	public boolean maximize() {
 		return this.maximize;
@@ -29,14 +29,29 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 /** Generator of random graphs
  * @author Thomas Leaute
  */
 public class RandGraphFactory {
 	
+	/** The random number generator of each thread */
+	private static final ThreadLocal<SplittableRandom> RANDOM = new ThreadLocal<SplittableRandom> () {
+		@Override
+		protected SplittableRandom initialValue () {
+			return new SplittableRandom ();
+		}
+	};
+	
+	/** Seeds the random number generator used by the calling thread, such that the graphs it subsequently generates are reproducible
+	 * @param seed 	the seed
+	 */
+	public static void setSeed (long seed) {
+		RANDOM.set(new SplittableRandom (seed));
+	}
+	
 	/** A graph 
 	 * 
 	 * Nodes are represented by Integers, starting at 0, prefixed with the letter "x".
@@ -218,6 +233,7 @@ public class RandGraphFactory {
 		}
 		
 		// Generate random edges
+		SplittableRandom rand = RANDOM.get();
 		Edge[] edges = new Edge [nbrEdges];
 		for (int i = 0; i < nbrEdges; i++) {
 
@@ -227,9 +243,9 @@ public class RandGraphFactory {
 			boolean newEdge = false;
 			while (! newEdge) {
 				newEdge = true;
-				i1 = (int) (Math.random() * (nbrNodes - 1));
+				i1 = (int) (rand.nextDouble() * (nbrNodes - 1));
 				i1Name = "x" + Integer.toString(i1);
-				i2 = i1 + (int) (Math.random() * (nbrNodes - i1 - 1)) + 1;
+				i2 = i1 + (int) (rand.nextDouble() * (nbrNodes - i1 - 1)) + 1;
 				i2Name = "x" + Integer.toString(i2);
 				for (int j = 0; j < i; j++) {
 					if (edges[j].source.equals(i1Name) && edges[j].dest.equals(i2Name)) {
@@ -267,7 +283,7 @@ public class RandGraphFactory {
 			for (int i = 0; i < nbrClusters; i++) 
 				clusters.put("a" + i, new ArrayList <String> ());
 			for (int i = 0; i < nbrNodes; i++) {
-				clusters.get("a" + (int) (Math.random() * nbrClusters)).add("x" + Integer.toString(i));
+				clusters.get("a" + (int) (rand.nextDouble() * nbrClusters)).add("x" + Integer.toString(i));
 			}
 			
 			return new Graph (nodes, edges, components, neighbors, clusters);	
@@ -285,13 +301,14 @@ public class RandGraphFactory {
 	public static Graph getRandGraph (int maxNbrNodes, int maxNbrEdges, int maxNbrClusters) {
 		
 		// Choose a random number of nodes
-		int nbrNodes = (int) (Math.random() * (maxNbrNodes-1)) + 2;
+		SplittableRandom rand = RANDOM.get();
+		int nbrNodes = (int) (rand.nextDouble() * (maxNbrNodes-1)) + 2;
 
 		// Choose the number of edges
 		int nbrEdges;
 		int max = nbrNodes * (nbrNodes - 1) / 2;
 		while (true) {
-			nbrEdges = (int) (Math.random() * (maxNbrEdges+1));
+			nbrEdges = (int) (rand.nextDouble() * (maxNbrEdges+1));
 			if (nbrEdges <= max) {
 				break;
 			}
@@ -300,7 +317,7 @@ public class RandGraphFactory {
 		// Choose the number of clusters
 		int nbrClusters = 0;
 		if (maxNbrClusters > 0) 
-			nbrClusters = 1 + (int) (Math.random() * maxNbrClusters);
+			nbrClusters = 1 + (int) (rand.nextDouble() * maxNbrClusters);
 
 		return getSizedRandGraph (nbrNodes, nbrEdges, nbrClusters);
 	}
@@ -457,7 +474,7 @@ public class RandGraphFactory {
 		ArrayList<Edge> edges = new ArrayList<Edge> (nbrNodes - 1); // each node has an edge with its parent, except the root
 		List<String> open = new ArrayList<String> (nodes);
 		List<String> leaves = new ArrayList<String> (nbrNodes);
-		Random rand = new Random ();
+		SplittableRandom rand = RANDOM.get();
 		leaves.add(open.remove(0)); // choose the first node as the root
 		while (! open.isEmpty()) {
 			
@@ -507,7 +524,7 @@ public class RandGraphFactory {
 		}
 		
 		// Add the chords
-		Random rand = new Random ();
+		SplittableRandom rand = RANDOM.get();
 		ArrayList<Edge> chords = new ArrayList<Edge> ((int) nbrChords + nbrNodes);
 		for (int n = 0; n < nbrChords; n++) {
 			
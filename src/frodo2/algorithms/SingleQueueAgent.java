@@ -23,7 +23,6 @@ How to contact the authors:
 package frodo2.algorithms;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -33,7 +32,6 @@ import java.util.Map;
 import java.util.Set;
 
 import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
 
 import frodo2.communication.IncomingMsgPolicyInterface;
@@ -55,7 +53,9 @@ import frodo2.daemon.LocalWhitePages;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.MASProblemInterface;
+import frodo2.solutionSpaces.ProblemChange;
 import frodo2.solutionSpaces.ProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
 
 /** An agent that uses a single queue. 
  * @author Thomas Leaute
@@ -113,53 +113,37 @@ public class SingleQueueAgent < Val extends Addable<Val> > implements AgentInter
 	 * @throws InstantiationException if a module class provided in the description is an abstract class
 	 * @throws IllegalArgumentException if the constructor of an IncomingMsgPolicyInterface does not take the proper arguments
 	 */
-	@SuppressWarnings("unchecked")
 	public SingleQueueAgent(ProblemInterface<Val, ?> probDesc, Document agentDesc, CentralMailer mailman) 
 	throws JDOMException, ClassNotFoundException, NoSuchMethodException, 
 	IllegalArgumentException, InstantiationException, IllegalAccessException, InvocationTargetException {
+		this (probDesc, new CompiledAgentDescription<Val> (agentDesc), mailman);
+	}
+	
+	/** Constructor
+	 * @param probDesc 			the description of the problem
+	 * @param agentDesc 		the compiled description of the agent, which may be shared by all agents
+	 * @param mailman 			the CentralMailer; ignored if not measuring Simulated Time
+	 * @throws ClassNotFoundException if a module class mentioned in the description is unknown
+	 * @throws NoSuchMethodException if a module class used does not contain a constructor that takes in a ProblemInterface and a JDOM Element
+	 * @throws IllegalAccessException if the constructor of a module is not accessible
+	 * @throws InvocationTargetException if a module constructor throws an exception
+	 */
+	@SuppressWarnings("unchecked")
+	public SingleQueueAgent(ProblemInterface<Val, ?> probDesc, CompiledAgentDescription<Val> agentDesc, CentralMailer mailman) 
+	throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
 
 		this.problem = probDesc;
 		this.agentID = problem.getAgent();
-
-		String measureTimeString = agentDesc.getRootElement().getAttributeValue("measureTime");
-		boolean useCentralMailer = true;
-		if(measureTimeString != null)
-			useCentralMailer = Boolean.parseBoolean(measureTimeString);
-		
-		// Check whether we should count messages
-		String measureMsgs = agentDesc.getRootElement().getAttributeValue("measureMsgs");
-		if (measureMsgs != null) 
-			this.measureMsgs = Boolean.parseBoolean(measureMsgs);
-		else 
-			this.measureMsgs = false;
-		
-		// Read the problem description class name from the agent description, the standard value is DCOPProblemInterface
-		Element parserDesc = agentDesc.getRootElement().getChild("parser");
-		Class<? extends ProblemInterface<Val, ?>> probDescClass = (Class<? extends ProblemInterface<Val, ?>>) Class.forName(DCOPProblemInterface.class.getName());
-		if(parserDesc != null) {
-			String probDescClassName = parserDesc.getAttributeValue("probDescClass");
-			if(probDescClassName != null)
-				probDescClass = (Class<? extends ProblemInterface<Val, ?>>) Class.forName(probDescClassName);
- 		}
+		this.measureMsgs = agentDesc.measureMsgs();
 		
-		List<Element> types = agentDesc.getRootElement().getChildren("modules");
-		Element modsElmt = null;
-		if(types.size() == 1) {
-			modsElmt = agentDesc.getRootElement().getChild("modules");
-		} else {
-			String type = ((MASProblemInterface<Val, ?>)probDesc).getType();
-			for(Element t : types) {
-				if(t.getAttributeValue("agentType").equals(type)) {
-					modsElmt = t;
-					break;
-				}
-			}
-		}
-		
-		String solutionMonitorName = (modsElmt != null ? modsElmt.getAttributeValue("solutionMonitor") : null);
+		String type = null;
+		if (agentDesc.hasAgentTypes()) 
+			type = ((MASProblemInterface<Val, ?>)probDesc).getType();
+		List<CompiledAgentDescription.ModuleFactory> modules = agentDesc.getModules(type);
+		String solutionMonitorName = agentDesc.getSolutionMonitor(type);
 		
 		// Create the queue
-		if (useCentralMailer) 
+		if (agentDesc.measureTime()) 
 			this.queue = mailman.newQueue(agentID);
 		else 
 			this.queue = new Queue(this.measureMsgs);
@@ -167,6 +151,10 @@ public class SingleQueueAgent < Val extends Addable<Val> > implements AgentInter
 		// Count NCCCs
 		this.queue.setProblem(probDesc);
 		
+		// Give the modules reproducible random number streams
+		if (agentDesc.getSeed() != null) 
+			probDesc.setRandomStreams(new RandomStreams (agentDesc.getSeed()));
+		
 		localInputPipe = new QueueIOPipe(queue);
 		this.queue.addOutputPipe(this.agentID, new QueueIOPipe (this.queue, true));
 		this.queue.addOutputPipe(Controller.CONTROLLER, blackHole);
@@ -175,54 +163,15 @@ public class SingleQueueAgent < Val extends Addable<Val> > implements AgentInter
 		msgTypes.add(AgentInterface.START_AGENT);
 		msgTypes.add(LocalWhitePages.DIE);
 		msgTypes.add(AGENT_FINISHED);
+		msgTypes.add(AgentInterface.PROBLEM_CHANGE);
 		this.queue.addIncomingMessagePolicy(this);
 		
 		// Set up the listeners/modules
-		if (modsElmt != null) {
-			for (Element moduleElmt : (List<Element>) modsElmt.getChildren()) {
-
-				// Change the module's message types if required
-				String className = moduleElmt.getAttributeValue("className");
-				Class< MessageListener<MessageType> > moduleClass = (Class< MessageListener<MessageType> >) Class.forName(className);
-				Element allMsgsElmt = moduleElmt.getChild("messages");
-				if (allMsgsElmt != null) {
-					for (Element msgElmt : (List<Element>) allMsgsElmt.getChildren()) {
+		if (modules != null) {
+			for (CompiledAgentDescription.ModuleFactory factory : modules) {
 
-						// Look up the new value for the message type
-						MessageType newType = MessageType.fromXML(msgElmt.getChild("type"));
-						String targetClassName = msgElmt.getAttributeValue("targetClass");
-						if (targetClassName != null) { // look up the value of a field in a class
-							String targetFieldName = msgElmt.getAttributeValue("targetFieldName");
-							Class<?> targetClass = Class.forName(targetClassName);
-							try {
-								Field field = targetClass.getDeclaredField(targetFieldName);
-								newType = (MessageType) field.get(null);
-							} catch (NoSuchFieldException e) {
-								System.err.println("Unable to read the value of the field " + targetClass.getName() + "." + targetFieldName);
-								e.printStackTrace();
-							}
-						}
-
-						// Set the message type to its new value
-						try {
-							setMsgType(moduleClass, msgElmt.getAttributeValue("myFieldName"), newType);
-						} catch (NoSuchFieldException e) {
-							System.err.println("Unable to find the field " + moduleClass.getName() + "." + msgElmt.getAttributeValue("myFieldName"));
-							e.printStackTrace();
-						}
-					}
-				}
-				
-				// Instantiate the listener using reflection
-				Class<?> parTypes[] = new Class[2];
-				parTypes[0] = probDescClass;
-				parTypes[1] = Element.class;
-				Constructor< MessageListener<MessageType> > constructor = moduleClass.getConstructor(parTypes);
-				Object[] args = new Object[2];
-				args[0] = probDesc;
-				args[1] = moduleElmt;
-				MessageListener<MessageType> module = constructor.newInstance(args);
-				if(className.equals(solutionMonitorName)) // every solutionMonitor must be of the type StatsReporterWithConvergence!
+				MessageListener<MessageType> module = factory.newInstance(probDesc);
+				if(factory.getClassName().equals(solutionMonitorName)) // every solutionMonitor must be of the type StatsReporterWithConvergence!
 					solutionMonitor = (StatsReporterWithConvergence<Val>)module;
 				
 				// Register the module with the queue
@@ -359,6 +308,7 @@ public class SingleQueueAgent < Val extends Addable<Val> > implements AgentInter
 	 * @see IncomingMsgPolicyInterface#notifyIn(Message)
 	 * @warning Any method overriding this one should start with a call to super.notify(msg).
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void notifyIn(Message msg) {
 		
 		if(msg.getType().equals(WhitePages.CONNECT_AGENT)) { // connect to all its neighbours
@@ -375,6 +325,15 @@ public class SingleQueueAgent < Val extends Addable<Val> > implements AgentInter
 		
 		else if (msg.getType().equals(AGENT_FINISHED)) // the algorithm terminated; report this to the controller
 			finished();
+		
+		else if (msg.getType().equals(AgentInterface.PROBLEM_CHANGE)) { // update the subproblem before the modules are notified
+			
+			ProblemChange change = ((ProblemChangeMessage) msg).getChange();
+			
+			// Non-incremental changes are followed by a full restart, which resets the subproblem
+			if (change.isIncremental() && this.problem instanceof DCOPProblemInterface) 
+				change.applyTo((DCOPProblemInterface) this.problem);
+		}
 	}
 
 	/** Does nothing
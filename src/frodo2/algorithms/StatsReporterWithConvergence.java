@@ -28,6 +28,7 @@ import java.util.Map;
 
 import frodo2.communication.MessageType;
 import frodo2.communication.MessageWith2Payloads;
+import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
 
 /** A StatsReporter that monitors the convergence of the algorithm
@@ -127,7 +128,7 @@ public interface StatsReporterWithConvergence < Val extends Addable<Val> >
 		 * A constructor
 		 * @param type					The message type
 		 * @param variableID			The ID of the sending variable
-		 * @param assignmentHistory		The assignment history of the sending variable
+		 * @param assignmentHistory		The assignment history of the sending variable, or only its new assignments if sent by a ConvStatBuffer
 		 */
 		public ConvStatMessage(MessageType type, String variableID, ArrayList<CurrentAssignment<Val>> assignmentHistory) {
 			super(type, variableID, assignmentHistory);
@@ -148,6 +149,100 @@ public interface StatsReporterWithConvergence < Val extends Addable<Val> >
 		}
 	}
 	
+	/**
+	 * A buffer used by variables to only report the assignments they have taken since their last report
+	 * 
+	 * Sending the whole assignment history to the stats monitor every cycle is quadratic in the number of cycles. 
+	 * Instead, each report only contains the assignments that differ from the previous one, 
+	 * and reports are coalesced such that at most one is sent per reporting interval. 
+	 * The stats monitor appends the reported assignments to the history of the variable using append(). 
+	 * 
+	 * @author Thomas Leaute
+	 * @param <Val> type used for variable values
+	 */
+	public static class ConvStatBuffer <Val> {
+		
+		/** The type of the messages sent to the stats monitor */
+		private final MessageType type;
+		
+		/** The minimum number of cycles between two reports for the same variable */
+		private final int interval;
+		
+		/** For each variable, the assignments not yet reported */
+		private final HashMap< String, ArrayList< CurrentAssignment<Val> > > pending = new HashMap< String, ArrayList< CurrentAssignment<Val> > > ();
+		
+		/** For each variable, its last recorded value */
+		private final HashMap<String, Val> lastValues = new HashMap<String, Val> ();
+		
+		/** For each variable, the cycle of its last report */
+		private final HashMap<String, Long> lastReports = new HashMap<String, Long> ();
+		
+		/** Constructor
+		 * @param type 		the type of the messages sent to the stats monitor
+		 * @param interval 	the minimum number of cycles between two reports for the same variable
+		 */
+		public ConvStatBuffer (MessageType type, int interval) {
+			this.type = type;
+			this.interval = Math.max(1, interval);
+		}
+		
+		/** Records the current assignment of a variable, and reports to the stats monitor if the reporting interval has elapsed
+		 * @param queue 	the queue used to send the report
+		 * @param var 		the variable
+		 * @param time 		the time stamp (in nanoseconds)
+		 * @param cycle 	the cycle count
+		 * @param value 	the current value of the variable
+		 */
+		public void record (Queue queue, String var, long time, long cycle, Val value) {
+			
+			// Only record the assignment if it differs from the previous one
+			if (! value.equals(this.lastValues.put(var, value))) {
+				ArrayList< CurrentAssignment<Val> > assignments = this.pending.get(var);
+				if (assignments == null) {
+					assignments = new ArrayList< CurrentAssignment<Val> > ();
+					this.pending.put(var, assignments);
+				}
+				assignments.add(new CurrentAssignment<Val> (time, cycle, value));
+			}
+			
+			Long last = this.lastReports.get(var);
+			if (last == null || cycle - last >= this.interval) {
+				this.lastReports.put(var, cycle);
+				this.flush(queue, var);
+			}
+		}
+		
+		/** Reports all pending assignments of a variable to the stats monitor
+		 * @param queue 	the queue used to send the report
+		 * @param var 		the variable
+		 */
+		public void flush (Queue queue, String var) {
+			ArrayList< CurrentAssignment<Val> > assignments = this.pending.remove(var);
+			if (assignments != null) 
+				queue.sendMessage(AgentInterface.STATS_MONITOR, new ConvStatMessage<Val> (this.type, var, assignments));
+		}
+		
+		/** Forgets all recorded assignments */
+		public void clear () {
+			this.pending.clear();
+			this.lastValues.clear();
+			this.lastReports.clear();
+		}
+		
+		/** Appends the assignments reported in a message to the history of the corresponding variable
+		 * @param <Val> 		type used for variable values
+		 * @param histories 	for each variable, its assignment history
+		 * @param msg 			the message sent by a ConvStatBuffer
+		 */
+		public static <Val> void append (HashMap< String, ArrayList< CurrentAssignment<Val> > > histories, ConvStatMessage<Val> msg) {
+			ArrayList< CurrentAssignment<Val> > history = histories.get(msg.getVar());
+			if (history == null) 
+				histories.put(msg.getVar(), new ArrayList< CurrentAssignment<Val> > (msg.getAssignmentHistory()));
+			else 
+				history.addAll(msg.getAssignmentHistory());
+		}
+	}
+	
 	/**
 	 * Return the assignment history, chronologically ordered, for all the variables
 	 * 
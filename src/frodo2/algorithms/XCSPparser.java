@@ -59,6 +59,7 @@ import frodo2.solutionSpaces.AddableReal;
 import frodo2.solutionSpaces.BasicUtilitySolutionSpace;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.ProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 import frodo2.solutionSpaces.hypercube.Hypercube;
 import frodo2.solutionSpaces.hypercube.ScalarHypercube;
@@ -345,6 +346,9 @@ public class XCSPparser < V extends Addable<V>, U extends Addable<U> > implement
 	
 	/** The NCCC count */
 	private long ncccCount;
+
+	/** The random number streams used by the modules; created on demand if none is set */
+	private RandomStreams randomStreams;
 	
 	/** Empty constructor */
 	public XCSPparser () {
@@ -740,6 +744,18 @@ public class XCSPparser < V extends Addable<V>, U extends Addable<U> > implement
 		return this.ncccCount;
 	}
 	
+	/** @see ProblemInterface#setRandomStreams(RandomStreams) */
+	public void setRandomStreams (RandomStreams streams) {
+		this.randomStreams = streams;
+	}
+	
+	/** @see ProblemInterface#getRandomStreams() */
+	public RandomStreams getRandomStreams () {
+		if (this.randomStreams == null) 
+			this.randomStreams = new RandomStreams ();
+		return this.randomStreams;
+	}
+	
 	/** The representation of an XCSP relation
 	 * @author Thomas Leaute
 	 * @param <V> 	the type used for variable values
@@ -1295,6 +1311,34 @@ public class XCSPparser < V extends Addable<V>, U extends Addable<U> > implement
 		return this.addVariable(name, owner, domName);
 	}
 
+	/** 
+	 * @see DCOPProblemInterface#removeVariable(java.lang.String) 
+	 */
+	public boolean removeVariable(String name) {
+		
+		Element varsElmt = this.root.getChild("variables");
+		
+		for (Iterator<Element> iter = varsElmt.getChildren().iterator(); iter.hasNext(); ) {
+			if (iter.next().getAttributeValue("name").equals(name)) {
+				iter.remove();
+				varsElmt.setAttribute("nbVariables", Integer.toString(varsElmt.getContentSize()));
+				
+				// Remove all constraints involving this variable
+				Element consElmt = this.root.getChild("constraints");
+				if (consElmt != null) {
+					for (Iterator<Element> iter2 = consElmt.getChildren().iterator(); iter2.hasNext(); ) 
+						if (Arrays.asList(iter2.next().getAttributeValue("scope").trim().split("\\s+")).contains(name)) 
+							iter2.remove();
+					consElmt.setAttribute("nbConstraints", Integer.toString(consElmt.getContentSize()));
+				}
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+
 	/** Builds the subproblem description for a given agent by extracting it from the overall problem description
 	 * @param agent 		the name of the agent
 	 * @return 				the subproblem corresponding to \a agent, or \c null if \a agent owns no variable
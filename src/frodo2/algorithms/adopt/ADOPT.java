@@ -546,7 +546,7 @@ implements StatsReporterWithConvergence<Val> {
 			// msg.getSender() + " -> " + msg.getReceiver() + " {" +
 			// msg.getContext() + "}");
 			variable.terminate = true;
-			variable.currentContext = msg.getContext();
+			variable.setContext(msg.getContext());
 
 			reset(variable);
 
@@ -575,7 +575,7 @@ implements StatsReporterWithConvergence<Val> {
 					// only if you have received a value message from all your
 					// higher priority neighbours can the UB(d) be something
 					// other than infinite
-					if (variable.currentContext.put(sender, msg.getValue()) == null) {
+					if (variable.putContext(sender, msg.getValue()) == null) {
 						if (variable.neighbours.containsKey(sender)) {
 							variable.full_info_counter++;
 						}
@@ -601,7 +601,7 @@ implements StatsReporterWithConvergence<Val> {
 					// adopt.log(variable, variable.toString());
 				}
 			} else {
-				variable.currentContext.put(sender, msg.getValue());
+				variable.putContext(sender, msg.getValue());
 			}
 		}
 
@@ -625,28 +625,28 @@ implements StatsReporterWithConvergence<Val> {
 					for (Map.Entry<String, Val> entry : context.entrySet()) {
 						String var = entry.getKey();
 						if (!var.equals(variable.variableID) && !variable.neighbours.containsKey(var)) {
-							variable.currentContext.put(var, entry.getValue());
+							variable.putContext(var, entry.getValue());
 						}
 					}
 					reset(variable);
 				}
 			}
 
-			if (adopt.compatible(context, variable.currentContext)) {
-				Integer senderPos = variable.neighbours.get(sender);
+			ChildContext<Val> childContext = variable.encode(context);
+			if (variable.compatible(childContext)) {
+				int senderPos = variable.neighbours.get(sender);
 				if (d != null) {
-					Integer valuePos = variable.valuePointer.get(d);
-					if (variable.lb.get(valuePos).get(senderPos).compareTo(msg.getLB()) < 0|| msg.getUB().compareTo(variable.ub.get(valuePos).get(senderPos)) < 0) {
-						variable.updateBounds(d, senderPos, msg.getLB(), msg.getUB());
-						variable.context.get(valuePos).set(senderPos, context);
+					int valuePos = variable.valuePointer.get(d);
+					if (variable.lb[valuePos][senderPos].compareTo(msg.getLB()) < 0|| msg.getUB().compareTo(variable.ub[valuePos][senderPos]) < 0) {
+						variable.updateBounds(valuePos, senderPos, msg.getLB(), msg.getUB());
+						variable.context[valuePos][senderPos] = childContext;
 					}
 				} else {// my value is not in the context, update bounds for all
 						// my values
-					for (Map.Entry<Val, Integer> entry : variable.valuePointer.entrySet()) {
-						int index = entry.getValue();
-						if (variable.lb.get(index).get(senderPos).compareTo(msg.getLB()) < 0 || msg.getUB().compareTo(variable.ub.get(index).get(senderPos)) < 0) {
-							variable.updateBounds(entry.getKey(), senderPos, msg.getLB(), msg.getUB());
-							variable.context.get(index).set(senderPos, context);
+					for (int index = 0; index < variable.domain.length; index++) {
+						if (variable.lb[index][senderPos].compareTo(msg.getLB()) < 0 || msg.getUB().compareTo(variable.ub[index][senderPos]) < 0) {
+							variable.updateBounds(index, senderPos, msg.getLB(), msg.getUB());
+							variable.context[index][senderPos] = childContext;
 						}
 					}
 				}
@@ -666,17 +666,16 @@ implements StatsReporterWithConvergence<Val> {
 		 */
 		private void maintainChildThresholdInvariant(
 				VariableInfo<Val, U> variable) {
-			for (Val d : variable.domain) {
-				int index = variable.valuePointer.get(d);
-				ArrayList<U> lbs = variable.lb.get(index);
-				ArrayList<U> ubs = variable.ub.get(index);
+			for (int index = 0; index < variable.domain.length; index++) {
+				U[] lbs = variable.lb[index];
+				U[] ubs = variable.ub[index];
 				U[] thresholdDist = variable.t[index];
 				for(int i = 0; i < variable.numberOfChildren; i++) {
-					U lb = lbs.get(i);
+					U lb = lbs[i];
 					if(lb.compareTo(thresholdDist[i]) > 0) {
 						thresholdDist[i] = lb;
 					}
-					U ub = ubs.get(i);
+					U ub = ubs[i];
 					if(ub.compareTo(thresholdDist[i]) < 0) {
 						thresholdDist[i] = ub;
 					}
@@ -713,11 +712,11 @@ implements StatsReporterWithConvergence<Val> {
 			int index = variable.valuePointer.get(variable.currentAssignment);
 			if (variable.numberOfChildren > 0) {
 				U[] thresholdDist = variable.t[index];
-				ArrayList<U> ubs = variable.ub.get(index);
+				U[] ubs = variable.ub[index];
 
 				if (variable.threshold == adopt.infinity) { // all my children should get as much threshold as they can
 					for (int i = 0; i < variable.numberOfChildren; i++) {
-						thresholdDist[i] = ubs.get(i);
+						thresholdDist[i] = ubs[i];
 					}
 					return;
 				}
@@ -732,7 +731,7 @@ implements StatsReporterWithConvergence<Val> {
 					difference = difference.subtract(tSum);
 					for (int i = 0; i < variable.numberOfChildren; i++) {
 						if (difference.compareTo(variable.zero) > 0) {
-							U ub = ubs.get(i);
+							U ub = ubs[i];
 							U dist = thresholdDist[i];
 							if (ub.compareTo(dist) > 0) {
 								U addableAmount = difference.min(ub.subtract(dist));
@@ -744,16 +743,16 @@ implements StatsReporterWithConvergence<Val> {
 					}
 				} else { // we need to lower thresholds
 					U alpha = tSum.subtract(difference);
-					ArrayList<U> lbs = variable.lb.get(index);
+					U[] lbs = variable.lb[index];
 					if (alpha == adopt.infinity) { // at least one of the children has an infinite threshold, we need to completely redistribute the threshold
 						for (int i = 0; i < variable.numberOfChildren; i++) { // first reset all the thresholds to at least the lower bound
-							U lb = lbs.get(i);
+							U lb = lbs[i];
 							thresholdDist[i] = lb;
 							difference = difference.subtract(lb);
 						}
 						while (difference.compareTo(variable.zero) > 0) { // next distribute the remaining threshold over the children
 							for (int i = 0; i < variable.numberOfChildren; i++) {
-								U ub = ubs.get(i);
+								U ub = ubs[i];
 								U dist = thresholdDist[i];
 								if (difference.compareTo(variable.zero) > 0 && ub.compareTo(dist) > 0) { // this child still has room for some threshold
 									U addableAmount = difference.min(ub);
@@ -765,7 +764,7 @@ implements StatsReporterWithConvergence<Val> {
 					} else {
 						for (int i = 0; i < variable.numberOfChildren; i++) {				
 							U dist = thresholdDist[i];
-							U lb = lbs.get(i);
+							U lb = lbs[i];
 							if (alpha.compareTo(variable.zero) > 0 && lb.compareTo(dist) < 0) {
 								U subtractableAmount = alpha.min(dist.subtract(lb));
 								thresholdDist[i] = dist.subtract(subtractableAmount);
@@ -793,7 +792,7 @@ implements StatsReporterWithConvergence<Val> {
 			if (variable.threshold.compareTo(variable.UB) == 0) {
 				variable.currentAssignment = variable.ubD;
 				valueChanged = true;
-			} else if (variable.threshold.compareTo(variable.LBperD.get(variable.valuePointer.get(variable.currentAssignment))) < 0) {
+			} else if (variable.threshold.compareTo(variable.LBperD[variable.valuePointer.get(variable.currentAssignment)]) < 0) {
 				variable.currentAssignment = variable.lbD;
 				valueChanged = true;
 			}
@@ -890,16 +889,14 @@ implements StatsReporterWithConvergence<Val> {
 		 * @param variable the variable info
 		 */
 		public void reset(VariableInfo<Val, U> variable) {
-			for (Val d : variable.domain) {
-				int index = variable.valuePointer.get(d);
-				ArrayList<HashMap<String, Val>> context = variable.context.get(index);
+			for (int index = 0; index < variable.domain.length; index++) {
+				ChildContext<Val>[] context = variable.context[index];
 				for (int i = 0; i < variable.numberOfChildren; i++) {
-					String child = variable.lowerNeighbours[i];
-					if (!adopt.compatible(context.get(i), variable.currentContext)) {
-						variable.resetBounds(d, child, adopt.infinity);
-						assert variable.lb.get(index).get(i).equals(variable.zero);
-						variable.resetChildThreshold(d, child, adopt.infinity.getZero());
-						variable.resetChildContext(d, i);
+					if (!variable.compatible(context[i])) {
+						variable.resetBounds(index, i, adopt.infinity);
+						assert variable.lb[index][i].equals(variable.zero);
+						variable.resetChildThreshold(index, i, adopt.infinity.getZero());
+						variable.resetChildContext(index, i);
 					}
 				}
 			}
@@ -914,13 +911,13 @@ implements StatsReporterWithConvergence<Val> {
 		 */
 		public boolean checkChildInfo(VariableInfo<Val, U> variable) {
 
-			for (int index : variable.valuePointer.values()) {
-				ArrayList<HashMap<String, Val>> context = variable.context.get(index);
-				ArrayList<U> lbs = variable.lb.get(index);
-				ArrayList<U> ubs = variable.ub.get(index);
+			for (int index = 0; index < variable.domain.length; index++) {
+				ChildContext<Val>[] context = variable.context[index];
+				U[] lbs = variable.lb[index];
+				U[] ubs = variable.ub[index];
 				for (int i = 0; i < variable.numberOfChildren; i++) {
-					if (!adopt.compatible(variable.currentContext, context.get(i))) {
-						if (!lbs.get(i).equals(variable.zero) || !ubs.get(i).equals(variable.zero.getPlusInfinity()))
+					if (!variable.compatible(context[i])) {
+						if (!lbs[i].equals(variable.zero) || !ubs[i].equals(variable.zero.getPlusInfinity()))
 							return false;
 					}
 				}
@@ -995,6 +992,37 @@ implements StatsReporterWithConvergence<Val> {
 
 	}
 
+	/**
+	 * A context received from a child, in which each variable is replaced by its slot in the receiver's current context
+	 * 
+	 * @param <Val> the type used for variable values
+	 */
+	private static class ChildContext<Val extends Addable<Val>> {
+		
+		/** For each variable in the context, its slot in the receiver's current context */
+		public final int[] slots;
+		
+		/** For each variable in the context, its value */
+		public final Val[] values;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param slots 	for each variable in the context, its slot in the receiver's current context
+		 * @param values 	for each variable in the context, its value
+		 */
+		public ChildContext(int[] slots, Val[] values) {
+			this.slots = slots;
+			this.values = values;
+		}
+		
+		/** @see java.lang.Object#toString() */
+		@Override
+		public String toString() {
+			return Arrays.toString(this.slots) + " -> " + Arrays.toString(this.values);
+		}
+	}
+
 	/**
 	 * Helper class that contains all the info belonging to a specific variable
 	 * 
@@ -1065,6 +1093,9 @@ implements StatsReporterWithConvergence<Val> {
 		 * The variables own lower bounds determined by the Preprocessing module
 		 */
 		public UtilitySolutionSpace<Val, U> h;
+		
+		/** For each value index, the lower bound in \a h */
+		private U[] hPerD;
 
 		/** This variable's number of children */
 		public int numberOfChildren;
@@ -1082,10 +1113,9 @@ implements StatsReporterWithConvergence<Val> {
 		public HashMap<String, Integer> neighbours;
 
 		/**
-		 * For each variable/value v/d combination it contains a list of lower
-		 * bounds for v's children
+		 * For each value index and each child, the lower bound reported by the child
 		 */
-		public ArrayList<ArrayList<U>> lb;
+		public U[][] lb;
 
 		/**
 		 * Stores the sum of all the values in lb. Uses some more memory in
@@ -1094,10 +1124,9 @@ implements StatsReporterWithConvergence<Val> {
 		public U[] lbSUM;
 
 		/**
-		 * For each variable/value v/d combination it contains a list of upper
-		 * bounds for v's children
+		 * For each value index and each child, the upper bound reported by the child
 		 */
-		public ArrayList<ArrayList<U>> ub;
+		public U[][] ub;
 
 		/**
 		 * Stores the sum of all the values in ub. Uses some more memory in
@@ -1114,14 +1143,14 @@ implements StatsReporterWithConvergence<Val> {
 		/** The current minimal upper bound */
 		public U UB;
 
-		/** For each value the upper bound */
-		public ArrayList<U> UBperD;
+		/** For each value index the upper bound */
+		public U[] UBperD;
 
 		/** The current minimal lower bound */
 		public U LB;
 
-		/** For each value the lower bound */
-		public ArrayList<U> LBperD;
+		/** For each value index the lower bound */
+		public U[] LBperD;
 
 		/** The value that minimizes the lower bound */
 		public Val lbD;
@@ -1133,25 +1162,34 @@ implements StatsReporterWithConvergence<Val> {
 		public Val currentAssignment;
 
 		/**
-		 * Given the current context, this map contains the utilities for each
-		 * value of this variable
+		 * Given the current context, this array contains the utilities for each
+		 * value index of this variable
 		 */
-		public ArrayList<U> delta;
+		public U[] delta;
 
-		/** For each value the position in the lb and ub arrays */
+		/** For each value its index in the domain */
 		public HashMap<Val, Integer> valuePointer;
 
 		/** The domain of this variable */
-		public ArrayList<Val> domain;
+		public Val[] domain;
 
 		/** The current threshold */
 		public U threshold;
 
-		/** For each value and child, its context */
-		public ArrayList<ArrayList<HashMap<String, Val>>> context;
+		/** For each value index and each child, the context of the child's last bounds */
+		public ChildContext<Val>[][] context;
 
 		/** For each variable, its current context */
 		public HashMap<String, Val> currentContext;
+		
+		/** For each variable that has appeared in a context, its slot in \a currentValues */
+		private HashMap<String, Integer> contextSlots;
+		
+		/** The values in \a currentContext, indexed by slot, with \c null for variables not in the current context */
+		private Val[] currentValues;
+		
+		/** The empty context */
+		private final ChildContext<Val> emptyContext;
 
 		/** This variables private log file */
 		public BufferedWriter logFile;
@@ -1166,37 +1204,34 @@ implements StatsReporterWithConvergence<Val> {
 		@SuppressWarnings("unchecked")
 		public VariableInfo(String variableID, Val[] domain, U zero) {
 			this.variableID = variableID;
-			LBperD = new ArrayList<U>();
-			UBperD = new ArrayList<U>();
-			this.domain = new ArrayList<Val>();
+			this.domain = domain;
 			this.zero = zero;
 			this.numberOfChildren = -1;
 
-			lb = new ArrayList<ArrayList<U>>(domain.length);
+			lb = (U[][]) new Addable[domain.length][];
 			lbSUM = (U[]) new Addable[domain.length];
-			ub = new ArrayList<ArrayList<U>>(domain.length);
+			ub = (U[][]) new Addable[domain.length][];
 			ubSUM = (U[]) new Addable[domain.length];
 			t = (U[][]) Array.newInstance(lbSUM.getClass(), domain.length);
-			context = new ArrayList<ArrayList<HashMap<String, Val>>>();
+			LBperD = (U[]) new Addable[domain.length];
+			UBperD = (U[]) new Addable[domain.length];
+			delta = (U[]) new Addable[domain.length];
+			context = new ChildContext[domain.length][];
 			currentContext = new HashMap<String, Val>();
-			delta = new ArrayList<U>();
+			contextSlots = new HashMap<String, Integer>();
+			currentValues = (Val[]) new Addable[4];
+			emptyContext = new ChildContext<Val>(new int[0], (Val[]) new Addable[0]);
 			valuePointer = new HashMap<Val, Integer>();
 			neighbours = new HashMap<String, Integer>();
 			hChild = new HashMap<String, U>();
 
-			int i = 0;
-			for (Val value : domain) {
-				valuePointer.put(value, i);
-				delta.add(zero);
-				this.domain.add(value);
-				context.add(new ArrayList<HashMap<String, Val>>());
-				lb.add(new ArrayList<U>());
-				LBperD.add(zero);
+			for (int i = 0; i < domain.length; i++) {
+				valuePointer.put(domain[i], i);
+				delta[i] = zero;
+				LBperD[i] = zero;
 				lbSUM[i] = zero;
-				ub.add(new ArrayList<U>());
-				UBperD.add(zero);
+				UBperD[i] = zero;
 				ubSUM[i] = zero;
-				i++;
 			}
 
 			currentAssignment = domain[0];
@@ -1223,6 +1258,88 @@ implements StatsReporterWithConvergence<Val> {
 			else 
 				this.space = this.space.join(space);
 		}
+		
+		/**
+		 * Returns the slot of a variable in \a currentValues, allocating one if needed
+		 * 
+		 * @param var 	the variable
+		 * @return the slot of the variable
+		 */
+		private int getSlot(String var) {
+			Integer slot = this.contextSlots.get(var);
+			if (slot == null) {
+				slot = this.contextSlots.size();
+				this.contextSlots.put(var, slot);
+				if (slot == this.currentValues.length) 
+					this.currentValues = Arrays.copyOf(this.currentValues, 2 * slot);
+			}
+			return slot;
+		}
+		
+		/**
+		 * Sets the value of a variable in the current context
+		 * 
+		 * @param var 	the variable
+		 * @param val 	its value
+		 * @return the previous value of the variable in the current context, or \c null if there was none
+		 */
+		public Val putContext(String var, Val val) {
+			this.currentValues[this.getSlot(var)] = val;
+			return this.currentContext.put(var, val);
+		}
+		
+		/**
+		 * Replaces the current context
+		 * 
+		 * @param newContext 	the new current context
+		 */
+		public void setContext(HashMap<String, Val> newContext) {
+			this.currentContext = newContext;
+			Arrays.fill(this.currentValues, null);
+			for (Map.Entry<String, Val> entry : newContext.entrySet()) 
+				if (! entry.getKey().equals(this.variableID)) 
+					this.currentValues[this.getSlot(entry.getKey())] = entry.getValue();
+		}
+		
+		/**
+		 * Encodes a context received from a child
+		 * 
+		 * This variable's own value is dropped, since it is never part of the current context. 
+		 * @param childContext 	the context
+		 * @return the context, with each variable replaced by its slot
+		 */
+		@SuppressWarnings("unchecked")
+		public ChildContext<Val> encode(HashMap<String, Val> childContext) {
+			int size = childContext.size() - (childContext.containsKey(this.variableID) ? 1 : 0);
+			int[] slots = new int [size];
+			Val[] values = (Val[]) new Addable [size];
+			int i = 0;
+			for (Map.Entry<String, Val> entry : childContext.entrySet()) {
+				String var = entry.getKey();
+				if (! var.equals(this.variableID)) {
+					slots[i] = this.getSlot(var);
+					values[i++] = entry.getValue();
+				}
+			}
+			return new ChildContext<Val>(slots, values);
+		}
+		
+		/**
+		 * Two contexts are compatible if they agree on the shared variables
+		 * 
+		 * @param childContext 	a context received from a child
+		 * @return \c true if the context is compatible with the current context, and \c false otherwise
+		 */
+		public boolean compatible(ChildContext<Val> childContext) {
+			final int[] slots = childContext.slots;
+			final Val[] values = childContext.values;
+			for (int i = 0; i < slots.length; i++) {
+				Val current = this.currentValues[slots[i]];
+				if (current != null && !current.equals(values[i])) 
+					return false;
+			}
+			return true;
+		}
 
 		/**
 		 * Given the current context, set the utilities for each value of this
@@ -1237,26 +1354,27 @@ implements StatsReporterWithConvergence<Val> {
 			U minUB = zero.getPlusInfinity();
 
 			/// @todo Use a sliced iterator instead? This might not be possible as the context can be incomplete. 
-			for (Val d : domain) {
+			for (int index = 0; index < domain.length; index++) {
+				Val d = domain[index];
 				this.currentContext.put(this.variableID, d);
 				U cost = (this.space == null ? this.zero : this.space.getUtility(this.currentContext));
-				int index = valuePointer.get(d);
 
-				delta.set(index, cost);
-				LBperD.set(index, lbSUM[index].add(cost));
-				if (LBperD.get(index).compareTo(minLB) < 0) {
-					minLB = LBperD.get(index);
+				delta[index] = cost;
+				U newLB = lbSUM[index].add(cost);
+				LBperD[index] = newLB;
+				if (newLB.compareTo(minLB) < 0) {
+					minLB = newLB;
 					lbD = d;
 				}
 
 				if (full_info) {
-					UBperD.set(index, ubSUM[index].add(cost));
+					UBperD[index] = ubSUM[index].add(cost);
 				} else {
-					UBperD.set(index, zero.getPlusInfinity());
+					UBperD[index] = zero.getPlusInfinity();
 				}
 
-				if (UBperD.get(index).compareTo(minUB) < 0) {
-					minUB = UBperD.get(index);
+				if (UBperD[index].compareTo(minUB) < 0) {
+					minUB = UBperD[index];
 					ubD = d;
 				}
 			}
@@ -1273,16 +1391,16 @@ implements StatsReporterWithConvergence<Val> {
 		public void setCurrentAssignmentSingleton() {
 			U min = zero.getPlusInfinity();
 			Val minD = null;
-			for (Map.Entry<Val, Integer> entry : valuePointer.entrySet()) {
-				U myDelta = delta.get(entry.getValue());
+			for (int index = 0; index < domain.length; index++) {
+				U myDelta = delta[index];
 				if (min.compareTo(myDelta) > 0) {
 					min = myDelta;
-					minD = entry.getKey();
+					minD = domain[index];
 				}
 			}
 
 			if (minD == null) {
-				currentAssignment = valuePointer.keySet().iterator().next();
+				currentAssignment = domain[0];
 			} else {
 				currentAssignment = minD;
 			}
@@ -1328,9 +1446,9 @@ implements StatsReporterWithConvergence<Val> {
 //				U minChildH = entry.getValue();
 				U minChildH = zero;
 				
-				for(int index = 0; index < valuePointer.size();) {
-					lb.get(index).set(childIndex, minChildH);
-					ub.get(index).set(childIndex, upperBound);
+				for(int index = 0; index < domain.length;) {
+					lb[index][childIndex] = minChildH;
+					ub[index][childIndex] = upperBound;
 					t[index][childIndex] = minChildH;
 					lbSUM[index] = lbSUM[index].add(minChildH);
 					ubSUM[index] = ubSUM[index].add(upperBound);
@@ -1338,18 +1456,20 @@ implements StatsReporterWithConvergence<Val> {
 				}
 			}
 			
-			for(Val d : domain) {
-				int index = valuePointer.get(d);
+			hPerD = (U[]) new Addable[domain.length];
+			for(int index = 0; index < domain.length; index++) {
+				Val d = domain[index];
 				Val[] variable_values = (Val[]) Array.newInstance(d.getClass(), 1);
 				variable_values[0] = d;
+				hPerD[index] = h.getUtility(variable_values);
 				
-				U currentDelta = delta.get(index);
-				U currentLB = currentDelta.add(lbSUM[index]).max(h.getUtility(variable_values));
-				LBperD.set(index, currentLB);
+				U currentDelta = delta[index];
+				U currentLB = currentDelta.add(lbSUM[index]).max(hPerD[index]);
+				LBperD[index] = currentLB;
 				if(numberOfChildren == 0) {
-					UBperD.set(index, zero.getPlusInfinity());	
+					UBperD[index] = zero.getPlusInfinity();	
 				} else {
-					UBperD.set(index, currentDelta.add(ubSUM[index]));
+					UBperD[index] = currentDelta.add(ubSUM[index]);
 				}
 				
 				if(LB.compareTo(currentLB) > 0) {
@@ -1358,8 +1478,8 @@ implements StatsReporterWithConvergence<Val> {
 				}
 				
 				// If we use >, then ubD remains null when upperBound = infinity!
-				if(UB.compareTo(UBperD.get(index)) >= 0) {
-					UB = UBperD.get(index);
+				if(UB.compareTo(UBperD[index]) >= 0) {
+					UB = UBperD[index];
 					ubD = d;
 				}
 			}
@@ -1370,118 +1490,112 @@ implements StatsReporterWithConvergence<Val> {
 		/**
 		 * Resets the bounds for a particular value / child combination
 		 * 
-		 * @param d   			the value
-		 * @param child 		the child
+		 * @param index   		the index of the value
+		 * @param child 		the index of the child
 		 * @param upperBound	the upper bound
 		 */
-		public void resetBounds(Val d, String child, U upperBound) {
-			int index = valuePointer.get(d);
+		public void resetBounds(int index, int child, U upperBound) {
 			
 			// reset the child bounds
-//			lb.get(index).set(neighbours.get(child), hChild.get(child));
-			lb.get(index).set(neighbours.get(child), zero);
-			ub.get(index).set(neighbours.get(child), upperBound);
+//			lb[index][child] = hChild.get(lowerNeighbours[child]);
+			lb[index][child] = zero;
+			ub[index][child] = upperBound;
 
 			// recalculate the global upper and lower bounds
-			computeLB(d);
-			computeUB(d);
+			computeLB(index);
+			computeUB(index);
 		}
 
 		/**
 		 * Updates the bounds
 		 * 
-		 * @param value	the value
+		 * @param index	the index of the value
 		 * @param child	the child
 		 * @param newUb	the new upper bound
 		 * @param newLb	the new lower bound
 		 */
-		public void updateBounds(Val value, int child, U newLb, U newUb) {
-			Integer index = valuePointer.get(value);
+		public void updateBounds(int index, int child, U newLb, U newUb) {
 
 			// set the new bounds
-			lb.get(index).set(child, newLb);
-			ub.get(index).set(child, newUb);
+			lb[index][child] = newLb;
+			ub[index][child] = newUb;
 
 			// recalculate the global upper and lower bounds
-			computeLB(value);
-			computeUB(value);
+			computeLB(index);
+			computeUB(index);
 		}
 
 		/**
-		 * Computes the sum of all child lower bounds for domain value "value"
+		 * Computes the sum of all child lower bounds for a domain value
 		 * 
-		 * @param value	the domain value
+		 * @param index	the index of the domain value
 		 */
-		@SuppressWarnings("unchecked")
-		public void computeLB(Val value) {
-			int index = valuePointer.get(value);
+		public void computeLB(int index) {
 			U lbSUMlocal = zero;
 
 			AddableDelayed<U> sum = lbSUMlocal.addDelayed();
-			for (U bound : lb.get(index)) {
+			for (U bound : lb[index]) {
 				sum.addDelayed(bound);
 			}
 			lbSUMlocal = sum.resolve();
 
 			lbSUM[index] = lbSUMlocal;
-			Val[] val = (Val[]) Array.newInstance(value.getClass(), 1);
-			val[0] = value;
-			
-			LBperD.set(index, lbSUMlocal.add(delta.get(index)).max(h.getUtility(val)));
-//			LBperD.set(index, lbSUMlocal.add(delta.get(index)));
+			U newLB = lbSUMlocal.add(delta[index]).max(hPerD[index]);
+			LBperD[index] = newLB;
+//			LBperD[index] = lbSUMlocal.add(delta[index]);
 
 			// update the overall lower bound for this variable
-			if (lbD.equals(value) && LB.compareTo(LBperD.get(index)) != 0) {
+			Val value = domain[index];
+			if (lbD.equals(value) && LB.compareTo(newLB) != 0) {
 				LB = zero.getPlusInfinity();
-				for (Map.Entry<Val, Integer> entry : valuePointer.entrySet()) {
-			
-					U LB2 = LBperD.get(entry.getValue());
+				for (int i = 0; i < domain.length; i++) {
+					U LB2 = LBperD[i];
 					if (LB.compareTo(LB2) > 0) {
 						LB = LB2;
-						lbD = entry.getKey();
+						lbD = domain[i];
 					}
 				}
-			} else if (LB.compareTo(LBperD.get(index)) > 0) {
-				LB = LBperD.get(index);
+			} else if (LB.compareTo(newLB) > 0) {
+				LB = newLB;
 				lbD = value;
 			}
 		}
 
 		/**
-		 * Computes the sum of all child upper bounds for domain value "value"
+		 * Computes the sum of all child upper bounds for a domain value
 		 * 
-		 * @param value	the domain value
+		 * @param index	the index of the domain value
 		 */
-		public void computeUB(Val value) {
-			int index = valuePointer.get(value);
+		public void computeUB(int index) {
 
 			U ubSUMlocal = zero;
 
 			AddableDelayed<U> sum = ubSUMlocal.addDelayed();
-			for (U bound : ub.get(index)) {
+			for (U bound : ub[index]) {
 				sum.addDelayed(bound);
 			}
 			ubSUMlocal = sum.resolve();
 
 			ubSUM[index] = ubSUMlocal;
 			if (full_info) {
-				UBperD.set(index, ubSUMlocal.add(delta.get(index)));
+				UBperD[index] = ubSUMlocal.add(delta[index]);
 			} else {
-				UBperD.set(index, zero.getPlusInfinity());
+				UBperD[index] = zero.getPlusInfinity();
 			}
 
 			// update the overall upper bound for this variable
-			if (ubD.equals(value) && UB.compareTo(UBperD.get(index)) != 0) {
+			Val value = domain[index];
+			if (ubD.equals(value) && UB.compareTo(UBperD[index]) != 0) {
 				UB = zero.getPlusInfinity();
-				for (Map.Entry<Val, Integer> entry : valuePointer.entrySet()) {
-					U UB2 = UBperD.get(entry.getValue());
+				for (int i = 0; i < domain.length; i++) {
+					U UB2 = UBperD[i];
 					if (UB.compareTo(UB2) > 0) {
 						UB = UB2;
-						ubD = entry.getKey();
+						ubD = domain[i];
 					}
 				}
-			} else if (UB.compareTo(UBperD.get(index)) > 0) {
-				UB = UBperD.get(index);
+			} else if (UB.compareTo(UBperD[index]) > 0) {
+				UB = UBperD[index];
 				ubD = value;
 			}
 		}
@@ -1489,22 +1603,22 @@ implements StatsReporterWithConvergence<Val> {
 		/**
 		 * Resets the threshold for a particular value / child combination
 		 * 
-		 * @param d   	the value
-		 * @param child the child
+		 * @param index	the index of the value
+		 * @param child the index of the child
 		 * @param zero	the zero utility
 		 */
-		public void resetChildThreshold(Val d, String child, U zero) {
-			t[valuePointer.get(d)][neighbours.get(child)] = zero;
+		public void resetChildThreshold(int index, int child, U zero) {
+			t[index][child] = zero;
 		}
 
 		/**
 		 * Resets the context for a particular value / child combination
 		 * 
-		 * @param d   the value
-		 * @param i   the index of the child
+		 * @param index	the index of the value
+		 * @param i   	the index of the child
 		 */
-		public void resetChildContext(Val d, int i) {
-			context.get(valuePointer.get(d)).set(i, new HashMap<String, Val>());
+		public void resetChildContext(int index, int i) {
+			context[index][i] = emptyContext;
 		}
 
 		/**
@@ -1545,18 +1659,21 @@ implements StatsReporterWithConvergence<Val> {
 			numberOfChildren = children.size();
 
 			// add the children
-			for (int index : valuePointer.values()) {
-				ArrayList<U> lbs = lb.get(index);
-				ArrayList<U> ubs = ub.get(index);
-				ArrayList< HashMap<String, Val> > contexts = context.get(index);
+			for (int index = 0; index < domain.length; index++) {
+				U[] lbs = (U[]) new Addable[numberOfChildren];
+				U[] ubs = (U[]) new Addable[numberOfChildren];
+				ChildContext<Val>[] contexts = new ChildContext[numberOfChildren];
 				U[] thresholds = (U[]) Array.newInstance(zero.getClass(), numberOfChildren);
+				lb[index] = lbs;
+				ub[index] = ubs;
+				context[index] = contexts;
 				t[index] = thresholds;
 				for (int i = 0; i < numberOfChildren; i++) {
-					lbs.add(zero);
-					ubs.add(zero.getPlusInfinity());
+					lbs[i] = zero;
+					ubs[i] = zero.getPlusInfinity();
 					lowerNeighbours[i] = children.get(i);
 					neighbours.put(children.get(i), i);
-					contexts.add(i, new HashMap<String, Val>());
+					contexts[i] = emptyContext;
 					thresholds[i] = zero;
 				}
 			}
@@ -1585,7 +1702,7 @@ implements StatsReporterWithConvergence<Val> {
 		 *         itself to
 		 */
 		public U getCurrentDelta() {
-			return delta.get(valuePointer.get(currentAssignment));
+			return delta[valuePointer.get(currentAssignment)];
 		}
 
 		/**
@@ -1617,12 +1734,12 @@ implements StatsReporterWithConvergence<Val> {
 		 */
 		public boolean checkUpperBounds() {
 
-			for (int index : valuePointer.values()) {
+			for (int index = 0; index < domain.length; index++) {
 				U sum = zero;
 				boolean infinity = false;
 
 				// calculate the sum of the children-reported upper bounds
-				for (U bound : ub.get(index)) {
+				for (U bound : ub[index]) {
 					if (bound.equals(zero.getPlusInfinity())) {
 						infinity = true;
 					}
@@ -1630,12 +1747,12 @@ implements StatsReporterWithConvergence<Val> {
 				}
 
 				// add the value of the agent
-				sum = sum.add(delta.get(index));
+				sum = sum.add(delta[index]);
 
-				if (ub.get(index).size() == 0 || sum.equals(UBperD.get(index)))
+				if (numberOfChildren == 0 || sum.equals(UBperD[index]))
 					return true;
-				if (ub.get(index).size() == 0 || infinity
-						|| !UBperD.get(index).equals(zero.getPlusInfinity()))
+				if (numberOfChildren == 0 || infinity
+						|| !UBperD[index].equals(zero.getPlusInfinity()))
 					return true;
 			}
 			return false;
@@ -1654,18 +1771,19 @@ implements StatsReporterWithConvergence<Val> {
 
 			state += "\nCurrent assignment: " + currentAssignment + "\n";
 			state += "\nCurrent context: " + currentContext.toString() + "\n";
-			state += "\nCurrent delta: " + delta + "\n";
+			state += "\nCurrent delta: " + Arrays.toString(delta) + "\n";
 			state += "\nCurrent LB:\t\t\t" + LB + "\n";
 			state += "\nLBd is \t\t\t" + lbD + "\n";
 			state += "\nCurrent UB:\t\t\t " + UB + "\n";
 			state += "\nUBd is \t\t\t" + ubD + "\n";
 			state += "\nCurrent threshold:\t\t " + threshold + "\n";
-			state += "\nlb(x,d) = " + lb.toString() + "\n";
-			state += "\nLB(d) = " + LBperD.toString() + "\n";
-			state += "\nub(x,d) = " + ub.toString() + "\n";
-			state += "\nUB(d) = " + UBperD.toString() + "\n";
-			state += "\nt(x,d) = " + t.toString() + "\n";
-			state += "\ncontext(x,d) = " + context.toString() + "\n";
+			state += "\nlb(x,d) = " + Arrays.deepToString(lb) + "\n";
+			state += "\nLB(d) = " + Arrays.toString(LBperD) + "\n";
+			state += "\nub(x,d) = " + Arrays.deepToString(ub) + "\n";
+			state += "\nUB(d) = " + Arrays.toString(UBperD) + "\n";
+			state += "\nt(x,d) = " + Arrays.deepToString(t) + "\n";
+			state += "\ncontext slots = " + contextSlots + "\n";
+			state += "\ncontext(x,d) = " + Arrays.deepToString(context) + "\n";
 
 			state += "-------------------------------\n";
 
@@ -225,6 +225,9 @@ implements StatsReporterWithConvergence<Val> {
 	/** \c true when statistics should be collected in the tree, and \c false otherwise */
 	private boolean collectStats;
 	
+	/** Whether the goods received from children should be stored in CompactGoodsMaps */
+	private boolean compactGoods;
+	
 	
 	/** Constructor for the stats gatherer mode
 	 * @param parameters 	the parameters of the module
@@ -248,6 +251,7 @@ implements StatsReporterWithConvergence<Val> {
 		this.convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
 		this.reportStats = Boolean.parseBoolean(parameters.getAttributeValue("reportStats"));
 		this.collectStats = Boolean.parseBoolean(parameters.getAttributeValue("collectStats"));
+		this.compactGoods = Boolean.parseBoolean(parameters.getAttributeValue("compactGoods"));
 		
 		setCombinationMethod(parameters.getAttributeValue("combination"));
 	}
@@ -684,10 +688,13 @@ implements StatsReporterWithConvergence<Val> {
 			int usedSpaceSize = usedSpaces.size();
 			
 			if(numberOfChildren != 0) {
+				InnerNodeTree<Val, U> tree = new InnerNodeTree<Val, U>(var, ownVariableDomain, usedSpaces, children.size(), problem.getZeroUtility(), infeasibleUtil, maximize, collectStats);
+				if(this.compactGoods)
+					tree.useCompactGoods();
 				if(! root)
-					variable = new VariableInfo(root, var, parent, children.toArray(new String[0]), pseudoChildren.toArray(new String[0]), pseudoParents, pseudoParents.size(), new InnerNodeTree<Val, U>(var, ownVariableDomain, usedSpaces, children.size(), problem.getZeroUtility(), infeasibleUtil, maximize, collectStats));
+					variable = new VariableInfo(root, var, parent, children.toArray(new String[0]), pseudoChildren.toArray(new String[0]), pseudoParents, pseudoParents.size(), tree);
 				else
-					variable = new VariableInfo(root, var, null, children.toArray(new String[0]), pseudoChildren.toArray(new String[0]), pseudoParents, pseudoParents.size(), new InnerNodeTree<Val, U>(var, ownVariableDomain, usedSpaces, children.size(), problem.getZeroUtility(), infeasibleUtil, maximize, collectStats));
+					variable = new VariableInfo(root, var, null, children.toArray(new String[0]), pseudoChildren.toArray(new String[0]), pseudoParents, pseudoParents.size(), tree);
 			} else {
 				if(! root)
 					variable = new VariableInfo(root, var, parent, children.toArray(new String[0]), pseudoChildren.toArray(new String[0]), pseudoParents, pseudoParents.size(), new LeafNodeTree<Val, U, LeafNode<U>>(var, ownVariableDomain, usedSpaces, problem.getZeroUtility(), infeasibleUtil, maximize, collectStats));
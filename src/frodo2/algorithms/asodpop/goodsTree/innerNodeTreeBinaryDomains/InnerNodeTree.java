@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import frodo2.algorithms.odpop.goodsTree.InnerNodeTreeFullDomain.InnerNode;
@@ -217,8 +218,8 @@ extends frodo2.algorithms.odpop.goodsTree.InnerNodeTreeBinaryDomains.InnerNodeTr
 				IntArrayWrapper key = ((IntArrayWrapper)toKey(aValues, aVariables, sender)).getPartialAssignment(this.childrenVariables[sender], this.separatorSizePerChild[sender]);
 
 				if(updateInfo) {
-					HashMap<IntArrayWrapper, U> received = goodsReceived.get(sender);
-					HashMap<IntArrayWrapper, U> newReceived = new HashMap<IntArrayWrapper, U>(received.size());
+					Map<IntArrayWrapper, U> received = goodsReceived.get(sender);
+					Map<IntArrayWrapper, U> newReceived = this.<IntArrayWrapper>newGoodsMap(received.size());
 					HashMap<IntArrayWrapper, Boolean> confirmed = goodsConfirmed.get(sender);
 					Iterator<Entry<IntArrayWrapper, U>> it = received.entrySet().iterator();
 					int size = additionalVariables.size();
@@ -830,7 +831,7 @@ extends frodo2.algorithms.odpop.goodsTree.InnerNodeTreeBinaryDomains.InnerNodeTr
 			childrenVariablesReportingOrder = new String[numberOfChildren][];
 			ownVariables = new boolean [numberOfVariables];
 			goodsConfirmed = new ArrayList<HashMap<IntArrayWrapper, Boolean>>(numberOfChildren);
-			goodsReceived = new ArrayList<HashMap<IntArrayWrapper, U>>(numberOfChildren);
+			goodsReceived = new ArrayList<Map<IntArrayWrapper, U>>(numberOfChildren);
 			upperBounds = (U[])Array.newInstance(zero.getClass(), numberOfChildren);
 			separatorSizePerChild = new int[numberOfChildren];
 			optimalLocalSolution = (Val[])new Addable[numberOfVariables];
@@ -864,7 +865,7 @@ extends frodo2.algorithms.odpop.goodsTree.InnerNodeTreeBinaryDomains.InnerNodeTr
   			
 			for(int i = 0; i < numberOfChildren; i++) {
 				goodsConfirmed.add(new HashMap<IntArrayWrapper, Boolean>());
-				goodsReceived.add(new HashMap<IntArrayWrapper, U>());
+				goodsReceived.add(this.<IntArrayWrapper>newGoodsMap(16));
 				childrenVariablesReportingOrder[i] = new String[1];
 				childrenVariablesReportingOrder[i][0] = this.ownVariable;
 				separatorSizePerChild[i] = 0;
@@ -45,6 +45,7 @@ import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.Problem;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.asodpop.ASODPOP;
 import frodo2.algorithms.dpop.DPOPsolver;
 import frodo2.algorithms.reformulation.ProblemRescaler;
 import frodo2.algorithms.test.AllTests;
@@ -146,6 +147,9 @@ public class ASODPOPagentTest < V extends Addable<V>, U extends Addable<U> > ext
 	/** Whether to use XCSP */
 	private boolean useXCSP;
 	
+	/** Whether the goods received from children should be stored in CompactGoodsMaps */
+	private boolean compactGoods;
+	
 	/** Creates a JUnit test case corresponding to the input method
 	 * @param string 			name of the method
 	 * @param useXCSP 			whether to use XCSP
@@ -167,6 +171,22 @@ public class ASODPOPagentTest < V extends Addable<V>, U extends Addable<U> > ext
 		this.sign = sign;
 	}
 
+	/** Creates a JUnit test case corresponding to the input method
+	 * @param string 			name of the method
+	 * @param useXCSP 			whether to use XCSP
+	 * @param useCentralMailer 	\c true when the central mailer should be used and tested
+	 * @param useDelay 			\c true when the algorithm should be tested with the use of delay
+	 * @param domClass 			The type used for variable values
+	 * @param utilClass 		the type used for utility values
+	 * @param maximize 			Maximize of minimize
+	 * @param sign 				The sign of costs/utilities
+	 * @param compactGoods 		whether the goods received from children should be stored in CompactGoodsMaps
+	 */
+	public ASODPOPagentTest(String string, boolean useXCSP, boolean useCentralMailer, boolean useDelay, Class<V> domClass, Class<U> utilClass, boolean maximize, int sign, boolean compactGoods) {
+		this (string, useXCSP, useCentralMailer, useDelay, domClass, utilClass, maximize, sign);
+		this.compactGoods = compactGoods;
+	}
+
 	/** @return the test suite */
 	public static TestSuite suite () {
 		TestSuite suite = new TestSuite ("Random tests for ASODPOPagent");
@@ -175,6 +195,10 @@ public class ASODPOPagentTest < V extends Addable<V>, U extends Addable<U> > ext
 		tmp.addTest(new RepeatedTest (new ASODPOPagentTest<AddableInteger, AddableInteger> ("testRandomSharedMemory", true, false, false, AddableInteger.class, AddableInteger.class, true, +1), 500));
 		suite.addTest(tmp);
 		
+		tmp = new TestSuite ("Tests using QueueIOPipes with integer utilities and compact goods maps");
+		tmp.addTest(new RepeatedTest (new ASODPOPagentTest<AddableInteger, AddableInteger> ("testRandomSharedMemory", true, false, false, AddableInteger.class, AddableInteger.class, true, +1, true), 500));
+		suite.addTest(tmp);
+		
 		tmp = new TestSuite ("Tests using QueueIOPipes with integer utilities and without XCSP");
 		tmp.addTest(new RepeatedTest (new ASODPOPagentTest<AddableInteger, AddableInteger> ("testRandomSharedMemory", false, false, false, AddableInteger.class, AddableInteger.class, true, +1), 500));
 		suite.addTest(tmp);
@@ -239,6 +263,11 @@ public class ASODPOPagentTest < V extends Addable<V>, U extends Addable<U> > ext
 		pipes = new HashMap<Object, QueueOutputPipeInterface> ();
 		
 		agentDesc = XCSPparser.parse("src/frodo2/algorithms/asodpop/ASODPOPagent.xml", false);
+		if (this.compactGoods) {
+			for (Element module : (List<Element>) this.agentDesc.getRootElement().getChild("modules").getChildren()) 
+				if (module.getAttributeValue("className").equals(ASODPOP.class.getName())) 
+					module.setAttribute("compactGoods", "true");
+		}
 		
 		// Fix the ProblemRescaler's shift if the problem is not a minimization problem with non-negative costs
 		if (this.maximize || this.sign <= 0) {
@@ -0,0 +1,274 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.dpop.restart;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.AgentInterface;
+import frodo2.algorithms.AgentInterface.ProblemChangeMessage;
+import frodo2.algorithms.dpop.UTILmsg;
+import frodo2.algorithms.dpop.UTILpropagation;
+import frodo2.algorithms.varOrdering.dfs.DFSgeneration;
+import frodo2.algorithms.varOrdering.dfs.DFSgeneration.DFSview;
+import frodo2.communication.Message;
+import frodo2.communication.MessageType;
+import frodo2.communication.MessageWith2Payloads;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.ProblemChange;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** A UTIL propagation module that repairs the UTIL messages of the previous run after an incremental change to the problem
+ *
+ * Each variable remembers the UTIL messages it received from its children, and the optimal conditional assignments it computed,
+ * during the previous run. When the problem is modified by AgentFactory#update(ProblemChange), only the variables involved in the change
+ * and their ancestors in the pseudo-tree recompute their UTIL messages; all other variables tell their parents to reuse the UTIL messages
+ * received during the previous run, without performing any join or projection. A variable whose position in the pseudo-tree has changed
+ * since the previous run always recomputes its UTIL message.
+ * @author Thomas Leaute
+ * @param <Val> the type used for variable values
+ * @param <U> 	the type used for utility values
+ * @warning The information kept from the previous run is only discarded upon a non-incremental ProblemChange;
+ * problems modified by any other means than AgentFactory#update(ProblemChange) must be solved by new agents.
+ */
+public class UTILrepair < Val extends Addable<Val>, U extends Addable<U> > extends UTILpropagation<Val, U> {
+
+	/** The type of the messages telling a parent variable to reuse the UTIL message it received during the previous run */
+	public static final MessageType REPAIR_MSG_TYPE = new MessageType ("DPOP", "UTILrepair", "Reuse");
+
+	/** A message telling a parent variable to reuse the UTIL message it received from a child during the previous run
+	 * @author Thomas Leaute
+	 */
+	public static class RepairMsg extends MessageWith2Payloads<String, String> {
+
+		/** Empty constructor used for externalization */
+		public RepairMsg () { }
+
+		/** Constructor
+		 * @param sender 		the sender variable
+		 * @param destination 	the destination variable
+		 */
+		public RepairMsg (String sender, String destination) {
+			super (REPAIR_MSG_TYPE, sender, destination);
+		}
+
+		/** @return the sender variable */
+		public String getSender () {
+			return this.getPayload1();
+		}
+
+		/** @return the destination variable */
+		public String getDestination () {
+			return this.getPayload2();
+		}
+	}
+
+	/** For each cluster, its DFS view during the current run */
+	private HashMap< String, DFSview<Val, U> > views = new HashMap< String, DFSview<Val, U> > ();
+
+	/** For each cluster, its DFS view during the previous run */
+	private HashMap< String, DFSview<Val, U> > prevViews = new HashMap< String, DFSview<Val, U> > ();
+
+	/** For each variable, the latest UTIL message received from each of its children */
+	private HashMap< String, HashMap< String, UTILmsg<Val, U> > > prevUTILs = new HashMap< String, HashMap< String, UTILmsg<Val, U> > > ();
+
+	/** For each cluster, the latest optimal conditional assignments sent to the VALUE propagation protocol */
+	private HashMap< String, SolutionMessage<Val> > prevSolutions = new HashMap< String, SolutionMessage<Val> > ();
+
+	/** For each root cluster, the latest optimal utility */
+	private HashMap< String, UtilitySolutionSpace<Val, U> > prevOutputs = new HashMap< String, UtilitySolutionSpace<Val, U> > ();
+
+	/** The variables involved in a change to the problem since the previous run */
+	private HashSet<String> changedVars = new HashSet<String> ();
+
+	/** The variables that have received a recomputed UTIL message during the current run */
+	private HashSet<String> freshVars = new HashSet<String> ();
+
+	/** Constructor from XML descriptions
+	 * @param problem 		description of the problem
+	 * @param parameters 	description of the parameters of UTILpropagation
+	 */
+	public UTILrepair (DCOPProblemInterface<Val, U> problem, Element parameters) {
+		super (problem, parameters);
+	}
+
+	/** The constructor called in "statistics gatherer" mode
+	 * @param parameters 	the description of what statistics should be reported (currently unused)
+	 * @param problem 		the overall problem
+	 */
+	public UTILrepair (Element parameters, DCOPProblemInterface<Val, U> problem) {
+		super (parameters, problem);
+	}
+
+	/** @see UTILpropagation#reset() */
+	@Override
+	public void reset () {
+		super.reset();
+
+		if (! this.views.isEmpty()) {
+			this.prevViews = this.views;
+			this.views = new HashMap< String, DFSview<Val, U> > ();
+		}
+		this.changedVars.clear();
+		this.freshVars.clear();
+	}
+
+	/** Discards all information kept from the previous run */
+	private void forget () {
+		this.prevViews.clear();
+		this.prevUTILs.clear();
+		this.prevSolutions.clear();
+		this.prevOutputs.clear();
+	}
+
+	/** @see UTILpropagation#getMsgTypes() */
+	@Override
+	public Collection<MessageType> getMsgTypes() {
+		Collection<MessageType> types = super.getMsgTypes();
+		types.add(REPAIR_MSG_TYPE);
+		types.add(OUTPUT_MSG_TYPE);
+		types.add(AgentInterface.PROBLEM_CHANGE);
+		return types;
+	}
+
+	/** @see UTILpropagation#notifyIn(Message) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void notifyIn(Message msg) {
+
+		MessageType type = msg.getType();
+
+		if (type.equals(AgentInterface.PROBLEM_CHANGE)) {
+
+			ProblemChange<Val, U> change = ((ProblemChangeMessage<Val, U>) msg).getChange();
+			if (change.isIncremental())
+				this.changedVars.addAll(change.getChangedVars());
+			else
+				this.forget();
+			return;
+		}
+
+		else if (type.equals(OUTPUT_MSG_TYPE)) { // optimal conditional assignments sent to VALUEpropagation
+			SolutionMessage<Val> msgCast = (SolutionMessage<Val>) msg;
+			this.prevSolutions.put(msgCast.getClusterID(), msgCast);
+			return;
+		}
+
+		else if (type.equals(REPAIR_MSG_TYPE)) { // replay the UTIL message received during the previous run
+			RepairMsg msgCast = (RepairMsg) msg;
+			HashMap< String, UTILmsg<Val, U> > utils = this.prevUTILs.get(msgCast.getDestination());
+			UTILmsg<Val, U> prevMsg = (utils == null ? null : utils.get(msgCast.getSender()));
+			assert prevMsg != null : "No UTIL message to reuse from " + msgCast.getSender() + " to " + msgCast.getDestination();
+			super.notifyIn(prevMsg);
+			return;
+		}
+
+		else if (type.equals(UTIL_MSG_TYPE)) { // a recomputed UTIL message
+			UTILmsg<Val, U> msgCast = (UTILmsg<Val, U>) msg;
+			String dest = msgCast.getDestination();
+			this.freshVars.add(dest);
+
+			HashMap< String, UTILmsg<Val, U> > utils = this.prevUTILs.get(dest);
+			if (utils == null) {
+				utils = new HashMap< String, UTILmsg<Val, U> > ();
+				this.prevUTILs.put(dest, utils);
+			}
+			utils.put(msgCast.getSender(), msgCast);
+		}
+
+		else if (type.equals(this.getDFSMsgType())) {
+			DFSgeneration.MessageDFSoutput<Val, U> msgCast = (DFSgeneration.MessageDFSoutput<Val, U>) msg;
+			DFSview<Val, U> view = msgCast.getNeighbors();
+			if (view != null)
+				this.views.put(view.getID(), view);
+		}
+
+		super.notifyIn(msg);
+	}
+
+	/** Records the space without joining it, so that no join is performed if the previous UTIL message can be reused
+	 * @see UTILpropagation#record(String, UtilitySolutionSpace, UTILpropagation.ClusterInfo)
+	 */
+	@Override
+	protected void record(String senderVar, UtilitySolutionSpace<Val, U> space, ClusterInfo info) {
+		info.spaces.add(space);
+	}
+
+	/** @see UTILpropagation#projectAndSend(UTILpropagation.ClusterInfo) */
+	@Override
+	protected void projectAndSend(ClusterInfo info) {
+
+		if (! this.canReuse(info)) {
+			super.projectAndSend(info);
+			return;
+		}
+
+		info.spaces = null;
+
+		// Tell the parent to reuse the previous UTIL message, or re-send the previous output
+		if (info.parentAgent != null) {
+			queue.sendMessage(info.parentAgent, new RepairMsg (info.id, info.parent));
+			this.infos.remove(info.id);
+		} else
+			this.sendOutput(this.prevOutputs.get(info.id), info.id);
+
+		queue.sendMessageToSelf(this.prevSolutions.get(info.id));
+	}
+
+	/** @see UTILpropagation#sendOutput(UtilitySolutionSpace, java.lang.String) */
+	@Override
+	protected void sendOutput(UtilitySolutionSpace<Val, U> space, String root) {
+		this.prevOutputs.put(root, space);
+		super.sendOutput(space, root);
+	}
+
+	/** Checks whether the results of the previous run can be reused for the input cluster
+	 * @param info 	the cluster
+	 * @return \c true if neither the cluster's subtree nor its position in the pseudo-tree have changed since the previous run
+	 */
+	private boolean canReuse (ClusterInfo info) {
+
+		if (this.freshVars.contains(info.id) || ! this.prevSolutions.containsKey(info.id))
+			return false;
+		if (info.parentAgent == null && ! this.prevOutputs.containsKey(info.id))
+			return false;
+
+		for (String var : info.vars)
+			if (this.changedVars.contains(var))
+				return false;
+
+		DFSview<Val, U> view = this.views.get(info.id);
+		DFSview<Val, U> prevView = this.prevViews.get(info.id);
+		if (view == null || prevView == null)
+			return false;
+
+		return (view.getParent() == null ? prevView.getParent() == null : view.getParent().equals(prevView.getParent()))
+				&& new HashSet<String> (view.getChildren()).equals(new HashSet<String> (prevView.getChildren()))
+				&& new HashSet<String> (view.getPseudoParents()).equals(new HashSet<String> (prevView.getPseudoParents()))
+				&& new HashSet<String> (view.getAllPseudoChildren()).equals(new HashSet<String> (prevView.getAllPseudoChildren()));
+	}
+}
@@ -35,6 +35,7 @@ public class AllTestsS_DPOP {
 		TestSuite suite = new TestSuite("All tests in frodo2.algorithms.dpop.restart.test");
 		//$JUnit-BEGIN$
 		suite.addTest(TestSDPOP.suite());
+		suite.addTest(TestDPOPrepair.suite());
 		//$JUnit-END$
 		return suite;
 	}
@@ -0,0 +1,174 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.dpop.restart.test;
+
+import java.util.List;
+import java.util.Random;
+
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.jdom2.Document;
+
+import frodo2.algorithms.AgentFactory;
+import frodo2.algorithms.Solution;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.dpop.DPOPsolver;
+import frodo2.algorithms.dpop.UTILpropagation;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableInteger;
+import frodo2.solutionSpaces.ProblemChange;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** JUnit tests for the repair of UTIL messages after incremental changes to the problem
+ * @author Thomas Leaute
+ */
+public class TestDPOPrepair extends TestCase {
+
+	/** Maximum number of variables */
+	public static int maxNbrVars = 10;
+
+	/** Maximum number of edges in the primal constraint graph */
+	public static int maxNbrEdges = 40;
+
+	/** Maximum number of agents */
+	public static int maxNbrAgents = 10;
+
+	/** The agent using UTILrepair */
+	private Document repairAgent;
+
+	/** The DPOP agent */
+	private Document DPOPagent;
+
+	/** The problem */
+	private Document problem;
+
+	/** Constructor
+	 * @param method 	the name of the test method
+	 */
+	public TestDPOPrepair(String method) {
+		super(method);
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	protected void setUp () throws Exception {
+		this.repairAgent = XCSPparser.parse(AgentFactory.class.getResourceAsStream("/frodo2/algorithms/dpop/restart/DPOPrepairAgent.xml"), false);
+		this.DPOPagent = XCSPparser.parse(AgentFactory.class.getResourceAsStream("/frodo2/algorithms/dpop/DPOPagent.xml"), false);
+		this.problem = AllTests.createRandProblem(maxNbrVars, maxNbrEdges, maxNbrAgents, true);
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	protected void tearDown () {
+		this.repairAgent = null;
+		this.DPOPagent = null;
+		this.problem = null;
+	}
+
+	/** Tests the repair after the utilities of some constraints have been modified */
+	public void testUpdateConstraints () {
+
+		ProblemChange<AddableInteger, AddableInteger> change = new ProblemChange<AddableInteger, AddableInteger> ();
+		Random rand = new Random ();
+		for (UtilitySolutionSpace<AddableInteger, AddableInteger> space : new XCSPparser<AddableInteger, AddableInteger> (this.problem).getSolutionSpaces()) {
+			if (rand.nextBoolean())
+				continue;
+
+			UtilitySolutionSpace<AddableInteger, AddableInteger> newSpace = space.clone();
+			newSpace.setName(space.getName());
+			for (long i = newSpace.getNumberOfSolutions() - 1; i >= 0; i--)
+				newSpace.setUtility(i, new AddableInteger (rand.nextInt(100)));
+			change.updateConstraint(newSpace);
+		}
+
+		this.checkUpdate(change, false);
+		assertTrue (change.isIncremental());
+	}
+
+	/** Tests that no UTIL message is sent when the change is empty */
+	public void testEmptyChange () {
+
+		ProblemChange<AddableInteger, AddableInteger> change = new ProblemChange<AddableInteger, AddableInteger> ();
+		Solution<AddableInteger, AddableInteger> sol = this.checkUpdate(change, true);
+		assertTrue (change.isIncremental());
+		assertNull (sol.getMsgNbrs().get(UTILpropagation.UTIL_MSG_TYPE));
+	}
+
+	/** Tests the fallback to a full restart when the change modifies the constraint graph */
+	public void testRemoveConstraints () {
+
+		ProblemChange<AddableInteger, AddableInteger> change = new ProblemChange<AddableInteger, AddableInteger> ();
+		List< ? extends UtilitySolutionSpace<AddableInteger, AddableInteger> > spaces = new XCSPparser<AddableInteger, AddableInteger> (this.problem).getSolutionSpaces();
+		if (spaces.isEmpty())
+			return;
+		change.removeConstraint(spaces.get(new Random ().nextInt(spaces.size())).getName());
+
+		this.checkUpdate(change, false);
+	}
+
+	/** Solves the problem, applies the change, and checks that the repaired solution is the same as the one found by DPOP from scratch
+	 * @param change 		the change
+	 * @param measureMsgs 	whether to measure messages during the repair
+	 * @return the repaired solution
+	 */
+	private Solution<AddableInteger, AddableInteger> checkUpdate (ProblemChange<AddableInteger, AddableInteger> change, boolean measureMsgs) {
+
+		this.repairAgent.getRootElement().setAttribute("measureMsgs", Boolean.toString(measureMsgs));
+		DPOPsolver<AddableInteger, AddableInteger> repairSolver = new DPOPsolver<AddableInteger, AddableInteger> (this.repairAgent);
+		Solution<AddableInteger, AddableInteger> sol = repairSolver.solve((Document) this.problem.clone(), false, null);
+		assertNotNull ("Timed out", sol);
+		assertEquals (new DPOPsolver<AddableInteger, AddableInteger> (this.DPOPagent).solve(this.problem).getUtility(), sol.getUtility());
+
+		sol = repairSolver.update(change, true);
+		assertNotNull ("Timed out", sol);
+
+		// Solve the modified problem from scratch
+		XCSPparser<AddableInteger, AddableInteger> newProblem = new XCSPparser<AddableInteger, AddableInteger> (this.problem);
+		change.applyTo(newProblem);
+		Solution<AddableInteger, AddableInteger> expected = new DPOPsolver<AddableInteger, AddableInteger> (this.DPOPagent).solve(newProblem);
+
+		assertEquals (expected.getUtility(), sol.getUtility());
+		assertEquals (sol.getUtility(), sol.getReportedUtil());
+
+		return sol;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the repair of UTIL messages after incremental changes");
+
+		TestSuite tmp = new TestSuite ("Correctness after modifying constraints");
+		tmp.addTest(new RepeatedTest (new TestDPOPrepair ("testUpdateConstraints"), 200));
+		suite.addTest(tmp);
+
+		tmp = new TestSuite ("No UTIL message sent after an empty change");
+		tmp.addTest(new RepeatedTest (new TestDPOPrepair ("testEmptyChange"), 100));
+		suite.addTest(tmp);
+
+		tmp = new TestSuite ("Correctness after removing a constraint");
+		tmp.addTest(new RepeatedTest (new TestDPOPrepair ("testRemoveConstraints"), 100));
+		suite.addTest(tmp);
+
+		return suite;
+	}
+}
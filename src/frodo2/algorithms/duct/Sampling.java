@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.jdom2.Element;
 
@@ -499,6 +500,9 @@ public class Sampling <V extends Addable<V>> implements StatsReporter {
 		/** The number of children of this variable */
 		protected int nbrChildren;
 		
+		/** The random number stream of the variable */
+		protected final SplittableRandom randomStream;
+		
 		/** The maximal number of nodes below any node of this variable */
 		protected long size;
 		
@@ -577,6 +581,7 @@ public class Sampling <V extends Addable<V>> implements StatsReporter {
 			this.variableID = variableID;
 			this.domain = domain;
 			this.domainSize = domain.length;
+			this.randomStream = problem.getRandomStreams().forVariable(variableID);
 			this.parent = parent;
 			this.parentFinished = parent == null;
 			this.children = children;
@@ -754,7 +759,7 @@ public class Sampling <V extends Addable<V>> implements StatsReporter {
 				node = distributions.get(new State<V>(context));
 				if(node == null) {
 					SearchNode<V> d = createNode(domainSize, maximize, IGNORE_INF);
-					d.initSampling(space, infeasibleUtility, contextVariables, context, domain);
+					d.initSampling(space, infeasibleUtility, contextVariables, context, domain, randomStream);
 					node = d;
 					distributions.put(new State<V>(context.clone()), d);
 				}
@@ -285,7 +285,7 @@ public class SamplingPruning <V extends Addable<V>> extends Sampling <V> {
 				node = distributions.get(new State<V>(context));
 				if(node == null) {
 					SearchNode<V> d = createNode(domainSize, maximize, IGNORE_INF);
-					d.initSampling(space, infeasibleUtility, contextVariables, context, domain);
+					d.initSampling(space, infeasibleUtility, contextVariables, context, domain, randomStream);
 					node = d;
 					distributions.put(new State<V>(context.clone()), d);
 				}
@@ -24,6 +24,7 @@ package frodo2.algorithms.duct;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.SplittableRandom;
 
 import frodo2.algorithms.duct.bound.Bound;
 import frodo2.solutionSpaces.Addable;
@@ -98,6 +99,9 @@ public class SearchNode <V extends Addable<V>> {
 	/** Last value visited */
 	protected int lastVisited;
 	
+	/** The random number stream of the variable, used to sample values */
+	public SplittableRandom randomStream;
+	
 	
 	/**
 	 * Constructor
@@ -134,8 +138,11 @@ public class SearchNode <V extends Addable<V>> {
 	 * @param contextVariables		the context variables
 	 * @param context				the context
 	 * @param domain				the variable domain
+	 * @param randomStream			the random number stream of the variable
 	 */
-	public void initSampling(UtilitySolutionSpace<V, AddableReal> space, AddableReal infeasibleUtility, String[] contextVariables, V[] context, V[] domain) {
+	public void initSampling(UtilitySolutionSpace<V, AddableReal> space, AddableReal infeasibleUtility, String[] contextVariables, V[] context, V[] domain, SplittableRandom randomStream) {
+		this.randomStream = randomStream;
+		
 		// find the first feasible local solution
 		lastVisited = this.getRandomUnknowLocal(space, infeasibleUtility, contextVariables, context, domain);
 		
@@ -329,7 +336,7 @@ public class SearchNode <V extends Addable<V>> {
 	 * @return an index of an unsampled, feasible solution, or -1 if no such value exists
 	 */
 	public int getRandomUnknowLocal(UtilitySolutionSpace<V, AddableReal> space, AddableReal infeasibleUtility, String[] contextVariables, V[] context, V[] domain) {
-		int sample = (int)(Math.random()*this.unknowLocalSolutions.size());
+		int sample = (int)(randomStream.nextDouble()*this.unknowLocalSolutions.size());
 		int value = unknowLocalSolutions.get(sample);
 		context[context.length - 1] = domain[value];
 		AddableReal cost = space == null ? new AddableReal(0) : space.getUtility(contextVariables, context);
@@ -342,7 +349,7 @@ public class SearchNode <V extends Addable<V>> {
 				this.nbrFeasibleLocalSolutions--;
 				if(this.unknowLocalSolutions.size() == 0)
 					break;
-				sample = (int)(Math.random()*this.unknowLocalSolutions.size());
+				sample = (int)(randomStream.nextDouble()*this.unknowLocalSolutions.size());
 				value = unknowLocalSolutions.get(sample);
 				context[context.length - 1] = domain[value];
 				cost = space == null ? new AddableReal(0) : space.getUtility(contextVariables, context);
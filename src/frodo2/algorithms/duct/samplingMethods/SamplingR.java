@@ -39,7 +39,7 @@ public class SamplingR <V extends Addable<V>> extends SamplingProcedure<V> {
 	 */
 	@Override
 	public void processSample(SearchNode<V> dist, AddableReal infeasibleUtility, boolean maximize) {
-		int sample = (int)(Math.random()* dist.nbrFeasibleLocalSolutions);
+		int sample = (int)(dist.randomStream.nextDouble()* dist.nbrFeasibleLocalSolutions);
 		double maxValue = maximize ? Double.MIN_VALUE : Double.MAX_VALUE;
 		int maxValueIndex = -1;
 		int maxBoundIndex = -1;
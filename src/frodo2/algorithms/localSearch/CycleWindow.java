@@ -0,0 +1,248 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/** Per-sender ring buffers of the entries received for each synchronous cycle
+ *
+ * In the Anytime Local Search framework, a variable only needs the entries for the few cycles between its own current cycle
+ * and the cycles its neighbors have already reached. For each sender, entries are stored in a ring buffer indexed by the cycle
+ * modulo the buffer's capacity, and tagged with their cycle, so that lookups do not allocate. Entries for cycles before
+ * the floor set by discardBefore() can be overwritten; if a slot is still occupied by a live entry, the buffers are
+ * doubled in size, such that the capacity adapts to the actual in-flight window (typically the tree depth delay).
+ *
+ * @author Thomas Leaute
+ * @param <T> the type of the entries
+ */
+public class CycleWindow <T> {
+
+	/** The default initial capacity */
+	public static final int DEFAULT_CAPACITY = 4;
+
+	/** The tag of an empty slot */
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	/** The senders */
+	private final String[] senders;
+
+	/** The index of each sender in \a senders */
+	private final HashMap<String, Integer> indexes;
+
+	/** For each sender and each slot, the cycle of the entry in the slot, or \a EMPTY */
+	private int[][] cycles;
+
+	/** For each sender and each slot, the entry */
+	private Object[][] entries;
+
+	/** The capacity minus 1, used as a bit mask; the capacity is a power of 2 */
+	private int mask;
+
+	/** The first cycle whose entries must be kept */
+	private int floor = EMPTY;
+
+	/** Constructor
+	 * @param senders 	the senders
+	 */
+	public CycleWindow (Collection<String> senders) {
+		this(senders, DEFAULT_CAPACITY);
+	}
+
+	/** Constructor
+	 * @param senders 	the senders
+	 * @param capacity 	the initial number of cycles per sender (rounded up to a power of 2)
+	 */
+	public CycleWindow (Collection<String> senders, int capacity) {
+
+		this.senders = senders.toArray(new String [senders.size()]);
+		this.indexes = new HashMap<String, Integer> (this.senders.length);
+		for (int i = 0; i < this.senders.length; i++)
+			this.indexes.put(this.senders[i], i);
+
+		int cap = 1;
+		while (cap < capacity)
+			cap <<= 1;
+		this.allocate(cap);
+	}
+
+	/** Allocates empty buffers
+	 * @param capacity 	the capacity (a power of 2)
+	 */
+	private void allocate (int capacity) {
+
+		this.mask = capacity - 1;
+		this.cycles = new int [this.senders.length][capacity];
+		this.entries = new Object [this.senders.length][capacity];
+		for (int[] tags : this.cycles)
+			java.util.Arrays.fill(tags, EMPTY);
+	}
+
+	/** @return the number of senders */
+	public int size () {
+		return this.senders.length;
+	}
+
+	/** @return the number of cycles that can currently be stored per sender */
+	public int capacity () {
+		return this.mask + 1;
+	}
+
+	/** Returns a sender
+	 * @param index 	the index of the sender
+	 * @return the sender
+	 */
+	public String getSender (int index) {
+		return this.senders[index];
+	}
+
+	/** Returns the index of a sender
+	 * @param sender 	the sender
+	 * @return its index, or -1 if it is unknown
+	 */
+	public int indexOf (String sender) {
+		Integer index = this.indexes.get(sender);
+		return (index == null ? -1 : index);
+	}
+
+	/** Records an entry
+	 * @param sender 	the sender
+	 * @param cycle 	the cycle
+	 * @param entry 	the entry
+	 * @note Entries for cycles before the floor are ignored.
+	 */
+	public void put (String sender, int cycle, T entry) {
+
+		if (cycle < this.floor)
+			return;
+
+		int index = this.indexOf(sender);
+		assert index >= 0 : "Unknown sender " + sender;
+
+		int slot = cycle & this.mask;
+		int old = this.cycles[index][slot];
+		if (old != EMPTY && old != cycle && old >= this.floor) { // the slot is still in use
+			this.grow(cycle);
+			slot = cycle & this.mask;
+		}
+
+		this.cycles[index][slot] = cycle;
+		this.entries[index][slot] = entry;
+	}
+
+	/** Doubles the capacity until all live entries and the input cycle fit
+	 * @param cycle 	the cycle to be inserted
+	 */
+	private void grow (int cycle) {
+
+		int[][] oldCycles = this.cycles;
+		Object[][] oldEntries = this.entries;
+
+		int capacity = this.mask + 1;
+		grow: while (true) {
+			capacity <<= 1;
+			int mask = capacity - 1;
+
+			// Check that there are no collisions
+			for (int[] tags : oldCycles) {
+				boolean[] used = new boolean [capacity];
+				used[cycle & mask] = true;
+				for (int tag : tags) {
+					if (tag == EMPTY || tag < this.floor || tag == cycle)
+						continue;
+					if (used[tag & mask])
+						continue grow;
+					used[tag & mask] = true;
+				}
+			}
+			break;
+		}
+
+		this.allocate(capacity);
+		for (int i = 0; i < oldCycles.length; i++) {
+			for (int j = 0; j < oldCycles[i].length; j++) {
+				int tag = oldCycles[i][j];
+				if (tag != EMPTY && tag >= this.floor) {
+					this.cycles[i][tag & this.mask] = tag;
+					this.entries[i][tag & this.mask] = oldEntries[i][j];
+				}
+			}
+		}
+	}
+
+	/** Returns an entry
+	 * @param sender 	the sender
+	 * @param cycle 	the cycle
+	 * @return the entry, or \c null if none has been recorded
+	 */
+	public T get (String sender, int cycle) {
+		int index = this.indexOf(sender);
+		return (index < 0 ? null : this.get(index, cycle));
+	}
+
+	/** Returns an entry
+	 * @param index 	the index of the sender
+	 * @param cycle 	the cycle
+	 * @return the entry, or \c null if none has been recorded
+	 */
+	@SuppressWarnings("unchecked")
+	public T get (int index, int cycle) {
+		int slot = cycle & this.mask;
+		return (this.cycles[index][slot] == cycle ? (T) this.entries[index][slot] : null);
+	}
+
+	/** Checks whether all senders have reported for a given cycle
+	 * @param cycle 	the cycle
+	 * @return \c true if there is an entry from each sender for this cycle
+	 */
+	public boolean isComplete (int cycle) {
+
+		int slot = cycle & this.mask;
+		for (int[] tags : this.cycles)
+			if (tags[slot] != cycle)
+				return false;
+		return true;
+	}
+
+	/** Declares that the entries for all cycles strictly before the input cycle are no longer needed
+	 * @param cycle 	the first cycle whose entries must be kept
+	 */
+	public void discardBefore (int cycle) {
+
+		if (cycle <= this.floor)
+			return;
+		this.floor = cycle;
+
+		// Release the references to the discarded entries
+		for (int i = 0; i < this.cycles.length; i++) {
+			int[] tags = this.cycles[i];
+			for (int j = 0; j < tags.length; j++) {
+				if (tags[j] != EMPTY && tags[j] < cycle) {
+					tags[j] = EMPTY;
+					this.entries[i][j] = null;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,517 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Local search algorithms */
+package frodo2.algorithms.localSearch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** Incremental evaluation of the local cost of each value of a variable, given the values of its neighbors
+ *
+ * The spaces involving the variable are compiled once into int-indexed utility tables, in which the variable's own value varies fastest,
+ * such that the utilities of all its values given a context form a contiguous row. For each value in its domain, the evaluator maintains
+ * the sum of the utilities of all spaces whose scope is fully assigned, together with the number of violated constraints.
+ * When a single neighbor changes value, only the rows of the spaces involving this neighbor are subtracted and re-added,
+ * so that evaluating all values of the variable costs O(domain size) instead of one lookup per value and per space.
+ *
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ * @note Spaces whose scope is not yet fully assigned do not contribute to the costs.
+ */
+public class LocalCostEvaluator < V extends Addable<V>, U extends Addable<U> > {
+
+	/** Spaces with more entries than this are not compiled into tables, but queried row by row */
+	public static final int MAX_TABLE_SIZE = 1 << 16;
+
+	/** A space involving the variable, together with its compiled table and its current context */
+	private class Table {
+
+		/** The space */
+		private final UtilitySolutionSpace<V, U> space;
+
+		/** The variables in the space's scope */
+		private final String[] vars;
+
+		/** The position of the evaluator's variable in \a vars, or -1 if the space does not involve it */
+		private final int selfPos;
+
+		/** The number of entries per row, i.e. the domain size of the variable if the space involves it, and 1 otherwise */
+		private final int rowLength;
+
+		/** For each variable in the scope, the stride of its value index in \a table */
+		private final int[] strides;
+
+		/** For each variable in the scope (except the evaluator's), the indexes of its values in the space */
+		private final HashMap<V, Integer>[] indexes;
+
+		/** The utilities, or \c null if the space is too large to be compiled */
+		private final U[] table;
+
+		/** The current values of the variables in the scope; \c null for unknown values */
+		private final V[] values;
+
+		/** The index of the current row in \a table, or -1 if some value is not in the domain */
+		private int offset;
+
+		/** The number of variables in the scope (other than the evaluator's) whose values are not yet known */
+		private int unknown;
+
+		/** Constructor
+		 * @param space 	the space
+		 */
+		@SuppressWarnings("unchecked")
+		private Table (UtilitySolutionSpace<V, U> space) {
+			this.space = space;
+			this.vars = space.getVariables();
+			final int arity = this.vars.length;
+			this.values = (V[]) new Addable [arity];
+			this.strides = new int [arity];
+			this.indexes = new HashMap [arity];
+
+			int pos = -1;
+			for (int i = 0; i < arity; i++) {
+				if (this.vars[i].equals(varName)) {
+					pos = i;
+					break;
+				}
+			}
+			this.selfPos = pos;
+			this.rowLength = (pos < 0 ? 1 : domain.length);
+
+			// Compute the strides and index the domains
+			long size = this.rowLength;
+			for (int i = 0; i < arity; i++) {
+				if (i == pos) {
+					this.strides[i] = 1;
+					continue;
+				}
+				V[] dom = space.getDomain(i);
+				HashMap<V, Integer> index = new HashMap<V, Integer> (dom.length);
+				for (int j = 0; j < dom.length; j++)
+					index.put(dom[j], j);
+				this.indexes[i] = index;
+				this.strides[i] = (int) Math.min(size, Integer.MAX_VALUE);
+				size *= dom.length;
+				this.unknown++;
+			}
+
+			if (size > MAX_TABLE_SIZE) {
+				this.table = null;
+				this.offset = -1;
+				return;
+			}
+
+			// Fill in the table
+			this.table = (U[]) new Addable [(int) size];
+			V[][] doms = space.getDomains();
+			for (int off = 0; off < size; off += this.rowLength) {
+				for (int i = 0; i < arity; i++)
+					if (i != pos)
+						this.values[i] = doms[i][(off / this.strides[i]) % doms[i].length];
+				for (int j = 0; j < this.rowLength; j++) {
+					if (pos >= 0)
+						this.values[pos] = domain[j];
+					this.table[off + j] = space.getUtility(this.vars, this.values);
+				}
+			}
+			for (int i = 0; i < arity; i++)
+				this.values[i] = null;
+			this.offset = (this.unknown == 0 ? 0 : -1);
+		}
+
+		/** Sets the value of a variable in the scope
+		 * @param pos 		the position of the variable in the scope
+		 * @param value 	its new value, or \c null if unknown
+		 */
+		private void set (int pos, V value) {
+
+			V old = this.values[pos];
+			if (old == null) {
+				if (value != null)
+					this.unknown--;
+			} else if (value == null)
+				this.unknown++;
+			this.values[pos] = value;
+
+			if (this.table == null || this.unknown > 0)
+				return;
+
+			// Recompute the offset
+			int off = 0;
+			for (int i = 0; i < this.vars.length; i++) {
+				if (i == this.selfPos)
+					continue;
+				Integer index = this.indexes[i].get(this.values[i]);
+				if (index == null) { // value not in the domain
+					this.offset = -1;
+					return;
+				}
+				off += index * this.strides[i];
+			}
+			this.offset = off;
+		}
+
+		/** @return whether the values of all variables in the scope (other than the evaluator's) are known */
+		private boolean isReady () {
+			return this.unknown == 0;
+		}
+
+		/** Looks up the utility in the current context
+		 * @param i 	the index of the evaluator's variable's value
+		 * @return the utility
+		 * @warning Assumes the space is ready.
+		 */
+		private U get (int i) {
+
+			if (this.offset >= 0)
+				return this.table[this.offset + (this.selfPos < 0 ? 0 : i)];
+
+			if (this.selfPos >= 0)
+				this.values[this.selfPos] = domain[i];
+			return this.space.getUtility(this.vars, this.values);
+		}
+	}
+
+	/** The variable */
+	private final String varName;
+
+	/** The variable's domain */
+	private final V[] domain;
+
+	/** The index of each value in \a domain */
+	private final HashMap<V, Integer> valueIndexes;
+
+	/** The compiled spaces */
+	private final Table[] tables;
+
+	/** The tables that involve no neighbor */
+	private final List<Table> constants = new ArrayList<Table> ();
+
+	/** For each neighbor, the list of tables it is involved in, and its position in each table */
+	private final HashMap< String, List<int[]> > incidences = new HashMap< String, List<int[]> > ();
+
+	/** The current values of the neighbors */
+	private final HashMap<String, V> context = new HashMap<String, V> ();
+
+	/** The utility value used for infeasible assignments */
+	private final U infeasibleUtil;
+
+	/** The infinite utility that is not the infeasible utility */
+	private final U otherInf;
+
+	/** For each value of the variable, the sum of the finite utilities of all ready spaces */
+	private final U[] sums;
+
+	/** For each value of the variable, the number of ready spaces whose utility is \a infeasibleUtil */
+	private final int[] conflicts;
+
+	/** For each value of the variable, the number of ready spaces whose utility is \a otherInf */
+	private final int[] others;
+
+	/** Constructor
+	 * @param varName 			the variable
+	 * @param domain 			the variable's domain
+	 * @param spaces 			the spaces involving the variable
+	 * @param infeasibleUtil 	the utility value used for infeasible assignments
+	 */
+	@SuppressWarnings("unchecked")
+	public LocalCostEvaluator (String varName, V[] domain, List<? extends UtilitySolutionSpace<V, U>> spaces, U infeasibleUtil) {
+
+		this.varName = varName;
+		this.domain = domain;
+		this.infeasibleUtil = infeasibleUtil;
+		this.otherInf = infeasibleUtil.equals(infeasibleUtil.getPlusInfinity()) ? infeasibleUtil.getMinInfinity() : infeasibleUtil.getPlusInfinity();
+
+		this.valueIndexes = new HashMap<V, Integer> (domain.length);
+		for (int i = 0; i < domain.length; i++)
+			this.valueIndexes.put(domain[i], i);
+
+		U zero = infeasibleUtil.getZero();
+		this.sums = (U[]) new Addable [domain.length];
+		for (int i = 0; i < domain.length; i++)
+			this.sums[i] = zero;
+		this.conflicts = new int [domain.length];
+		this.others = new int [domain.length];
+
+		this.tables = new LocalCostEvaluator.Table [spaces.size()];
+		for (int t = 0; t < this.tables.length; t++) {
+			Table table = this.new Table (spaces.get(t));
+			this.tables[t] = table;
+
+			for (int pos = 0; pos < table.vars.length; pos++) {
+				if (pos == table.selfPos)
+					continue;
+				String neighbor = table.vars[pos];
+				List<int[]> list = this.incidences.get(neighbor);
+				if (list == null) {
+					list = new ArrayList<int[]> ();
+					this.incidences.put(neighbor, list);
+				}
+				list.add(new int[] { t, pos });
+			}
+
+			if (table.isReady()) {
+				this.constants.add(table);
+				this.addRow(table, true);
+			}
+		}
+	}
+
+	/** @return the variable's domain */
+	public V[] getDomain () {
+		return this.domain;
+	}
+
+	/** Returns the index of a value in the variable's domain
+	 * @param value 	the value
+	 * @return its index, or -1 if it is not in the domain
+	 */
+	public int indexOf (V value) {
+		Integer index = this.valueIndexes.get(value);
+		return (index == null ? -1 : index);
+	}
+
+	/** Returns the current value of a neighbor
+	 * @param neighbor 	the neighbor
+	 * @return its value, or \c null if unknown
+	 */
+	public V getNeighborValue (String neighbor) {
+		return this.context.get(neighbor);
+	}
+
+	/** Updates the value of a neighbor, and incrementally updates the costs of all values of the variable
+	 * @param neighbor 	the neighbor
+	 * @param value 	its new value, or \c null to forget it
+	 */
+	public void setNeighborValue (String neighbor, V value) {
+
+		List<int[]> list = this.incidences.get(neighbor);
+		if (list == null) // irrelevant variable
+			return;
+
+		V old = (value == null ? this.context.remove(neighbor) : this.context.put(neighbor, value));
+		if (value == null ? old == null : value.equals(old))
+			return;
+
+		for (int[] inc : list) {
+			Table table = this.tables[inc[0]];
+			if (table.isReady())
+				this.addRow(table, false);
+			table.set(inc[1], value);
+			if (table.isReady())
+				this.addRow(table, true);
+		}
+	}
+
+	/** Adds or removes the current row of a table to/from the costs
+	 * @param table 	the table
+	 * @param add 		whether to add or remove the row
+	 */
+	private void addRow (Table table, final boolean add) {
+
+		if (table.selfPos < 0) { // the row is the same for all values
+			U util = table.get(0);
+			for (int i = 0; i < this.domain.length; i++)
+				this.update(i, util, add);
+		} else
+			for (int i = 0; i < this.domain.length; i++)
+				this.update(i, table.get(i), add);
+	}
+
+	/** Adds or removes a utility to/from the cost of a given value
+	 * @param i 		the index of the value
+	 * @param util 		the utility
+	 * @param add 		whether to add or remove the utility
+	 */
+	private void update (int i, U util, final boolean add) {
+
+		if (this.infeasibleUtil.equals(util))
+			this.conflicts[i] += (add ? 1 : -1);
+		else if (this.otherInf.equals(util))
+			this.others[i] += (add ? 1 : -1);
+		else
+			this.sums[i] = (add ? this.sums[i].add(util) : this.sums[i].subtract(util));
+	}
+
+	/** Returns the utility of a value, given the current context
+	 * @param index 	the index of the value
+	 * @return the sum of the utilities of all spaces whose scope is fully assigned
+	 */
+	public U getUtility (int index) {
+		return this.getUtility(this.sums[index], this.conflicts[index], this.others[index]);
+	}
+
+	/** Combines a finite sum of utilities with counts of infinite utilities
+	 * @param sum 			the finite sum
+	 * @param conflicts 	the number of infeasible utilities
+	 * @param others 		the number of infinite utilities of the other sign
+	 * @return the overall sum
+	 */
+	private U getUtility (U sum, int conflicts, int others) {
+		if (conflicts > 0)
+			return this.infeasibleUtil;
+		else if (others > 0)
+			return this.otherInf;
+		else
+			return sum;
+	}
+
+	/** Returns the number of violated constraints for a value, given the current context
+	 * @param index 	the index of the value
+	 * @return the number of ready spaces whose utility is infeasible
+	 */
+	public int getConflicts (int index) {
+		return this.conflicts[index];
+	}
+
+	/** Returns the cost of a value, given the current context
+	 * @param index 	the index of the value
+	 * @return the utility together with the number of conflicts
+	 */
+	public AddableConflicts<U> getCost (int index) {
+		return new AddableConflicts<U> (this.getUtility(index), this.conflicts[index]);
+	}
+
+	/** Returns the cost of a value, assuming that a neighbor takes a different value, without changing the current context
+	 * @param index 	the index of the value
+	 * @param neighbor 	the neighbor
+	 * @param value 	the hypothetical value for the neighbor
+	 * @return the utility together with the number of conflicts
+	 */
+	public AddableConflicts<U> getCost (int index, String neighbor, V value) {
+
+		U sum = this.sums[index];
+		int conflicts = this.conflicts[index];
+		int others = this.others[index];
+
+		List<int[]> list = this.incidences.get(neighbor);
+		if (list != null) {
+			for (int[] inc : list) {
+				Table table = this.tables[inc[0]];
+				int pos = inc[1];
+
+				// Remove the current utility
+				if (table.isReady()) {
+					U util = table.get(index);
+					if (this.infeasibleUtil.equals(util))
+						conflicts--;
+					else if (this.otherInf.equals(util))
+						others--;
+					else
+						sum = sum.subtract(util);
+				}
+
+				// Add the hypothetical utility
+				V old = table.values[pos];
+				table.set(pos, value);
+				if (table.isReady()) {
+					U util = table.get(index);
+					if (this.infeasibleUtil.equals(util))
+						conflicts++;
+					else if (this.otherInf.equals(util))
+						others++;
+					else
+						sum = sum.add(util);
+				}
+				table.set(pos, old);
+			}
+		}
+
+		return new AddableConflicts<U> (this.getUtility(sum, conflicts, others), conflicts);
+	}
+
+	/** Returns the cost of a value restricted to the spaces that involve a given neighbor, without changing the current context
+	 * @param index 	the index of the value
+	 * @param neighbor 	the neighbor
+	 * @param value 	the hypothetical value for the neighbor; if \c null, its current value is used
+	 * @return the utility together with the number of conflicts, over the ready spaces involving the neighbor
+	 */
+	public AddableConflicts<U> getSharedCost (int index, String neighbor, V value) {
+
+		U sum = this.infeasibleUtil.getZero();
+		int conflicts = 0;
+		int others = 0;
+
+		List<int[]> list = this.incidences.get(neighbor);
+		if (list != null) {
+			for (int[] inc : list) {
+				Table table = this.tables[inc[0]];
+				int pos = inc[1];
+
+				V old = table.values[pos];
+				if (value != null)
+					table.set(pos, value);
+				if (table.isReady()) {
+					U util = table.get(index);
+					if (this.infeasibleUtil.equals(util))
+						conflicts++;
+					else if (this.otherInf.equals(util))
+						others++;
+					else
+						sum = sum.add(util);
+				}
+				if (value != null)
+					table.set(pos, old);
+			}
+		}
+
+		return new AddableConflicts<U> (this.getUtility(sum, conflicts, others), conflicts);
+	}
+
+	/** Returns the sum of the utilities of all spaces whose scope only involves the variable and (optionally) a given neighbor
+	 * @param index 	the index of the variable's value
+	 * @param neighbor 	the neighbor
+	 * @param value 	the neighbor's value; if \c null, the spaces involving the neighbor are ignored
+	 * @return the pairwise utility, independent of the current context
+	 */
+	public U getPairUtility (int index, String neighbor, V value) {
+
+		U sum = this.infeasibleUtil.getZero();
+		for (Table table : this.constants)
+			sum = sum.add(table.get(index));
+
+		List<int[]> list = this.incidences.get(neighbor);
+		if (list == null || value == null)
+			return sum;
+		for (int[] inc : list) {
+			Table table = this.tables[inc[0]];
+			if (table.vars.length - (table.selfPos < 0 ? 0 : 1) > 1) // involves other neighbors
+				continue;
+
+			int pos = inc[1];
+			V old = table.values[pos];
+			table.set(pos, value);
+			sum = sum.add(table.get(index));
+			table.set(pos, old);
+		}
+
+		return sum;
+	}
+
+}
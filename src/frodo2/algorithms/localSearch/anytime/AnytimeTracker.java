@@ -0,0 +1,514 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** A module providing the anytime property to synchronous local search algorithms */
+package frodo2.algorithms.localSearch.anytime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.AgentInterface;
+import frodo2.algorithms.SolutionCollector;
+import frodo2.algorithms.localSearch.CycleWindow;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.algorithms.localSearch.dsa.DSA;
+import frodo2.algorithms.varOrdering.dfs.DFSgeneration;
+import frodo2.algorithms.varOrdering.dfs.DFSgeneration.DFSview;
+import frodo2.communication.IncomingMsgPolicyInterface;
+import frodo2.communication.Message;
+import frodo2.communication.MessageType;
+import frodo2.communication.MessageWith3Payloads;
+import frodo2.communication.OutgoingMsgPolicyInterface;
+import frodo2.communication.Queue;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** A module that gives the anytime property to a synchronous local search algorithm, following the ALS_DCOP framework
+ *
+ * This module implements the mechanism described in "Explorative anytime local search for distributed constraint optimization"
+ * by Zivan et al. (2014), independently of the local search algorithm. It is stacked on the algorithm in the agent configuration file,
+ * together with a DFS generation module that provides the spanning tree. The module intercepts the algorithm's value messages,
+ * and replaces each of them with a PiggybackMsg that additionally carries the cycle of the value, the subtree costs for the cycles
+ * not yet reported to the parent, and the best cycle known so far for the children. The anytime mechanism therefore does not send
+ * any additional message while the algorithm runs. When the algorithm reports its final assignment for a variable, this module holds
+ * it until the best cycle is known, and replaces it with the variable's value in the best cycle. A few additional messages are sent
+ * at that point to report the last subtree costs up the tree, and the final best cycle down the tree.
+ *
+ * Each constraint is counted once, by the variable in its scope whose name is the smallest, such that the cost aggregated by each root
+ * is the actual cost of its connected component of the constraint graph.
+ *
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ * @warning The algorithm's value messages must be MessageWith3Payloads whose payloads are the sender variable, the receiver variable
+ * and the sender's value, and each variable must send exactly one such message to each of its neighbors in each synchronous cycle,
+ * as is the case of DSA and MGM.
+ * @note After a STOP_AGENT message (for instance after a timeout), the final assignment is the best one known locally at that point,
+ * which can be inconsistent across variables.
+ */
+public class AnytimeTracker < V extends Addable<V>, U extends Addable<U> >
+implements IncomingMsgPolicyInterface<MessageType>, OutgoingMsgPolicyInterface<MessageType> {
+
+	/** The type of the algorithm's value messages */
+	public static MessageType VALUE_MSG_TYPE = DSA.VALUE_MSG_TYPE;
+
+	/** The type of the messages containing the DFS tree */
+	public static MessageType DFS_MSG_TYPE = DFSgeneration.OUTPUT_MSG_TYPE;
+
+	/** The type of the value messages carrying the anytime information */
+	public static final MessageType PIGGYBACK_MSG_TYPE = new MessageType ("AnytimeTracker", "Piggyback");
+
+	/** The type of the messages containing the last subtree costs */
+	public static final MessageType COST_MSG_TYPE = new MessageType ("AnytimeTracker", "Cost");
+
+	/** The type of the messages containing the final best cycle */
+	public static final MessageType BEST_CYCLE_MSG_TYPE = new MessageType ("AnytimeTracker", "BestCycle");
+
+	/** The problem */
+	private final DCOPProblemInterface<V, U> problem;
+
+	/** The queue */
+	private Queue queue;
+
+	/** For each of the agent's variables, its anytime information */
+	private HashMap< String, VariableInfo > infos = new HashMap< String, VariableInfo > ();
+
+	/** The variables whose final assignments have been reported */
+	private HashSet<String> reported = new HashSet<String> ();
+
+	/** Whether the algorithm's AGENT_FINISHED message is being held until all final assignments have been reported */
+	private boolean holdingFinished;
+
+	/** Whether the agent has been told to stop */
+	private boolean stopped;
+
+	/** Whether this module is sending messages that must not be intercepted */
+	private boolean releasing;
+
+	/** The anytime information of a variable
+	 * @author Thomas Leaute
+	 */
+	private class VariableInfo {
+
+		/** The variable */
+		final String var;
+
+		/** The neighbors */
+		final String[] neighbors;
+
+		/** The evaluator of the costs of the constraints counted by this variable */
+		final LocalCostEvaluator<V, U> evaluator;
+
+		/** For each receiver, the cycle of the next value message */
+		final HashMap<String, Integer> nextSent = new HashMap<String, Integer> ();
+
+		/** The variable's values, for the cycles from the best cycle onwards */
+		final CycleWindow<V> values;
+
+		/** The last cycle for which the variable's value is known */
+		int lastCycle = -1;
+
+		/** The neighbors' values */
+		final CycleWindow<V> neighborValues;
+
+		/** The subtree costs reported by the neighbors that are children */
+		final CycleWindow<U> costs;
+
+		/** For each neighbor, the last cycle for which it has reported a subtree cost if it is a child that has terminated,
+		 * and \c Integer.MIN_VALUE otherwise */
+		final int[] lastCostCycles;
+
+		/** Whether the parent and children are known */
+		boolean treeKnown;
+
+		/** The parent, or \c null if the variable is a root */
+		String parent;
+
+		/** The children */
+		List<String> children = Collections.emptyList();
+
+		/** The next cycle whose subtree cost is to be computed */
+		int nextCycle;
+
+		/** The subtree costs not yet reported to the parent */
+		final ArrayList<U> pendingCosts = new ArrayList<U> ();
+
+		/** The cycle of the first cost in \a pendingCosts */
+		int firstPendingCycle;
+
+		/** The best cycle known so far, or -1 */
+		int bestCycle = -1;
+
+		/** The cost of the best cycle, if the variable is a root */
+		U bestCost;
+
+		/** The final assignment reported by the algorithm, or \c null if it has not terminated yet */
+		V finalValue;
+
+		/** Whether the last subtree costs have been sent to the parent */
+		boolean flushed;
+
+		/** Constructor
+		 * @param var 	the variable
+		 */
+		VariableInfo (String var) {
+			this.var = var;
+
+			Collection<String> neighbors = problem.getNeighborVars(var);
+			this.neighbors = neighbors.toArray(new String [neighbors.size()]);
+			this.values = new CycleWindow<V> (Collections.singleton(var));
+			this.neighborValues = new CycleWindow<V> (neighbors);
+			this.costs = new CycleWindow<U> (neighbors);
+			this.lastCostCycles = new int [this.neighbors.length];
+			java.util.Arrays.fill(this.lastCostCycles, Integer.MIN_VALUE);
+
+			// Only count the constraints for which this variable has the smallest name
+			ArrayList< UtilitySolutionSpace<V, U> > spaces = new ArrayList< UtilitySolutionSpace<V, U> > ();
+			spaces: for (UtilitySolutionSpace<V, U> space : problem.getSolutionSpaces(var, false)) {
+				for (String other : space.getVariables())
+					if (other.compareTo(var) < 0)
+						continue spaces;
+				spaces.add(space);
+			}
+			U infeasible = (problem.maximize() ? problem.getMinInfUtility() : problem.getPlusInfUtility());
+			this.evaluator = new LocalCostEvaluator<V, U> (var, problem.getDomain(var), spaces, infeasible);
+		}
+
+		/** @return whether the next cycle waits for a subtree cost that a terminated child has promised */
+		boolean waitsForChild () {
+			for (String child : this.children) {
+				int index = this.costs.indexOf(child);
+				if (this.lastCostCycles[index] == Integer.MIN_VALUE
+						|| (this.lastCostCycles[index] >= this.nextCycle && this.costs.get(index, this.nextCycle) == null))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/** Constructor
+	 * @param problem 		the agent's subproblem
+	 * @param parameters 	the parameters of the module
+	 */
+	public AnytimeTracker (DCOPProblemInterface<V, U> problem, Element parameters) {
+		this.problem = problem;
+	}
+
+	/** @see frodo2.communication.MessageListener#setQueue(frodo2.communication.Queue) */
+	public void setQueue(Queue queue) {
+		this.queue = queue;
+	}
+
+	/** @see frodo2.communication.MessageListener#getMsgTypes() */
+	public Collection<MessageType> getMsgTypes() {
+		ArrayList<MessageType> msgTypes = new ArrayList<MessageType> (8);
+		msgTypes.add(VALUE_MSG_TYPE);
+		msgTypes.add(PIGGYBACK_MSG_TYPE);
+		msgTypes.add(COST_MSG_TYPE);
+		msgTypes.add(BEST_CYCLE_MSG_TYPE);
+		msgTypes.add(DFS_MSG_TYPE);
+		msgTypes.add(SolutionCollector.ASSIGNMENT_MSG_TYPE);
+		msgTypes.add(AgentInterface.AGENT_FINISHED);
+		msgTypes.add(AgentInterface.STOP_AGENT);
+		return msgTypes;
+	}
+
+	/** Returns the anytime information of a variable, creating it if necessary
+	 * @param var 	the variable
+	 * @return the anytime information
+	 */
+	private VariableInfo getInfo (String var) {
+		VariableInfo info = this.infos.get(var);
+		if (info == null) {
+			info = new VariableInfo (var);
+			this.infos.put(var, info);
+		}
+		return info;
+	}
+
+	/** @see frodo2.communication.OutgoingMsgPolicyInterface#notifyOut(frodo2.communication.Message) */
+	@SuppressWarnings("unchecked")
+	public Decision notifyOut(Message msg) {
+
+		if (this.releasing)
+			return Decision.DONTCARE;
+
+		MessageType type = msg.getType();
+
+		if (type.equals(VALUE_MSG_TYPE)) { // replace it with a PiggybackMsg
+
+			MessageWith3Payloads<String, String, V> msgCast = (MessageWith3Payloads<String, String, V>) msg;
+			String receiver = msgCast.getPayload2();
+			VariableInfo info = this.getInfo(msgCast.getPayload1());
+
+			// Record the sender's value for the cycle of this message
+			Integer cycle = info.nextSent.get(receiver);
+			if (cycle == null)
+				cycle = 0;
+			info.nextSent.put(receiver, cycle + 1);
+			if (cycle > info.lastCycle) {
+				info.values.put(info.var, cycle, msgCast.getPayload3());
+				info.lastCycle = cycle;
+				this.aggregate(info);
+			}
+
+			PiggybackMsg<V, U> piggyback = new PiggybackMsg<V, U> (msgCast, cycle);
+			if (info.treeKnown) {
+				if (receiver.equals(info.parent) && ! info.pendingCosts.isEmpty()) {
+					piggyback.setCosts(info.firstPendingCycle, info.pendingCosts.toArray((U[]) new Addable [info.pendingCosts.size()]));
+					info.pendingCosts.clear();
+				} else if (info.bestCycle >= 0 && info.children.contains(receiver))
+					piggyback.setBestCycle(info.bestCycle);
+			}
+
+			this.queue.sendMessage(this.problem.getOwner(receiver), piggyback);
+			return Decision.DISCARD;
+
+		} else if (type.equals(SolutionCollector.ASSIGNMENT_MSG_TYPE)) { // hold the final assignment until the best cycle is known
+
+			SolutionCollector.AssignmentMessage<V> msgCast = (SolutionCollector.AssignmentMessage<V>) msg;
+			String var = msgCast.getVariable();
+			if (this.stopped || this.problem.getNeighborVars(var).isEmpty()) { // isolated variables have nothing to track
+				this.reported.add(var);
+				return Decision.DONTCARE;
+			}
+
+			VariableInfo info = this.getInfo(var);
+			if (info.finalValue == null) {
+				info.finalValue = msgCast.getValue();
+				this.tryTerminate(info);
+			}
+			return Decision.DISCARD;
+
+		} else if (type.equals(AgentInterface.AGENT_FINISHED)) {
+
+			if (this.stopped || this.reported.size() == this.problem.getNbrIntVars()) {
+				this.reset();
+				return Decision.DONTCARE;
+			}
+
+			this.holdingFinished = true;
+			return Decision.DISCARD;
+		}
+
+		return Decision.DONTCARE;
+	}
+
+	/** @see frodo2.communication.IncomingMsgPolicyInterface#notifyIn(frodo2.communication.Message) */
+	@SuppressWarnings("unchecked")
+	public void notifyIn(Message msg) {
+
+		MessageType type = msg.getType();
+
+		if (type.equals(PIGGYBACK_MSG_TYPE)) {
+
+			PiggybackMsg<V, U> msgCast = (PiggybackMsg<V, U>) msg;
+			String sender = msgCast.getSender();
+			VariableInfo info = this.getInfo(msgCast.getReceiver());
+
+			info.neighborValues.put(sender, msgCast.getCycle(), msgCast.getValue());
+
+			U[] costs = msgCast.getCosts();
+			if (costs != null)
+				for (int i = 0; i < costs.length; i++)
+					info.costs.put(sender, msgCast.getFirstCostCycle() + i, costs[i]);
+
+			if (msgCast.getBestCycle() > info.bestCycle) {
+				info.bestCycle = msgCast.getBestCycle();
+				info.values.discardBefore(info.bestCycle);
+			}
+
+			this.aggregate(info);
+
+			// Deliver the algorithm's value message
+			this.releasing = true;
+			this.queue.sendMessageToSelf(msgCast.getMsg());
+			this.releasing = false;
+
+		} else if (type.equals(COST_MSG_TYPE)) {
+
+			CostMsg<U> msgCast = (CostMsg<U>) msg;
+			String sender = msgCast.getSender();
+			VariableInfo info = this.getInfo(msgCast.getReceiver());
+
+			U[] costs = msgCast.getCosts();
+			for (int i = 0; i < costs.length; i++)
+				info.costs.put(sender, msgCast.getFirstCycle() + i, costs[i]);
+			info.lastCostCycles[info.costs.indexOf(sender)] = msgCast.getLastCycle();
+
+			this.aggregate(info);
+
+		} else if (type.equals(BEST_CYCLE_MSG_TYPE)) {
+
+			BestCycleMsg msgCast = (BestCycleMsg) msg;
+			VariableInfo info = this.getInfo(msgCast.getReceiver());
+			info.bestCycle = msgCast.getBestCycle();
+			this.terminate(info);
+
+		} else if (type.equals(DFS_MSG_TYPE)) {
+
+			DFSgeneration.MessageDFSoutput<V, U> msgCast = (DFSgeneration.MessageDFSoutput<V, U>) msg;
+			DFSview<V, U> view = msgCast.getNeighbors();
+			if (view == null) // DFS reset message
+				return;
+
+			for (String var : msgCast.getVars()) {
+				VariableInfo info = this.getInfo(var);
+				info.parent = view.getParent();
+				info.children = new ArrayList<String> (view.getChildren());
+				info.treeKnown = true;
+				this.aggregate(info);
+			}
+
+		} else if (type.equals(AgentInterface.STOP_AGENT)) {
+
+			this.stopped = true;
+
+			// Report the best values known locally for the variables whose assignments are being held
+			for (VariableInfo info : this.infos.values())
+				if (info.finalValue != null && ! this.reported.contains(info.var))
+					this.report(info);
+			if (this.holdingFinished)
+				this.releaseFinished();
+		}
+	}
+
+	/** Computes the subtree costs for all cycles for which all the information is available
+	 * @param info 	the variable
+	 */
+	private void aggregate (VariableInfo info) {
+
+		if (! info.treeKnown)
+			return;
+
+		while (info.nextCycle <= info.lastCycle && info.neighborValues.isComplete(info.nextCycle)) {
+			final int cycle = info.nextCycle;
+
+			// Check that all children have reported their subtree costs
+			U cost = null;
+			for (String child : info.children) {
+				U childCost = info.costs.get(child, cycle);
+				if (childCost == null)
+					return;
+				cost = (cost == null ? childCost : cost.add(childCost));
+			}
+
+			// Compute the cost of the constraints counted by this variable
+			for (int i = 0; i < info.neighbors.length; i++)
+				info.evaluator.setNeighborValue(info.neighbors[i], info.neighborValues.get(i, cycle));
+			U local = info.evaluator.getUtility(info.evaluator.indexOf(info.values.get(0, cycle)));
+			cost = (cost == null ? local : cost.add(local));
+
+			if (info.parent == null) { // root
+				if (info.bestCycle < 0 || (this.problem.maximize() ? cost.compareTo(info.bestCost) > 0 : cost.compareTo(info.bestCost) < 0)) {
+					info.bestCycle = cycle;
+					info.bestCost = cost;
+					info.values.discardBefore(cycle);
+				}
+			} else {
+				if (info.pendingCosts.isEmpty())
+					info.firstPendingCycle = cycle;
+				info.pendingCosts.add(cost);
+			}
+
+			info.nextCycle++;
+			info.neighborValues.discardBefore(info.nextCycle);
+			info.costs.discardBefore(info.nextCycle);
+		}
+
+		this.tryTerminate(info);
+	}
+
+	/** Sends the last subtree costs to the parent, or terminates if the variable is a root, once the variable and its children have terminated
+	 * @param info 	the variable
+	 */
+	@SuppressWarnings("unchecked")
+	private void tryTerminate (VariableInfo info) {
+
+		if (info.finalValue == null || ! info.treeKnown || info.flushed || info.waitsForChild())
+			return;
+		info.flushed = true;
+
+		if (info.parent != null) {
+			U[] costs = info.pendingCosts.toArray((U[]) new Addable [info.pendingCosts.size()]);
+			this.queue.sendMessage(this.problem.getOwner(info.parent),
+					new CostMsg<U> (info.var, info.parent, info.firstPendingCycle, costs, info.nextCycle - 1));
+			info.pendingCosts.clear();
+		} else
+			this.terminate(info);
+	}
+
+	/** Sends the final best cycle to the children and reports the variable's value in that cycle
+	 * @param info 	the variable
+	 */
+	private void terminate (VariableInfo info) {
+
+		for (String child : info.children)
+			this.queue.sendMessage(this.problem.getOwner(child), new BestCycleMsg (info.var, child, info.bestCycle));
+
+		this.report(info);
+	}
+
+	/** Reports the variable's value in the best cycle known
+	 * @param info 	the variable
+	 */
+	private void report (VariableInfo info) {
+
+		V value = (info.bestCycle < 0 ? null : info.values.get(0, info.bestCycle));
+		if (value == null)
+			value = info.finalValue;
+
+		this.releasing = true;
+		this.queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (info.var, value));
+		this.releasing = false;
+
+		this.reported.add(info.var);
+		if (this.holdingFinished && this.reported.size() == this.problem.getNbrIntVars())
+			this.releaseFinished();
+	}
+
+	/** Sends the AGENT_FINISHED message that was held, and gets ready for the next run */
+	private void releaseFinished () {
+
+		this.reset();
+
+		this.releasing = true;
+		this.queue.sendMessageToSelf(new Message (AgentInterface.AGENT_FINISHED));
+		this.releasing = false;
+	}
+
+	/** Forgets all information about the current run */
+	private void reset () {
+		this.infos = new HashMap< String, VariableInfo > ();
+		this.reported = new HashSet<String> ();
+		this.holdingFinished = false;
+		this.stopped = false;
+	}
+
+}
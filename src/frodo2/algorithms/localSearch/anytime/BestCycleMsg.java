@@ -0,0 +1,64 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.anytime;
+
+import frodo2.communication.MessageWith3Payloads;
+
+/** The final best cycle, sent by a variable to its children once the root has received all subtree costs
+ * @author Thomas Leaute
+ */
+public class BestCycleMsg extends MessageWith3Payloads<String, String, Integer> {
+
+	/** Empty constructor used for externalization */
+	public BestCycleMsg () {
+		super.type = AnytimeTracker.BEST_CYCLE_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 		the sender variable
+	 * @param receiver 		the receiver variable
+	 * @param bestCycle 	the best cycle, or -1 if no cycle has been evaluated
+	 */
+	public BestCycleMsg (String sender, String receiver, int bestCycle) {
+		super (AnytimeTracker.BEST_CYCLE_MSG_TYPE, sender, receiver, bestCycle);
+	}
+
+	/** @return the sender variable */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver variable */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the best cycle, or -1 if no cycle has been evaluated */
+	public int getBestCycle () {
+		return this.getPayload3();
+	}
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -1755236063585599211L;
+
+}
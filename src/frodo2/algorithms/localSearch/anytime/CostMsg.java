@@ -0,0 +1,135 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.anytime;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import frodo2.communication.Message;
+import frodo2.solutionSpaces.Addable;
+
+/** The last subtree costs sent by a variable to its parent once the algorithm has terminated
+ * @author Thomas Leaute
+ * @param <U> the type used for utility values
+ */
+public class CostMsg < U extends Addable<U> > extends Message implements Externalizable {
+
+	/** The sender variable */
+	private String sender;
+
+	/** The receiver variable */
+	private String receiver;
+
+	/** The cycle of the first cost in \a costs */
+	private int firstCycle;
+
+	/** The subtree costs for consecutive cycles not reported yet */
+	private U[] costs;
+
+	/** The last cycle for which the sender has reported a subtree cost */
+	private int lastCycle;
+
+	/** Empty constructor used for externalization */
+	public CostMsg () {
+		super (AnytimeTracker.COST_MSG_TYPE);
+	}
+
+	/** Constructor
+	 * @param sender 		the sender variable
+	 * @param receiver 		the receiver variable
+	 * @param firstCycle 	the cycle of the first cost in \a costs
+	 * @param costs 		the subtree costs for consecutive cycles not reported yet
+	 * @param lastCycle 	the last cycle for which the sender has reported a subtree cost
+	 */
+	public CostMsg (String sender, String receiver, int firstCycle, U[] costs, int lastCycle) {
+		super (AnytimeTracker.COST_MSG_TYPE);
+		this.sender = sender;
+		this.receiver = receiver;
+		this.firstCycle = firstCycle;
+		this.costs = costs;
+		this.lastCycle = lastCycle;
+	}
+
+	/** @return the sender variable */
+	public String getSender () {
+		return this.sender;
+	}
+
+	/** @return the receiver variable */
+	public String getReceiver () {
+		return this.receiver;
+	}
+
+	/** @return the cycle of the first cost in getCosts() */
+	public int getFirstCycle () {
+		return this.firstCycle;
+	}
+
+	/** @return the subtree costs for consecutive cycles not reported yet */
+	public U[] getCosts () {
+		return this.costs;
+	}
+
+	/** @return the last cycle for which the sender has reported a subtree cost */
+	public int getLastCycle () {
+		return this.lastCycle;
+	}
+
+	/** @see Message#writeExternal(java.io.ObjectOutput) */
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(this.sender);
+		out.writeObject(this.receiver);
+		out.writeInt(this.firstCycle);
+		out.writeInt(this.lastCycle);
+		out.writeInt(this.costs.length);
+		for (U cost : this.costs)
+			out.writeObject(cost);
+	}
+
+	/** @see Message#readExternal(java.io.ObjectInput) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		this.sender = (String) in.readObject();
+		this.receiver = (String) in.readObject();
+		this.firstCycle = in.readInt();
+		this.lastCycle = in.readInt();
+		this.costs = (U[]) new Addable [in.readInt()];
+		for (int i = 0; i < this.costs.length; i++)
+			this.costs[i] = (U) in.readObject();
+	}
+
+	/** @see Message#toString() */
+	@Override
+	public String toString () {
+		return "Message(type = `" + this.type + "')\n\tsender: " + this.sender + "\n\treceiver: " + this.receiver +
+				"\n\tcosts from cycle " + this.firstCycle + ": " + java.util.Arrays.toString(this.costs) + "\n\tlastCycle: " + this.lastCycle;
+	}
+
+	/** Used for serialization */
+	private static final long serialVersionUID = 2380542937021875618L;
+
+}
@@ -0,0 +1,179 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.anytime;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import frodo2.communication.Message;
+import frodo2.communication.MessageWith3Payloads;
+import frodo2.solutionSpaces.Addable;
+
+/** A value message of the local search algorithm, tagged with its cycle, and carrying the anytime information along the spanning tree
+ *
+ * When sent to the parent, the message carries the costs of the sender's subtree for consecutive cycles that have not been reported yet.
+ * When sent to a child, it carries the best cycle known to the sender.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class PiggybackMsg < V extends Addable<V>, U extends Addable<U> > extends Message implements Externalizable {
+
+	/** The value message of the algorithm */
+	private MessageWith3Payloads<String, String, V> msg;
+
+	/** The cycle of the value message */
+	private int cycle;
+
+	/** The cycle of the first cost in \a costs */
+	private int firstCostCycle;
+
+	/** The subtree costs for consecutive cycles, or \c null */
+	private U[] costs;
+
+	/** The best cycle known to the sender, or -1 */
+	private int bestCycle = -1;
+
+	/** Empty constructor used for externalization */
+	public PiggybackMsg () {
+		super (AnytimeTracker.PIGGYBACK_MSG_TYPE);
+	}
+
+	/** Constructor
+	 * @param msg 		the value message of the algorithm
+	 * @param cycle 	the cycle of the value message
+	 */
+	public PiggybackMsg (MessageWith3Payloads<String, String, V> msg, int cycle) {
+		super (AnytimeTracker.PIGGYBACK_MSG_TYPE);
+		this.msg = msg;
+		this.cycle = cycle;
+	}
+
+	/** Attaches subtree costs to the message
+	 * @param firstCostCycle 	the cycle of the first cost
+	 * @param costs 			the subtree costs for consecutive cycles
+	 */
+	public void setCosts (int firstCostCycle, U[] costs) {
+		this.firstCostCycle = firstCostCycle;
+		this.costs = costs;
+	}
+
+	/** Attaches a best cycle to the message
+	 * @param bestCycle 	the best cycle known to the sender
+	 */
+	public void setBestCycle (int bestCycle) {
+		this.bestCycle = bestCycle;
+	}
+
+	/** @return the value message of the algorithm */
+	public MessageWith3Payloads<String, String, V> getMsg () {
+		return this.msg;
+	}
+
+	/** @return the sender variable */
+	public String getSender () {
+		return this.msg.getPayload1();
+	}
+
+	/** @return the receiver variable */
+	public String getReceiver () {
+		return this.msg.getPayload2();
+	}
+
+	/** @return the sender's value */
+	public V getValue () {
+		return this.msg.getPayload3();
+	}
+
+	/** @return the cycle of the value message */
+	public int getCycle () {
+		return this.cycle;
+	}
+
+	/** @return the cycle of the first cost in getCosts() */
+	public int getFirstCostCycle () {
+		return this.firstCostCycle;
+	}
+
+	/** @return the subtree costs for consecutive cycles, or \c null */
+	public U[] getCosts () {
+		return this.costs;
+	}
+
+	/** @return the best cycle known to the sender, or -1 */
+	public int getBestCycle () {
+		return this.bestCycle;
+	}
+
+	/** @see Message#writeExternal(java.io.ObjectOutput) */
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(this.msg);
+		out.writeInt(this.cycle);
+		out.writeInt(this.bestCycle);
+		if (this.costs == null)
+			out.writeInt(-1);
+		else {
+			out.writeInt(this.costs.length);
+			out.writeInt(this.firstCostCycle);
+			for (U cost : this.costs)
+				out.writeObject(cost);
+		}
+	}
+
+	/** @see Message#readExternal(java.io.ObjectInput) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		this.msg = (MessageWith3Payloads<String, String, V>) in.readObject();
+		this.cycle = in.readInt();
+		this.bestCycle = in.readInt();
+		final int nbrCosts = in.readInt();
+		if (nbrCosts >= 0) {
+			this.firstCostCycle = in.readInt();
+			this.costs = (U[]) new Addable [nbrCosts];
+			for (int i = 0; i < nbrCosts; i++)
+				this.costs[i] = (U) in.readObject();
+		}
+	}
+
+	/** @see Message#fakeSerialize() */
+	@Override
+	public void fakeSerialize () {
+		this.msg.fakeSerialize();
+	}
+
+	/** @see Message#toString() */
+	@Override
+	public String toString () {
+		return "Message(type = `" + this.type + "')\n\tmsg: " + this.msg + "\n\tcycle: " + this.cycle +
+				(this.costs == null ? "" : "\n\tcosts from cycle " + this.firstCostCycle + ": " + java.util.Arrays.toString(this.costs)) +
+				(this.bestCycle < 0 ? "" : "\n\tbestCycle: " + this.bestCycle);
+	}
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -4467413287512406151L;
+
+}
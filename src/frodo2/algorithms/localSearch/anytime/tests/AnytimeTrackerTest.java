@@ -0,0 +1,179 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Tests for the AnytimeTracker */
+package frodo2.algorithms.localSearch.anytime.tests;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.algorithms.RandGraphFactory;
+import frodo2.algorithms.RandGraphFactory.Graph;
+import frodo2.algorithms.Solution;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.anytime.AnytimeTracker;
+import frodo2.algorithms.localSearch.dsa.DSA;
+import frodo2.algorithms.localSearch.dsa.DSAsolver;
+import frodo2.algorithms.localSearch.mgm.MGM;
+import frodo2.algorithms.localSearch.mgm.MGMsolver;
+import frodo2.algorithms.localSearch.simulated.SimulatedEngine;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableInteger;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the AnytimeTracker
+ * @author Thomas Leaute
+ */
+public class AnytimeTrackerTest extends TestCase {
+
+	/** The number of decision cycles */
+	private static final int NBR_CYCLES = 30;
+
+	/** Whether to maximize utility or minimize cost */
+	private final boolean maximize;
+
+	/** Constructor
+	 * @param method 		the test method
+	 * @param maximize 		whether to maximize utility or minimize cost
+	 */
+	public AnytimeTrackerTest(String method, boolean maximize) {
+		super(method);
+		this.maximize = maximize;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the AnytimeTracker");
+
+		for (boolean maximize : new boolean[] { false, true }) {
+			suite.addTest(new RepeatedTest (new AnytimeTrackerTest ("testDSA", maximize), 50));
+			suite.addTest(new RepeatedTest (new AnytimeTrackerTest ("testMGM", maximize), 50));
+		}
+
+		return suite;
+	}
+
+	/** Sets the number of cycles of a local search module, and the strategy of DSA
+	 * @param agentDesc 	the agent configuration
+	 * @param className 	the class of the local search module
+	 */
+	@SuppressWarnings("unchecked")
+	private static void setNbrCycles (Document agentDesc, String className) {
+		for (Element module : (List<Element>) agentDesc.getRootElement().getChild("modules").getChildren())
+			if (module.getAttributeValue("className").equals(className)) {
+				module.setAttribute("nbrCycles", Integer.toString(NBR_CYCLES));
+				if (className.equals(DSA.class.getName())) { // use an explorative strategy, whose trajectory is not monotonic
+					module.setAttribute("strategy", DSA.A.class.getName());
+					module.setAttribute("probability", "1.0");
+				}
+			}
+	}
+
+	/** Checks that DSA with the tracker reports the best assignment in its trajectory, without any additional message while DSA runs
+	 * @throws Exception 	if an error occurs
+	 */
+	public void testDSA () throws Exception {
+
+		Graph graph = RandGraphFactory.getRandGraph(15, 30, 2);
+		Document problemDoc = AllTests.generateProblem(graph, this.maximize, 0, false, 0.0);
+		XCSPparser<AddableInteger, AddableInteger> problem = new XCSPparser<AddableInteger, AddableInteger> (problemDoc);
+		long seed = (long) (Math.random() * Integer.MAX_VALUE);
+
+		// Run DSA with the tracker
+		Document agentDesc = XCSPparser.parse("src/frodo2/algorithms/localSearch/dsa/DSAagentAnytime.xml", false);
+		setNbrCycles(agentDesc, DSA.class.getName());
+		DSAsolver<AddableInteger, AddableInteger> solver = new DSAsolver<AddableInteger, AddableInteger> (agentDesc);
+		solver.setSeed(seed);
+		Solution<AddableInteger, AddableInteger> sol = solver.solve(problemDoc);
+		assertEquals(problem.getVariables(), sol.getAssignments().keySet());
+		assertEquals(problem.getUtility(sol.getAssignments()).getUtility(0), sol.getUtility());
+
+		// Run the same DSA without the tracker
+		Document plainDesc = XCSPparser.parse("src/frodo2/algorithms/localSearch/dsa/DSAagent.xml", false);
+		setNbrCycles(plainDesc, DSA.class.getName());
+		DSAsolver<AddableInteger, AddableInteger> plainSolver = new DSAsolver<AddableInteger, AddableInteger> (plainDesc);
+		plainSolver.setSeed(seed);
+		Solution<AddableInteger, AddableInteger> plainSol = plainSolver.solve(problemDoc);
+
+		// The tracker must not send any additional value message
+		assertEquals(plainSol.getMsgNbrs().get(DSA.VALUE_MSG_TYPE), sol.getMsgNbrs().get(AnytimeTracker.PIGGYBACK_MSG_TYPE));
+		assertNull(sol.getMsgNbrs().get(DSA.VALUE_MSG_TYPE));
+
+		// The reported assignment must be the best one in DSA's trajectory, each component being tracked independently
+		SimulatedEngine<AddableInteger, AddableInteger> engine = new SimulatedEngine<AddableInteger, AddableInteger> (
+				problem, SimulatedEngine.createRule(plainDesc, problem), seed);
+		engine.run();
+		assertEquals(plainSol.getAssignments(), engine.getSolution());
+		Map<String, AddableInteger> best = engine.getAssignment(0);
+		for (List<String> component : graph.components) {
+			AddableInteger bestUtil = problem.getUtility(best).getUtility(0);
+			for (int cycle = 1; cycle < engine.getTrajectoryLength(); cycle++) {
+				Map<String, AddableInteger> assignment = new HashMap<String, AddableInteger> (best);
+				for (String var : component) 
+					assignment.put(var, engine.getValue(cycle, var));
+				AddableInteger util = problem.getUtility(assignment).getUtility(0);
+				if (this.maximize ? util.compareTo(bestUtil) > 0 : util.compareTo(bestUtil) < 0) {
+					best = assignment;
+					bestUtil = util;
+				}
+			}
+		}
+		assertEquals(problem.getUtility(best).getUtility(0), sol.getUtility());
+	}
+
+	/** Checks that MGM with the tracker reports an assignment at least as good as MGM's final assignment
+	 * @throws Exception 	if an error occurs
+	 */
+	public void testMGM () throws Exception {
+
+		Document problemDoc = AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 2), this.maximize, 0, false, 0.0);
+		XCSPparser<AddableInteger, AddableInteger> problem = new XCSPparser<AddableInteger, AddableInteger> (problemDoc);
+		long seed = (long) (Math.random() * Integer.MAX_VALUE);
+
+		Document agentDesc = XCSPparser.parse("src/frodo2/algorithms/localSearch/mgm/MGMagentAnytime.xml", false);
+		setNbrCycles(agentDesc, MGM.class.getName());
+		MGMsolver<AddableInteger, AddableInteger> solver = new MGMsolver<AddableInteger, AddableInteger> (agentDesc);
+		solver.setSeed(seed);
+		Solution<AddableInteger, AddableInteger> sol = solver.solve(problemDoc);
+		assertEquals(problem.getVariables(), sol.getAssignments().keySet());
+		assertEquals(problem.getUtility(sol.getAssignments()).getUtility(0), sol.getUtility());
+
+		Document plainDesc = XCSPparser.parse("src/frodo2/algorithms/localSearch/mgm/MGMagent.xml", false);
+		setNbrCycles(plainDesc, MGM.class.getName());
+		MGMsolver<AddableInteger, AddableInteger> plainSolver = new MGMsolver<AddableInteger, AddableInteger> (plainDesc);
+		plainSolver.setSeed(seed);
+		Solution<AddableInteger, AddableInteger> plainSol = plainSolver.solve(problemDoc);
+
+		assertEquals(plainSol.getMsgNbrs().get(MGM.OK_MSG_TYPE), sol.getMsgNbrs().get(AnytimeTracker.PIGGYBACK_MSG_TYPE));
+		if (this.maximize)
+			assertTrue(sol.getUtility() + " < " + plainSol.getUtility(), sol.getUtility().compareTo(plainSol.getUtility()) >= 0);
+		else
+			assertTrue(sol.getUtility() + " > " + plainSol.getUtility(), sol.getUtility().compareTo(plainSol.getUtility()) <= 0);
+	}
+
+}
@@ -6,13 +6,15 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.jdom2.Element;
 
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.CycleWindow;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration.DFSview;
 import frodo2.communication.Message;
@@ -22,6 +24,7 @@ import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableConflicts;
 import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 
 /**
@@ -67,6 +70,9 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 	/** For each variable its assignment history */
 	private HashMap<String, ArrayList<CurrentAssignment<V>>> assignmentHistoriesMap;
 
+	/** The buffer of the assignments not yet reported to the stats monitor */
+	private StatsReporterWithConvergence.ConvStatBuffer<V> convStats;
+
 	/** The map representing a container with information for each variable held by the agent */
 	private HashMap<String,VariableInfo> infos;
 
@@ -76,9 +82,6 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 	/** Whether the listener should record the assignment history or not */
 	private boolean convergence;
 	
-	/** Random value generator used for choosing initial values for each variable */
-	public static Random RANDOM = new Random(1);
-	
 	/** Constructor for the stats gatherer mode
 	 * @param parameters	the parameters of the module
 	 * @param problem		the overall problem
@@ -86,6 +89,7 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 	public COOPT(Element params, DCOPProblemInterface<V, U> prob) {
 		problem = prob;
 		convergence = false;
+		assignmentHistoriesMap = new HashMap<String, ArrayList<CurrentAssignment<V>>>();
 		
 		infos = new HashMap<String,VariableInfo>();
 	}
@@ -107,6 +111,9 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		this.coupling = coupling == null ? 1.0 : Double.parseDouble(coupling);
 		
 		convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
+		
+		String convergenceInterval = parameters.getAttributeValue("convergenceInterval");
+		convStats = new StatsReporterWithConvergence.ConvStatBuffer<V>(CONV_STATS_MSG_TYPE, convergenceInterval == null ? 10 : Integer.parseInt(convergenceInterval));
 	}
 	
 	public void getStatsFromQueue(Queue queue) {
@@ -122,6 +129,9 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		
 		done = false;
 		variableFinishedCounter = 0;
+		
+		if (convStats != null) 
+			convStats.clear();
 	}
 	
 	public void setQueue(Queue queue) {
@@ -144,8 +154,7 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 	}
 	
 	public HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>> getAssignmentHistories() {
-		/* Not implemented */
-		return new HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>>();
+		return assignmentHistoriesMap;
 	}
 
 	public Map<String, V> getCurrentSolution() {
@@ -159,7 +168,7 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 
 		if (type.equals(CONV_STATS_MSG_TYPE)) { // in stats gatherer mode, the message sent by a variable containing the assignment history 
 			StatsReporterWithConvergence.ConvStatMessage<V> convStatMessage = (StatsReporterWithConvergence.ConvStatMessage<V>) message;
-			assignmentHistoriesMap.put(convStatMessage.getVar(), convStatMessage.getAssignmentHistory());
+			StatsReporterWithConvergence.ConvStatBuffer.append(assignmentHistoriesMap, convStatMessage);
 			
 			return;
 		}
@@ -176,7 +185,7 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 
 			VariableInfo info = new VariableInfo(view.getID());
 			info.parent = view.getParent();
-			info.children.addAll(view.getChildren());
+			info.setChildren(view.getChildren());
 
 			infos.put(view.getID(), info);
 
@@ -241,11 +250,12 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		
 	private void initVar(String variable) {
 		VariableInfo info = infos.get(variable);
-		V value = info.domain[(int) (Math.random() * info.domain.length)]; //chooses a value randomly
+		SplittableRandom random = problem.getRandomStreams().forVariable(variable);
+		V value = info.domain[(int) (random.nextDouble() * info.domain.length)]; //chooses a value randomly
 		U utility = info.getBestLocalUtility(value); //calculates the best local utility
 		
 		info.frequency = utility.doubleValue();
-		info.phase = RANDOM.nextGaussian();
+		info.phase = RandomStreams.nextGaussian(random);
 		
 		this.assign(variable, value);
 		this.sendAssignMessage(variable);
@@ -272,15 +282,18 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		VariableInfo info = infos.get(variable);
 		
 		if (info.counter < maxCycles) {
-			V value = this.updateFrequence(variable);
+			info.loadNeighbors();
+			int value = this.updateFrequence(variable);
 			this.updatePhase(variable, value);
 
 			info.counter++;
+			info.discardBefore(info.counter - 1);
 			
-			this.assign(variable, value);
+			this.assign(variable, info.domain[value]);
 			this.sendAssignMessage(variable);
 		} else {
 			this.sendStatsMessage(variable);
+			this.flushStatsMessage(variable);
 			queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (variable, info.bestValue));
 			
 			variableFinishedCounter++;
@@ -315,69 +328,27 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		}
 	}
 
-	private V updateFrequence(String variable) {
+	/** Chooses the value minimizing the costs weighted by the phase differences with the neighbors loaded by VariableInfo#loadNeighbors(), and updates the frequency
+	 * @param variable 	the variable
+	 * @return the index of the chosen value
+	 */
+	private int updateFrequence(String variable) {
 		VariableInfo info = infos.get(variable);
 		
-		double freq = 0;
-		double min = Double.MAX_VALUE;
-		double ti = info.phase;
-
-		V value = null;
-
-		Map<V, Double> argmax = new HashMap<V, Double>();
-
-		for (int i = 0; i < info.domain.length; i++) {
-			V di = info.domain[i];
-
-			double cost = 0;
-			double sum = 0;
-
-			for (String neighbor : problem.getNeighborVars(info.name)) {
-				View<V> view = info.view.get(neighbor + "-" + info.counter);
-
-				if (view != null) {
-					V dj = info.solution.get(neighbor); //view.getValue();
-					
-					double tj = view.getPhase();
-					double fij = info.fij(di,neighbor,dj).doubleValue();
-
-					cost += fij;
-					sum += fij + (fij * 0.5 * (Math.cos(tj - ti) + 1));
-				}
-			}
-
-			if (sum < min || value == null) {
-				min = sum;
-				freq = cost;
-				value = di;
-			}
-
-			argmax.put(di, sum);
-		}
-
-		info.frequency = freq;
+		int value = info.oscillator.updateFrequency(info.phase, info.neighborPhases, info.neighborValues);
+		info.frequency = info.oscillator.getFrequency();
 
 		return value;
 	}
 
-	private void updatePhase(String variable, V di) {
+	/** Updates the phase, given the neighbors loaded by VariableInfo#loadNeighbors()
+	 * @param variable 	the variable
+	 * @param i 		the index of the chosen value
+	 */
+	private void updatePhase(String variable, int i) {
 		VariableInfo info = infos.get(variable);
 		
-		double sum = 0;
-		double ti = info.phase;
-
-		for (String neighbor : problem.getNeighborVars(info.name)) {
-			View<V> view = info.view.get(neighbor + "-" + info.counter);
-
-			if (view != null) {
-				V dj = info.solution.get(neighbor); //view.getValue();
-				
-				double tj = view.getPhase();
-				double fij = info.fij(di,neighbor,dj).doubleValue();
-
-				sum += fij * Math.sin(tj - ti);
-			}
-		}
+		double sum = info.oscillator.getCoupling(i, info.phase, info.neighborPhases, info.neighborValues);
 
 		info.phase = info.frequency + ((coupling / problem.getVariables().size()) * sum);
 	}
@@ -406,9 +377,13 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		if(convergence) {
 			VariableInfo info = infos.get(variable);
 			
-			ArrayList<CurrentAssignment<V>> history = assignmentHistoriesMap.get(variable);
-			history.add(new CurrentAssignment<V>(queue.getCurrentTime(), info.counter, info.value));
-			queue.sendMessage(AgentInterface.STATS_MONITOR, new StatsReporterWithConvergence.ConvStatMessage<V>(CONV_STATS_MSG_TYPE, variable, history));
+			convStats.record(queue, variable, queue.getCurrentTime(), info.counter, info.value);
+		}
+	}
+	
+	private void flushStatsMessage(String variable) {
+		if(convergence) {
+			convStats.flush(queue, variable);
 		}
 	}
 	
@@ -427,9 +402,10 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 	class VariableInfo {
 		public String name;
 		public List<? extends UtilitySolutionSpace<V, U>> spaces;
+		public LocalCostEvaluator<V, U> evaluator;
 
-		public Map<String,View<V>> view;
-		public Map<String, U> costs;
+		public CycleWindow<View<V>> view;
+		public CycleWindow<U> costs;
 		
 		public String parent;
 		public Collection<String> children;
@@ -446,6 +422,21 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		
 		public Map<String,V> solution;
 		public Map<String,Double> phases;
+		
+		/** The precomputed pairwise costs with the neighbors, in the order of the senders of \a view */
+		public OscillatorCosts oscillator;
+		
+		/** For each neighbor, the index of each of its values */
+		public Map<V,Integer>[] neighborIndexes;
+		
+		/** For each neighbor, the index of the latest value received */
+		public int[] latestValues;
+		
+		/** For each neighbor, the phase used in the current update */
+		public double[] neighborPhases;
+		
+		/** For each neighbor, the index of the value used in the current update, or -1 if the neighbor's view is missing */
+		public int[] neighborValues;
 
 		public int counter;
 		
@@ -458,16 +449,62 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 
 			children = new ArrayList<String>();
 
-			view = new HashMap<String,View<V>>();
-			costs = new HashMap<String,U>();
+			view = new CycleWindow<View<V>>(problem.getNeighborVars(name));
+			costs = new CycleWindow<U>(children);
 			
 			solution = new HashMap<String,V>();
 			phases =  new HashMap<String,Double>();
 			
 			domain = problem.getDomain(name);
 			spaces = problem.getSolutionSpaces(name, false);
+			evaluator = new LocalCostEvaluator<V, U>(name, domain, spaces, problem.getPlusInfUtility());
+			
+			this.createOscillator();
+		}
+		
+		/** Precomputes the pairwise costs with the neighbors and allocates the buffers used by the updates */
+		@SuppressWarnings("unchecked")
+		private void createOscillator() {
+			final int nbrNeighbors = view.size();
+			String[] neighbors = new String[nbrNeighbors];
+			V[][] neighborDomains = (V[][]) Array.newInstance(domain.getClass(), nbrNeighbors);
+			neighborIndexes = new Map[nbrNeighbors];
+			
+			for (int k = 0; k < nbrNeighbors; k++) {
+				neighbors[k] = view.getSender(k);
+				neighborDomains[k] = problem.getDomain(neighbors[k]);
+				
+				neighborIndexes[k] = new HashMap<V,Integer>(neighborDomains[k].length);
+				for (int j = 0; j < neighborDomains[k].length; j++) {
+					neighborIndexes[k].put(neighborDomains[k][j], j);
+				}
+			}
+			
+			oscillator = new OscillatorCosts(evaluator, neighbors, neighborDomains);
+			latestValues = new int[nbrNeighbors];
+			neighborPhases = new double[nbrNeighbors];
+			neighborValues = new int[nbrNeighbors];
 		}
 		
+		/** Loads the phases of the neighbors in the current cycle, together with their latest values */
+		public void loadNeighbors() {
+			for (int k = 0; k < view.size(); k++) {
+				View<V> v = view.get(k, counter);
+				
+				if (v != null) {
+					neighborPhases[k] = v.getPhase();
+					neighborValues[k] = latestValues[k];
+				} else {
+					neighborValues[k] = -1;
+				}
+			}
+		}
+		
+		public void setChildren(Collection<String> children) {
+			this.children.addAll(children);
+			costs = new CycleWindow<U>(this.children);
+		}
+
 		public void assign(V v) {
 			solution.put(name, v);
 			
@@ -610,9 +647,12 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		}
 		
 		public void updateLocalView(int cycle, String neighbor, V value, double phase) {
+			int k = view.indexOf(neighbor);
+			latestValues[k] = neighborIndexes[k].get(value);
+			
 			solution.put(neighbor, value);
 			phases.put(neighbor, phase);
-			view.put(neighbor + "-" + cycle, new View<V>(neighbor, cycle, value, phase));
+			view.put(neighbor, cycle, new View<V>(neighbor, cycle, value, phase));
 		}
 		
 		public void updateBestCycle(int cycle) {
@@ -623,128 +663,41 @@ public class COOPT<V extends Addable<V>, U extends Addable<U>> implements StatsR
 		}
 
 		public void updateLocalCost(int cycle, String variable, U utility) {
-			costs.put(variable + "-" + cycle, utility);
+			costs.put(variable, cycle, utility);
 		}
 
-		public Map<String, V> getAssigments(int cycle) {
-			Map<String, V> assignments = new HashMap<String, V>();
-			assignments.put(name, value);
-
-			for (String neighbor : problem.getNeighborVars(name)) {
-				V value = view.get(neighbor + "-" + cycle).getValue();
-				if (value != null)
-					assignments.put(neighbor, value);
+		public void loadView(int cycle) {
+			for (int i = 0; i < view.size(); i++) {
+				evaluator.setNeighborValue(view.getSender(i), view.get(i, cycle).getValue());
 			}
-
-			return assignments;
 		}
 
 		public boolean isViewUpdated(int cycle) {
-			for (String neighbor : problem.getNeighborVars(name)) {
-				if (view.get(neighbor + "-" + cycle) == null) {
-					return false;
-				}
-			}
-
-			return true;
+			return view.isComplete(cycle);
 		}
 		
 		public boolean isLocalCostUpdated(int cycle) {
-			for (String child : children) {
-				if (costs.get(child + "-" + cycle) == null) {
-					return false;
-				}
-			}
+			return costs.isComplete(cycle);
+		}
 
-			return true;
+		public void discardBefore(int cycle) {
+			view.discardBefore(cycle);
+			costs.discardBefore(cycle);
 		}
 
 		public U getSubtreeCost() {
-			Map<String, V> assignments = this.getAssigments(counter);
-			U cost = this.calculateUtility(assignments);
+			this.loadView(counter);
+			U cost = evaluator.getUtility(evaluator.indexOf(value));
 
-			for (String variable : children) {
-				cost = cost.add(costs.get(variable + "-" + counter));
+			for (int i = 0; i < costs.size(); i++) {
+				cost = cost.add(costs.get(i, counter));
 			}
 			
 			return cost;
 		}
 		
-		@SuppressWarnings("unchecked")
 		public U fij(V di, String neighbor, V dj) {
-			U cost = null;
-			
-			int conflicts = 0;
-
-			AddableDelayed<U> util = problem.getZeroUtility().addDelayed();
-			
-			Map<String,V> assignments = new HashMap<String,V>();
-			assignments.put(name, di);
-			assignments.put(neighbor, dj);
-			
-			for (int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				String[] variables = space.getVariables();
-				int size = variables.length;
-				
-				V[] values = (V[]) Array.newInstance(domain.getClass().getComponentType(), size);
-
-				boolean complete = true;
-				
-				for (int k = 0; k < size; k++) {
-					if (assignments.get(variables[k]) != null) {
-						values[k] = assignments.get(variables[k]);
-					} else {
-						complete = false;
-						break;
-					}
-				}
-				
-				if (!complete) continue;
-
-				U c = space.getUtility(variables, values);
-
-				if (c == problem.getPlusInfUtility()) {
-					conflicts++;
-				}
-
-				util.addDelayed(c);
-			}
-
-			cost = new AddableConflicts<U>(util.resolve(), conflicts).getUtility();
-			
-			return cost;
-		}
-
-		@SuppressWarnings("unchecked")
-		public U calculateUtility(Map<String, V> assignments) {
-			int conflicts = 0;
-
-			AddableDelayed<U> util = problem.getZeroUtility().addDelayed();
-
-			for (int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				String[] variables = space.getVariables();
-				int size = variables.length;
-
-				V[] values = (V[]) Array.newInstance(domain.getClass().getComponentType(), size);
-
-				for (int k = 0; k < size; k++) {
-					values[k] = assignments.get(variables[k]);
-				}
-
-				U u = space.getUtility(variables, values);
-
-				if (u == problem.getPlusInfUtility()) {
-					conflicts++;
-				}
-
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U>(util.resolve(), conflicts).getUtility();
+			return evaluator.getPairUtility(evaluator.indexOf(di), neighbor, dj);
 		}
 	}
 }
@@ -0,0 +1,136 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.coopt;
+
+import java.util.Arrays;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.solutionSpaces.Addable;
+
+/** The pairwise costs of a COOPT oscillator with its neighbors, precomputed as arrays of doubles
+ *
+ * For each neighbor, the costs are stored in a flat table in which the costs of all values of the variable
+ * for a given value of the neighbor are contiguous, such that the frequency update evaluates the coupling terms
+ * for all values of the variable in tight loops over arrays, computing each cosine once per neighbor rather than once per value.
+ * The buffers used by the updates are allocated once and reused across cycles. Instances share no mutable state, such that
+ * the oscillators of all variables of an agent (or of all variables, in the SimulatedEngine) can be updated together.
+ * @author Thomas Leaute
+ */
+public class OscillatorCosts {
+
+	/** The domain size of the variable */
+	private final int domSize;
+
+	/** For each neighbor, the cost of each pair of values, at index j * domSize + i for the variable's i-th value and the neighbor's j-th value */
+	private final double[][] tables;
+
+	/** For each value of the variable, the sum of its costs with the known neighbors */
+	private final double[] costs;
+
+	/** For each value of the variable, the sum of its costs weighted by the phase differences with the known neighbors */
+	private final double[] sums;
+
+	/** The frequency computed by the last call to updateFrequency() */
+	private double frequency;
+
+	/** Constructor
+	 * @param <V> 				the type used for variable values
+	 * @param <U> 				the type used for utility values
+	 * @param evaluator 		the evaluator of the variable's local costs
+	 * @param neighbors 		the neighbors
+	 * @param neighborDomains 	for each neighbor, its domain
+	 */
+	public < V extends Addable<V>, U extends Addable<U> > OscillatorCosts (LocalCostEvaluator<V, U> evaluator, String[] neighbors, V[][] neighborDomains) {
+
+		this.domSize = evaluator.getDomain().length;
+		this.costs = new double [this.domSize];
+		this.sums = new double [this.domSize];
+
+		this.tables = new double [neighbors.length][];
+		for (int k = 0; k < neighbors.length; k++) {
+			V[] neighDom = neighborDomains[k];
+			double[] table = this.tables[k] = new double [neighDom.length * this.domSize];
+			for (int j = 0; j < neighDom.length; j++)
+				for (int i = 0; i < this.domSize; i++)
+					table[j * this.domSize + i] = evaluator.getPairUtility(i, neighbors[k], neighDom[j]).doubleValue();
+		}
+	}
+
+	/** Chooses the value minimizing the costs weighted by the phase differences with the neighbors, as COOPT#updateFrequence()
+	 * @param ti 		the phase of the variable
+	 * @param phases 	for each neighbor, its phase
+	 * @param values 	for each neighbor, the index of its value, or a negative number if it is unknown
+	 * @return the index of the chosen value; its frequency is then returned by getFrequency()
+	 */
+	public int updateFrequency (double ti, double[] phases, int[] values) {
+
+		Arrays.fill(this.costs, 0.0);
+		Arrays.fill(this.sums, 0.0);
+
+		for (int k = 0; k < this.tables.length; k++) {
+			final int j = values[k];
+			if (j < 0)
+				continue;
+
+			final double[] table = this.tables[k];
+			final int offset = j * this.domSize;
+			final double cos = Math.cos(phases[k] - ti) + 1;
+			for (int i = 0; i < this.domSize; i++) {
+				double fij = table[offset + i];
+				this.costs[i] += fij;
+				this.sums[i] += fij + (fij * 0.5 * cos);
+			}
+		}
+
+		int value = 0;
+		for (int i = 1; i < this.domSize; i++)
+			if (this.sums[i] < this.sums[value])
+				value = i;
+
+		this.frequency = this.costs[value];
+		return value;
+	}
+
+	/** @return the frequency computed by the last call to updateFrequency() */
+	public double getFrequency () {
+		return this.frequency;
+	}
+
+	/** Computes the coupling term of the phase update, as COOPT#updatePhase()
+	 * @param i 		the index of the variable's value
+	 * @param ti 		the phase of the variable
+	 * @param phases 	for each neighbor, its phase
+	 * @param values 	for each neighbor, the index of its value, or a negative number if it is unknown
+	 * @return the sum over the known neighbors of the pairwise costs weighted by the sines of the phase differences
+	 */
+	public double getCoupling (int i, double ti, double[] phases, int[] values) {
+
+		double sum = 0;
+		for (int k = 0; k < this.tables.length; k++)
+			if (values[k] >= 0)
+				sum += this.tables[k][values[k] * this.domSize + i] * Math.sin(phases[k] - ti);
+
+		return sum;
+	}
+
+}
@@ -25,16 +25,16 @@ package frodo2.algorithms.localSearch.dsa;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.Map.Entry;
 
 import org.jdom2.Element;
@@ -42,14 +42,13 @@ import org.jdom2.Element;
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.communication.Message;
 import frodo2.communication.MessageType;
 import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableConflicts;
-import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
-import frodo2.solutionSpaces.UtilitySolutionSpace;
 
 /**
  * @author Brammert Ottens, 10 aug 2009
@@ -139,6 +138,12 @@ implements StatsReporterWithConvergence<Val> {
 	/** \c true when this agent has sent the agent finished message during initialization */
 	protected boolean terminated;
 
+	/** For each variable, its value at the end of the previous run, used as the initial value when the algorithm is run again */
+	protected HashMap<String, Val> lastValues;
+
+	/** \c true when the previous run has finished, and the next start message should re-initialize the agent's variables */
+	protected boolean restarting;
+
 	/** Constructor for the stats gatherer mode
 	 * @param parameters 	the parameters of the module
 	 * @param problem 		the overall problem
@@ -246,6 +251,13 @@ implements StatsReporterWithConvergence<Val> {
 
 			VariableInfo<Val, U> varInfo = createVariableInfo(var, problem.getDomain(var), neighbours.toArray(new String[0]), problem);
 			
+			// Keep the value from the previous run, if it is still in the domain
+			Val lastValue = (this.lastValues == null ? null : this.lastValues.get(var));
+			if (lastValue != null && ! neighbours.isEmpty() && Arrays.asList(varInfo.domain).contains(lastValue)) {
+				varInfo.currentValue = lastValue;
+				varInfo.context.put(var, lastValue);
+			}
+			
 			infos.put(var, varInfo);
 			assignmentHistoriesMap.put(var, new ArrayList<CurrentAssignment<Val>>());
 			if(convergence)
@@ -292,9 +304,18 @@ implements StatsReporterWithConvergence<Val> {
 		return new VariableInfo<Val, U>(variableID, domain, neighbours, problem, this);
 	}
 
-	/** @see StatsReporterWithConvergence#reset() */
+	/** Remembers the current assignments, so that the next run on a modified problem starts from them
+	 * @see StatsReporterWithConvergence#reset() 
+	 */
 	public void reset() {
-		/// @todo Auto-generated method stub
+		
+		if (this.infos != null) {
+			this.lastValues = new HashMap<String, Val> (this.infos.size());
+			for (VariableInfo<Val, U> varInfo : this.infos.values()) 
+				this.lastValues.put(varInfo.variableID, varInfo.currentValue);
+		}
+		
+		this.restarting = true;
 	}
 
 	/** 
@@ -367,6 +388,13 @@ implements StatsReporterWithConvergence<Val> {
 
 		if(!this.started)
 			init();
+		
+		else if (this.restarting && type.equals(START_MSG_TYPE)) { // start again from the last assignments
+			this.restarting = false;
+			this.variableFinishedCounter = 0;
+			this.terminated = false;
+			init();
+		}
 
 		if (type.equals(VALUE_MSG_TYPE)) {
 			VALUEmsg<Val> msgCast = (VALUEmsg<Val>)msg;
@@ -495,8 +523,8 @@ implements StatsReporterWithConvergence<Val> {
 		/** Its current utility */
 		protected U currentUtility;
 
-		/** The variable's local problem */
-		private List< ? extends UtilitySolutionSpace<Val, U> > spaces;
+		/** Incrementally maintains the local cost of each value in the domain, given the context */
+		protected LocalCostEvaluator<Val, U> evaluator;
 
 		/** The set of neighbours that have reported a value */
 		protected Set<String> reportedNeighbours;
@@ -522,6 +550,9 @@ implements StatsReporterWithConvergence<Val> {
 		/** pointer to the listener that owns this object */
 		protected DSA<Val, U> listener;
 
+		/** The variable's random number stream */
+		protected final SplittableRandom random;
+
 		/**
 		 * Constructor
 		 * @param variableID	The ID of the variable
@@ -536,6 +567,7 @@ implements StatsReporterWithConvergence<Val> {
 			this.domainSize = domain.length;
 			maximize = problem.maximize();
 			this.listener = listener;
+			this.random = problem.getRandomStreams().forVariable(variableID);
 			if(maximize)
 				this.infeasibleUtil = problem.getMinInfUtility();
 			else
@@ -557,14 +589,14 @@ implements StatsReporterWithConvergence<Val> {
 			}
 
 			/// @todo All spaces should be joined to make use of the power of the local solver, but then we can't count constraint violations anymore... 
-			spaces = problem.getSolutionSpaces(variableID, false);
+			evaluator = new LocalCostEvaluator<Val, U> (variableID, domain, problem.getSolutionSpaces(variableID, false), this.infeasibleUtil);
 
 			if(numberOfNeighbours == 0) {
 				VarAssignment<Val, U> ass = bestAssignment();
 				currentValue = ass.value;
 				currentUtility = ass.util;
 			} else {
-				currentValue = domain[(int)(Math.random()*domainSize)];
+				currentValue = domain[(int)(random.nextDouble()*domainSize)];
 				if(maximize)
 					currentUtility = zero.getMinInfinity();
 				else
@@ -585,17 +617,14 @@ implements StatsReporterWithConvergence<Val> {
 			Val value = domain[0];
 
 			for(int i = 0; i < domainSize; i++) {
-				Val v = domain[i];
-				context.put(variableID, v);
-				AddableConflicts<U> util = calculateUtility();
+				AddableConflicts<U> util = evaluator.getCost(i);
 
 				if(maximize ? max.compareTo(util) < 0 : max.compareTo(util) > 0) {
 					max = util;
-					value = v;
+					value = domain[i];
 				}
 			}
 
-			context.put(variableID, currentValue);
 			return new VarAssignment<Val, U> (value, max.getUtility());
 		}
 
@@ -626,6 +655,7 @@ implements StatsReporterWithConvergence<Val> {
 			Val value = msg.getValue();
 			if(reportedNeighbours.add(neighbour)) {
 				context.put(neighbour, value);
+				evaluator.setNeighborValue(neighbour, value);
 				if(reportedNeighbours.size() == numberOfNeighbours) {
 					currentUtility = calculateUtility().getUtility();
 					return true;
@@ -646,26 +676,8 @@ implements StatsReporterWithConvergence<Val> {
 		 * @author Brammert Ottens, 19 aug 2009
 		 * @return	the current local utility
 		 */
-		@SuppressWarnings("unchecked")
 		protected AddableConflicts<U> calculateUtility() {
-			
-			int conflicts = 0;
-			AddableDelayed<U> util = zero.addDelayed();
-			for(int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<Val, U> space = spaces.get(j);
-				String[] vars = space.getVariables();
-				int nbrVars = vars.length;
-				Val[] values = (Val[]) Array.newInstance(this.domain.getClass().getComponentType(), nbrVars);
-				for(int k = 0; k < nbrVars; k++) {
-					values[k] = context.get(vars[k]);
-				}
-				U u = space.getUtility(vars, values);
-				if(u == this.infeasibleUtil)
-					conflicts++;
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U> (util.resolve(), conflicts);
+			return evaluator.getCost(evaluator.indexOf(context.get(variableID)));
 		}
 
 		/**
@@ -771,7 +783,7 @@ implements StatsReporterWithConvergence<Val> {
 			}
 
 			if (comparison > 0) {
-				if(Math.random() <= superClass.p) {
+				if(varInfo.random.nextDouble() <= superClass.p) {
 					return varInfo.setCurrentValue(ass);
 				}
 			}
@@ -814,7 +826,7 @@ implements StatsReporterWithConvergence<Val> {
 			}
 
 			if (comparison >= 0) {
-				if(Math.random() <= superClass.p)
+				if(varInfo.random.nextDouble() <= superClass.p)
 					return varInfo.setCurrentValue(ass);
 			}
 
@@ -855,7 +867,7 @@ implements StatsReporterWithConvergence<Val> {
 
 			if ( comparison > 0) {
 				return varInfo.setCurrentValue(ass);
-			} else if(comparison == 0 && Math.random() <= superClass.p) {
+			} else if(comparison == 0 && varInfo.random.nextDouble() <= superClass.p) {
 				return varInfo.setCurrentValue(ass);
 			}
 
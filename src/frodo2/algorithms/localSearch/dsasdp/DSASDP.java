@@ -1,10 +1,8 @@
 package frodo2.algorithms.localSearch.dsasdp;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.jdom2.Element;
@@ -12,16 +10,15 @@ import org.jdom2.Element;
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.CycleWindow;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration.DFSview;
 import frodo2.communication.Message;
 import frodo2.communication.MessageType;
 import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
-import frodo2.solutionSpaces.AddableConflicts;
-import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
-import frodo2.solutionSpaces.UtilitySolutionSpace;
 
 /**
  * This class implements the DSA Slope Dependent Probability (DSA-SDP) as described in
@@ -59,6 +56,9 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 	/** For each variable its assignment history */
 	private HashMap<String, ArrayList<CurrentAssignment<V>>> assignmentHistoriesMap;
 
+	/** The buffer of the assignments not yet reported to the stats monitor */
+	private StatsReporterWithConvergence.ConvStatBuffer<V> convStats;
+
 	/** The number of synchronous cycles before termination, except except for isolated variables */
 	private int maxCycles;
 	
@@ -87,6 +87,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 	public DSASDP(Element params, DCOPProblemInterface<V, U> prob) {
 		problem = prob;
 		convergence = false;
+		assignmentHistoriesMap = new HashMap<String, ArrayList<CurrentAssignment<V>>>();
 		
 		infos = new HashMap<String, VariableInfo>();
 	}
@@ -115,6 +116,9 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		this.pD = pD == null ? 0.8 : Double.parseDouble(pD);
 		
 		convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
+		
+		String convergenceInterval = parameters.getAttributeValue("convergenceInterval");
+		convStats = new StatsReporterWithConvergence.ConvStatBuffer<V>(CONV_STATS_MSG_TYPE, convergenceInterval == null ? 10 : Integer.parseInt(convergenceInterval));
 	}
 
 	public void getStatsFromQueue(Queue queue) {
@@ -130,6 +134,9 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		
 		done = false;
 		variableFinishedCounter = 0;
+		
+		if (convStats != null) 
+			convStats.clear();
 	}
 
 	public void setQueue(Queue queue) {
@@ -152,8 +159,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 	}
 
 	public HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>> getAssignmentHistories() {
-		/* Not implemented */
-		return new HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>>();
+		return assignmentHistoriesMap;
 	}
 
 	public Map<String, V> getCurrentSolution() {
@@ -167,7 +173,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 
 		if (type.equals(CONV_STATS_MSG_TYPE)) { // in stats gatherer mode, the message sent by a variable containing the assignment history 
 			StatsReporterWithConvergence.ConvStatMessage<V> convStatMessage = (StatsReporterWithConvergence.ConvStatMessage<V>) message;
-			assignmentHistoriesMap.put(convStatMessage.getVar(), convStatMessage.getAssignmentHistory());
+			StatsReporterWithConvergence.ConvStatBuffer.append(assignmentHistoriesMap, convStatMessage);
 
 			return;
 		}
@@ -184,7 +190,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 
 			VariableInfo info = new VariableInfo(view.getID());
 			info.parent = view.getParent();
-			info.children.addAll(view.getChildren());
+			info.setChildren(view.getChildren());
 
 			infos.put(view.getID(), info);
 
@@ -249,7 +255,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 
 	public void initVar(String variable) {
 		V[] domain = problem.getDomain(variable);
-		V value = domain[(int) (Math.random() * domain.length)];
+		V value = domain[(int) (problem.getRandomStreams().forVariable(variable).nextDouble() * domain.length)];
 
 		this.assign(variable, value);
 		this.sendAssignMessage(variable);
@@ -276,15 +282,13 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		VariableInfo info = infos.get(variable);
 
 		if (info.counter < maxCycles) {
-			Map<String, V> assignments = info.getAssigments(info.counter);
+			info.loadView(info.counter);
 
 			U cost = null;
 			V best = null;
 
 			for (int i = 0; i < info.domain.length; i++) {
-				assignments.put(variable, info.domain[i]);
-
-				U util = info.calculateUtility(assignments);
+				U util = info.evaluator.getUtility(i);
 
 				if (cost == null || cost.doubleValue() > util.doubleValue()) {
 					best = info.domain[i];
@@ -303,17 +307,19 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 				}
 			}
 
-			if (Math.random() > prob) {
+			if (problem.getRandomStreams().forVariable(variable).nextDouble() > prob) {
 				// restore last assignment
 				best = info.value;
 			}
 
 			info.counter++;
+			info.discardBefore(info.counter - 1);
 
 			this.assign(variable, best);
 			this.sendAssignMessage(variable);
 		} else {
 			this.sendStatsMessage(variable);
+			this.flushStatsMessage(variable);
 			
 			queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (variable, info.bestValue));
 			
@@ -375,9 +381,13 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		if(convergence) {
 			VariableInfo info = infos.get(variable);
 			
-			ArrayList<CurrentAssignment<V>> history = assignmentHistoriesMap.get(variable);
-			history.add(new CurrentAssignment<V>(queue.getCurrentTime(), info.counter, info.value));
-			queue.sendMessage(AgentInterface.STATS_MONITOR, new StatsReporterWithConvergence.ConvStatMessage<V>(CONV_STATS_MSG_TYPE, variable, history));
+			convStats.record(queue, variable, queue.getCurrentTime(), info.counter, info.value);
+		}
+	}
+	
+	private void flushStatsMessage(String variable) {
+		if(convergence) {
+			convStats.flush(queue, variable);
 		}
 	}
 
@@ -395,10 +405,10 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 
 	class VariableInfo {
 		public String name;
-		public List<? extends UtilitySolutionSpace<V, U>> spaces;
+		public LocalCostEvaluator<V, U> evaluator;
 
-		public Map<String, View<V>> view;
-		public Map<String, U> costs;
+		public CycleWindow<View<V>> view;
+		public CycleWindow<U> costs;
 
 		public String parent;
 		public Collection<String> children;
@@ -421,11 +431,16 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 
 			children = new ArrayList<String>();
 
-			view = new HashMap<String, View<V>>();
-			costs = new HashMap<String, U>();
+			view = new CycleWindow<View<V>>(problem.getNeighborVars(name));
+			costs = new CycleWindow<U>(children);
 
 			domain = problem.getDomain(name);
-			spaces = problem.getSolutionSpaces(name, false);
+			evaluator = new LocalCostEvaluator<V, U>(name, domain, problem.getSolutionSpaces(name, false), problem.getPlusInfUtility());
+		}
+
+		public void setChildren(Collection<String> children) {
+			this.children.addAll(children);
+			costs = new CycleWindow<U>(this.children);
 		}
 
 		public void assign(V v) {
@@ -435,7 +450,7 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		}
 
 		public void updateLocalView(int cycle, String neighbor, V value) {
-			view.put(neighbor + "-" + cycle, new View<V>(neighbor, cycle, value));
+			view.put(neighbor, cycle, new View<V>(neighbor, cycle, value));
 		}
 
 		public void updateBestCycle(int cycle) {
@@ -446,81 +461,37 @@ public class DSASDP<V extends Addable<V>, U extends Addable<U>> implements Stats
 		}
 
 		public void updateLocalCost(int cycle, String variable, U utility) {
-			costs.put(variable + "-" + cycle, utility);
+			costs.put(variable, cycle, utility);
 		}
 
-		public Map<String, V> getAssigments(int cycle) {
-			Map<String, V> assignments = new HashMap<String, V>();
-			assignments.put(name, value);
-
-			for (String neighbor : problem.getNeighborVars(name)) {
-				V value = view.get(neighbor + "-" + cycle).getValue();
-				if (value != null)
-					assignments.put(neighbor, value);
+		public void loadView(int cycle) {
+			for (int i = 0; i < view.size(); i++) {
+				evaluator.setNeighborValue(view.getSender(i), view.get(i, cycle).getValue());
 			}
-
-			return assignments;
 		}
 
 		public boolean isViewUpdated(int cycle) {
-			for (String neighbor : problem.getNeighborVars(name)) {
-				if (view.get(neighbor + "-" + cycle) == null) {
-					return false;
-				}
-			}
-
-			return true;
+			return view.isComplete(cycle);
 		}
 
 		public boolean isLocalCostUpdated(int cycle) {
-			for (String child : children) {
-				if (costs.get(child + "-" + cycle) == null) {
-					return false;
-				}
-			}
+			return costs.isComplete(cycle);
+		}
 
-			return true;
+		public void discardBefore(int cycle) {
+			view.discardBefore(cycle);
+			costs.discardBefore(cycle);
 		}
 
 		public U getSubtreeCost() {
-			Map<String, V> assignments = this.getAssigments(counter);
-			U cost = this.calculateUtility(assignments);
+			this.loadView(counter);
+			U cost = evaluator.getUtility(evaluator.indexOf(value));
 
-			for (String variable : children) {
-				cost = cost.add(costs.get(variable + "-" + counter));
+			for (int i = 0; i < costs.size(); i++) {
+				cost = cost.add(costs.get(i, counter));
 			}
 			
 			return cost;
 		}
-
-		@SuppressWarnings("unchecked")
-		public U calculateUtility(Map<String, V> assignments) {
-			int conflicts = 0;
-
-			AddableDelayed<U> util = problem.getZeroUtility().addDelayed();
-
-			for (int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				String[] variables = space.getVariables();
-				int size = variables.length;
-
-				V[] values = (V[]) Array.newInstance(domain.getClass().getComponentType(), size);
-
-				for (int k = 0; k < size; k++) {
-					values[k] = assignments.get(variables[k]);
-				}
-
-				U u = space.getUtility(variables, values);
-
-				if (u == problem.getPlusInfUtility()) {
-					conflicts++;
-				}
-
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U>(util.resolve(), conflicts).getUtility();
-		}
 	}
 }
@@ -0,0 +1,203 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.gdba;
+
+import java.util.Arrays;
+
+import frodo2.solutionSpaces.Addable;
+
+/** The breakout modifiers of a binary constraint, indexed by the indexes of the values of its two variables
+ *
+ * The modifier of an entry is the number of times it has been increased, and is stored as the sum of four sparse terms:
+ * a counter for the whole table, one counter per row, one counter per column, and an int-coded hash table containing
+ * only the entries that have been increased individually. Increasing a whole row, column or table therefore takes constant time,
+ * and looking up a modifier takes constant time, no matter how many breakouts have been performed.
+ * @author Thomas Leaute
+ */
+public class BreakoutModifiers {
+
+	/** The key used to mark an empty slot in \a keys */
+	private static final int EMPTY = -1;
+
+	/** The number of values of the first variable */
+	private final int nbrRows;
+
+	/** The number of values of the second variable */
+	private final int nbrCols;
+
+	/** The number of times the whole table has been increased */
+	private int tableMod;
+
+	/** For each row, the number of times it has been increased as a whole; \c null if no row has been increased */
+	private int[] rowMods;
+
+	/** For each column, the number of times it has been increased as a whole; \c null if no column has been increased */
+	private int[] colMods;
+
+	/** The open-addressing hash table of the codes i * nbrCols + j of the entries increased individually */
+	private int[] keys;
+
+	/** The numbers of times the entries in \a keys have been increased individually */
+	private int[] entryMods;
+
+	/** The number of entries in \a keys */
+	private int nbrEntries;
+
+	/** 32 minus the base-2 logarithm of the capacity of \a keys, used to hash the codes of the entries */
+	private int shift;
+
+	/** Constructor
+	 * @param nbrRows 	the number of values of the first variable
+	 * @param nbrCols 	the number of values of the second variable
+	 */
+	public BreakoutModifiers (int nbrRows, int nbrCols) {
+		this.nbrRows = nbrRows;
+		this.nbrCols = nbrCols;
+	}
+
+	/** Returns the modifier of an entry
+	 * @param i 	the index of the value of the first variable
+	 * @param j 	the index of the value of the second variable
+	 * @return the number of times the entry has been increased
+	 */
+	public int get (int i, int j) {
+
+		int mod = this.tableMod;
+		if (this.rowMods != null)
+			mod += this.rowMods[i];
+		if (this.colMods != null)
+			mod += this.colMods[j];
+		if (this.nbrEntries > 0) {
+			int slot = this.find(i * this.nbrCols + j);
+			if (this.keys[slot] != EMPTY)
+				mod += this.entryMods[slot];
+		}
+
+		return mod;
+	}
+
+	/** Increases by 1 the modifiers in the scope of a violated entry
+	 * @param scope 	the scope of the increase, i.e. GDBA#SCOPE_E, GDBA#SCOPE_C, GDBA#SCOPE_R or GDBA#SCOPE_T
+	 * @param i 		the index of the value of the first variable
+	 * @param j 		the index of the value of the second variable
+	 */
+	public void increase (int scope, int i, int j) {
+
+		if (scope == GDBA.SCOPE_E)
+			this.increaseEntry(i * this.nbrCols + j);
+
+		else if (scope == GDBA.SCOPE_C) {
+			if (this.colMods == null)
+				this.colMods = new int [this.nbrCols];
+			this.colMods[j]++;
+
+		} else if (scope == GDBA.SCOPE_R) {
+			if (this.rowMods == null)
+				this.rowMods = new int [this.nbrRows];
+			this.rowMods[i]++;
+
+		} else if (scope == GDBA.SCOPE_T)
+			this.tableMod++;
+	}
+
+	/** @return the number of entries that have been increased individually */
+	public int getNbrEntries () {
+		return this.nbrEntries;
+	}
+
+	/** Combines a cost with a modifier
+	 * @param <U> 		the type used for utility values
+	 * @param manner 	the manner in which the modifier is applied, i.e. GDBA#MANNER_M or GDBA#MANNER_A
+	 * @param cost 		the cost
+	 * @param mod 		the modifier
+	 * @return \a cost * (mod + 1) if \a manner is GDBA#MANNER_M, and \a cost + mod otherwise
+	 */
+	public static < U extends Addable<U> > U apply (int manner, U cost, int mod) {
+
+		if (mod == 0)
+			return cost;
+		else if (manner == GDBA.MANNER_M)
+			return cost.multiply(cost.fromInt(mod + 1));
+		else
+			return cost.add(cost.fromInt(mod));
+	}
+
+	/** Increases by 1 the individual modifier of an entry
+	 * @param key 	the code of the entry
+	 */
+	private void increaseEntry (int key) {
+
+		if (this.keys == null) {
+			this.keys = new int [16];
+			Arrays.fill(this.keys, EMPTY);
+			this.entryMods = new int [16];
+			this.shift = 32 - 4;
+		}
+
+		int slot = this.find(key);
+		if (this.keys[slot] != EMPTY) {
+			this.entryMods[slot]++;
+			return;
+		}
+
+		this.keys[slot] = key;
+		this.entryMods[slot] = 1;
+
+		// Keep the load factor below 1/2
+		if (++this.nbrEntries * 2 > this.keys.length)
+			this.rehash();
+	}
+
+	/** Looks up the slot of an entry by linear probing
+	 * @param key 	the code of the entry
+	 * @return the slot containing \a key, or the empty slot where it should be inserted
+	 */
+	private int find (int key) {
+
+		final int mask = this.keys.length - 1;
+		int slot = (key * 0x9E3779B9) >>> this.shift; // Fibonacci hashing
+		while (this.keys[slot] != EMPTY && this.keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/** Doubles the capacity of the hash table */
+	private void rehash () {
+
+		int[] oldKeys = this.keys;
+		int[] oldMods = this.entryMods;
+		this.keys = new int [2 * oldKeys.length];
+		Arrays.fill(this.keys, EMPTY);
+		this.entryMods = new int [this.keys.length];
+		this.shift--;
+
+		for (int k = 0; k < oldKeys.length; k++) {
+			if (oldKeys[k] != EMPTY) {
+				int slot = this.find(oldKeys[k]);
+				this.keys[slot] = oldKeys[k];
+				this.entryMods[slot] = oldMods[k];
+			}
+		}
+	}
+
+}
@@ -1,6 +1,5 @@
 package frodo2.algorithms.localSearch.gdba;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -12,14 +11,14 @@ import org.jdom2.Element;
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.CycleWindow;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration;
 import frodo2.algorithms.varOrdering.dfs.DFSgeneration.DFSview;
 import frodo2.communication.Message;
 import frodo2.communication.MessageType;
 import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
-import frodo2.solutionSpaces.AddableConflicts;
-import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 
@@ -63,6 +62,9 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 	/** For each variable its assignment history */
 	private HashMap<String, ArrayList<CurrentAssignment<V>>> assignmentHistoriesMap;
 
+	/** The buffer of the assignments not yet reported to the stats monitor */
+	private StatsReporterWithConvergence.ConvStatBuffer<V> convStats;
+
 	/** The number of synchronous cycles before termination, except except for isolated variables */
 	private int maxCycles;
 	
@@ -122,6 +124,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 	public GDBA(Element params, DCOPProblemInterface<V, U> prob)  {
 		problem = prob;
 		convergence = false;
+		assignmentHistoriesMap = new HashMap<String, ArrayList<CurrentAssignment<V>>>();
 		
 		infos = new HashMap<String,VariableInfo>();
 	}
@@ -178,6 +181,9 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		}
 		
 		convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
+		
+		String convergenceInterval = parameters.getAttributeValue("convergenceInterval");
+		convStats = new StatsReporterWithConvergence.ConvStatBuffer<V>(CONV_STATS_MSG_TYPE, convergenceInterval == null ? 10 : Integer.parseInt(convergenceInterval));
 	}
 	
 	public void getStatsFromQueue(Queue queue) {
@@ -193,6 +199,9 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		
 		done = false;
 		variableFinishedCounter = 0;
+		
+		if (convStats != null) 
+			convStats.clear();
 	}
 
 	public void setQueue(Queue queue) {
@@ -216,8 +225,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 	}
 
 	public HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>> getAssignmentHistories() {
-		/* Not implemented */
-		return new HashMap<String, ArrayList<StatsReporterWithConvergence.CurrentAssignment<V>>>();
+		return assignmentHistoriesMap;
 	}
 
 	public Map<String, V> getCurrentSolution() {
@@ -231,7 +239,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 
 		if (type.equals(CONV_STATS_MSG_TYPE)) { // in stats gatherer mode, the message sent by a variable containing the assignment history 
 			StatsReporterWithConvergence.ConvStatMessage<V> convStatMessage = (StatsReporterWithConvergence.ConvStatMessage<V>) message;
-			assignmentHistoriesMap.put(convStatMessage.getVar(), convStatMessage.getAssignmentHistory());
+			StatsReporterWithConvergence.ConvStatBuffer.append(assignmentHistoriesMap, convStatMessage);
 
 			return;
 		}
@@ -248,7 +256,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 
 			VariableInfo info = new VariableInfo(view.getID());
 			info.parent = view.getParent();
-			info.children.addAll(view.getChildren());
+			info.setChildren(view.getChildren());
 
 			infos.put(view.getID(), info);
 
@@ -326,7 +334,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 	
 	private void initVar(String variable) {
 		V[] domain = problem.getDomain(variable);
-		V value = domain[(int) (Math.random() * domain.length)];
+		V value = domain[(int) (problem.getRandomStreams().forVariable(variable).nextDouble() * domain.length)];
 
 		this.assign(variable, value);
 		this.sendAssignMessage(variable);
@@ -350,13 +358,18 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 			
 			U min = problem.getPlusInfUtility();
 			
+			String[] neighbors = problem.getNeighborVars(variable).toArray(new String[0]);
+			ArrayList<V> values = new ArrayList<V>(neighbors.length);
+			for (String neighbor : neighbors) {
+				values.add(info.view.get(neighbor, cycle).getValue());
+			}
+			
 			for (int i = 0; i < info.domain.length; i++) {
 				U sum = problem.getZeroUtility();
 				V d = info.domain[i];
 				
-				for (String neighbor : problem.getNeighborVars(variable)) {
-					V dj = info.view.get(neighbor + "-" + cycle).getValue();
-					U u = this.effCost(variable, d, neighbor, dj);
+				for (int n = 0; n < neighbors.length; n++) {
+					U u = this.effCost(variable, d, neighbors[n], values.get(n));
 					
 					// 'sum' adds 'u'
 					sum = sum.add(u);
@@ -372,11 +385,9 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 			
 			V di = info.value;
 			
-			for (String neighbor : problem.getNeighborVars(variable)) {
-				V dj = info.view.get(neighbor + "-" + cycle).getValue();
-				
-				U current = this.effCost(variable, di, neighbor, dj);
-				U improve = this.effCost(variable, info.improve, neighbor, dj);
+			for (int n = 0; n < neighbors.length; n++) {
+				U current = this.effCost(variable, di, neighbors[n], values.get(n));
+				U improve = this.effCost(variable, info.improve, neighbors[n], values.get(n));
 				
 				// 'delta' receives the difference between 'current' and 'improve'
 				delta = delta.add(current.subtract(improve));
@@ -388,56 +399,26 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		}
 	}
 	
+	/** Computes the effective cost of a constraint, i.e. its cost combined with its sparse modifier
+	 * @param variable 	the variable
+	 * @param di 		the variable's value
+	 * @param neighbor 	the neighbor
+	 * @param dj 		the neighbor's value
+	 * @return the effective cost
+	 */
 	private U effCost(String variable, V di, String neighbor, V dj) {
 		VariableInfo info = infos.get(variable);
 		
-		U[][] modifier = info.modifiers.get(neighbor); 
-		
-		int x = info.domain[0].intValue() == 0 ? 0 : 1;
-		
-		U fij = info.fij(di, neighbor, dj);
-		U mij = modifier[di.intValue() - x][dj.intValue() - x];
+		int i = info.evaluator.indexOf(di);
+		U fij = info.evaluator.getPairUtility(i, neighbor, dj);
 		
-		if (manner == MANNER_M) {
-			// 'fij' = 'fij' ('mij' + 1) 
-			fij = fij.multiply(mij.add(mij.fromInt(1)));
-		} else if (manner == MANNER_A) {
-			// 'fij' = 'fij' + 'mij'
-			fij = fij.add(mij);
-		}
-		
-		return fij;
+		return BreakoutModifiers.apply(manner, fij, info.modifiers.get(neighbor).get(i, info.getNeighborIndex(neighbor, dj)));
 	}
 	
 	private void increaseMod(String variable, V di, String neighbor, V dj) {
 		VariableInfo info = infos.get(variable);
 		
-		U[][] modifier = info.modifiers.get(neighbor);
-		
-		if (scope == SCOPE_E) {
-			int i = info.getDomainIndex(di);
-			int j = info.getDomainIndex(dj);
-			
-			modifier[i][j].add(modifier[i][j].fromInt(1)); // 'modifier[i][j]' plus 1
-		} else if (scope == SCOPE_C) {
-			for (int i = 0; i < modifier.length; i++) {
-				int j = info.getDomainIndex(dj);
-
-				modifier[i][j].add(modifier[i][j].fromInt(1)); // 'modifier[i][j]' plus 1
-			}
-		} else if (scope == SCOPE_R) {
-			for (int j = 0; j < modifier.length; j++) {
-				int i = info.getDomainIndex(di);
-				
-				modifier[i][j].add(modifier[i][j].fromInt(1)); // 'modifier[i][j]' plus 1
-			}
-		} else if (scope == SCOPE_T) {
-			for (int i = 0; i < modifier.length; i++) {
-				for (int j = 0; j < modifier.length; j++) {
-					modifier[i][j].add(modifier[i][j].fromInt(1)); // 'modifier[i][j]' plus 1
-				}
-			}
-		}
+		info.modifiers.get(neighbor).increase(scope, info.evaluator.indexOf(di), info.getNeighborIndex(neighbor, dj));
 	}
 	
 	private boolean isViolated(String variable, V di, String neighbor, V dj) {
@@ -449,38 +430,11 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 			// 'c' greater than zero utility
 			return c.compareTo(problem.getZeroUtility()) > 0;
 		} else if (violation == VIOLATION_NM) {
-			U min = problem.getPlusInfUtility();
-			
-			for (int i = 0; i < info.domain.length; i++) {
-				for (int j = 0; j < info.domain.length; j++) {
-					U fij = info.fij(info.domain[i], neighbor, info.domain[j]);
-					
-					// 'fij' less than 'min'
-					if (fij.compareTo(min) < 0) {
-						min = fij;
-					}
-				}
-			}
-			
-			// 'c' greater than 'min'
-			return c.compareTo(min) > 0;
-			
+			// 'c' greater than the minimum cost of the constraint
+			return c.compareTo(info.getThreshold(neighbor)) > 0;
 		} else if (violation == VIOLATION_MX) {
-			U max = problem.getZeroUtility();
-			
-			for (int i = 0; i < info.domain.length; i++) {
-				for (int j = 0; j < info.domain.length; j++) {
-					U fij = info.fij(info.domain[i], neighbor, info.domain[j]);
-					
-					// 'fij' greater than 'max'
-					if (fij.compareTo(max) > 0) {
-						max = fij;
-					}
-				}
-			}
-			
-			// 'c' equals to 'max'
-			return c.compareTo(max) == 0;
+			// 'c' equals to the maximum cost of the constraint
+			return c.compareTo(info.getThreshold(neighbor)) == 0;
 		}
 		
 		return false;
@@ -503,7 +457,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 				boolean bestImprovement = true;
 				
 				for (String neighbor : problem.getNeighborVars(variable)) {
-					Delta<U> dj = info.deltas.get(neighbor + "-" + info.counter);
+					Delta<U> dj = info.deltas.get(neighbor, info.counter);
 					
 					if (info.delta.doubleValue() < dj.getDelta().doubleValue()) {
 						bestImprovement = false;
@@ -518,7 +472,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 				boolean neighborCanImprove = false;
 				
 				for (String neighbor : problem.getNeighborVars(variable)) {
-					Delta<U> dj = info.deltas.get(neighbor + "-" + info.counter);
+					Delta<U> dj = info.deltas.get(neighbor, info.counter);
 					
 					if (dj.getDelta().doubleValue() > 0) {
 						neighborCanImprove = true;
@@ -529,7 +483,7 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 				if (!neighborCanImprove) {
 					for (String neighbor : problem.getNeighborVars(variable)) {
 						V di = info.value;
-						V dj = info.view.get(neighbor + "-" + info.counter).getValue();
+						V dj = info.view.get(neighbor, info.counter).getValue();
 						
 						if (this.isViolated(variable, di, neighbor, dj)) {
 							this.increaseMod(variable, di, neighbor, dj);
@@ -539,11 +493,13 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 			}
 			
 			info.counter++;
+			info.discardBefore(info.counter - 1);
 			
 			this.assign(variable, best);
 			this.sendAssignMessage(variable);
 		} else {
 			this.sendStatsMessage(variable);
+			this.flushStatsMessage(variable);
 			queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (variable, info.bestValue));
 			
 			variableFinishedCounter++;
@@ -610,9 +566,13 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		if(convergence) {
 			VariableInfo info = infos.get(variable);
 			
-			ArrayList<CurrentAssignment<V>> history = assignmentHistoriesMap.get(variable);
-			history.add(new CurrentAssignment<V>(queue.getCurrentTime(), info.counter, info.value));
-			queue.sendMessage(AgentInterface.STATS_MONITOR, new StatsReporterWithConvergence.ConvStatMessage<V>(CONV_STATS_MSG_TYPE, variable, history));
+			convStats.record(queue, variable, queue.getCurrentTime(), info.counter, info.value);
+		}
+	}
+	
+	private void flushStatsMessage(String variable) {
+		if(convergence) {
+			convStats.flush(queue, variable);
 		}
 	}
 	
@@ -631,12 +591,19 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 	class VariableInfo {
 		public String name;
 		public List<? extends UtilitySolutionSpace<V,U>> spaces;
+		public LocalCostEvaluator<V, U> evaluator;
 
-		public Map<String, View<V>> view;
-		public Map<String, U> costs;
+		public CycleWindow<View<V>> view;
+		public CycleWindow<U> costs;
+		
+		public Map<String,BreakoutModifiers> modifiers;
+		
+		/** For each neighbor, the index of each of its values */
+		public Map<String,Map<V,Integer>> neighborIndexes;
 		
-		public Map<String,U[][]> modifiers;
-		public Map<String,Delta<U>> deltas;
+		/** For each neighbor, the minimum (NM) or maximum (MX) cost of the constraint, which does not depend on the modifiers */
+		public Map<String,U> thresholds;
+		public CycleWindow<Delta<U>> deltas;
 
 		public String parent;
 		public Collection<String> children;
@@ -662,43 +629,74 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 
 			children = new ArrayList<String>();
 
-			view = new HashMap<String,View<V>>();
-			costs = new HashMap<String,U>();
+			view = new CycleWindow<View<V>>(problem.getNeighborVars(name));
+			costs = new CycleWindow<U>(children);
 			
-			modifiers = new HashMap<String,U[][]>();
-			deltas = new HashMap<String,Delta<U>>();
+			modifiers = new HashMap<String,BreakoutModifiers>();
+			neighborIndexes = new HashMap<String,Map<V,Integer>>();
+			thresholds = new HashMap<String,U>();
+			deltas = new CycleWindow<Delta<U>>(problem.getNeighborVars(name));
 
 			domain = problem.getDomain(name);
 			spaces = problem.getSolutionSpaces(name, false);
+			evaluator = new LocalCostEvaluator<V, U>(name, domain, spaces, problem.getPlusInfUtility());
 			
 			this.createModifiers();
 		}
 		
-		@SuppressWarnings("unchecked")
+		/** Creates the sparse modifiers of the constraints with the neighbors, which store no entry until breakouts occur */
 		private void createModifiers() {
 			for (String neighbor : problem.getNeighborVars(name)) {
-				U[][] modifier = (U[][]) Array.newInstance(problem.getZeroUtility().getClass(), domain.length, domain.length); 
-						
-				for (int i = 0; i < modifier.length; i++) {
-					for (int j = 0; j < modifier.length; j++) {
-						modifier[i][j] = problem.getZeroUtility();
-					}
+				V[] neighborDomain = problem.getDomain(neighbor);
+				
+				Map<V,Integer> indexes = new HashMap<V,Integer>(neighborDomain.length);
+				for (int j = 0; j < neighborDomain.length; j++) {
+					indexes.put(neighborDomain[j], j);
 				}
 				
-				modifiers.put(neighbor, modifier);
+				neighborIndexes.put(neighbor, indexes);
+				modifiers.put(neighbor, new BreakoutModifiers(domain.length, neighborDomain.length));
 			}
 		}
 		
-		public int getDomainIndex(V d) {
-			for (int i = 0; i < domain.length; i++) {
-				if (d.compareTo(domain[i]) == 0) {
-					return i;
+		/** Returns the index of a value of a neighbor
+		 * @param neighbor 	the neighbor
+		 * @param value 	the neighbor's value
+		 * @return the index of the value in the neighbor's domain
+		 */
+		public int getNeighborIndex(String neighbor, V value) {
+			return neighborIndexes.get(neighbor).get(value);
+		}
+		
+		/** Returns the threshold used to decide whether the constraint with a neighbor is violated, computed on first use
+		 * @param neighbor 	the neighbor
+		 * @return the minimum (NM) or maximum (MX) cost of the constraint
+		 */
+		public U getThreshold(String neighbor) {
+			U threshold = thresholds.get(neighbor);
+			
+			if (threshold == null) {
+				threshold = (violation == VIOLATION_NM ? problem.getPlusInfUtility() : problem.getZeroUtility());
+				
+				for (V dj : problem.getDomain(neighbor)) {
+					for (int i = 0; i < domain.length; i++) {
+						U fij = evaluator.getPairUtility(i, neighbor, dj);
+						
+						if (violation == VIOLATION_NM ? fij.compareTo(threshold) < 0 : fij.compareTo(threshold) > 0) {
+							threshold = fij;
+						}
+					}
 				}
+				
+				thresholds.put(neighbor, threshold);
 			}
 			
-			return -1;
-			
-			
+			return threshold;
+		}
+
+		public void setChildren(Collection<String> children) {
+			this.children.addAll(children);
+			costs = new CycleWindow<U>(this.children);
 		}
 
 		public void assign(V v) {
@@ -708,11 +706,11 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		}
 
 		public void updateLocalView(int cycle, String neighbor, V value) {
-			view.put(neighbor + "-" + cycle, new View<V>(neighbor, cycle, value));
+			view.put(neighbor, cycle, new View<V>(neighbor, cycle, value));
 		}
 		
 		public void updateDelta(int cycle, String variable, U delta) {
-			deltas.put(variable + "-" + cycle, new Delta<U>(variable, cycle, delta));
+			deltas.put(variable, cycle, new Delta<U>(variable, cycle, delta));
 		}
 
 		public void updateBestCycle(int cycle) {
@@ -723,136 +721,46 @@ public class GDBA<V extends Addable<V>,U extends Addable<U>> implements StatsRep
 		}
 
 		public void updateLocalCost(int cycle, String variable, U utility) {
-			costs.put(variable + "-" + cycle, utility);
+			costs.put(variable, cycle, utility);
 		}
 
-		public Map<String, V> getAssigments(int cycle) {
-			Map<String, V> assignments = new HashMap<String, V>();
-			assignments.put(name, value);
-
-			for (String neighbor : problem.getNeighborVars(name)) {
-				V value = view.get(neighbor + "-" + cycle).getValue();
-				if (value != null)
-					assignments.put(neighbor, value);
+		public void loadView(int cycle) {
+			for (int i = 0; i < view.size(); i++) {
+				evaluator.setNeighborValue(view.getSender(i), view.get(i, cycle).getValue());
 			}
-
-			return assignments;
 		}
 
 		public boolean isViewUpdated(int cycle) {
-			for (String neighbor : problem.getNeighborVars(name)) {
-				if (view.get(neighbor + "-" + cycle) == null) {
-					return false;
-				}
-			}
-
-			return true;
+			return view.isComplete(cycle);
 		}
 		
 		public boolean isDeltaUpdated(int cycle) {
-			for (String neighbor : problem.getNeighborVars(name)) {
-				if (deltas.get(neighbor + "-" + cycle) == null) {
-					return false;
-				}
-			}
-			
-			return true;
+			return deltas.isComplete(cycle);
 		}
 
 		public boolean isLocalCostUpdated(int cycle) {
-			for (String child : children) {
-				if (costs.get(child + "-" + cycle) == null) {
-					return false;
-				}
-			}
+			return costs.isComplete(cycle);
+		}
 
-			return true;
+		public void discardBefore(int cycle) {
+			view.discardBefore(cycle);
+			deltas.discardBefore(cycle);
+			costs.discardBefore(cycle);
 		}
 
 		public U getSubtreeCost() {
-			Map<String, V> assignments = this.getAssigments(counter);
-			U cost = this.calculateUtility(assignments);
+			this.loadView(counter);
+			U cost = evaluator.getUtility(evaluator.indexOf(value));
 
-			for (String variable : children) {
-				cost = cost.add(costs.get(variable + "-" + counter));
+			for (int i = 0; i < costs.size(); i++) {
+				cost = cost.add(costs.get(i, counter));
 			}
 			
 			return cost;
 		}
 		
-		@SuppressWarnings("unchecked")
 		public U fij(V di, String neighbor, V dj) {
-			int conflicts = 0;
-
-			AddableDelayed<U> util = problem.getZeroUtility().addDelayed();
-			
-			Map<String,V> assignments = new HashMap<String,V>();
-			assignments.put(name, di);
-			assignments.put(neighbor, dj);
-			
-			for (int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				String[] variables = space.getVariables();
-				int size = variables.length;
-				
-				V[] values = (V[]) Array.newInstance(domain.getClass().getComponentType(), size);
-
-				boolean complete = true;
-				
-				for (int k = 0; k < size; k++) {
-					if (assignments.get(variables[k]) != null) {
-						values[k] = assignments.get(variables[k]);
-					} else {
-						complete = false;
-						break;
-					}
-				}
-				
-				if (!complete) continue;
-
-				U c = space.getUtility(variables, values);
-
-				if (c == problem.getPlusInfUtility()) {
-					conflicts++;
-				}
-
-				util.addDelayed(c);
-			}
-
-			U cost = new AddableConflicts<U>(util.resolve(), conflicts).getUtility();
-			
-			return cost;
-		}
-
-		@SuppressWarnings("unchecked")
-		public U calculateUtility(Map<String, V> assignments) {
-			int conflicts = 0;
-
-			AddableDelayed<U> util = problem.getZeroUtility().addDelayed();
-
-			for (int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				String[] variables = space.getVariables();
-				int size = variables.length;
-
-				V[] values = (V[]) Array.newInstance(domain.getClass().getComponentType(), size);
-
-				for (int k = 0; k < size; k++) {
-					values[k] = assignments.get(variables[k]);
-				}
-
-				U u = space.getUtility(variables, values);
-
-				if (u == problem.getPlusInfUtility()) {
-					conflicts++;
-				}
-
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U>(util.resolve(), conflicts).getUtility();
+			return evaluator.getPairUtility(evaluator.indexOf(di), neighbor, dj);
 		}
 	}
 }
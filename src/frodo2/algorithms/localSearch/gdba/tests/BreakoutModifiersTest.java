@@ -0,0 +1,97 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Tests for GDBA */
+package frodo2.algorithms.localSearch.gdba.tests;
+
+import frodo2.algorithms.localSearch.gdba.BreakoutModifiers;
+import frodo2.algorithms.localSearch.gdba.GDBA;
+import frodo2.solutionSpaces.AddableInteger;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the BreakoutModifiers
+ * @author Thomas Leaute
+ */
+public class BreakoutModifiersTest extends TestCase {
+
+	/** Constructor
+	 * @param method 	the test method
+	 */
+	public BreakoutModifiersTest(String method) {
+		super(method);
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the BreakoutModifiers");
+
+		suite.addTest(new BreakoutModifiersTest ("testApply"));
+		suite.addTest(new RepeatedTest (new BreakoutModifiersTest ("testRandom"), 200));
+
+		return suite;
+	}
+
+	/** Tests the multiplicative and additive manners */
+	public void testApply () {
+
+		AddableInteger cost = new AddableInteger (3);
+		assertSame(cost, BreakoutModifiers.apply(GDBA.MANNER_M, cost, 0));
+		assertSame(cost, BreakoutModifiers.apply(GDBA.MANNER_A, cost, 0));
+		assertEquals(new AddableInteger (9), BreakoutModifiers.apply(GDBA.MANNER_M, cost, 2));
+		assertEquals(new AddableInteger (5), BreakoutModifiers.apply(GDBA.MANNER_A, cost, 2));
+	}
+
+	/** Compares the sparse modifiers with a dense table after random increases in all scopes */
+	public void testRandom () {
+
+		final int nbrRows = 1 + (int) (Math.random() * 20);
+		final int nbrCols = 1 + (int) (Math.random() * 20);
+		BreakoutModifiers mods = new BreakoutModifiers (nbrRows, nbrCols);
+		int[][] dense = new int [nbrRows][nbrCols];
+		final int[] scopes = new int[] { GDBA.SCOPE_E, GDBA.SCOPE_C, GDBA.SCOPE_R, GDBA.SCOPE_T };
+
+		for (int step = 0; step < 500; step++) {
+			int i = (int) (Math.random() * nbrRows);
+			int j = (int) (Math.random() * nbrCols);
+			int scope = scopes[(int) (Math.random() * (step < 250 ? 1 : scopes.length))];
+			mods.increase(scope, i, j);
+
+			for (int i2 = 0; i2 < nbrRows; i2++)
+				for (int j2 = 0; j2 < nbrCols; j2++)
+					if ((i2 == i || scope == GDBA.SCOPE_C || scope == GDBA.SCOPE_T) && (j2 == j || scope == GDBA.SCOPE_R || scope == GDBA.SCOPE_T))
+						dense[i2][j2]++;
+		}
+
+		int nbrTouched = 0;
+		for (int i = 0; i < nbrRows; i++) {
+			for (int j = 0; j < nbrCols; j++) {
+				assertEquals("(" + i + ", " + j + ")", dense[i][j], mods.get(i, j));
+				if (dense[i][j] > 0)
+					nbrTouched++;
+			}
+		}
+		assertTrue(mods.getNbrEntries() <= nbrTouched);
+	}
+
+}
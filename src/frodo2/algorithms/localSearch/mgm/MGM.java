@@ -33,18 +33,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.jdom2.Element;
 
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.communication.Message;
 import frodo2.communication.MessageType;
 import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableConflicts;
-import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 
@@ -398,6 +399,12 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 		/** The variable's local problem */
 		protected List<UtilitySolutionSpace<V, U>> spaces;
 
+		/** The variable's random number stream */
+		protected final SplittableRandom random;
+
+		/** Incrementally maintains the local cost of each value in the domain, given the agent view */
+		protected LocalCostEvaluator<V, U> evaluator;
+
 		/** The variable's current value */
 		protected V currentValue;
 		
@@ -465,7 +472,8 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 			this.maximize = maximize;
 			this.variableID = variableID;
 			domain = problem.getDomain(variableID);
-			this.currentValueIndex = (int)(Math.random()*domain.length);
+			this.random = problem.getRandomStreams().forVariable(variableID);
+			this.currentValueIndex = (int)(random.nextDouble()*domain.length);
 			this.currentValue = domain[this.currentValueIndex];
 			okMsgsToProcess = new ArrayList<OK<V>>();
 			improveMsgsToProcess = new ArrayList<IMPROVE<U>>();
@@ -482,6 +490,7 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 			
 			U inf = maximize ? problem.getMinInfUtility() : problem.getPlusInfUtility();
 			this.infeasibleUtility = new AddableConflicts<U>(inf, Integer.MAX_VALUE);
+			this.evaluator = new LocalCostEvaluator<V, U> (variableID, domain, this.spaces, inf);
 			this.zeroUtility = problem.getZeroUtility();
 			this.zeroConflicts = new AddableConflicts<U>(zeroUtility, 0);
 
@@ -506,6 +515,7 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 		 */
 		public void setNeighborValue(String neighbor, V value) {
 			agent_view[neighborPointer.get(neighbor)] = value;
+			evaluator.setNeighborValue(neighbor, value);
 		}
 		
 		/**
@@ -513,18 +523,7 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 		 * @author Brammert Ottens, 1 apr. 2011
 		 */
 		public void calculateCurrentUtility() {
-			int conflicts = 0;
-			AddableDelayed<U> util = zeroUtility.addDelayed();
-			for(int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-				
-				U u = space.getUtility(this.neighbors, this.agent_view);
-				if(u == this.infeasibleUtility.getUtility())
-					conflicts++;
-				util.addDelayed(u);
-			}
-
-			currentUtility =  new AddableConflicts<U> (util.resolve(), conflicts);
+			currentUtility = evaluator.getCost(this.currentValueIndex);
 		}
 		
 		/**
@@ -535,18 +534,7 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 		 * @return	the current local utility
 		 */
 		protected AddableConflicts<U> calculateUtility() {
-			int conflicts = 0;
-			AddableDelayed<U> util = zeroUtility.addDelayed();
-			for(int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-				
-				U u = space.getUtility(this.neighbors, this.agent_view);
-				if(u == this.infeasibleUtility.getUtility())
-					conflicts++;
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U> (util.resolve(), conflicts);
+			return evaluator.getCost(evaluator.indexOf(this.agent_view[0]));
 		}
 
 		/**
@@ -560,15 +548,14 @@ public class MGM <V extends Addable<V>, U extends Addable<U>> implements StatsRe
 
 			for(int i = 0; i < domain.length; i++) {
 				if(i != this.currentValueIndex) {
-					agent_view[0] = domain[i];
-					AddableConflicts<U> util = calculateUtility();
+					AddableConflicts<U> util = evaluator.getCost(i);
 
 					int diff = maximize ? improve.compareTo(util) : -improve.compareTo(util);
 
 					if( diff < 0) { 
 						improve = util;
 						this.newValue = i;
-					} else if (diff == 0 && Math.random() < 0.5) {
+					} else if (diff == 0 && random.nextDouble() < 0.5) {
 						improve = util;
 						this.newValue = i;
 					}
@@ -35,12 +35,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.jdom2.Element;
 
 import frodo2.algorithms.AgentInterface;
 import frodo2.algorithms.SolutionCollector;
 import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
 import frodo2.algorithms.localSearch.mgm.IMPROVE;
 import frodo2.algorithms.localSearch.mgm.MGM;
 import frodo2.algorithms.localSearch.mgm.OK;
@@ -49,7 +51,6 @@ import frodo2.communication.MessageType;
 import frodo2.communication.Queue;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableConflicts;
-import frodo2.solutionSpaces.AddableDelayed;
 import frodo2.solutionSpaces.DCOPProblemInterface;
 import frodo2.solutionSpaces.UtilitySolutionSpace;
 
@@ -459,12 +460,12 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 				varInfo.state = StateValue.OFFER;
 
 				// determine whether this variable is an offerer or a receiver
-				varInfo.offer = Math.random() < q;
+				varInfo.offer = varInfo.random.nextDouble() < q;
 
 				int neighborIndex = -1;
 				if(varInfo.offer) {
 					// randomly select a neighbor
-					neighborIndex = 1 + (int)(Math.random()*varInfo.number_of_neighbors);
+					neighborIndex = 1 + (int)(varInfo.random.nextDouble()*varInfo.number_of_neighbors);
 					if(LOG)
 						log(varInfo.variableID, "making an offer to variable " + varInfo.neighbors[neighborIndex]);
 
@@ -754,6 +755,12 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 		/** The variable's local problem */
 		private List<UtilitySolutionSpace<V, U>> spaces;
 
+		/** The variable's random number stream */
+		protected final SplittableRandom random;
+
+		/** Incrementally maintains the local cost of each value in the domain, given the agent view */
+		protected LocalCostEvaluator<V, U> evaluator;
+
 		/** The current state of the variable */
 		protected StateValue state;
 
@@ -873,7 +880,8 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 			this.state = StateValue.OK;
 
 			V[] domain = problem.getDomain(variableID);
-			this.currentValueIndex = (int)(Math.random()*domain.length);
+			this.random = problem.getRandomStreams().forVariable(variableID);
+			this.currentValueIndex = (int)(random.nextDouble()*domain.length);
 			this.currentValue = domain[currentValueIndex];
 
 			// initialize list for messages to be processed
@@ -892,7 +900,7 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 						continue;
 					}
 			}
-
+			this.evaluator = new LocalCostEvaluator<V, U> (variableID, domain, this.spaces, infeasibleUtility);
 
 			// initialize neighbors
 			this.number_of_neighbors = problem.getNbrNeighbors(variableID);
@@ -923,6 +931,7 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 		 */
 		public void setNeighborValue(String neighbor, V value) {
 			agent_view[neighborPointer.get(neighbor)] = value;
+			evaluator.setNeighborValue(neighbor, value);
 		}
 		
 		/**
@@ -948,19 +957,7 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 		 * @return the current utility
 		 */
 		public AddableConflicts<U> calculateCurrentUtility() {
-
-			int conflicts = 0;
-			AddableDelayed<U> util = zeroUtility.addDelayed();
-			for(int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-
-				U u = space.getUtility(this.neighbors, this.agent_view);
-				if(u == this.infeasibleUtility.getUtility())
-					conflicts++;
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U> (util.resolve(), conflicts);
+			return evaluator.getCost(evaluator.indexOf(this.agent_view[0]));
 		}
 
 		/**
@@ -974,22 +971,7 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 		 */
 
 		public AddableConflicts<U> calculateCurrentUtility(String variable) {
-			int conflicts = 0;
-			AddableDelayed<U> util = zeroUtility.addDelayed();
-			for(int j = 0; j < spaces.size(); j++) {
-				UtilitySolutionSpace<V, U> space = spaces.get(j);
-				String[] variables = space.getVariables();
-				for(String var : variables)
-					if(var.equals(variable))
-						continue;
-
-				U u = space.getUtility(this.neighbors, this.agent_view);
-				if(u == this.infeasibleUtility.getUtility())
-					conflicts++;
-				util.addDelayed(u);
-			}
-
-			return new AddableConflicts<U> (util.resolve(), conflicts);
+			return this.calculateCurrentUtility();
 		}
 
 		/**
@@ -1025,21 +1007,11 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 		 * @return	the utility gain this assignment gives (can be negative)
 		 */
 		public AddableConflicts<U> calculateGain(V ownValue, V neighborValue, int neighborIndex, String variable) {
-			V variableValueCurrent = agent_view[neighborIndex];
-			agent_view[neighborIndex] = neighborValue;
-			agent_view[0] = ownValue;
-			AddableConflicts<U> util = null;
-			if(variable == null)
-				util = this.calculateCurrentUtility();
-			else
-				util = this.calculateCurrentUtility(variable);
+			AddableConflicts<U> util = evaluator.getCost(evaluator.indexOf(ownValue), neighbors[neighborIndex], neighborValue);
 
 			if(currentUtility.getUtility() != infeasibleUtility.getUtility()) {
 				util = util.subtract(currentUtility);
 			}
-			
-			agent_view[neighborIndex] = variableValueCurrent;
-			agent_view[0] = currentValue;
 
 			return util;
 		}
@@ -1103,21 +1075,19 @@ public class MGM2 <V extends Addable<V>, U extends Addable<U>> implements StatsR
 
 			for(int i = 0; i < domain.length; i++) {
 				if(i != this.currentValueIndex) {
-					agent_view[0] = domain[i];
-					AddableConflicts<U> util = calculateCurrentUtility();
+					AddableConflicts<U> util = evaluator.getCost(i);
 
 					int diff = maximize ? improve.compareTo(util) : -improve.compareTo(util);
 
 					if( diff < 0) { 
 						improve = util;
 						this.newValue = i;
-					} else if (diff == 0 && Math.random() < 0.5) {
+					} else if (diff == 0 && random.nextDouble() < 0.5) {
 						improve = util;
 						this.newValue = i;
 					}
 				}
 			}
-			agent_view[0] = currentValue;
 			
 			if(improve.getUtility() != this.infeasibleUtility.getUtility())
 				improve = improve.subtract(currentUtility);
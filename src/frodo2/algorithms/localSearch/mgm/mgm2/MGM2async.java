@@ -0,0 +1,933 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** The MGM2 algorithm */
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.AgentInterface;
+import frodo2.algorithms.SolutionCollector;
+import frodo2.algorithms.StatsReporterWithConvergence;
+import frodo2.algorithms.localSearch.CycleWindow;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.communication.Message;
+import frodo2.communication.MessageType;
+import frodo2.communication.Queue;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** An asynchronous, pipelined version of MGM2
+ * 
+ * Like MGM2, each cycle consists of value, offer, reply, gain and go/no-go rounds, and only sets of non-neighboring 
+ * variables or coordinated pairs of variables move during a given cycle, such that each cycle can only improve the solution. 
+ * However, there is no global barrier between rounds: all messages are tagged with their cycle, and each variable moves on 
+ * to the next round as soon as the messages it needs from its own neighbors are in, buffering the messages its neighbors 
+ * send for later rounds or the next cycle. Rounds of consecutive cycles therefore overlap across the constraint graph, and a 
+ * variable also skips the remaining rounds of a cycle as soon as it knows it will not move:
+ * - an offerer rejects incoming offers as soon as it has made its own offer, instead of at the end of the offer round; 
+ * - a variable that has no positive gain, or that has received a better gain from a neighbor, or a no-go from its partner, 
+ * 	 immediately sends its value for the next cycle without waiting for the remaining gains and go/no-go messages. 
+ * 
+ * Each variable can additionally be given a local timeout, measured on the queue's clock (i.e. in simulated time when 
+ * the CentralMailer is used). When a variable has waited longer than the timeout for the messages of a round, it 
+ * conservatively gives up moving during the current cycle: it sends empty offers, rejections, null gains and no-gos 
+ * for the rounds it has not completed yet, which never prevent its neighbors from moving, and it moves on to the next cycle. 
+ * Late messages for a past cycle are discarded, except offers and acceptances, which are answered with a rejection and a no-go. 
+ * A variable that has agreed to a joint move never times out, because its partner might already have moved. 
+ * 
+ * The gain of a joint move is computed exactly: the receiver of an offer subtracts the utilities of the constraints shared 
+ * with the offerer, which would otherwise be counted twice. Gains are compared lexicographically, first on the number of 
+ * violated constraints, and then on the utility. 
+ * 
+ * @author Thomas Leaute
+ * @param <V> type used for domain values
+ * @param <U> type used for utility values
+ * @warning When timeouts are enabled, each agent that has a waiting variable keeps sending itself a message to check 
+ * the timeouts, which keeps its queue busy until the messages it waits for arrive. 
+ */
+public class MGM2async <V extends Addable<V>, U extends Addable<U>> implements StatsReporterWithConvergence<V> {
+
+	/** The type of the START message */
+	public static MessageType START_MSG_TYPE = AgentInterface.START_AGENT;
+
+	/** The type of the messages containing the values of the variables */
+	public static final MessageType VALUE_MSG_TYPE = new MessageType ("MGM2async", "value");
+
+	/** The type of the OFFER messages */
+	public static final MessageType OFFER_MSG_TYPE = new MessageType ("MGM2async", "offer");
+
+	/** The type of the messages accepting or rejecting an offer */
+	public static final MessageType REPLY_MSG_TYPE = new MessageType ("MGM2async", "reply");
+
+	/** The type of the IMPROVE messages */
+	public static final MessageType IMPROVE_MSG_TYPE = new MessageType ("MGM2async", "improve");
+
+	/** The type of the GO and NOGO messages */
+	public static final MessageType GO_MSG_TYPE = new MessageType ("MGM2async", "go");
+
+	/** The type of the message an agent sends itself to check the timeouts */
+	public static final MessageType TIMEOUT_MSG_TYPE = new MessageType ("MGM2async", "timeout");
+
+	/** The type of the message containing the assignment history */
+	public static final MessageType CONV_STATS_MSG_TYPE = new MessageType ("MGM2async", "ConvStats");
+
+	/** The rounds of a cycle */
+	protected enum Round {
+		/** waiting for the values of the neighbors */ 						VALUE, 
+		/** waiting for the offers of the neighbors */ 						OFFER, 
+		/** waiting for the reply to this variable's offer */ 				REPLY, 
+		/** waiting for the gains of the neighbors */ 						IMPROVE, 
+		/** waiting for the partner to agree on the joint move */ 			GO
+	};
+
+	/** The queue to which this listener is registered*/
+	protected Queue queue;
+
+	/** \c true when solving a maximization problem, and false otherwise */
+	protected final boolean maximize;
+
+	/** The local problem definition */
+	private DCOPProblemInterface<V, U> problem;
+
+	/** Maps variables to the agent that owns it */
+	protected Map<String, String> owners;
+
+	/** The number of cycles to be performed */
+	private int cycles;
+
+	/** The probability for a variable to be an offerer */
+	private double q;
+
+	/** The local timeout in ns; 0 if disabled */
+	private long timeout;
+
+	/** \c true when the START_AGENT message has been received, and \c false otherwise */
+	private boolean started;
+
+	/** \c true when a TIMEOUT message is in this agent's queue */
+	private boolean timeoutPending;
+
+	/** Contains, for each variable, an object containing all information needed by the algorithm */
+	protected HashMap< String, VariableInfo > infos;
+
+	/** The number of variables that are finished */
+	private int variablesFinished;
+
+	/** \c true when the agent has finished */
+	private boolean terminated;
+
+	/** The utility value used for the plus infinity */
+	private U plusInf;
+
+	/** The utility value used for the minus infinity */
+	private U minInf;
+
+	/** If \c true, the assignment history must be stored */
+	protected final boolean convergence;
+
+	/** For each variable its assignment history */
+	protected HashMap< String, ArrayList< CurrentAssignment<V> > > assignmentHistoriesMap;
+
+	/** Constructor for the stats reporter
+	 * @param parameters	parameters of the stats reporter
+	 * @param problem		the problem that is being solved
+	 */
+	public MGM2async (Element parameters, DCOPProblemInterface<V, U> problem) {
+		this.problem = problem;
+		this.maximize = false;
+		this.convergence = true;
+		this.assignmentHistoriesMap = new HashMap< String, ArrayList< CurrentAssignment<V> > > ();
+	}
+
+	/** Constructor
+	 * @param problem		the local problem definition
+	 * @param parameters	parameters of the listener
+	 */
+	public MGM2async (DCOPProblemInterface<V, U> problem, Element parameters) {
+		this.problem = problem;
+		this.maximize = problem.maximize();
+
+		this.convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
+
+		String q = parameters.getAttributeValue("q");
+		this.q = (q == null ? 0.5 : Double.parseDouble(q));
+
+		String cycles = parameters.getAttributeValue("cycles");
+		this.cycles = (cycles == null ? 200 : Integer.parseInt(cycles));
+
+		String timeout = parameters.getAttributeValue("timeout");
+		this.timeout = (timeout == null ? 0 : Long.parseLong(timeout) * 1000000L);
+	}
+
+	/** @see frodo2.algorithms.StatsReporter#getStatsFromQueue(frodo2.communication.Queue) */
+	public void getStatsFromQueue(Queue queue) {
+		queue.addIncomingMessagePolicy(CONV_STATS_MSG_TYPE, this);
+	}
+
+	/** @see StatsReporterWithConvergence#setSilent(boolean) */
+	public void setSilent(boolean silent) { }
+
+	/** @see frodo2.algorithms.StatsReporter#reset() */
+	public void reset() { }
+
+	/** @see frodo2.communication.MessageListener#setQueue(frodo2.communication.Queue) */
+	public void setQueue(Queue queue) {
+		this.queue = queue;
+	}
+
+	/** @see frodo2.communication.MessageListener#getMsgTypes() */
+	public Collection<MessageType> getMsgTypes() {
+		ArrayList<MessageType> msgTypes = new ArrayList<MessageType> (8);
+		msgTypes.add(START_MSG_TYPE);
+		msgTypes.add(VALUE_MSG_TYPE);
+		msgTypes.add(OFFER_MSG_TYPE);
+		msgTypes.add(REPLY_MSG_TYPE);
+		msgTypes.add(IMPROVE_MSG_TYPE);
+		msgTypes.add(GO_MSG_TYPE);
+		msgTypes.add(TIMEOUT_MSG_TYPE);
+		msgTypes.add(AgentInterface.STOP_AGENT);
+		return msgTypes;
+	}
+
+	/** @see frodo2.algorithms.StatsReporterWithConvergence#getAssignmentHistories() */
+	public HashMap< String, ArrayList< CurrentAssignment<V> > > getAssignmentHistories() {
+		return this.assignmentHistoriesMap;
+	}
+
+	/** @see frodo2.algorithms.StatsReporterWithConvergence#getCurrentSolution() */
+	public Map<String, V> getCurrentSolution() {
+		/// @todo Use a generic ConvergenceReporter
+		return null;
+	}
+
+	/** @see frodo2.communication.IncomingMsgPolicyInterface#notifyIn(frodo2.communication.Message) */
+	@SuppressWarnings("unchecked")
+	public void notifyIn(Message msg) {
+
+		MessageType type = msg.getType();
+
+		if (type.equals(CONV_STATS_MSG_TYPE)) { // in stats gatherer mode, the message sent by a variable containing the assignment history
+			StatsReporterWithConvergence.ConvStatMessage<V> msgCast = (StatsReporterWithConvergence.ConvStatMessage<V>) msg;
+			this.assignmentHistoriesMap.put(msgCast.getVar(), msgCast.getAssignmentHistory());
+			return;
+		}
+
+		if (! this.started) 
+			this.init();
+
+		if (type.equals(VALUE_MSG_TYPE)) {
+			TaggedVALUE<V> msgCast = (TaggedVALUE<V>) msg;
+			VariableInfo varInfo = this.infos.get(msgCast.getReceiver());
+			varInfo.values.put(msgCast.getSender(), msgCast.getCycle(), msgCast.getValue());
+			this.advance(varInfo);
+		}
+
+		else if (type.equals(OFFER_MSG_TYPE)) {
+			TaggedOFFER<V, U> msgCast = (TaggedOFFER<V, U>) msg;
+			VariableInfo varInfo = this.infos.get(msgCast.getReceiver());
+			int cycle = msgCast.getCycle();
+
+			if (varInfo.terminated || cycle < varInfo.cycle) { // late offer; the sender is waiting for an answer
+				if (msgCast.getAssignments() != null) 
+					this.reply(varInfo, msgCast.getSender(), cycle, null, null);
+
+			} else if (cycle == varInfo.cycle && varInfo.round != Round.VALUE && varInfo.offerer) { // offerers reject all offers right away
+				if (msgCast.getAssignments() != null) 
+					this.reply(varInfo, msgCast.getSender(), cycle, null, null);
+				varInfo.offers.put(msgCast.getSender(), cycle, msgCast);
+				this.advance(varInfo);
+
+			} else {
+				varInfo.offers.put(msgCast.getSender(), cycle, msgCast);
+				this.advance(varInfo);
+			}
+		}
+
+		else if (type.equals(REPLY_MSG_TYPE)) {
+			TaggedREPLY<V, U> msgCast = (TaggedREPLY<V, U>) msg;
+			VariableInfo varInfo = this.infos.get(msgCast.getReceiver());
+			int cycle = msgCast.getCycle();
+
+			if (varInfo.terminated || cycle < varInfo.cycle) { // late reply
+				if (msgCast.isAccepted()) // the sender is waiting for a GO
+					this.queue.sendMessage(this.owners.get(msgCast.getSender()), new TaggedGO (varInfo.variableID, msgCast.getSender(), cycle, false));
+
+			} else {
+				varInfo.reply = msgCast;
+				this.advance(varInfo);
+			}
+		}
+
+		else if (type.equals(IMPROVE_MSG_TYPE)) {
+			TaggedIMPROVE<U> msgCast = (TaggedIMPROVE<U>) msg;
+			VariableInfo varInfo = this.infos.get(msgCast.getReceiver());
+			varInfo.improves.put(msgCast.getSender(), msgCast.getCycle(), msgCast);
+			this.advance(varInfo);
+		}
+
+		else if (type.equals(GO_MSG_TYPE)) {
+			TaggedGO msgCast = (TaggedGO) msg;
+			VariableInfo varInfo = this.infos.get(msgCast.getReceiver());
+			if (! varInfo.terminated && msgCast.getCycle() == varInfo.cycle 
+					&& (msgCast.getSender().equals(varInfo.partner) 
+							|| (varInfo.offerer && varInfo.partner == null))) { // the NOGO of a beaten receiver can overtake its acceptance
+				varInfo.go = msgCast.isGo();
+				this.advance(varInfo);
+			} // else, late GO or NOGO for a joint move that has been abandoned
+		}
+
+		else if (type.equals(TIMEOUT_MSG_TYPE)) 
+			this.timeoutPending = false;
+
+		else if (type.equals(AgentInterface.STOP_AGENT)) {
+			if (! this.terminated) {
+				this.terminated = true;
+				for (VariableInfo varInfo : this.infos.values()) {
+					if (! varInfo.terminated) {
+						varInfo.terminated = true;
+						queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (varInfo.variableID, varInfo.getValue()));
+					}
+				}
+				queue.sendMessageToSelf(new Message (AgentInterface.AGENT_FINISHED));
+			}
+			return;
+		}
+
+		if (this.timeout > 0) 
+			this.checkTimeouts();
+	}
+
+	/** Called when the first message is received, initializes all the fields and variables that are needed */
+	private void init () {
+
+		this.started = true;
+		this.owners = problem.getOwners();
+		this.plusInf = problem.getPlusInfUtility();
+		this.minInf = problem.getMinInfUtility();
+
+		Set<String> variables = problem.getVariables(problem.getAgent());
+		if (variables.isEmpty()) { // empty agent
+			this.terminated = true;
+			this.queue.sendMessageToSelf(new Message (AgentInterface.AGENT_FINISHED));
+			return;
+		}
+
+		List<? extends UtilitySolutionSpace<V, U>> spaces = problem.getSolutionSpaces();
+		this.infos = new HashMap< String, VariableInfo > (variables.size());
+		if (this.convergence) 
+			this.assignmentHistoriesMap = new HashMap< String, ArrayList< CurrentAssignment<V> > > ();
+
+		for (String variable : variables) 
+			this.infos.put(variable, new VariableInfo (variable, problem, spaces, maximize));
+
+		for (VariableInfo varInfo : this.infos.values()) {
+
+			if (this.convergence) {
+				ArrayList< CurrentAssignment<V> > history = new ArrayList< CurrentAssignment<V> > ();
+				history.add(new CurrentAssignment<V> (queue.getCurrentTime(), 0, varInfo.getValue()));
+				this.assignmentHistoriesMap.put(varInfo.variableID, history);
+			}
+
+			if (varInfo.neighbors.length == 0 || this.cycles <= 0) 
+				this.terminate(varInfo);
+			else 
+				this.startCycle(varInfo);
+		}
+
+		for (VariableInfo varInfo : this.infos.values()) 
+			this.advance(varInfo);
+	}
+
+	/** Sends the variable's current value to its neighbors, and waits for theirs
+	 * @param varInfo 	the variable
+	 */
+	private void startCycle (VariableInfo varInfo) {
+
+		varInfo.newCycle(this.queue.getCurrentTime() + this.timeout);
+
+		V value = varInfo.getValue();
+		for (String neighbor : varInfo.neighbors) 
+			queue.sendMessage(owners.get(neighbor), new TaggedVALUE<V> (varInfo.variableID, neighbor, varInfo.cycle, value));
+	}
+
+	/** Processes the rounds of the current cycle until the variable needs to wait for messages
+	 * @param varInfo 	the variable
+	 */
+	private void advance (VariableInfo varInfo) {
+
+		while (! varInfo.terminated) {
+			final int cycle = varInfo.cycle;
+
+			switch (varInfo.round) {
+
+			case VALUE: 
+				if (! varInfo.values.isComplete(cycle)) 
+					return;
+				varInfo.updateView();
+				this.makeOffer(varInfo);
+				this.newRound(varInfo, Round.OFFER);
+				break;
+
+			case OFFER: 
+				if (! varInfo.offers.isComplete(cycle)) 
+					return;
+
+				if (varInfo.offerer) {
+					this.newRound(varInfo, Round.REPLY);
+					break;
+				}
+
+				this.acceptBestOffer(varInfo);
+				this.sendImprove(varInfo);
+				this.newRound(varInfo, Round.IMPROVE);
+				break;
+
+			case REPLY: 
+				if (varInfo.reply == null) 
+					return;
+
+				if (varInfo.reply.isAccepted()) {
+					varInfo.partner = varInfo.reply.getSender();
+					varInfo.newIndex = varInfo.evaluator.indexOf(varInfo.reply.getAssignment().getOwnValue());
+					varInfo.gain = varInfo.reply.getGain();
+				} else 
+					varInfo.computeBestMove();
+				this.sendImprove(varInfo);
+				this.newRound(varInfo, Round.IMPROVE);
+				break;
+
+			case IMPROVE: 
+
+				// Check whether the variable can still move
+				if (varInfo.gain == null || (varInfo.partner != null && Boolean.FALSE.equals(varInfo.go)) || varInfo.isBeaten()) {
+					if (varInfo.partner != null && ! Boolean.FALSE.equals(varInfo.go)) 
+						queue.sendMessage(owners.get(varInfo.partner), new TaggedGO (varInfo.variableID, varInfo.partner, cycle, false));
+					this.endCycle(varInfo, false);
+					break;
+				}
+
+				if (! varInfo.improves.isComplete(cycle)) 
+					return;
+
+				if (varInfo.partner == null) {
+					this.endCycle(varInfo, true);
+					break;
+				}
+
+				queue.sendMessage(owners.get(varInfo.partner), new TaggedGO (varInfo.variableID, varInfo.partner, cycle, true));
+				this.newRound(varInfo, Round.GO);
+				break;
+
+			case GO: 
+				if (varInfo.go == null) 
+					return;
+				this.endCycle(varInfo, varInfo.go);
+				break;
+			}
+		}
+	}
+
+	/** Moves on to the next round of the current cycle
+	 * @param varInfo 	the variable
+	 * @param round 	the next round
+	 */
+	private void newRound (VariableInfo varInfo, Round round) {
+		varInfo.round = round;
+		varInfo.deadline = this.queue.getCurrentTime() + this.timeout;
+	}
+
+	/** Decides whether the variable is an offerer, and sends its offer (if any) and empty offers to all its neighbors
+	 * @param varInfo 	the variable
+	 */
+	private void makeOffer (VariableInfo varInfo) {
+
+		final int cycle = varInfo.cycle;
+		String target = null;
+		ArrayList< BinaryAssignment<V> > assignments = null;
+		ArrayList< AddableConflicts<U> > gains = null;
+
+		if (varInfo.random.nextDouble() < this.q) {
+			target = varInfo.neighbors[(int) (varInfo.random.nextDouble() * varInfo.neighbors.length)];
+			assignments = new ArrayList< BinaryAssignment<V> > ();
+			gains = new ArrayList< AddableConflicts<U> > ();
+			varInfo.computeOffer(target, assignments, gains);
+			if (assignments.isEmpty()) 
+				target = null;
+		}
+		varInfo.offerer = (target != null);
+
+		for (String neighbor : varInfo.neighbors) {
+			if (neighbor.equals(target)) 
+				queue.sendMessage(owners.get(neighbor), new TaggedOFFER<V, U> (varInfo.variableID, neighbor, cycle, assignments, gains));
+			else 
+				queue.sendMessage(owners.get(neighbor), new TaggedOFFER<V, U> (varInfo.variableID, neighbor, cycle, null, null));
+		}
+
+		// An offerer rejects the offers it has already received
+		if (varInfo.offerer) 
+			this.rejectOffers(varInfo);
+	}
+
+	/** Rejects all non-empty offers received so far for the current cycle
+	 * @param varInfo 	the variable
+	 */
+	private void rejectOffers (VariableInfo varInfo) {
+
+		final int cycle = varInfo.cycle;
+		for (int i = 0; i < varInfo.neighbors.length; i++) {
+			TaggedOFFER<V, U> offer = varInfo.offers.get(i, cycle);
+			if (offer != null && offer.getAssignments() != null) 
+				this.reply(varInfo, offer.getSender(), cycle, null, null);
+		}
+	}
+
+	/** Accepts the best offer if it has a positive joint gain, and rejects all other offers; 
+	 * if no offer is accepted, computes the best unilateral move
+	 * @param varInfo 	the receiving variable
+	 */
+	private void acceptBestOffer (VariableInfo varInfo) {
+
+		final int cycle = varInfo.cycle;
+		TaggedOFFER<V, U> bestOffer = null;
+		BinaryAssignment<V> bestAss = null;
+		AddableConflicts<U> bestGain = null;
+
+		for (int i = 0; i < varInfo.neighbors.length; i++) {
+			TaggedOFFER<V, U> offer = varInfo.offers.get(i, cycle);
+			ArrayList< BinaryAssignment<V> > assignments = offer.getAssignments();
+			if (assignments == null) 
+				continue;
+
+			ArrayList< AddableConflicts<U> > gains = offer.getGains();
+			for (int j = 0; j < assignments.size(); j++) {
+				BinaryAssignment<V> ass = assignments.get(j);
+				AddableConflicts<U> gain = varInfo.jointGain(offer.getSender(), ass, gains.get(j));
+				if (varInfo.isPositive(gain) && (bestGain == null || varInfo.compare(gain, bestGain) > 0)) {
+					bestOffer = offer;
+					bestAss = ass;
+					bestGain = gain;
+				}
+			}
+		}
+
+		for (int i = 0; i < varInfo.neighbors.length; i++) {
+			TaggedOFFER<V, U> offer = varInfo.offers.get(i, cycle);
+			if (offer == bestOffer) 
+				this.reply(varInfo, offer.getSender(), cycle, bestAss, bestGain);
+			else if (offer.getAssignments() != null) 
+				this.reply(varInfo, offer.getSender(), cycle, null, null);
+		}
+
+		if (bestOffer != null) {
+			varInfo.partner = bestOffer.getSender();
+			varInfo.newIndex = varInfo.evaluator.indexOf(bestAss.neighborValue());
+			varInfo.gain = bestGain;
+		} else 
+			varInfo.computeBestMove();
+	}
+
+	/** Replies to an offer
+	 * @param varInfo 	the receiver of the offer
+	 * @param offerer 	the offerer
+	 * @param cycle 	the cycle of the offer
+	 * @param ass 		the accepted assignment, or \c null to reject the offer
+	 * @param gain 		the joint gain of the accepted assignment, or \c null to reject the offer
+	 */
+	private void reply (VariableInfo varInfo, String offerer, int cycle, BinaryAssignment<V> ass, AddableConflicts<U> gain) {
+		queue.sendMessage(owners.get(offerer), new TaggedREPLY<V, U> (varInfo.variableID, offerer, cycle, ass, gain));
+	}
+
+	/** Sends the variable's gain to all its neighbors
+	 * @param varInfo 	the variable
+	 */
+	private void sendImprove (VariableInfo varInfo) {
+		for (String neighbor : varInfo.neighbors) 
+			queue.sendMessage(owners.get(neighbor), new TaggedIMPROVE<U> (varInfo.variableID, neighbor, varInfo.cycle, varInfo.gain));
+	}
+
+	/** Ends the current cycle, and starts the next one unless the variable is done
+	 * @param varInfo 	the variable
+	 * @param move 		whether the variable should move
+	 */
+	private void endCycle (VariableInfo varInfo, boolean move) {
+
+		if (move && varInfo.newIndex != varInfo.valueIndex) {
+			varInfo.valueIndex = varInfo.newIndex;
+			if (this.convergence) 
+				this.assignmentHistoriesMap.get(varInfo.variableID).add(new CurrentAssignment<V> (queue.getCurrentTime(), varInfo.cycle + 1, varInfo.getValue()));
+		}
+
+		varInfo.cycle++;
+		varInfo.values.discardBefore(varInfo.cycle);
+		varInfo.offers.discardBefore(varInfo.cycle);
+		varInfo.improves.discardBefore(varInfo.cycle);
+
+		if (varInfo.cycle >= this.cycles) 
+			this.terminate(varInfo);
+		else 
+			this.startCycle(varInfo);
+	}
+
+	/** Gives up moving during the current cycle, sending all messages the neighbors might be waiting for
+	 * @param varInfo 	the variable
+	 */
+	private void giveUp (VariableInfo varInfo) {
+
+		final int cycle = varInfo.cycle;
+		varInfo.gain = null;
+
+		switch (varInfo.round) {
+
+		case VALUE: 
+			for (String neighbor : varInfo.neighbors) 
+				queue.sendMessage(owners.get(neighbor), new TaggedOFFER<V, U> (varInfo.variableID, neighbor, cycle, null, null));
+			this.rejectOffers(varInfo);
+			this.sendImprove(varInfo);
+			break;
+
+		case OFFER: 
+			if (! varInfo.offerer) // offerers have already rejected all offers
+				this.rejectOffers(varInfo);
+			this.sendImprove(varInfo);
+			break;
+
+		case REPLY: // if the offer is accepted later, it will be answered with a NOGO
+			this.sendImprove(varInfo);
+			break;
+
+		case IMPROVE: 
+			if (varInfo.partner != null && ! Boolean.FALSE.equals(varInfo.go)) 
+				queue.sendMessage(owners.get(varInfo.partner), new TaggedGO (varInfo.variableID, varInfo.partner, cycle, false));
+			break;
+
+		case GO: // the partner might already have moved
+			assert false : "A variable that has agreed on a joint move cannot give up";
+		}
+
+		this.endCycle(varInfo, false);
+	}
+
+	/** Makes the variables that have timed out give up, and makes sure this agent checks the timeouts again later */
+	private void checkTimeouts () {
+
+		if (this.terminated) 
+			return;
+
+		final long now = this.queue.getCurrentTime();
+		boolean waiting = false;
+		for (VariableInfo varInfo : this.infos.values()) {
+			if (varInfo.terminated || varInfo.round == Round.GO) 
+				continue;
+
+			if (now >= varInfo.deadline) {
+				this.giveUp(varInfo);
+				this.advance(varInfo);
+			}
+			waiting |= ! varInfo.terminated;
+		}
+
+		if (waiting && ! this.timeoutPending) {
+			this.timeoutPending = true;
+			this.queue.sendMessageToSelf(new Message (TIMEOUT_MSG_TYPE));
+		}
+	}
+
+	/** Reports the variable's final value
+	 * @param varInfo 	the variable
+	 */
+	private void terminate (VariableInfo varInfo) {
+
+		varInfo.terminated = true;
+		String variable = varInfo.variableID;
+		queue.sendMessage(AgentInterface.STATS_MONITOR, new SolutionCollector.AssignmentMessage<V> (variable, varInfo.getValue()));
+		if (this.convergence) 
+			queue.sendMessage(AgentInterface.STATS_MONITOR, new StatsReporterWithConvergence.ConvStatMessage<V> (CONV_STATS_MSG_TYPE, variable, this.assignmentHistoriesMap.get(variable)));
+
+		if (++this.variablesFinished == this.infos.size()) {
+			this.terminated = true;
+			queue.sendMessageToSelf(new Message (AgentInterface.AGENT_FINISHED));
+		}
+	}
+
+	/** Convenience class that contains all necessary information on a single variable */
+	protected class VariableInfo {
+
+		/** The name of the variable */
+		protected final String variableID;
+
+		/** \c true when maximizing, and \c false when minimizing */
+		private final boolean maximize;
+
+		/** The neighbors */
+		protected final String[] neighbors;
+
+		/** The domain of each neighbor */
+		private final HashMap<String, V[]> neighborDomains;
+
+		/** Incrementally maintains the local cost of each value in the domain, given the values of the neighbors */
+		protected final LocalCostEvaluator<V, U> evaluator;
+
+		/** The variable's random number stream */
+		protected final SplittableRandom random;
+
+		/** The index of the current value */
+		protected int valueIndex;
+
+		/** The cost of the current value, given the values of the neighbors */
+		private AddableConflicts<U> currentCost;
+
+		/** The gain with no conflicts and zero utility */
+		private final AddableConflicts<U> zero;
+
+		/** \c true when this variable has terminated */
+		protected boolean terminated;
+
+		/** The current cycle */
+		protected int cycle;
+
+		/** The current round */
+		protected Round round;
+
+		/** The time on the queue's clock at which the variable gives up waiting for the current round */
+		protected long deadline;
+
+		/** The values received from the neighbors */
+		protected final CycleWindow<V> values;
+
+		/** The offers received from the neighbors */
+		protected final CycleWindow< TaggedOFFER<V, U> > offers;
+
+		/** The gains received from the neighbors */
+		protected final CycleWindow< TaggedIMPROVE<U> > improves;
+
+		/** Whether the variable has made an offer during the current cycle */
+		protected boolean offerer;
+
+		/** The reply to the offer made during the current cycle, if any */
+		protected TaggedREPLY<V, U> reply;
+
+		/** The partner in the joint move of the current cycle, if any */
+		protected String partner;
+
+		/** Whether the partner has agreed on the joint move; \c null if unknown */
+		protected Boolean go;
+
+		/** The gain this variable (or pair of variables) can achieve during the current cycle; \c null if it cannot improve */
+		protected AddableConflicts<U> gain;
+
+		/** The index of the value to take if the variable moves */
+		protected int newIndex;
+
+		/** Constructor
+		 * @param variableID	the ID of the variable
+		 * @param problem		the local problem definition
+		 * @param spaces		list of all spaces owned by the agent
+		 * @param maximize		\c true when the problem is a maximization problem, and \c false otherwise
+		 */
+		@SuppressWarnings("unchecked")
+		public VariableInfo (String variableID, DCOPProblemInterface<V, U> problem, List<? extends UtilitySolutionSpace<V, U>> spaces, boolean maximize) {
+			this.variableID = variableID;
+			this.maximize = maximize;
+
+			ArrayList< UtilitySolutionSpace<V, U> > mySpaces = new ArrayList< UtilitySolutionSpace<V, U> > ();
+			for (UtilitySolutionSpace<V, U> space : spaces) 
+				if (Arrays.asList(space.getVariables()).contains(variableID)) 
+					mySpaces.add(space);
+
+			V[] domain = problem.getDomain(variableID);
+			U infeasibleUtil = maximize ? problem.getMinInfUtility() : problem.getPlusInfUtility();
+			this.evaluator = new LocalCostEvaluator<V, U> (variableID, domain, mySpaces, infeasibleUtil);
+			this.random = problem.getRandomStreams().forVariable(variableID);
+			this.valueIndex = (int) (this.random.nextDouble() * domain.length);
+			this.zero = new AddableConflicts<U> (problem.getZeroUtility(), 0);
+
+			Collection<String> neighbors = problem.getNeighborVars(variableID);
+			this.neighbors = neighbors.toArray(new String [neighbors.size()]);
+			this.neighborDomains = new HashMap<String, V[]> (this.neighbors.length);
+			for (String neighbor : this.neighbors) 
+				this.neighborDomains.put(neighbor, problem.getDomain(neighbor));
+
+			this.values = new CycleWindow<V> (neighbors, 2);
+			this.offers = new CycleWindow< TaggedOFFER<V, U> > (neighbors, 2);
+			this.improves = new CycleWindow< TaggedIMPROVE<U> > (neighbors, 2);
+			this.cycle = 0;
+		}
+
+		/** @return the current value */
+		protected V getValue () {
+			return this.evaluator.getDomain()[this.valueIndex];
+		}
+
+		/** Resets the fields for a new cycle
+		 * @param deadline 	the deadline for the first round
+		 */
+		private void newCycle (long deadline) {
+			this.round = Round.VALUE;
+			this.deadline = deadline;
+			this.offerer = false;
+			this.reply = null;
+			this.partner = null;
+			this.go = null;
+			this.gain = null;
+			this.newIndex = this.valueIndex;
+		}
+
+		/** Updates the evaluator with the values of the neighbors for the current cycle */
+		private void updateView () {
+			for (int i = 0; i < this.neighbors.length; i++) 
+				this.evaluator.setNeighborValue(this.neighbors[i], this.values.get(i, this.cycle));
+			this.currentCost = this.evaluator.getCost(this.valueIndex);
+		}
+
+		/** Computes the difference between two costs
+		 * @param cost 	the new cost
+		 * @param ref 	the reference cost
+		 * @return the difference in the number of conflicts, and the difference in utility if both utilities are finite (0 otherwise)
+		 */
+		private AddableConflicts<U> delta (AddableConflicts<U> cost, AddableConflicts<U> ref) {
+			U util = cost.getUtility();
+			U refUtil = ref.getUtility();
+			if (isInfinite(util) || isInfinite(refUtil)) 
+				return new AddableConflicts<U> (this.zero.getUtility(), cost.getConflicts() - ref.getConflicts());
+			return new AddableConflicts<U> (util.subtract(refUtil), cost.getConflicts() - ref.getConflicts());
+		}
+
+		/** Compares two gains
+		 * @param gain1 	the first gain
+		 * @param gain2 	the second gain
+		 * @return a positive number if \a gain1 is better, a negative number if \a gain2 is better, and 0 otherwise
+		 */
+		protected int compare (AddableConflicts<U> gain1, AddableConflicts<U> gain2) {
+			if (gain1.getConflicts() != gain2.getConflicts()) 
+				return gain2.getConflicts() - gain1.getConflicts();
+			int diff = gain1.getUtility().compareTo(gain2.getUtility());
+			return (this.maximize ? diff : -diff);
+		}
+
+		/** Checks whether a gain is a strict improvement
+		 * @param gain 	the gain
+		 * @return \c true if the gain is better than no change
+		 */
+		protected boolean isPositive (AddableConflicts<U> gain) {
+			return this.compare(gain, this.zero) > 0;
+		}
+
+		/** Computes all joint moves with a neighbor that change the values of both variables, together with this variable's gain
+		 * @param target 		the neighbor
+		 * @param assignments 	output list of joint moves
+		 * @param gains 		output list of this variable's gains
+		 */
+		private void computeOffer (String target, ArrayList< BinaryAssignment<V> > assignments, ArrayList< AddableConflicts<U> > gains) {
+
+			V[] domain = this.evaluator.getDomain();
+			V[] targetDomain = this.neighborDomains.get(target);
+			V targetValue = this.evaluator.getNeighborValue(target);
+
+			for (int i = 0; i < domain.length; i++) {
+				if (i == this.valueIndex) 
+					continue;
+				for (V value : targetDomain) {
+					if (value.equals(targetValue)) 
+						continue;
+					assignments.add(new BinaryAssignment<V> (domain[i], value));
+					gains.add(this.delta(this.evaluator.getCost(i, target, value), this.currentCost));
+				}
+			}
+		}
+
+		/** Computes the exact joint gain of a joint move offered by a neighbor
+		 * @param offerer 		the neighbor
+		 * @param ass 			the joint move
+		 * @param offererGain 	the gain of the offerer
+		 * @return the gain of the pair, in which the constraints shared by the two variables are counted only once
+		 */
+		private AddableConflicts<U> jointGain (String offerer, BinaryAssignment<V> ass, AddableConflicts<U> offererGain) {
+
+			int index = this.evaluator.indexOf(ass.neighborValue());
+			V offererValue = ass.getOwnValue();
+			AddableConflicts<U> myGain = this.delta(this.evaluator.getCost(index, offerer, offererValue), this.currentCost);
+			AddableConflicts<U> shared = this.delta(this.evaluator.getSharedCost(index, offerer, offererValue), 
+					this.evaluator.getSharedCost(this.valueIndex, offerer, null));
+
+			return new AddableConflicts<U> (offererGain.getUtility().add(myGain.getUtility()).subtract(shared.getUtility()), 
+					offererGain.getConflicts() + myGain.getConflicts() - shared.getConflicts());
+		}
+
+		/** Computes the best unilateral move, and sets the gain to \c null if it is not a strict improvement */
+		private void computeBestMove () {
+
+			this.gain = null;
+			V[] domain = this.evaluator.getDomain();
+			for (int i = 0; i < domain.length; i++) {
+				if (i == this.valueIndex) 
+					continue;
+				AddableConflicts<U> gain = this.delta(this.evaluator.getCost(i), this.currentCost);
+				if (this.isPositive(gain) && (this.gain == null || this.compare(gain, this.gain) > 0)) {
+					this.gain = gain;
+					this.newIndex = i;
+				}
+			}
+		}
+
+		/** @return whether a neighbor other than the partner has reported a better gain for the current cycle, ties being broken by variable names */
+		private boolean isBeaten () {
+
+			for (int i = 0; i < this.neighbors.length; i++) {
+				TaggedIMPROVE<U> msg = this.improves.get(i, this.cycle);
+				if (msg == null || msg.getGain() == null) 
+					continue;
+
+				String neighbor = this.neighbors[i];
+				if (neighbor.equals(this.partner)) 
+					continue;
+
+				int diff = this.compare(msg.getGain(), this.gain);
+				if (diff > 0 || (diff == 0 && this.variableID.compareTo(neighbor) < 0)) 
+					return true;
+			}
+
+			return false;
+		}
+
+		/** Checks whether a utility is infinite
+		 * @param util 	the utility
+		 * @return \c true if the utility is plus or minus infinity
+		 */
+		private boolean isInfinite (U util) {
+			return util.equals(plusInf) || util.equals(minInf);
+		}
+	}
+
+}
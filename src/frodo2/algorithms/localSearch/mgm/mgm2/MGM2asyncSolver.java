@@ -0,0 +1,156 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.algorithms.AbstractDCOPsolver;
+import frodo2.algorithms.SolutionCollector;
+import frodo2.algorithms.SolutionWithConvergence;
+import frodo2.algorithms.StatsReporter;
+import frodo2.solutionSpaces.Addable;
+
+/** A DCOP solver using MGM2async
+ * @author Thomas Leaute
+ * @param <V> type used for variable values
+ * @param <U> type used for utility values
+ */
+public class MGM2asyncSolver < V extends Addable<V>, U extends Addable<U> > extends AbstractDCOPsolver< V, U, SolutionWithConvergence<V, U> > {
+
+	/** The MGM2async module */
+	private MGM2async<V, U> mgmModule;
+
+	/** The solution collector */
+	private SolutionCollector<V, U> solCollector;
+
+	/** Constructor */
+	public MGM2asyncSolver () {
+		super ("/frodo2/algorithms/localSearch/mgm/mgm2/MGM2asyncAgent.xml");
+	}
+
+	/** Constructor
+	 * @param useTCP 		Whether to use TCP pipes or shared memory pipes
+	 * @warning Using TCP pipes automatically disables simulated time. 
+	 */
+	public MGM2asyncSolver (boolean useTCP) {
+		super ("/frodo2/algorithms/localSearch/mgm/mgm2/MGM2asyncAgent.xml", useTCP);
+	}
+
+	/** Constructor 
+	 * @param domClass 		the class to use for variable values
+	 * @param utilClass 	the class to use for utilities
+	 */
+	public MGM2asyncSolver (Class<V> domClass, Class<U> utilClass) {
+		this();
+		this.setDomClass(domClass);
+		this.setUtilClass(utilClass);
+	}
+
+	/** Constructor
+	 * @param agentDesc path to the agent description file
+	 */
+	public MGM2asyncSolver (String agentDesc) {
+		super (agentDesc);
+	}
+
+	/** Constructor 
+	 * @param agentDesc 	description of the agent to be used
+	 */
+	public MGM2asyncSolver (Document agentDesc) {
+		super (agentDesc);
+	}
+
+	/** Sets the convergence parameter to the desired value
+	 * @param convergence	\c true when convergence must be measured, and false otherwise
+	 */
+	public void setConvergence (boolean convergence) {
+		this.setModuleAttribute("convergence", Boolean.toString(convergence));
+	}
+
+	/** Sets the number of cycles
+	 * @param cycles 	the number of cycles each variable performs
+	 */
+	public void setCycles (int cycles) {
+		this.setModuleAttribute("cycles", Integer.toString(cycles));
+	}
+
+	/** Sets the local timeout
+	 * @param timeout 	the time in ms after which a variable gives up moving during the current cycle; 0 to disable
+	 */
+	public void setLocalTimeout (long timeout) {
+		this.setModuleAttribute("timeout", Long.toString(timeout));
+	}
+
+	/** Sets an attribute of the MGM2async module
+	 * @param name 		the name of the attribute
+	 * @param value 	the value of the attribute
+	 */
+	@SuppressWarnings("unchecked")
+	private void setModuleAttribute (String name, String value) {
+		for (Element module : (List<Element>) agentDesc.getRootElement().getChild("modules").getChildren()) 
+			if (module.getAttributeValue("className").equals(MGM2async.class.getName())) 
+				module.setAttribute(name, value);
+	}
+
+	/** @see AbstractDCOPsolver#getSolGatherers() */
+	@Override
+	public ArrayList<StatsReporter> getSolGatherers() {
+
+		ArrayList<StatsReporter> solGatherers = new ArrayList<StatsReporter> (2);
+
+		this.mgmModule = new MGM2async<V, U> ((Element) null, problem);
+		this.mgmModule.setSilent(true);
+		solGatherers.add(this.mgmModule);
+
+		this.solCollector = new SolutionCollector<V, U> ((Element) null, problem);
+		this.solCollector.setSilent(true);
+		solGatherers.add(this.solCollector);
+
+		return solGatherers;
+	}
+
+	/** @see AbstractDCOPsolver#buildSolution() */
+	@Override
+	public SolutionWithConvergence<V, U> buildSolution() {
+
+		return new SolutionWithConvergence<V, U> (problem.getNbrVars(), null, this.solCollector.getUtility(), this.solCollector.getSolution(), 
+				factory.getNbrMsgs(), factory.getMsgNbrs(), factory.getMsgNbrsSentPerAgent(), factory.getMsgNbrsReceivedPerAgent(), 
+				factory.getTotalMsgSize(), factory.getMsgSizes(), factory.getMsgSizesSentPerAgent(), factory.getMsgSizesReceivedPerAgent(), 
+				factory.getOverallMaxMsgSize(), factory.getMaxMsgSizes(), factory.getNcccs(), factory.getTime(), new HashMap<String, Long> (), 
+				this.mgmModule.getAssignmentHistories());
+	}
+
+	/** @see AbstractDCOPsolver#clear() */
+	@Override
+	public void clear () {
+		super.clear();
+		this.mgmModule = null;
+		this.solCollector = null;
+	}
+
+}
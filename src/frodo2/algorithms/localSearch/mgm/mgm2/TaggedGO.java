@@ -0,0 +1,70 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import frodo2.communication.MessageWith4Payloads;
+
+/** A message telling the partner in a joint move whether the sender agrees to perform the move during a given cycle of MGM2async
+ * @author Thomas Leaute
+ */
+public class TaggedGO extends MessageWith4Payloads<String, String, Integer, Boolean> {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -3420857736016924529L;
+
+	/** Default constructor used for externalization only */
+	public TaggedGO () {
+		super.type = MGM2async.GO_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 	the sender of the message
+	 * @param receiver 	the receiver of the message
+	 * @param cycle 	the cycle
+	 * @param go 		whether the sender agrees to perform the joint move
+	 */
+	public TaggedGO (String sender, String receiver, int cycle, boolean go) {
+		super (MGM2async.GO_MSG_TYPE, sender, receiver, cycle, go);
+	}
+
+	/** @return the sender of the message */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver of the message */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the cycle */
+	public int getCycle () {
+		return this.getPayload3();
+	}
+
+	/** @return whether the sender agrees to perform the joint move */
+	public boolean isGo () {
+		return this.getPayload4();
+	}
+
+}
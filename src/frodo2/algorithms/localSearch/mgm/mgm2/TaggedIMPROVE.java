@@ -0,0 +1,73 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import frodo2.communication.MessageWith4Payloads;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** A message containing the gain a variable (or a pair of variables) can achieve during a given cycle of MGM2async
+ * @author Thomas Leaute
+ * @param <U> type used for utility values
+ */
+public class TaggedIMPROVE <U extends Addable<U>> extends MessageWith4Payloads<String, String, Integer, AddableConflicts<U>> {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = 5017373000394356049L;
+
+	/** Default constructor used for externalization only */
+	public TaggedIMPROVE () {
+		super.type = MGM2async.IMPROVE_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 	the sender of the message
+	 * @param receiver 	the receiver of the message
+	 * @param cycle 	the cycle
+	 * @param gain 		the gain, or \c null if the sender will not move during this cycle
+	 */
+	public TaggedIMPROVE (String sender, String receiver, int cycle, AddableConflicts<U> gain) {
+		super (MGM2async.IMPROVE_MSG_TYPE, sender, receiver, cycle, gain);
+	}
+
+	/** @return the sender of the message */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver of the message */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the cycle */
+	public int getCycle () {
+		return this.getPayload3();
+	}
+
+	/** @return the gain, or \c null if the sender will not move during this cycle */
+	public AddableConflicts<U> getGain () {
+		return this.getPayload4();
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import java.util.ArrayList;
+
+import frodo2.communication.MessageWith5Payloads;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** An offer made during a given cycle of MGM2async, possibly empty
+ * @author Thomas Leaute
+ * @param <V> type used for domain values
+ * @param <U> type used for utility values
+ */
+public class TaggedOFFER <V extends Addable<V>, U extends Addable<U>> 
+extends MessageWith5Payloads<String, String, Integer, ArrayList<BinaryAssignment<V>>, ArrayList<AddableConflicts<U>>> {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = 2370532981957282045L;
+
+	/** Default constructor used for externalization only */
+	public TaggedOFFER () {
+		super.type = MGM2async.OFFER_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 		the sender of the message
+	 * @param receiver 		the receiver of the message
+	 * @param cycle 		the cycle
+	 * @param assignments 	the offered joint assignments, or \c null if the offer is empty
+	 * @param gains 		for each offered assignment, the gain of the sender
+	 */
+	public TaggedOFFER (String sender, String receiver, int cycle, ArrayList<BinaryAssignment<V>> assignments, ArrayList<AddableConflicts<U>> gains) {
+		super (MGM2async.OFFER_MSG_TYPE, sender, receiver, cycle, assignments, gains);
+	}
+
+	/** @return the sender of the message */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver of the message */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the cycle */
+	public int getCycle () {
+		return this.getPayload3();
+	}
+
+	/** @return the offered joint assignments, or \c null if the offer is empty */
+	public ArrayList<BinaryAssignment<V>> getAssignments () {
+		return this.getPayload4();
+	}
+
+	/** @return for each offered assignment, the gain of the sender */
+	public ArrayList<AddableConflicts<U>> getGains () {
+		return this.getPayload5();
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import frodo2.communication.MessageWith5Payloads;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** The answer to an offer made during a given cycle of MGM2async
+ * @author Thomas Leaute
+ * @param <V> type used for domain values
+ * @param <U> type used for utility values
+ */
+public class TaggedREPLY <V extends Addable<V>, U extends Addable<U>> 
+extends MessageWith5Payloads<String, String, Integer, BinaryAssignment<V>, AddableConflicts<U>> {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = 6455093484226893611L;
+
+	/** Default constructor used for externalization only */
+	public TaggedREPLY () {
+		super.type = MGM2async.REPLY_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 		the sender of the message
+	 * @param receiver 		the receiver of the message, i.e. the offerer
+	 * @param cycle 		the cycle
+	 * @param assignment 	the accepted joint assignment, or \c null if the offer is rejected
+	 * @param gain 			the joint gain of the accepted assignment, or \c null if the offer is rejected
+	 */
+	public TaggedREPLY (String sender, String receiver, int cycle, BinaryAssignment<V> assignment, AddableConflicts<U> gain) {
+		super (MGM2async.REPLY_MSG_TYPE, sender, receiver, cycle, assignment, gain);
+	}
+
+	/** @return the sender of the message */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver of the message, i.e. the offerer */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the cycle */
+	public int getCycle () {
+		return this.getPayload3();
+	}
+
+	/** @return the accepted joint assignment, or \c null if the offer is rejected */
+	public BinaryAssignment<V> getAssignment () {
+		return this.getPayload4();
+	}
+
+	/** @return the joint gain of the accepted assignment, or \c null if the offer is rejected */
+	public AddableConflicts<U> getGain () {
+		return this.getPayload5();
+	}
+
+	/** @return whether the offer is accepted */
+	public boolean isAccepted () {
+		return this.getPayload4() != null;
+	}
+
+}
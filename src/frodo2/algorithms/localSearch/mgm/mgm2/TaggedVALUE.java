@@ -0,0 +1,72 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2;
+
+import frodo2.communication.MessageWith4Payloads;
+import frodo2.solutionSpaces.Addable;
+
+/** A message containing the value of a variable at the start of a given cycle of MGM2async
+ * @author Thomas Leaute
+ * @param <V> type used for domain values
+ */
+public class TaggedVALUE <V extends Addable<V>> extends MessageWith4Payloads<String, String, Integer, V> {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -1780127950232563174L;
+
+	/** Default constructor used for externalization only */
+	public TaggedVALUE () {
+		super.type = MGM2async.VALUE_MSG_TYPE;
+	}
+
+	/** Constructor
+	 * @param sender 	the sender of the message
+	 * @param receiver 	the receiver of the message
+	 * @param cycle 	the cycle
+	 * @param value 	the value of the sender
+	 */
+	public TaggedVALUE (String sender, String receiver, int cycle, V value) {
+		super (MGM2async.VALUE_MSG_TYPE, sender, receiver, cycle, value);
+	}
+
+	/** @return the sender of the message */
+	public String getSender () {
+		return this.getPayload1();
+	}
+
+	/** @return the receiver of the message */
+	public String getReceiver () {
+		return this.getPayload2();
+	}
+
+	/** @return the cycle */
+	public int getCycle () {
+		return this.getPayload3();
+	}
+
+	/** @return the value of the sender */
+	public V getValue () {
+		return this.getPayload4();
+	}
+
+}
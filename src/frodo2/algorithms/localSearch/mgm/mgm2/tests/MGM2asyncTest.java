@@ -0,0 +1,265 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.mgm.mgm2.tests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.algorithms.RandGraphFactory;
+import frodo2.algorithms.SolutionWithConvergence;
+import frodo2.algorithms.StatsReporterWithConvergence.CurrentAssignment;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.mgm.mgm2.MGM2asyncSolver;
+import frodo2.algorithms.localSearch.mgm.mgm2.MGM2solver;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableInteger;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for MGM2async, including a comparison with MGM2
+ * @author Thomas Leaute
+ */
+public class MGM2asyncTest extends TestCase {
+
+	/** The number of cycles */
+	private static final int NBR_CYCLES = 50;
+
+	/** Whether to maximize utility or minimize cost */
+	private final boolean maximize;
+
+	/** The local timeout in ms; 0 if disabled */
+	private final long timeout;
+
+	/** The problem */
+	private Document problem;
+
+	/** Constructor
+	 * @param method 	the test method
+	 * @param maximize 	whether to maximize utility or minimize cost
+	 * @param timeout 	the local timeout in ms; 0 if disabled
+	 */
+	public MGM2asyncTest(String method, boolean maximize, long timeout) {
+		super(method);
+		this.maximize = maximize;
+		this.timeout = timeout;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for MGM2async");
+
+		for (boolean maximize : new boolean[] { false, true }) {
+			suite.addTest(new RepeatedTest (new MGM2asyncTest ("testMonotonicity", maximize, 0), 50));
+			suite.addTest(new RepeatedTest (new MGM2asyncTest ("testMonotonicity", maximize, 1), 20));
+			suite.addTest(new RepeatedTest (new MGM2asyncTest ("testDelays", maximize, 0), 20));
+			suite.addTest(new RepeatedTest (new MGM2asyncTest ("testComparison", maximize, 0), 5));
+		}
+
+		return suite;
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	@Override
+	protected void setUp () {
+		this.problem = AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 5), this.maximize, 0, false, 0.0);
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	@Override
+	protected void tearDown () {
+		this.problem = null;
+	}
+
+	/** Runs MGM2async
+	 * @param problem 		the problem
+	 * @param timeout 		the local timeout in ms; 0 if disabled
+	 * @param convergence 	whether to report the assignment histories
+	 * @return the solution
+	 */
+	private static SolutionWithConvergence<AddableInteger, AddableInteger> runAsync (Document problem, long timeout, boolean convergence) {
+		return runAsync(problem, timeout, convergence, false);
+	}
+
+	/** Runs MGM2async
+	 * @param problem 		the problem
+	 * @param timeout 		the local timeout in ms; 0 if disabled
+	 * @param convergence 	whether to report the assignment histories
+	 * @param delays 		whether to simulate random message delays and measure messages
+	 * @return the solution
+	 */
+	private static SolutionWithConvergence<AddableInteger, AddableInteger> runAsync (Document problem, long timeout, boolean convergence, boolean delays) {
+		MGM2asyncSolver<AddableInteger, AddableInteger> solver = new MGM2asyncSolver<AddableInteger, AddableInteger> ();
+		solver.setCycles(NBR_CYCLES);
+		solver.setLocalTimeout(timeout);
+		solver.setConvergence(convergence);
+		setDelays(solver.getAgentDesc(), delays);
+		return solver.solve(problem);
+	}
+
+	/** Enables or disables the simulation of random message delays, together with the measurement of messages
+	 * @param agentDesc 	the agent configuration
+	 * @param delays 		whether to simulate random message delays
+	 */
+	private static void setDelays (Document agentDesc, boolean delays) {
+		agentDesc.getRootElement().setAttribute("useDelay", Boolean.toString(delays));
+		agentDesc.getRootElement().setAttribute("measureMsgs", Boolean.toString(delays));
+	}
+
+	/** Checks that the solution never gets worse from one cycle to the next, even when variables time out
+	 * @note The problems have no infeasible assignments, such that all gains are finite. 
+	 */
+	public void testMonotonicity () {
+		this.checkMonotonicity(runAsync(this.problem, this.timeout, true));
+	}
+
+	/** Checks that the solution never gets worse from one cycle to the next when messages can be reordered by random delays */
+	public void testDelays () {
+		this.checkMonotonicity(runAsync(this.problem, this.timeout, true, true));
+	}
+
+	/** Checks that the solution is correct and never gets worse from one cycle to the next
+	 * @param sol 	the solution reported by MGM2async
+	 */
+	private void checkMonotonicity (SolutionWithConvergence<AddableInteger, AddableInteger> sol) {
+
+		assertNotNull(sol);
+
+		XCSPparser<AddableInteger, AddableInteger> parser = new XCSPparser<AddableInteger, AddableInteger> (this.problem);
+		assertEquals(parser.getVariables(), sol.getAssignments().keySet());
+		assertEquals(parser.getUtility(sol.getAssignments()).getUtility(0), sol.getUtility());
+
+		// Reconstruct the assignment at the start of each cycle from the assignment histories
+		HashMap< String, ArrayList< CurrentAssignment<AddableInteger> > > histories = sol.getAssignmentHistories();
+		assertEquals(parser.getVariables(), histories.keySet());
+		AddableInteger previous = null;
+		for (int cycle = 0; cycle <= NBR_CYCLES; cycle++) {
+
+			Map<String, AddableInteger> assignment = new HashMap<String, AddableInteger> ();
+			for (Map.Entry< String, ArrayList< CurrentAssignment<AddableInteger> > > entry : histories.entrySet()) 
+				for (CurrentAssignment<AddableInteger> ass : entry.getValue()) 
+					if (ass.getTimeStamp(false) <= cycle) 
+						assignment.put(entry.getKey(), ass.getAssignment());
+
+			AddableInteger util = parser.getUtility(assignment).getUtility(0);
+			if (previous != null) {
+				if (this.maximize) 
+					assertTrue("Cycle " + cycle + ": " + util + " < " + previous, util.compareTo(previous) >= 0);
+				else 
+					assertTrue("Cycle " + cycle + ": " + util + " > " + previous, util.compareTo(previous) <= 0);
+			}
+			previous = util;
+
+			if (cycle == NBR_CYCLES) 
+				assertEquals(sol.getAssignments(), assignment);
+		}
+	}
+
+	/** Runs MGM2 and MGM2async on the same problem, with the same number of cycles
+	 * @param problem 	the problem
+	 * @param delays 	whether to simulate random message delays and measure messages
+	 * @return for each algorithm, the solution found
+	 */
+	@SuppressWarnings("unchecked")
+	private static ArrayList< SolutionWithConvergence<AddableInteger, AddableInteger> > compare (Document problem, boolean delays) {
+
+		ArrayList< SolutionWithConvergence<AddableInteger, AddableInteger> > sols = new ArrayList< SolutionWithConvergence<AddableInteger, AddableInteger> > (2);
+
+		MGM2solver<AddableInteger, AddableInteger> solver = new MGM2solver<AddableInteger, AddableInteger> ();
+		for (Element module : (List<Element>) solver.getAgentDesc().getRootElement().getChild("modules").getChildren()) 
+			if (module.getAttribute("cycles") != null) 
+				module.setAttribute("cycles", Integer.toString(NBR_CYCLES));
+		setDelays(solver.getAgentDesc(), delays);
+		sols.add(solver.solve(problem));
+
+		sols.add(runAsync(problem, 0, false, delays));
+
+		return sols;
+	}
+
+	/** Compares MGM2async with MGM2 
+	 * @note Message delays are not simulated, because MGM2 relies on FIFO delivery and can deadlock when messages are reordered.
+	 */
+	public void testComparison () {
+
+		XCSPparser<AddableInteger, AddableInteger> parser = new XCSPparser<AddableInteger, AddableInteger> (this.problem);
+		for (SolutionWithConvergence<AddableInteger, AddableInteger> sol : compare(this.problem, false)) {
+			assertNotNull(sol);
+			assertEquals(parser.getVariables(), sol.getAssignments().keySet());
+			assertEquals(parser.getUtility(sol.getAssignments()).getUtility(0), sol.getUtility());
+			assertTrue(sol.getTimeNeeded() >= 0);
+		}
+	}
+
+	/** Benchmarks MGM2async against MGM2 on random problems with random message delays, and prints out the average simulated time, number of messages and solution quality
+	 * @param args 	the number of problems (default: 50)
+	 * @note Runs that fail to return a solution (MGM2 can deadlock when messages are reordered) are counted separately, 
+	 * and the averages and comparisons only involve the problems on which both algorithms succeeded. 
+	 */
+	public static void main (String[] args) {
+
+		int nbrProblems = (args.length > 0 ? Integer.parseInt(args[0]) : 50);
+		String[] names = new String[] { "MGM2", "MGM2async" };
+		long[] times = new long [2];
+		long[] msgs = new long [2];
+		int[] wins = new int [2];
+		int[] failures = new int [2];
+		int nbrSolved = 0;
+
+		for (int i = 0; i < nbrProblems; i++) {
+			boolean maximize = (i % 2 == 0);
+			Document problem = AllTests.generateProblem(RandGraphFactory.getRandGraph(30, 60, 30), maximize, 0, false, 0.0);
+			ArrayList< SolutionWithConvergence<AddableInteger, AddableInteger> > sols = compare(problem, true);
+
+			boolean failed = false;
+			for (int j = 0; j < 2; j++) {
+				if (sols.get(j) == null || sols.get(j).getUtility() == null) {
+					failures[j]++;
+					failed = true;
+				}
+			}
+			if (failed) 
+				continue;
+			nbrSolved++;
+
+			for (int j = 0; j < 2; j++) {
+				times[j] += sols.get(j).getTimeNeeded();
+				msgs[j] += sols.get(j).getNbrMsgs();
+			}
+			int diff = sols.get(1).getUtility().compareTo(sols.get(0).getUtility());
+			if (diff != 0) 
+				wins[(diff > 0) == maximize ? 1 : 0]++;
+		}
+
+		System.out.println("Average over the " + nbrSolved + " problems (out of " + nbrProblems + ") solved by both algorithms with " + NBR_CYCLES + " cycles:");
+		for (int j = 0; j < 2; j++) 
+			System.out.println("\t" + names[j] + ":\t" + (times[j] / Math.max(1, nbrSolved)) + " ms (simulated), " + (msgs[j] / Math.max(1, nbrSolved)) + " inter-agent messages, " 
+					+ wins[j] + " strictly better solution(s), " + failures[j] + " failed run(s)");
+	}
+
+}
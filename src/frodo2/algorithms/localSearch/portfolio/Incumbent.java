@@ -0,0 +1,128 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.portfolio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import frodo2.algorithms.StatsReporterWithConvergence.CurrentAssignment;
+import frodo2.solutionSpaces.Addable;
+
+/** The best solution found so far by any of the configurations of a portfolio
+ *
+ * All methods are synchronized, since the incumbent is shared by all the threads of the portfolio.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class Incumbent < V extends Addable<V>, U extends Addable<U> > {
+
+	/** Whether to maximize utility or minimize cost */
+	private final boolean maximize;
+
+	/** The time at which the portfolio started, in ns */
+	private final long startTime;
+
+	/** The best assignment found so far, or \c null if none has been offered yet */
+	private Map<String, V> assignment;
+
+	/** The utility of the best assignment */
+	private U utility;
+
+	/** The index of the configuration that found the best assignment */
+	private int config = -1;
+
+	/** For each variable, the history of its values in the successive incumbents */
+	private final HashMap< String, ArrayList< CurrentAssignment<V> > > histories = new HashMap< String, ArrayList< CurrentAssignment<V> > > ();
+
+	/** Constructor
+	 * @param maximize 	whether to maximize utility or minimize cost
+	 * @param startTime the time at which the portfolio started, in ns, as returned by System#nanoTime()
+	 */
+	public Incumbent (boolean maximize, long startTime) {
+		this.maximize = maximize;
+		this.startTime = startTime;
+	}
+
+	/** Checks whether a utility is strictly better than the incumbent's
+	 * @param util 	the utility
+	 * @return \c true if it is strictly better, or if there is no incumbent yet
+	 */
+	public synchronized boolean isBetter (U util) {
+		if (this.utility == null)
+			return true;
+		return this.maximize ? util.compareTo(this.utility) > 0 : util.compareTo(this.utility) < 0;
+	}
+
+	/** Replaces the incumbent if the input assignment is strictly better
+	 * @param assignment 	the assignment
+	 * @param util 			its utility
+	 * @param config 		the index of the configuration that found it
+	 * @param cycleCount 	the total number of cycles performed by the portfolio so far
+	 * @return \c true if the incumbent has been replaced
+	 */
+	public synchronized boolean offer (Map<String, V> assignment, U util, int config, long cycleCount) {
+
+		if (! this.isBetter(util))
+			return false;
+
+		long time = System.nanoTime() - this.startTime;
+		for (Map.Entry<String, V> entry : assignment.entrySet()) {
+			String var = entry.getKey();
+			V val = entry.getValue();
+
+			ArrayList< CurrentAssignment<V> > history = this.histories.get(var);
+			if (history == null)
+				this.histories.put(var, history = new ArrayList< CurrentAssignment<V> > ());
+			if (this.assignment == null || ! val.equals(this.assignment.get(var)))
+				history.add(new CurrentAssignment<V> (time, cycleCount, val));
+		}
+
+		this.assignment = new HashMap<String, V> (assignment);
+		this.utility = util;
+		this.config = config;
+		return true;
+	}
+
+	/** @return a copy of the best assignment found so far, or \c null if none */
+	public synchronized Map<String, V> getAssignment () {
+		return (this.assignment == null ? null : new HashMap<String, V> (this.assignment));
+	}
+
+	/** @return the utility of the best assignment found so far, or \c null if none */
+	public synchronized U getUtility () {
+		return this.utility;
+	}
+
+	/** @return the index of the configuration that found the best assignment, or -1 if none */
+	public synchronized int getConfig () {
+		return this.config;
+	}
+
+	/** @return for each variable, the history of its values in the successive incumbents */
+	public synchronized HashMap< String, ArrayList< CurrentAssignment<V> > > getAssignmentHistories () {
+		return this.histories;
+	}
+
+}
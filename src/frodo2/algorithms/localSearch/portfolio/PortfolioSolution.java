@@ -0,0 +1,167 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.portfolio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import frodo2.algorithms.SolutionWithConvergence;
+import frodo2.algorithms.StatsReporterWithConvergence.CurrentAssignment;
+import frodo2.communication.MessageType;
+import frodo2.solutionSpaces.Addable;
+
+/** The best solution found by a portfolio of local search configurations, with the trace of each configuration
+ *
+ * The assignment histories are the ones of the successive incumbents shared by all configurations.
+ * No messages are exchanged, and the number of NCCCs is not measured.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class PortfolioSolution < V extends Addable<V>, U extends Addable<U> > extends SolutionWithConvergence<V, U> {
+
+	/** The trace of a configuration of the portfolio
+	 * @param <U> the type used for utility values
+	 */
+	public static class Trace < U extends Addable<U> > {
+
+		/** The name of the configuration */
+		private final String name;
+
+		/** The number of runs performed, each with a different seed */
+		private int nbrRuns;
+
+		/** The number of cycles performed over all runs */
+		private long nbrCycles;
+
+		/** The successive improvements of the best utility found by the configuration, time-stamped in ns since the start */
+		private final ArrayList< CurrentAssignment<U> > improvements = new ArrayList< CurrentAssignment<U> > ();
+
+		/** Constructor
+		 * @param name 	the name of the configuration
+		 */
+		public Trace (String name) {
+			this.name = name;
+		}
+
+		/** @return the name of the configuration */
+		public String getName () {
+			return this.name;
+		}
+
+		/** @return the number of runs performed, each with a different seed */
+		public int getNbrRuns () {
+			return this.nbrRuns;
+		}
+
+		/** Records the start of a new run */
+		void newRun () {
+			this.nbrRuns++;
+		}
+
+		/** @return the number of cycles performed over all runs */
+		public long getNbrCycles () {
+			return this.nbrCycles;
+		}
+
+		/** Records a new cycle */
+		void newCycle () {
+			this.nbrCycles++;
+		}
+
+		/** @return the successive improvements of the best utility found by the configuration, time-stamped in ns since the start */
+		public List< CurrentAssignment<U> > getImprovements () {
+			return this.improvements;
+		}
+
+		/** @return the best utility found by the configuration, or \c null if none */
+		public U getBestUtility () {
+			return (this.improvements.isEmpty() ? null : this.improvements.get(this.improvements.size() - 1).getAssignment());
+		}
+
+		/** Records a utility if it improves on the best one found so far
+		 * @param util 		the utility
+		 * @param maximize 	whether to maximize utility or minimize cost
+		 * @param time 		the time in ns since the start
+		 */
+		void record (U util, boolean maximize, long time) {
+			U best = this.getBestUtility();
+			if (best == null || (maximize ? util.compareTo(best) > 0 : util.compareTo(best) < 0))
+				this.improvements.add(new CurrentAssignment<U> (time, this.nbrCycles, util));
+		}
+
+		/** @see java.lang.Object#toString() */
+		@Override
+		public String toString () {
+			return this.name + ": " + this.nbrRuns + " run(s), " + this.nbrCycles + " cycle(s), best utility = " + this.getBestUtility();
+		}
+	}
+
+	/** The traces of the configurations */
+	private final List< Trace<U> > traces;
+
+	/** The index of the configuration that found the solution */
+	private final int bestConfig;
+
+	/** Constructor
+	 * @param nbrVariables 			the total number of variables occurring in the problem
+	 * @param utility 				the utility of the solution
+	 * @param assignments 			the solution
+	 * @param timeNeeded 			the time needed to solve the problem, in ms
+	 * @param assignmentHistories 	for each variable, the history of its values in the successive incumbents
+	 * @param traces 				the traces of the configurations
+	 * @param bestConfig 			the index of the configuration that found the solution
+	 */
+	public PortfolioSolution (int nbrVariables, U utility, Map<String, V> assignments, long timeNeeded,
+			HashMap< String, ArrayList< CurrentAssignment<V> > > assignmentHistories, List< Trace<U> > traces, int bestConfig) {
+		super (nbrVariables, utility, utility, assignments, 0, new TreeMap<MessageType, Integer> (), new TreeMap<Object, Integer> (), new TreeMap<Object, Integer> (),
+				0, new TreeMap<MessageType, Long> (), new TreeMap<Object, Long> (), new TreeMap<Object, Long> (), 0, new TreeMap<MessageType, Long> (),
+				0, timeNeeded, new HashMap<String, Long> (), assignmentHistories);
+		this.traces = traces;
+		this.bestConfig = bestConfig;
+	}
+
+	/** @return the traces of the configurations, in the order of the configurations */
+	public List< Trace<U> > getTraces () {
+		return this.traces;
+	}
+
+	/** @return the index of the configuration that found the solution */
+	public int getBestConfig () {
+		return this.bestConfig;
+	}
+
+	/** @see SolutionWithConvergence#toString() */
+	@Override
+	public String toString () {
+		StringBuilder builder = new StringBuilder (super.toString());
+		builder.append("\n\t- best configuration: ").append(this.traces.get(this.bestConfig).getName());
+		for (Trace<U> trace : this.traces)
+			builder.append("\n\t- ").append(trace);
+		return builder.toString();
+	}
+
+}
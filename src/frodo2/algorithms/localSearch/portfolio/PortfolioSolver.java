@@ -0,0 +1,314 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** A solver running a portfolio of local search configurations in parallel */
+package frodo2.algorithms.localSearch.portfolio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jdom2.Attribute;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+
+import frodo2.algorithms.AbstractDCOPsolver;
+import frodo2.algorithms.AgentFactory;
+import frodo2.algorithms.Problem;
+import frodo2.algorithms.StatsReporter;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.simulated.SimulatedEngine;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+
+/** A solver that runs several local search configurations concurrently on the same problem, and returns the best solution found
+ *
+ * Each configuration is an agent configuration file for one of the local search algorithms supported by the SimulatedEngine,
+ * possibly with some of the attributes of its local search module overridden. All configurations run in the same JVM,
+ * one thread each, on a single in-memory copy of the problem, and share an Incumbent that records the best assignment
+ * found so far by any of them.
+ *
+ * The global budget is the timeout passed to the solve() methods, and/or the total number of cycles specified by the
+ * attribute \c nbrCycles of the \c portfolio element of the configuration file. When a budget is specified,
+ * each configuration is restarted with a new seed whenever its run ends, until the budget is exhausted;
+ * otherwise, each configuration is run once.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ * @note The runs are reproducible for a given seed only if each configuration runs once; with a shared budget,
+ * the number of cycles performed by each configuration depends on the thread scheduling.
+ * @warning The constraints of the problem are evaluated concurrently by several threads; this is not supported by
+ * the JaCoP-based spaces.
+ */
+public class PortfolioSolver < V extends Addable<V>, U extends Addable<U> > extends AbstractDCOPsolver< V, U, PortfolioSolution<V, U> > {
+
+	/** The names of the configurations */
+	private final ArrayList<String> names = new ArrayList<String> ();
+
+	/** The agent configurations of the local search algorithms */
+	private final ArrayList<Document> configs = new ArrayList<Document> ();
+
+	/** The seed from which the seeds of all runs are derived */
+	private long seed = System.nanoTime();
+
+	/** The total number of cycles allowed over all configurations; 0 if unlimited */
+	private long nbrCycles;
+
+	/** The solution found by the last call to solve() */
+	private PortfolioSolution<V, U> solution;
+
+	/** Constructor */
+	public PortfolioSolver () {
+		this ("/frodo2/algorithms/localSearch/portfolio/PortfolioAgent.xml");
+	}
+
+	/** Constructor
+	 * @param domClass 		the class to use for variable values
+	 * @param utilClass 	the class to use for utilities
+	 */
+	public PortfolioSolver (Class<V> domClass, Class<U> utilClass) {
+		this();
+		this.setDomClass(domClass);
+		this.setUtilClass(utilClass);
+	}
+
+	/** Constructor
+	 * @param agentDesc 	path to the portfolio configuration file
+	 */
+	public PortfolioSolver (String agentDesc) {
+		super (agentDesc);
+		this.parseConfigs();
+	}
+
+	/** Constructor
+	 * @param agentDesc 	the portfolio configuration file
+	 */
+	public PortfolioSolver (Document agentDesc) {
+		super (agentDesc);
+		this.parseConfigs();
+	}
+
+	/** Parses the configurations listed in the \c portfolio element of the configuration file */
+	@SuppressWarnings("unchecked")
+	private void parseConfigs () {
+
+		Element portfolioElmt = this.agentDesc.getRootElement().getChild("portfolio");
+		if (portfolioElmt == null)
+			return;
+
+		String seed = portfolioElmt.getAttributeValue("seed");
+		if (seed != null)
+			this.seed = Long.parseLong(seed);
+
+		String nbrCycles = portfolioElmt.getAttributeValue("nbrCycles");
+		this.nbrCycles = (nbrCycles == null ? 0 : Long.parseLong(nbrCycles));
+
+		for (Element configElmt : (List<Element>) portfolioElmt.getChildren("configuration")) {
+
+			Document config = null;
+			try {
+				config = XCSPparser.parse(AgentFactory.class.getResourceAsStream(configElmt.getAttributeValue("agentDescription")), false);
+			} catch (JDOMException e) {
+				e.printStackTrace();
+				continue;
+			} catch (IOException e) {
+				e.printStackTrace();
+				continue;
+			}
+
+			// Override the attributes of the modules with the same class names
+			for (Element override : (List<Element>) configElmt.getChildren("module")) {
+				String className = override.getAttributeValue("className");
+				for (Element module : (List<Element>) config.getRootElement().getChild("modules").getChildren())
+					if (module.getAttributeValue("className").equals(className))
+						for (Attribute attr : (List<Attribute>) override.getAttributes())
+							module.setAttribute(attr.getName(), attr.getValue());
+			}
+
+			this.addConfiguration(configElmt.getAttributeValue("name"), config);
+		}
+	}
+
+	/** Adds a configuration to the portfolio
+	 * @param name 		the name of the configuration; if \c null, the name of the local search module is used
+	 * @param config 	the agent configuration of a local search algorithm supported by the SimulatedEngine
+	 */
+	@SuppressWarnings("unchecked")
+	public void addConfiguration (String name, Document config) {
+
+		if (name == null) {
+			for (Element module : (List<Element>) config.getRootElement().getChild("modules").getChildren()) {
+				String className = module.getAttributeValue("className");
+				if (className.startsWith("frodo2.algorithms.localSearch."))
+					name = className.substring(className.lastIndexOf('.') + 1);
+			}
+			name += "#" + this.configs.size();
+		}
+
+		this.names.add(name);
+		this.configs.add(config);
+	}
+
+	/** Sets the seed from which the seeds of all runs are derived
+	 * @param seed 	the seed
+	 */
+	public void setSeed (long seed) {
+		this.seed = seed;
+	}
+
+	/** Sets the total number of cycles allowed over all configurations
+	 * @param nbrCycles 	the number of cycles; 0 if unlimited
+	 */
+	public void setNbrCycles (long nbrCycles) {
+		this.nbrCycles = nbrCycles;
+	}
+
+	/** @see AbstractDCOPsolver#getSolGatherers() */
+	@Override
+	public List<StatsReporter> getSolGatherers() {
+		return new ArrayList<StatsReporter> ();
+	}
+
+	/** @see frodo2.algorithms.AbstractSolver#solve(frodo2.solutionSpaces.ProblemInterface, boolean, java.lang.Long) */
+	@Override
+	public PortfolioSolution<V, U> solve (DCOPProblemInterface<V, U> problem, boolean cleanAfterwards, Long timeout) {
+
+		assert ! this.configs.isEmpty() : "The portfolio contains no configuration";
+
+		final long startTime = System.nanoTime();
+		final Long deadline = (timeout == null ? null : startTime + timeout * 1000000L);
+		final boolean restart = (timeout != null || this.nbrCycles > 0);
+
+		// Parse the problem only once, into a representation shared by all configurations
+		final Problem<V, U> shared = new Problem<V, U> (problem.maximize());
+		shared.reset(problem);
+		this.problem = shared;
+		final boolean maximize = shared.maximize();
+
+		final Incumbent<V, U> incumbent = new Incumbent<V, U> (maximize, startTime);
+		final AtomicLong cycleCount = new AtomicLong ();
+		final AtomicBoolean stop = new AtomicBoolean ();
+		final int nbrConfigs = this.configs.size();
+		final ArrayList< PortfolioSolution.Trace<U> > traces = new ArrayList< PortfolioSolution.Trace<U> > (nbrConfigs);
+
+		ExecutorService executor = Executors.newFixedThreadPool(nbrConfigs);
+		ArrayList< Future<Void> > futures = new ArrayList< Future<Void> > (nbrConfigs);
+		try {
+			for (int i = 0; i < nbrConfigs; i++) {
+				final int configIndex = i;
+				final Document config = this.configs.get(i);
+				final PortfolioSolution.Trace<U> trace = new PortfolioSolution.Trace<U> (this.names.get(i));
+				traces.add(trace);
+				final Random seeds = new Random (this.seed + i);
+
+				// The listener that updates the incumbent and enforces the budget
+				final SimulatedEngine.CycleListener<V, U> listener = new SimulatedEngine.CycleListener<V, U> () {
+					public boolean cycleDone(SimulatedEngine<V, U> engine, int cycle) {
+
+						if (cycle > 0) {
+							trace.newCycle();
+							if (nbrCycles > 0 && cycleCount.incrementAndGet() >= nbrCycles)
+								stop.set(true);
+						}
+
+						U util = engine.getUtility(cycle);
+						trace.record(util, maximize, System.nanoTime() - startTime);
+						if (incumbent.isBetter(util))
+							incumbent.offer(engine.getAssignment(cycle), util, configIndex, cycleCount.get());
+
+						if (deadline != null && System.nanoTime() >= deadline)
+							stop.set(true);
+
+						return ! stop.get();
+					}
+				};
+
+				futures.add(executor.submit(new Callable<Void> () {
+					public Void call() throws Exception {
+						do {
+							SimulatedEngine<V, U> engine = new SimulatedEngine<V, U> (shared, SimulatedEngine.createRule(config, shared), seeds.nextLong());
+							engine.setListener(listener);
+							trace.newRun();
+							engine.run();
+
+							// The anytime modules report the best assignment they have found, which may not be the last one
+							Map<String, V> sol = engine.getSolution();
+							U util = shared.getUtility(sol).getUtility(0);
+							trace.record(util, maximize, System.nanoTime() - startTime);
+							incumbent.offer(sol, util, configIndex, cycleCount.get());
+
+						} while (restart && ! stop.get());
+
+						return null;
+					}
+				}));
+			}
+
+			for (Future<Void> future : futures)
+				future.get();
+
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			return null;
+		} catch (ExecutionException e) {
+			System.err.println("A configuration of the portfolio threw an exception");
+			e.printStackTrace();
+			return null;
+		} finally {
+			stop.set(true);
+			executor.shutdownNow();
+		}
+
+		this.solution = new PortfolioSolution<V, U> (shared.getNbrVars(), incumbent.getUtility(), incumbent.getAssignment(),
+				(System.nanoTime() - startTime) / 1000000L, incumbent.getAssignmentHistories(), traces, incumbent.getConfig());
+		PortfolioSolution<V, U> solution = this.buildSolution();
+
+		if (cleanAfterwards)
+			this.clear();
+
+		return solution;
+	}
+
+	/** @see AbstractDCOPsolver#buildSolution() */
+	@Override
+	public PortfolioSolution<V, U> buildSolution() {
+		return this.solution;
+	}
+
+	/** @see frodo2.algorithms.AbstractSolver#clear() */
+	@Override
+	protected void clear () {
+		this.solution = null;
+		this.problem = null;
+	}
+
+}
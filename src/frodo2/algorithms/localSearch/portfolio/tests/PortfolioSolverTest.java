@@ -0,0 +1,144 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Tests for the portfolio solver */
+package frodo2.algorithms.localSearch.portfolio.tests;
+
+import org.jdom2.Document;
+
+import frodo2.algorithms.RandGraphFactory;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.portfolio.PortfolioSolution;
+import frodo2.algorithms.localSearch.portfolio.PortfolioSolver;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableInteger;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the PortfolioSolver
+ * @author Thomas Leaute
+ */
+public class PortfolioSolverTest extends TestCase {
+
+	/** Whether to maximize utility or minimize cost */
+	private final boolean maximize;
+
+	/** The problem */
+	private Document problem;
+
+	/** Constructor
+	 * @param method 	the test method
+	 * @param maximize 	whether to maximize utility or minimize cost
+	 */
+	public PortfolioSolverTest(String method, boolean maximize) {
+		super(method);
+		this.maximize = maximize;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the PortfolioSolver");
+
+		for (boolean maximize : new boolean[] { false, true }) {
+			suite.addTest(new RepeatedTest (new PortfolioSolverTest ("testSingleRuns", maximize), 20));
+			suite.addTest(new RepeatedTest (new PortfolioSolverTest ("testCycleBudget", maximize), 20));
+			suite.addTest(new RepeatedTest (new PortfolioSolverTest ("testTimeout", maximize), 5));
+		}
+
+		return suite;
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	@Override
+	protected void setUp () {
+		this.problem = AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 2), this.maximize, 0, false);
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	@Override
+	protected void tearDown () {
+		this.problem = null;
+	}
+
+	/** Checks that the reported solution is consistent with the problem and with the traces
+	 * @param sol 	the solution
+	 */
+	private void checkSolution (PortfolioSolution<AddableInteger, AddableInteger> sol) {
+
+		assertNotNull(sol);
+
+		XCSPparser<AddableInteger, AddableInteger> parser = new XCSPparser<AddableInteger, AddableInteger> (this.problem);
+		assertEquals(parser.getVariables(), sol.getAssignments().keySet());
+		assertEquals(parser.getUtility(sol.getAssignments()).getUtility(0), sol.getUtility());
+
+		assertEquals(5, sol.getTraces().size());
+		for (PortfolioSolution.Trace<AddableInteger> trace : sol.getTraces()) {
+			assertTrue(trace.getNbrRuns() > 0);
+			AddableInteger best = trace.getBestUtility();
+			assertNotNull(best);
+			if (this.maximize)
+				assertTrue(best + " > " + sol.getUtility(), best.compareTo(sol.getUtility()) <= 0);
+			else
+				assertTrue(best + " < " + sol.getUtility(), best.compareTo(sol.getUtility()) >= 0);
+		}
+		assertEquals(sol.getUtility(), sol.getTraces().get(sol.getBestConfig()).getBestUtility());
+	}
+
+	/** Tests the portfolio without any budget, such that each configuration runs once */
+	public void testSingleRuns () {
+
+		PortfolioSolver<AddableInteger, AddableInteger> solver = new PortfolioSolver<AddableInteger, AddableInteger> ();
+		solver.setSeed((long) (Math.random() * Integer.MAX_VALUE));
+		PortfolioSolution<AddableInteger, AddableInteger> sol = solver.solve(this.problem);
+		this.checkSolution(sol);
+
+		for (PortfolioSolution.Trace<AddableInteger> trace : sol.getTraces())
+			assertEquals(1, trace.getNbrRuns());
+	}
+
+	/** Tests the portfolio with a global budget of cycles */
+	public void testCycleBudget () {
+
+		final int budget = 1000;
+		PortfolioSolver<AddableInteger, AddableInteger> solver = new PortfolioSolver<AddableInteger, AddableInteger> ();
+		solver.setNbrCycles(budget);
+		PortfolioSolution<AddableInteger, AddableInteger> sol = solver.solve(this.problem);
+		this.checkSolution(sol);
+
+		// Each configuration can overshoot the budget by at most one cycle
+		long nbrCycles = 0;
+		for (PortfolioSolution.Trace<AddableInteger> trace : sol.getTraces())
+			nbrCycles += trace.getNbrCycles();
+		assertTrue(nbrCycles + " cycles", nbrCycles >= budget && nbrCycles < budget + sol.getTraces().size());
+	}
+
+	/** Tests the portfolio with a timeout, which makes the configurations restart until the timeout is reached */
+	public void testTimeout () {
+
+		PortfolioSolver<AddableInteger, AddableInteger> solver = new PortfolioSolver<AddableInteger, AddableInteger> ();
+		PortfolioSolution<AddableInteger, AddableInteger> sol = solver.solve(this.problem, 500L);
+		this.checkSolution(sol);
+		assertTrue(sol.getTimeNeeded() >= 500);
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.heuristics.MostConnectedHeuristic;
+import frodo2.algorithms.heuristics.ScorePair;
+import frodo2.algorithms.heuristics.ScoringHeuristic;
+import frodo2.algorithms.heuristics.ScoringHeuristicWithTiebreaker;
+import frodo2.algorithms.heuristics.SmallestDomainHeuristic;
+import frodo2.algorithms.heuristics.VarNameHeuristic;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+
+/** The Anytime Local Search (ALS_DCOP) framework shared by the DSASDP, GDBA and COOPT decision rules
+ *
+ * The first two phases of each cycle implement the anytime mechanism: each variable computes the utility of its current value,
+ * and the root of each connected component sums them up, and records the current assignment of the component if it is
+ * the best so far. The following phases are the ones of the decision rule. Like in the distributed modules, isolated
+ * variables never leave their initial values.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public abstract class ALSrule < V extends Addable<V>, U extends Addable<U> > implements DecisionRule<V, U> {
+
+	/** The number of decision cycles */
+	private final int nbrCycles;
+
+	/** The heuristic used to elect the root of each component, or \c null to use the default one */
+	private ScoringHeuristic<?> rootElection;
+
+	/** The engine */
+	protected SimulatedEngine<V, U> engine;
+
+	/** For each root, the indexes of the variables in its component; \c null for the other variables */
+	private int[][] components;
+
+	/** For each variable, the utility of its current value */
+	private U[] localUtils;
+
+	/** For each root, the cost of the best assignment found so far to its component */
+	protected U[] bestCosts;
+
+	/** For each variable, the index of its value in the best assignment found so far to its component */
+	private int[] bestValues;
+
+	/** For each variable, the index of its value in the next cycle */
+	protected int[] newValues;
+
+	/** Constructor
+	 * @param params 	the parameters of the module
+	 */
+	protected ALSrule (Element params) {
+		String maxCycles = (params == null ? null : params.getAttributeValue("maxCycles"));
+		this.nbrCycles = (maxCycles == null ? 100 : Integer.parseInt(maxCycles)) - 1;
+	}
+
+	/** Sets the heuristic used to elect the root of each component
+	 * @param rootElection 	the heuristic; the variable with the highest score is elected
+	 */
+	public void setRootElection (ScoringHeuristic<?> rootElection) {
+		this.rootElection = rootElection;
+	}
+
+	/** @see DecisionRule#init(SimulatedEngine) */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void init(SimulatedEngine<V, U> engine) {
+		this.engine = engine;
+
+		final int nbrVars = engine.getNbrVars();
+		this.localUtils = (U[]) new Addable [nbrVars];
+		this.bestCosts = (U[]) new Addable [nbrVars];
+		this.bestValues = new int [nbrVars];
+		this.newValues = new int [nbrVars];
+		this.components = new int [nbrVars][];
+
+		// Elect the root of each connected component
+		ScoringHeuristic<?> heuristic = this.rootElection;
+		if (heuristic == null) {
+			DCOPProblemInterface<V, U> problem = engine.getProblem();
+			heuristic = new ScoringHeuristicWithTiebreaker< Short, ScorePair<Short, String> > (new MostConnectedHeuristic (problem, null),
+					new ScoringHeuristicWithTiebreaker<Short, String> (new SmallestDomainHeuristic (problem, null), new VarNameHeuristic (problem, null)));
+		}
+		Map<String, ? extends Comparable> scores = heuristic.getScores();
+
+		boolean[] visited = new boolean [nbrVars];
+		for (int i = 0; i < nbrVars; i++) {
+			if (visited[i])
+				continue;
+
+			ArrayList<Integer> component = new ArrayList<Integer> ();
+			component.add(i);
+			visited[i] = true;
+			int root = i;
+			for (int k = 0; k < component.size(); k++) {
+				int var = component.get(k);
+				if (scores.get(engine.getVariable(var)).compareTo(scores.get(engine.getVariable(root))) > 0)
+					root = var;
+
+				for (int neigh : engine.getNeighbors(var)) {
+					if (! visited[neigh]) {
+						visited[neigh] = true;
+						component.add(neigh);
+					}
+				}
+			}
+
+			int[] members = this.components[root] = new int [component.size()];
+			for (int k = 0; k < members.length; k++)
+				members[k] = component.get(k);
+			this.bestCosts[root] = engine.getProblem().getPlusInfUtility();
+		}
+	}
+
+	/** @see DecisionRule#getNbrCycles() */
+	public int getNbrCycles() {
+		return this.nbrCycles;
+	}
+
+	/** @see DecisionRule#getNbrPhases() */
+	public int getNbrPhases() {
+		return 2 + this.getNbrDecisionPhases();
+	}
+
+	/** @return the number of phases of the decision rule */
+	protected abstract int getNbrDecisionPhases ();
+
+	/** @see DecisionRule#initValue(int) */
+	public int initValue(int var) {
+		return this.bestValues[var] = this.newValues[var] = (int) (this.engine.getRandom(var).nextDouble() * this.engine.getDomain(var).length);
+	}
+
+	/** @see DecisionRule#phase(int, int) */
+	public void phase(int phase, int var) {
+
+		if (this.engine.getNeighbors(var).length == 0)
+			return;
+
+		if (phase == 0)
+			this.localUtils[var] = this.engine.getEvaluator(var).getUtility(this.engine.getValue(var));
+		else if (phase == 1) {
+			if (this.isRoot(var))
+				this.updateBest(var);
+		} else
+			this.decide(phase - 2, var);
+	}
+
+	/** Performs one phase of the decision rule
+	 * @param phase 	the phase of the decision rule
+	 * @param var 		the index of the variable
+	 */
+	protected abstract void decide (int phase, int var);
+
+	/** Checks whether a variable is the root of its component
+	 * @param var 	the index of the variable
+	 * @return \c true if it is the root
+	 */
+	protected boolean isRoot (int var) {
+		return this.components[var] != null;
+	}
+
+	/** Records the current assignment to a component if it is the best so far
+	 * @param root 	the index of the root of the component
+	 */
+	private void updateBest (int root) {
+
+		int[] members = this.components[root];
+		U cost = this.localUtils[root];
+		for (int var : members)
+			if (var != root)
+				cost = cost.add(this.localUtils[var]);
+
+		if (this.bestCosts[root].doubleValue() > cost.doubleValue()) {
+			this.bestCosts[root] = cost;
+			for (int var : members)
+				this.bestValues[var] = this.engine.getValue(var);
+		}
+	}
+
+	/** @see DecisionRule#getNewValue(int) */
+	public int getNewValue(int var) {
+		return this.newValues[var];
+	}
+
+	/** @see DecisionRule#finish() */
+	public void finish() {
+
+		// The modules also evaluate the assignment reached after the last decision
+		final int nbrVars = this.engine.getNbrVars();
+		for (int i = 0; i < nbrVars; i++)
+			this.phase(0, i);
+		for (int i = 0; i < nbrVars; i++)
+			this.phase(1, i);
+	}
+
+	/** @see DecisionRule#getSolution() */
+	public Map<String, V> getSolution() {
+
+		final int nbrVars = this.engine.getNbrVars();
+		HashMap<String, V> solution = new HashMap<String, V> (nbrVars);
+		for (int i = 0; i < nbrVars; i++)
+			solution.put(this.engine.getVariable(i), this.engine.getDomain(i)[this.bestValues[i]]);
+		return solution;
+	}
+
+}
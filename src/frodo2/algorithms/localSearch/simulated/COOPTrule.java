@@ -0,0 +1,196 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.coopt.OscillatorCosts;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+
+/** The decision rule of COOPT
+ *
+ * Each variable is an oscillator with a frequency and a phase, which it updates in a single decision phase
+ * based on the values and phases of its neighbors in the current cycle.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ * @note The distributed module uses the latest values received from its neighbors, which depend on the message order;
+ * this rule always uses the values of the current cycle.
+ * @note The coupling strength is divided by the number of variables in the subproblem of the variable's owner,
+ * i.e. its own variables and their neighbors, as in the module.
+ */
+public class COOPTrule < V extends Addable<V>, U extends Addable<U> > extends ALSrule<V, U> {
+
+	/** The global coupling strength */
+	private final double coupling;
+
+	/** For each variable, its current phase */
+	private double[] phase;
+
+	/** For each variable, its phase in the next cycle */
+	private double[] newPhase;
+
+	/** For each variable, its frequency */
+	private double[] frequency;
+
+	/** For each variable, the number of variables in its owner's subproblem */
+	private int[] nbVars;
+
+	/** For each variable, its precomputed pairwise costs with its neighbors */
+	private OscillatorCosts[] oscillators;
+
+	/** For each variable, the buffer of the phases of its neighbors */
+	private double[][] neighborPhases;
+
+	/** For each variable, the buffer of the indexes of the values of its neighbors */
+	private int[][] neighborValues;
+
+	/** Constructor
+	 * @param params 	the parameters of the COOPT module
+	 */
+	public COOPTrule (Element params) {
+		super(params);
+
+		String coupling = (params == null ? null : params.getAttributeValue("coupling"));
+		this.coupling = (coupling == null ? 1.0 : Double.parseDouble(coupling));
+	}
+
+	/** @see ALSrule#init(SimulatedEngine) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(SimulatedEngine<V, U> engine) {
+		super.init(engine);
+
+		final int nbrVars = engine.getNbrVars();
+		this.phase = new double [nbrVars];
+		this.newPhase = new double [nbrVars];
+		this.frequency = new double [nbrVars];
+		this.nbVars = new int [nbrVars];
+		this.oscillators = new OscillatorCosts [nbrVars];
+		this.neighborPhases = new double [nbrVars][];
+		this.neighborValues = new int [nbrVars][];
+
+		DCOPProblemInterface<V, U> problem = engine.getProblem();
+		for (int var = 0; var < nbrVars; var++) {
+			int[] neighbors = engine.getNeighbors(var);
+			String[] neighNames = new String [neighbors.length];
+			V[][] neighDoms = (V[][]) new Addable [neighbors.length][];
+			for (int k = 0; k < neighbors.length; k++) {
+				neighNames[k] = engine.getVariable(neighbors[k]);
+				neighDoms[k] = engine.getDomain(neighbors[k]);
+			}
+			this.oscillators[var] = new OscillatorCosts (engine.getEvaluator(var), neighNames, neighDoms);
+			this.neighborPhases[var] = new double [neighbors.length];
+			this.neighborValues[var] = new int [neighbors.length];
+
+			String owner = problem.getOwner(engine.getVariable(var));
+			if (owner == null) {
+				this.nbVars[var] = nbrVars;
+				continue;
+			}
+
+			HashSet<String> subproblem = new HashSet<String> ();
+			for (String ownVar : problem.getVariables(owner)) {
+				subproblem.add(ownVar);
+				subproblem.addAll(problem.getNeighborVars(ownVar));
+			}
+			this.nbVars[var] = subproblem.size();
+		}
+	}
+
+	/** @see ALSrule#getNbrDecisionPhases() */
+	@Override
+	protected int getNbrDecisionPhases() {
+		return 1;
+	}
+
+	/** @see ALSrule#initValue(int) */
+	@Override
+	public int initValue(int var) {
+		int value = super.initValue(var);
+		this.phase[var] = this.newPhase[var] = RandomStreams.nextGaussian(this.engine.getRandom(var));
+		this.frequency[var] = this.getBestLocalUtility(var, value).doubleValue();
+		return value;
+	}
+
+	/** Computes the local utility of a value when all neighbors take their best values, as COOPT.VariableInfo#getBestLocalUtility()
+	 * @param var 		the index of the variable
+	 * @param value 	the index of its value
+	 * @return the best local utility
+	 */
+	private U getBestLocalUtility (int var, int value) {
+
+		DCOPProblemInterface<V, U> problem = this.engine.getProblem();
+		String name = this.engine.getVariable(var);
+		String[] vars = new String[] { name };
+		V[] vals = Arrays.copyOfRange(this.engine.getDomain(var), value, value + 1);
+
+		U util = problem.getZeroUtility();
+		for (UtilitySolutionSpace<V, U> space : problem.getSolutionSpaces(name, false)) {
+			for (String other : space.getVariables())
+				if (! other.equals(name))
+					space = space.blindProject(other, false);
+
+			util = util.add(space.getUtility(vars, vals));
+		}
+
+		return util;
+	}
+
+	/** @see ALSrule#decide(int, int) */
+	@Override
+	protected void decide(int phase, int var) {
+
+		// Load the phases and values of the neighbors in the current cycle
+		int[] neighbors = this.engine.getNeighbors(var);
+		double[] phases = this.neighborPhases[var];
+		int[] values = this.neighborValues[var];
+		for (int k = 0; k < neighbors.length; k++) {
+			phases[k] = this.phase[neighbors[k]];
+			values[k] = this.engine.getValue(neighbors[k]);
+		}
+
+		// Choose the next value and update the frequency, as COOPT#updateFrequence()
+		OscillatorCosts oscillator = this.oscillators[var];
+		final double ti = this.phase[var];
+		int value = this.newValues[var] = oscillator.updateFrequency(ti, phases, values);
+		this.frequency[var] = oscillator.getFrequency();
+
+		// Compute the next phase, as COOPT#updatePhase()
+		this.newPhase[var] = this.frequency[var] + ((this.coupling / this.nbVars[var]) * oscillator.getCoupling(value, ti, phases, values));
+	}
+
+	/** @see ALSrule#getNewValue(int) */
+	@Override
+	public int getNewValue(int var) {
+		this.phase[var] = this.newPhase[var];
+		return super.getNewValue(var);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.solutionSpaces.Addable;
+
+/** The decision rule of DSA-SDP
+ *
+ * As in DSASDP#chooseValue(String), the probability of moving to the best value depends on how it compares to the best cost
+ * known to the variable, which is the best cost of its component for the root, and infinity for the other variables.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class DSASDPrule < V extends Addable<V>, U extends Addable<U> > extends ALSrule<V, U> {
+
+	/** The probabilities of the algorithm */
+	private final double pA, pB, pC, pD;
+
+	/** The infinite cost */
+	private U plusInf;
+
+	/** Constructor
+	 * @param params 	the parameters of the DSASDP module
+	 */
+	public DSASDPrule (Element params) {
+		super(params);
+
+		String pA = (params == null ? null : params.getAttributeValue("pA"));
+		String pB = (params == null ? null : params.getAttributeValue("pB"));
+		String pC = (params == null ? null : params.getAttributeValue("pC"));
+		String pD = (params == null ? null : params.getAttributeValue("pD"));
+
+		this.pA = (pA == null ? 0.6 : Double.parseDouble(pA));
+		this.pB = (pB == null ? 0.15 : Double.parseDouble(pB));
+		this.pC = (pC == null ? 0.4 : Double.parseDouble(pC));
+		this.pD = (pD == null ? 0.8 : Double.parseDouble(pD));
+	}
+
+	/** @see ALSrule#init(SimulatedEngine) */
+	@Override
+	public void init(SimulatedEngine<V, U> engine) {
+		super.init(engine);
+		this.plusInf = engine.getProblem().getPlusInfUtility();
+	}
+
+	/** @see ALSrule#getNbrDecisionPhases() */
+	@Override
+	protected int getNbrDecisionPhases() {
+		return 1;
+	}
+
+	/** @see ALSrule#decide(int, int) */
+	@Override
+	protected void decide(int phase, int var) {
+
+		LocalCostEvaluator<V, U> evaluator = this.engine.getEvaluator(var);
+
+		U cost = null;
+		int best = -1;
+		for (int i = 0; i < evaluator.getDomain().length; i++) {
+			U util = evaluator.getUtility(i);
+
+			if (cost == null || cost.doubleValue() > util.doubleValue()) {
+				best = i;
+				cost = util;
+			}
+		}
+
+		double bestCost = (this.isRoot(var) ? this.bestCosts[var] : this.plusInf).doubleValue();
+
+		double prob = 0;
+		double fact = (Math.abs(bestCost - cost.doubleValue()) / cost.doubleValue());
+
+		if (cost.doubleValue() < bestCost) // calculates probability with PA and PB
+			prob = pA + Math.min(pB, fact);
+		else if (fact <= 1) // calculates probability with PC and PD
+			prob = Math.max(pC, pD - fact);
+
+		if (this.engine.getRandom(var).nextDouble() > prob)
+			best = this.engine.getValue(var);
+
+		this.newValues[var] = best;
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.Map;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.algorithms.localSearch.dsa.DSA;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** The decision rule of DSA, with strategy A, C or E
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class DSArule < V extends Addable<V>, U extends Addable<U> > implements DecisionRule<V, U> {
+
+	/** The supported strategies */
+	private static enum Strategy {
+		/** Move with probability p if the best value is strictly better */
+		A,
+		/** Move with probability p if the best value is at least as good */
+		C,
+		/** Always move if the best value is strictly better, and with probability p if it is as good */
+		E
+	}
+
+	/** The strategy */
+	private final Strategy strategy;
+
+	/** The probability of moving */
+	private final double p;
+
+	/** The number of decision cycles */
+	private final int nbrCycles;
+
+	/** The engine */
+	private SimulatedEngine<V, U> engine;
+
+	/** Whether to maximize utility or minimize cost */
+	private boolean maximize;
+
+	/** The utility value used for infeasible assignments */
+	private U infeasibleUtil;
+
+	/** Constructor
+	 * @param params 	the parameters of the DSA module
+	 */
+	public DSArule (Element params) {
+
+		String p = (params == null ? null : params.getAttributeValue("probability"));
+		this.p = (p == null ? 0.0 : Double.parseDouble(p));
+
+		String strategy = (params == null ? null : params.getAttributeValue("strategy"));
+		if (strategy == null || strategy.equals(DSA.A.class.getName()))
+			this.strategy = Strategy.A;
+		else if (strategy.equals(DSA.C.class.getName()))
+			this.strategy = Strategy.C;
+		else if (strategy.equals(DSA.E.class.getName()))
+			this.strategy = Strategy.E;
+		else
+			throw new IllegalArgumentException ("Unsupported DSA strategy: " + strategy);
+
+		// DSA stops when its cycle counter reaches nbrCycles - 1, and only makes decisions before that
+		String nbrCycles = (params == null ? null : params.getAttributeValue("nbrCycles"));
+		this.nbrCycles = (nbrCycles == null ? 200 : Integer.parseInt(nbrCycles)) - 2;
+	}
+
+	/** @see DecisionRule#init(SimulatedEngine) */
+	public void init(SimulatedEngine<V, U> engine) {
+		this.engine = engine;
+		this.maximize = engine.getProblem().maximize();
+		this.infeasibleUtil = (this.maximize ? engine.getProblem().getMinInfUtility() : engine.getProblem().getPlusInfUtility());
+	}
+
+	/** @see DecisionRule#getNbrCycles() */
+	public int getNbrCycles() {
+		return this.nbrCycles;
+	}
+
+	/** @see DecisionRule#getNbrPhases() */
+	public int getNbrPhases() {
+		return 0;
+	}
+
+	/** @see DecisionRule#initValue(int) */
+	public int initValue(int var) {
+
+		// Isolated variables directly take their best value
+		if (this.engine.getNeighbors(var).length == 0)
+			return this.bestValue(this.engine.getEvaluator(var));
+
+		return (int) (this.engine.getRandom(var).nextDouble() * this.engine.getDomain(var).length);
+	}
+
+	/** Finds the best value of a variable, as DSA.VariableInfo#bestAssignment()
+	 * @param evaluator 	the evaluator of the variable
+	 * @return the index of its best value
+	 */
+	private int bestValue (LocalCostEvaluator<V, U> evaluator) {
+
+		AddableConflicts<U> max = new AddableConflicts<U> (this.infeasibleUtil, Integer.MAX_VALUE);
+		int best = 0;
+		for (int i = 0; i < evaluator.getDomain().length; i++) {
+			AddableConflicts<U> util = evaluator.getCost(i);
+			if (this.maximize ? max.compareTo(util) < 0 : max.compareTo(util) > 0) {
+				max = util;
+				best = i;
+			}
+		}
+
+		return best;
+	}
+
+	/** @see DecisionRule#phase(int, int) */
+	public void phase(int phase, int var) { }
+
+	/** @see DecisionRule#getNewValue(int) */
+	public int getNewValue(int var) {
+
+		int current = this.engine.getValue(var);
+		if (this.engine.getNeighbors(var).length == 0)
+			return current;
+
+		LocalCostEvaluator<V, U> evaluator = this.engine.getEvaluator(var);
+		int best = this.bestValue(evaluator);
+
+		int comparison = evaluator.getUtility(best).compareTo(evaluator.getUtility(current));
+		if (! this.maximize)
+			comparison = -comparison;
+
+		switch (this.strategy) {
+		case A:
+			if (comparison > 0 && this.engine.getRandom(var).nextDouble() <= this.p)
+				return best;
+			break;
+		case C:
+			if (comparison >= 0 && this.engine.getRandom(var).nextDouble() <= this.p)
+				return best;
+			break;
+		case E:
+			if (comparison > 0 || (comparison == 0 && this.engine.getRandom(var).nextDouble() <= this.p))
+				return best;
+		}
+
+		return current;
+	}
+
+	/** @see DecisionRule#finish() */
+	public void finish() { }
+
+	/** @see DecisionRule#getSolution() */
+	public Map<String, V> getSolution() {
+		return this.engine.getAssignment(this.engine.getTrajectoryLength() - 1);
+	}
+
+}
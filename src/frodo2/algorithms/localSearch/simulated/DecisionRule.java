@@ -0,0 +1,78 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.Map;
+
+import frodo2.solutionSpaces.Addable;
+
+/** The decision rule of a synchronous local search algorithm, as run by the SimulatedEngine
+ *
+ * A cycle is split into phases. During each phase, the engine calls phase() for all variables, possibly in parallel;
+ * a variable may only modify its own state, and may read the state its neighbors computed in previous phases.
+ * After the last phase, the engine calls getNewValue() for all variables, and only then informs them of their neighbors' new values.
+ *
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ * @note All implementations should have a constructor that takes in the Element describing the parameters of the corresponding
+ * distributed module (possibly \c null), and interpret its attributes with the same defaults as the module.
+ */
+public interface DecisionRule < V extends Addable<V>, U extends Addable<U> > {
+
+	/** Initializes the rule for a new run
+	 * @param engine 	the engine
+	 */
+	public void init (SimulatedEngine<V, U> engine);
+
+	/** @return the number of decision cycles the distributed module performs */
+	public int getNbrCycles ();
+
+	/** @return the number of phases per cycle */
+	public int getNbrPhases ();
+
+	/** Chooses the initial value of a variable
+	 * @param var 	the index of the variable
+	 * @return the index of its initial value
+	 */
+	public int initValue (int var);
+
+	/** Performs one phase of the current cycle for a given variable
+	 * @param phase 	the phase
+	 * @param var 		the index of the variable
+	 */
+	public void phase (int phase, int var);
+
+	/** Called after the last phase of the cycle
+	 * @param var 	the index of the variable
+	 * @return the index of the variable's value for the next cycle
+	 */
+	public int getNewValue (int var);
+
+	/** Called once after the last cycle */
+	public void finish ();
+
+	/** @return the solution the distributed module would report */
+	public Map<String, V> getSolution ();
+
+}
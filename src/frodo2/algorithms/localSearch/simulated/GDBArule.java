@@ -0,0 +1,265 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.algorithms.localSearch.gdba.BreakoutModifiers;
+import frodo2.algorithms.localSearch.gdba.GDBA;
+import frodo2.solutionSpaces.Addable;
+
+/** The decision rule of GDBA
+ *
+ * Each variable keeps, for each neighbor, a sparse table of modifiers indexed by the indexes of their values.
+ * The first decision phase computes each variable's best effective cost reduction (its delta); in the second phase,
+ * a variable moves if its delta is positive and not smaller than its neighbors', and increases the modifiers of its
+ * violated constraints if neither it nor any of its neighbors can improve.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class GDBArule < V extends Addable<V>, U extends Addable<U> > extends ALSrule<V, U> {
+
+	/** The manner in which modifiers are applied */
+	private final int manner;
+
+	/** The definition of a violated constraint */
+	private final int violation;
+
+	/** The scope of the modifiers increased for a violated constraint */
+	private final int scope;
+
+	/** The zero utility */
+	private U zero;
+
+	/** The infinite cost */
+	private U plusInf;
+
+	/** For each variable and each of its neighbors, the modifiers of their constraint */
+	private BreakoutModifiers[][] modifiers;
+
+	/** For each variable and each of its neighbors, the threshold used to decide whether their constraint is violated */
+	private U[][] thresholds;
+
+	/** For each variable, the index of its value with the lowest effective cost */
+	private int[] improve;
+
+	/** For each variable, the reduction in effective cost it can achieve */
+	private double[] delta;
+
+	/** Constructor
+	 * @param params 	the parameters of the GDBA module
+	 */
+	public GDBArule (Element params) {
+		super(params);
+
+		String manner = (params == null ? null : params.getAttributeValue("manner"));
+		String violation = (params == null ? null : params.getAttributeValue("violation"));
+		String scope = (params == null ? null : params.getAttributeValue("scope"));
+
+		this.manner = ("A".equals(manner) ? GDBA.MANNER_A : GDBA.MANNER_M);
+
+		if ("NZ".equals(violation))
+			this.violation = GDBA.VIOLATION_NZ;
+		else if ("MX".equals(violation))
+			this.violation = GDBA.VIOLATION_MX;
+		else
+			this.violation = GDBA.VIOLATION_NM;
+
+		if ("E".equals(scope))
+			this.scope = GDBA.SCOPE_E;
+		else if ("C".equals(scope))
+			this.scope = GDBA.SCOPE_C;
+		else if ("R".equals(scope))
+			this.scope = GDBA.SCOPE_R;
+		else
+			this.scope = GDBA.SCOPE_T;
+	}
+
+	/** @see ALSrule#init(SimulatedEngine) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(SimulatedEngine<V, U> engine) {
+		super.init(engine);
+
+		this.zero = engine.getProblem().getZeroUtility();
+		this.plusInf = engine.getProblem().getPlusInfUtility();
+
+		final int nbrVars = engine.getNbrVars();
+		this.modifiers = new BreakoutModifiers [nbrVars][];
+		this.thresholds = (U[][]) new Addable [nbrVars][];
+		this.improve = new int [nbrVars];
+		this.delta = new double [nbrVars];
+
+		for (int var = 0; var < nbrVars; var++) {
+			int[] neighbors = engine.getNeighbors(var);
+			final int domSize = engine.getDomain(var).length;
+			LocalCostEvaluator<V, U> evaluator = engine.getEvaluator(var);
+
+			this.modifiers[var] = new BreakoutModifiers [neighbors.length];
+			this.thresholds[var] = (U[]) new Addable [neighbors.length];
+			for (int k = 0; k < neighbors.length; k++) {
+				V[] neighDom = engine.getDomain(neighbors[k]);
+				String neigh = engine.getVariable(neighbors[k]);
+
+				this.modifiers[var][k] = new BreakoutModifiers (domSize, neighDom.length);
+
+				// The threshold only depends on the constraint, and not on the modifiers
+				if (this.violation == GDBA.VIOLATION_NZ)
+					this.thresholds[var][k] = this.zero;
+				else {
+					U threshold = (this.violation == GDBA.VIOLATION_NM ? this.plusInf : this.zero);
+					for (int i = 0; i < domSize; i++) {
+						for (int j = 0; j < neighDom.length; j++) {
+							U fij = evaluator.getPairUtility(i, neigh, neighDom[j]);
+							if (this.violation == GDBA.VIOLATION_NM ? fij.compareTo(threshold) < 0 : fij.compareTo(threshold) > 0)
+								threshold = fij;
+						}
+					}
+					this.thresholds[var][k] = threshold;
+				}
+			}
+		}
+	}
+
+	/** @see ALSrule#getNbrDecisionPhases() */
+	@Override
+	protected int getNbrDecisionPhases() {
+		return 2;
+	}
+
+	/** Computes the effective cost of a constraint, as GDBA#effCost()
+	 * @param var 	the index of the variable
+	 * @param i 	the index of its value
+	 * @param k 	the position of the neighbor in the variable's list of neighbors
+	 * @return the cost of the constraint, combined with its modifier
+	 */
+	private U effCost (int var, int i, int k) {
+
+		int neigh = this.engine.getNeighbors(var)[k];
+		int j = this.engine.getValue(neigh);
+		U fij = this.engine.getEvaluator(var).getPairUtility(i, this.engine.getVariable(neigh), this.engine.getDomain(neigh)[j]);
+
+		return BreakoutModifiers.apply(this.manner, fij, this.modifiers[var][k].get(i, j));
+	}
+
+	/** @see ALSrule#decide(int, int) */
+	@Override
+	protected void decide(int phase, int var) {
+		if (phase == 0)
+			this.computeDelta(var);
+		else
+			this.improveValue(var);
+	}
+
+	/** Computes the best effective cost reduction, as GDBA#computeDelta()
+	 * @param var 	the index of the variable
+	 */
+	private void computeDelta (int var) {
+
+		final int nbrNeighbors = this.engine.getNeighbors(var).length;
+		final int current = this.engine.getValue(var);
+
+		U min = this.plusInf;
+		int best = -1;
+		for (int i = 0; i < this.engine.getDomain(var).length; i++) {
+			U sum = this.zero;
+			for (int k = 0; k < nbrNeighbors; k++)
+				sum = sum.add(this.effCost(var, i, k));
+
+			if (sum.compareTo(min) < 0) {
+				min = sum;
+				best = i;
+			}
+		}
+
+		// If all values have an infinite cost, stay put
+		if (best < 0)
+			best = current;
+		this.improve[var] = best;
+
+		// Unlike GDBA, the delta is computed on doubles, such that infinite costs yield no undefined operations on U
+		double delta = 0;
+		for (int k = 0; k < nbrNeighbors; k++) {
+			double currentCost = this.effCost(var, current, k).doubleValue();
+			double bestCost = this.effCost(var, best, k).doubleValue();
+			if (currentCost != bestCost)
+				delta += currentCost - bestCost;
+		}
+		this.delta[var] = (Double.isNaN(delta) ? 0 : delta);
+	}
+
+	/** Moves to the best value if no neighbor can do better, or increases the modifiers if no one can improve, as GDBA#improveValue()
+	 * @param var 	the index of the variable
+	 */
+	private void improveValue (int var) {
+
+		int[] neighbors = this.engine.getNeighbors(var);
+		final int current = this.engine.getValue(var);
+		this.newValues[var] = current;
+
+		if (this.delta[var] > 0) {
+			for (int neigh : neighbors)
+				if (this.delta[var] < this.delta[neigh])
+					return;
+
+			this.newValues[var] = this.improve[var];
+
+		} else {
+			for (int neigh : neighbors)
+				if (this.delta[neigh] > 0)
+					return;
+
+			for (int k = 0; k < neighbors.length; k++)
+				if (this.isViolated(var, current, k))
+					this.increaseMod(var, current, k);
+		}
+	}
+
+	/** Checks whether a constraint is violated, as GDBA#isViolated()
+	 * @param var 	the index of the variable
+	 * @param i 	the index of its value
+	 * @param k 	the position of the neighbor in the variable's list of neighbors
+	 * @return whether the constraint is violated
+	 */
+	private boolean isViolated (int var, int i, int k) {
+
+		int cmp = this.effCost(var, i, k).compareTo(this.thresholds[var][k]);
+
+		if (this.violation == GDBA.VIOLATION_MX)
+			return cmp == 0;
+		else
+			return cmp > 0;
+	}
+
+	/** Increases the modifiers of a constraint, as GDBA#increaseMod()
+	 * @param var 	the index of the variable
+	 * @param i 	the index of its value
+	 * @param k 	the position of the neighbor in the variable's list of neighbors
+	 */
+	private void increaseMod (int var, int i, int k) {
+		this.modifiers[var][k].increase(this.scope, i, this.engine.getValue(this.engine.getNeighbors(var)[k]));
+	}
+
+}
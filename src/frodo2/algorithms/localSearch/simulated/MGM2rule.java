@@ -0,0 +1,286 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.ArrayList;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** The decision rule of MGM2
+ *
+ * Each cycle has five phases, corresponding to the rounds of the distributed module:
+ * 0) each variable decides whether to be an offerer, and computes its offer;
+ * 1) each receiver processes the offers it received, and accepts the best one or computes its own improvement;
+ * 2) each offerer learns whether its offer has been accepted, or computes its own improvement;
+ * 3) each variable compares its improvement with the ones of its neighbors;
+ * 4) committed partners agree on whether they both can move.
+ *
+ * Offers are all delivered before any acceptance or rejection, such that an offerer rejects all offers it receives,
+ * and a receiver considers the offers it receives in the order of its neighbors. The comparisons are the ones of MGM2.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class MGM2rule < V extends Addable<V>, U extends Addable<U> > extends MGMrule<V, U> {
+
+	/** The probability of being an offerer */
+	private final double q;
+
+	/** For each variable, whether it has made a non-empty offer */
+	private boolean[] offer;
+
+	/** For each offerer, the index of the neighbor it made its offer to */
+	private int[] target;
+
+	/** For each offerer, the offered pairs of value indexes (its own, and its target's) */
+	private ArrayList<int[]>[] offeredPairs;
+
+	/** For each offerer, the gains of the offered pairs */
+	private ArrayList< AddableConflicts<U> >[] offeredGains;
+
+	/** For each variable, whether it is committed to a joint move */
+	private boolean[] committed;
+
+	/** For each committed variable, its partner */
+	private int[] partner;
+
+	/** For each receiver that accepted an offer, the index of the offerer's value in the accepted pair */
+	private int[] acceptedOwnValue;
+
+	/** For each committed variable, whether both partners can move */
+	private boolean[] go;
+
+	/** Constructor
+	 * @param params 	the parameters of the MGM2 module
+	 */
+	public MGM2rule (Element params) {
+		super(params, "cycles");
+
+		String q = (params == null ? null : params.getAttributeValue("q"));
+		this.q = (q == null ? 0.5 : Double.parseDouble(q));
+	}
+
+	/** @see MGMrule#init(SimulatedEngine) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(SimulatedEngine<V, U> engine) {
+		super.init(engine);
+
+		final int nbrVars = engine.getNbrVars();
+		this.offer = new boolean [nbrVars];
+		this.target = new int [nbrVars];
+		this.offeredPairs = new ArrayList [nbrVars];
+		this.offeredGains = new ArrayList [nbrVars];
+		for (int i = 0; i < nbrVars; i++) {
+			this.offeredPairs[i] = new ArrayList<int[]> ();
+			this.offeredGains[i] = new ArrayList< AddableConflicts<U> > ();
+		}
+		this.committed = new boolean [nbrVars];
+		this.partner = new int [nbrVars];
+		this.acceptedOwnValue = new int [nbrVars];
+		this.go = new boolean [nbrVars];
+	}
+
+	/** @see MGMrule#getNbrPhases() */
+	@Override
+	public int getNbrPhases() {
+		return 5;
+	}
+
+	/** @see MGMrule#phase(int, int) */
+	@Override
+	public void phase(int phase, int var) {
+
+		// Isolated variables terminate immediately
+		if (this.engine.getNeighbors(var).length == 0)
+			return;
+
+		switch (phase) {
+		case 0:
+			this.makeOffer(var);
+			break;
+
+		case 1:
+			if (! this.offer[var])
+				this.processOffers(var);
+			break;
+
+		case 2:
+			if (this.offer[var])
+				this.processResponse(var);
+			break;
+
+		case 3:
+			this.compareImprovements(var);
+			break;
+
+		case 4:
+			if (this.committed[var])
+				this.go[var] = this.canMove[var] && this.canMove[this.partner[var]];
+		}
+	}
+
+	/** Decides whether a variable is an offerer, and if so, computes its offer, as MGM2#processOK() and MGM2.VariableInfo#calculateOffer()
+	 * @param var 	the index of the variable
+	 */
+	private void makeOffer (int var) {
+
+		this.currentUtility[var] = this.engine.getEvaluator(var).getCost(this.engine.getValue(var));
+		this.committed[var] = false;
+		this.improve[var] = null;
+		this.offeredPairs[var].clear();
+		this.offeredGains[var].clear();
+
+		int[] neighbors = this.engine.getNeighbors(var);
+		this.offer[var] = this.engine.getRandom(var).nextDouble() < this.q;
+		if (! this.offer[var])
+			return;
+
+		// Randomly choose the neighbor, and offer all pairs of new values with a positive gain
+		int neigh = this.target[var] = neighbors[(int) (this.engine.getRandom(var).nextDouble() * neighbors.length)];
+		final int current = this.engine.getValue(var);
+		final int neighCurrent = this.engine.getValue(neigh);
+		V[] neighDom = this.engine.getDomain(neigh);
+		for (int i = 0; i < this.engine.getDomain(var).length; i++) {
+			if (i == current)
+				continue;
+
+			for (int j = 0; j < neighDom.length; j++) {
+				if (j != neighCurrent) {
+					AddableConflicts<U> gain = this.getGain(var, i, neigh, neighDom[j]);
+					if (this.maximize ? gain.compareTo(this.zeroConflicts) > 0 : gain.compareTo(this.zeroConflicts) < 0) {
+						this.offeredPairs[var].add(new int[] { i, j });
+						this.offeredGains[var].add(gain);
+					}
+				}
+			}
+		}
+
+		this.offer[var] = ! this.offeredPairs[var].isEmpty();
+	}
+
+	/** Computes the gain of a joint move, as MGM2.VariableInfo#calculateGain(V, V, int, String)
+	 * @param var 		the index of the variable
+	 * @param value 	the index of its value
+	 * @param neigh 	the index of the neighbor
+	 * @param neighVal 	the value of the neighbor
+	 * @return the gain
+	 */
+	private AddableConflicts<U> getGain (int var, int value, int neigh, V neighVal) {
+
+		AddableConflicts<U> util = this.engine.getEvaluator(var).getCost(value, this.engine.getVariable(neigh), neighVal);
+		if (this.currentUtility[var].getUtility() != this.infeasibleUtility.getUtility())
+			util = util.subtract(this.currentUtility[var]);
+		return util;
+	}
+
+	/** Processes the offers received by a receiver, as MGM2#storeOffer() and MGM2#processOFFER()
+	 * @param var 	the index of the receiver
+	 */
+	private void processOffers (int var) {
+
+		int bestOfferer = -1;
+		AddableConflicts<U> improve = null;
+		LocalCostEvaluator<V, U> evaluator = this.engine.getEvaluator(var);
+
+		for (int neigh : this.engine.getNeighbors(var)) {
+			if (! this.offer[neigh] || this.target[neigh] != var)
+				continue;
+
+			V[] neighDom = this.engine.getDomain(neigh);
+			ArrayList<int[]> pairs = this.offeredPairs[neigh];
+			for (int k = 0; k < pairs.size(); k++) {
+				int[] pair = pairs.get(k);
+				AddableConflicts<U> gain = this.offeredGains[neigh].get(k);
+
+				AddableConflicts<U> totalGain = gain;
+				if (gain.getUtility() != this.infeasibleUtility.getUtility())
+					totalGain = gain.add(this.getGain(var, pair[1], neigh, neighDom[pair[0]]));
+
+				if (improve == null || improve.compareTo(totalGain) < 0) {
+					bestOfferer = neigh;
+					improve = totalGain;
+					this.acceptedOwnValue[var] = pair[0];
+				}
+			}
+		}
+
+		this.canMove[var] = true;
+		if (bestOfferer >= 0 && improve.compareTo(this.zeroConflicts) > 0) {
+			this.committed[var] = true;
+			this.partner[var] = bestOfferer;
+			this.improve[var] = improve;
+
+			// Like MGM2#processOFFER(), the receiver looks up the offerer's value in its own domain
+			V offered = this.engine.getDomain(bestOfferer)[this.acceptedOwnValue[var]];
+			V[] dom = evaluator.getDomain();
+			for (int i = 0; i < dom.length; i++) {
+				if (dom[i].equals(offered)) {
+					this.newValue[var] = i;
+					break;
+				}
+			}
+
+		} else
+			this.canMove[var] = this.canImprove(var);
+	}
+
+	/** Processes the acceptance or rejection of an offer
+	 * @param var 	the index of the offerer
+	 */
+	private void processResponse (int var) {
+
+		this.canMove[var] = true;
+
+		int receiver = this.target[var];
+		if (this.committed[receiver] && this.partner[receiver] == var) { // accepted
+			this.committed[var] = true;
+			this.partner[var] = receiver;
+			this.improve[var] = this.improve[receiver];
+			this.newValue[var] = this.acceptedOwnValue[receiver];
+
+		} else // rejected
+			this.canMove[var] = this.canImprove(var);
+	}
+
+	/** Computes the best individual improvement, as MGM2.VariableInfo#determinePossibleImprovement()
+	 * @param var 	the index of the variable
+	 * @return whether the improvement is not negative
+	 */
+	private boolean canImprove (int var) {
+		AddableConflicts<U> improve = this.determinePossibleImprovement(var);
+		return (this.maximize ? improve.compareTo(this.zeroConflicts) >= 0 : improve.compareTo(this.zeroConflicts) <= 0);
+	}
+
+	/** @see MGMrule#getNewValue(int) */
+	@Override
+	public int getNewValue(int var) {
+		boolean move = (this.committed[var] ? this.go[var] : this.canMove[var]);
+		return (move ? this.newValue[var] : this.engine.getValue(var));
+	}
+
+}
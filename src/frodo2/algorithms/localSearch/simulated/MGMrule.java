@@ -0,0 +1,196 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.simulated;
+
+import java.util.Map;
+
+import org.jdom2.Element;
+
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableConflicts;
+
+/** The decision rule of MGM
+ *
+ * Each cycle has two phases: each variable first computes its best possible improvement,
+ * and then compares it with the ones of its neighbors.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class MGMrule < V extends Addable<V>, U extends Addable<U> > implements DecisionRule<V, U> {
+
+	/** The number of decision cycles */
+	private final int nbrCycles;
+
+	/** The engine */
+	protected SimulatedEngine<V, U> engine;
+
+	/** Whether to maximize utility or minimize cost */
+	protected boolean maximize;
+
+	/** The cost of an infeasible assignment */
+	protected AddableConflicts<U> infeasibleUtility;
+
+	/** The zero cost */
+	protected AddableConflicts<U> zeroConflicts;
+
+	/** For each variable, the cost of its current value */
+	protected AddableConflicts<U>[] currentUtility;
+
+	/** For each variable, its best possible improvement */
+	protected AddableConflicts<U>[] improve;
+
+	/** For each variable, the index of the value it would move to; kept across cycles, as in MGM */
+	protected int[] newValue;
+
+	/** For each variable, whether it can move */
+	protected boolean[] canMove;
+
+	/** Constructor
+	 * @param params 	the parameters of the MGM module
+	 */
+	public MGMrule (Element params) {
+		this(params, "nbrCycles");
+	}
+
+	/** Constructor
+	 * @param params 		the parameters of the module
+	 * @param cyclesAttr 	the name of the attribute specifying the number of cycles
+	 */
+	protected MGMrule (Element params, String cyclesAttr) {
+
+		// The module terminates when its cycle counter reaches nbrCycles, without moving
+		String nbrCycles = (params == null ? null : params.getAttributeValue(cyclesAttr));
+		this.nbrCycles = (nbrCycles == null ? 200 : Integer.parseInt(nbrCycles)) - 1;
+	}
+
+	/** @see DecisionRule#init(SimulatedEngine) */
+	@SuppressWarnings("unchecked")
+	public void init(SimulatedEngine<V, U> engine) {
+		this.engine = engine;
+		this.maximize = engine.getProblem().maximize();
+		U inf = (this.maximize ? engine.getProblem().getMinInfUtility() : engine.getProblem().getPlusInfUtility());
+		this.infeasibleUtility = new AddableConflicts<U> (inf, Integer.MAX_VALUE);
+		this.zeroConflicts = new AddableConflicts<U> (engine.getProblem().getZeroUtility(), 0);
+
+		final int nbrVars = engine.getNbrVars();
+		this.currentUtility = new AddableConflicts [nbrVars];
+		this.improve = new AddableConflicts [nbrVars];
+		this.newValue = new int [nbrVars];
+		this.canMove = new boolean [nbrVars];
+	}
+
+	/** @see DecisionRule#getNbrCycles() */
+	public int getNbrCycles() {
+		return this.nbrCycles;
+	}
+
+	/** @see DecisionRule#getNbrPhases() */
+	public int getNbrPhases() {
+		return 2;
+	}
+
+	/** @see DecisionRule#initValue(int) */
+	public int initValue(int var) {
+		return (int) (this.engine.getRandom(var).nextDouble() * this.engine.getDomain(var).length);
+	}
+
+	/** @see DecisionRule#phase(int, int) */
+	public void phase(int phase, int var) {
+
+		// Isolated variables terminate immediately
+		if (this.engine.getNeighbors(var).length == 0)
+			return;
+
+		if (phase == 0) {
+			this.currentUtility[var] = this.engine.getEvaluator(var).getCost(this.engine.getValue(var));
+			AddableConflicts<U> improve = this.determinePossibleImprovement(var);
+			this.canMove[var] = (this.maximize ? improve.compareTo(this.zeroConflicts) > 0 : improve.compareTo(this.zeroConflicts) < 0);
+
+		} else if (phase == 1)
+			this.compareImprovements(var);
+	}
+
+	/** Computes the best possible improvement of a variable, as MGM.VariableInfo#determinePossibleImprovement()
+	 * @param var 	the index of the variable
+	 * @return the improvement, also stored in \a improve
+	 */
+	protected AddableConflicts<U> determinePossibleImprovement (int var) {
+
+		LocalCostEvaluator<V, U> evaluator = this.engine.getEvaluator(var);
+		final int current = this.engine.getValue(var);
+		AddableConflicts<U> improve = this.infeasibleUtility;
+
+		for (int i = 0; i < this.engine.getDomain(var).length; i++) {
+			if (i != current) {
+				AddableConflicts<U> util = evaluator.getCost(i);
+
+				int diff = this.maximize ? improve.compareTo(util) : -improve.compareTo(util);
+
+				if (diff < 0 || (diff == 0 && this.engine.getRandom(var).nextDouble() < 0.5)) {
+					improve = util;
+					this.newValue[var] = i;
+				}
+			}
+		}
+
+		if (improve.getUtility() != this.infeasibleUtility.getUtility())
+			improve = improve.subtract(this.currentUtility[var]);
+
+		return this.improve[var] = improve;
+	}
+
+	/** Prevents a variable from moving if a neighbor has a better improvement, breaking ties by variable names
+	 * @param var 	the index of the variable
+	 */
+	protected void compareImprovements (int var) {
+
+		String name = this.engine.getVariable(var);
+		AddableConflicts<U> own = this.improve[var];
+		for (int neigh : this.engine.getNeighbors(var)) {
+			AddableConflicts<U> other = this.improve[neigh];
+
+			int diff = this.maximize ? other.compareTo(own) : own.compareTo(other);
+
+			if (diff > 0 || (diff == 0 && name.compareTo(this.engine.getVariable(neigh)) < 0)) {
+				this.canMove[var] = false;
+				return;
+			}
+		}
+	}
+
+	/** @see DecisionRule#getNewValue(int) */
+	public int getNewValue(int var) {
+		return (this.canMove[var] ? this.newValue[var] : this.engine.getValue(var));
+	}
+
+	/** @see DecisionRule#finish() */
+	public void finish() { }
+
+	/** @see DecisionRule#getSolution() */
+	public Map<String, V> getSolution() {
+		return this.engine.getAssignment(this.engine.getTrajectoryLength() - 1);
+	}
+
+}
@@ -0,0 +1,452 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** A centralized, simulated synchronous engine for the local search algorithms */
+package frodo2.algorithms.localSearch.simulated;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.algorithms.heuristics.ScoringHeuristic;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.DCOPProblemInterface;
+import frodo2.solutionSpaces.RandomStreams;
+
+/** Runs the decision rules of a synchronous local search algorithm over the whole constraint graph, without any message passing
+ *
+ * All variables are stored in arrays, and each variable has its own LocalCostEvaluator, which is informed of the new values
+ * of the variable's neighbors at the end of each cycle. Each variable also has its own random number stream, derived from
+ * the engine's seed and the variable's name by RandomStreams#forVariable(String), such that the trajectory does not depend 
+ * on the number of threads used. These are the same streams as the ones the distributed modules use when the agent 
+ * configuration specifies the same seed.
+ *
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class SimulatedEngine < V extends Addable<V>, U extends Addable<U> > {
+
+	/** For each distributed local search module, the corresponding decision rule */
+	private static final HashMap<String, String> RULES = new HashMap<String, String> ();
+	static {
+		RULES.put("frodo2.algorithms.localSearch.dsa.DSA", DSArule.class.getName());
+		RULES.put("frodo2.algorithms.localSearch.mgm.MGM", MGMrule.class.getName());
+		RULES.put("frodo2.algorithms.localSearch.mgm.mgm2.MGM2", MGM2rule.class.getName());
+		RULES.put("frodo2.algorithms.localSearch.dsasdp.DSASDP", DSASDPrule.class.getName());
+		RULES.put("frodo2.algorithms.localSearch.gdba.GDBA", GDBArule.class.getName());
+		RULES.put("frodo2.algorithms.localSearch.coopt.COOPT", COOPTrule.class.getName());
+	}
+
+	/** The problem */
+	private final DCOPProblemInterface<V, U> problem;
+
+	/** The decision rule */
+	private final DecisionRule<V, U> rule;
+
+	/** The seed from which the random number generators are derived */
+	private final long seed;
+
+	/** The number of threads */
+	private int nbrThreads = 1;
+
+	/** The variables */
+	private final String[] vars;
+
+	/** The index of each variable in \a vars */
+	private final HashMap<String, Integer> indexes;
+
+	/** For each variable, its domain */
+	private final V[][] domains;
+
+	/** For each variable, the indexes of its neighbors, in the order of DCOPProblemInterface#getNeighborVars(String) */
+	private final int[][] neighbors;
+
+	/** For each variable, the evaluator of its local costs */
+	private LocalCostEvaluator<V, U>[] evaluators;
+
+	/** For each variable, its random number stream */
+	private SplittableRandom[] randoms;
+
+	/** For each variable, the index of its current value */
+	private int[] values;
+
+	/** For each variable, the index of its value in the next cycle */
+	private int[] newValues;
+
+	/** For each cycle, the indexes of the values of all variables; cycle 0 corresponds to the initial assignment */
+	private ArrayList<int[]> trajectory;
+
+	/** The listener notified at the end of each cycle, if any */
+	private CycleListener<V, U> listener;
+
+	/** A listener notified at the end of each cycle
+	 * @param <V> the type used for variable values
+	 * @param <U> the type used for utility values
+	 */
+	public static interface CycleListener < V extends Addable<V>, U extends Addable<U> > {
+
+		/** Called when a cycle is over
+		 * @param engine 	the engine
+		 * @param cycle 	the cycle in the trajectory; 0 corresponds to the initial assignment
+		 * @return \c false if the engine should stop before the next cycle
+		 */
+		public boolean cycleDone (SimulatedEngine<V, U> engine, int cycle);
+	}
+
+	/** Constructor
+	 * @param problem 	the overall problem
+	 * @param rule 		the decision rule
+	 * @param seed 		the seed from which the random number generators are derived
+	 */
+	@SuppressWarnings("unchecked")
+	public SimulatedEngine (DCOPProblemInterface<V, U> problem, DecisionRule<V, U> rule, long seed) {
+		this.problem = problem;
+		this.rule = rule;
+		this.seed = seed;
+
+		this.vars = problem.getVariables().toArray(new String [problem.getNbrVars()]);
+		java.util.Arrays.sort(this.vars);
+		final int nbrVars = this.vars.length;
+		this.indexes = new HashMap<String, Integer> (nbrVars);
+		for (int i = 0; i < nbrVars; i++)
+			this.indexes.put(this.vars[i], i);
+
+		this.domains = (V[][]) new Addable [nbrVars][];
+		this.neighbors = new int [nbrVars][];
+		for (int i = 0; i < nbrVars; i++) {
+			this.domains[i] = problem.getDomain(this.vars[i]);
+
+			Collection<String> neighs = problem.getNeighborVars(this.vars[i]);
+			int[] neighIndexes = this.neighbors[i] = new int [neighs.size()];
+			int j = 0;
+			for (String neigh : neighs)
+				neighIndexes[j++] = this.indexes.get(neigh);
+		}
+	}
+
+	/** Creates the decision rule corresponding to the local search module in an agent configuration file
+	 * @param <V> 			the type used for variable values
+	 * @param <U> 			the type used for utility values
+	 * @param agentDesc 	the agent configuration file
+	 * @param problem 		the overall problem, used to instantiate the root election heuristic, if any
+	 * @return the decision rule
+	 * @throws Exception 	if the agent configuration contains no supported local search module, or if the rule cannot be instantiated
+	 */
+	@SuppressWarnings("unchecked")
+	public static < V extends Addable<V>, U extends Addable<U> > DecisionRule<V, U> createRule (Document agentDesc, DCOPProblemInterface<V, U> problem)
+	throws Exception {
+
+		DecisionRule<V, U> rule = null;
+		ScoringHeuristic<?> rootElection = null;
+
+		for (Element module : (List<Element>) agentDesc.getRootElement().getChild("modules").getChildren()) {
+
+			// Look for the local search module
+			String ruleClassName = RULES.get(module.getAttributeValue("className"));
+			if (ruleClassName != null) {
+				Class< DecisionRule<V, U> > ruleClass = (Class< DecisionRule<V, U> >) Class.forName(ruleClassName);
+				rule = ruleClass.getConstructor(Element.class).newInstance(module);
+			}
+
+			// Look for the root election heuristic, used by the ALS_DCOP modules
+			Element heuristicElmt = module.getChild("rootElectionHeuristic");
+			if (heuristicElmt != null) {
+				Class< ScoringHeuristic<?> > heuristicClass = (Class< ScoringHeuristic<?> >) Class.forName(heuristicElmt.getAttributeValue("className"));
+				Constructor< ScoringHeuristic<?> > constructor = heuristicClass.getConstructor(DCOPProblemInterface.class, Element.class);
+				rootElection = constructor.newInstance(problem, heuristicElmt);
+			}
+		}
+
+		if (rule == null)
+			throw new Exception ("The agent configuration file contains no local search module supported by the SimulatedEngine");
+
+		if (rootElection != null && rule instanceof ALSrule)
+			((ALSrule<V, U>) rule).setRootElection(rootElection);
+
+		return rule;
+	}
+
+	/** Sets the number of threads among which the variables are split at each phase
+	 * @param nbrThreads 	the number of threads
+	 */
+	public void setNbrThreads (int nbrThreads) {
+		assert nbrThreads > 0;
+		this.nbrThreads = nbrThreads;
+	}
+
+	/** Sets the listener notified at the end of each cycle
+	 * @param listener 	the listener, or \c null
+	 */
+	public void setListener (CycleListener<V, U> listener) {
+		this.listener = listener;
+	}
+
+	/** Runs the algorithm for the number of cycles the distributed module would perform */
+	public void run () {
+		this.run(this.rule.getNbrCycles());
+	}
+
+	/** Runs the algorithm
+	 * @param nbrCycles 	the number of decision cycles, unless the listener stops the engine earlier
+	 */
+	@SuppressWarnings("unchecked")
+	public void run (final int nbrCycles) {
+
+		final int nbrVars = this.vars.length;
+		this.values = new int [nbrVars];
+		this.newValues = new int [nbrVars];
+		this.trajectory = new ArrayList<int[]> (nbrCycles + 1);
+		this.evaluators = new LocalCostEvaluator [nbrVars];
+		this.randoms = new SplittableRandom [nbrVars];
+		RandomStreams streams = new RandomStreams (this.seed);
+
+		U infeasibleUtil = (this.problem.maximize() ? this.problem.getMinInfUtility() : this.problem.getPlusInfUtility());
+		for (int i = 0; i < nbrVars; i++) {
+			this.evaluators[i] = new LocalCostEvaluator<V, U> (this.vars[i], this.domains[i], this.problem.getSolutionSpaces(this.vars[i], false), infeasibleUtil);
+			this.randoms[i] = streams.forVariable(this.vars[i]);
+		}
+
+		// Choose the initial values
+		this.rule.init(this);
+		for (int i = 0; i < nbrVars; i++)
+			this.values[i] = this.rule.initValue(i);
+		for (int i = 0; i < nbrVars; i++)
+			for (int j : this.neighbors[i])
+				this.evaluators[i].setNeighborValue(this.vars[j], this.domains[j][this.values[j]]);
+		this.trajectory.add(this.values.clone());
+		boolean go = (this.listener == null || this.listener.cycleDone(this, 0));
+
+		ExecutorService executor = (this.nbrThreads > 1 ? Executors.newFixedThreadPool(this.nbrThreads) : null);
+		try {
+			final int nbrPhases = this.rule.getNbrPhases();
+			for (int cycle = 0; go && cycle < nbrCycles; cycle++) {
+
+				for (int phase = 0; phase < nbrPhases; phase++) {
+					final int ph = phase;
+					this.forAllVars(executor, new Task () {
+						public void run(int var) {
+							rule.phase(ph, var);
+						}
+					});
+				}
+
+				// Compute the new values, and inform the neighbors
+				this.forAllVars(executor, new Task () {
+					public void run(int var) {
+						newValues[var] = rule.getNewValue(var);
+					}
+				});
+				this.forAllVars(executor, new Task () {
+					public void run(int var) {
+						for (int j : neighbors[var])
+							if (newValues[j] != values[j])
+								evaluators[var].setNeighborValue(vars[j], domains[j][newValues[j]]);
+					}
+				});
+				int[] tmp = this.values;
+				this.values = this.newValues;
+				this.newValues = tmp;
+				this.trajectory.add(this.values.clone());
+
+				if (this.listener != null)
+					go = this.listener.cycleDone(this, cycle + 1);
+			}
+
+		} finally {
+			if (executor != null)
+				executor.shutdown();
+		}
+
+		this.rule.finish();
+	}
+
+	/** A task performed for each variable */
+	private static interface Task {
+
+		/** Performs the task for a given variable
+		 * @param var 	the index of the variable
+		 */
+		public void run (int var);
+	}
+
+	/** Performs a task for all variables, splitting them among the threads
+	 * @param executor 	the executor, or \c null if the task should be performed in the current thread
+	 * @param task 		the task
+	 */
+	private void forAllVars (ExecutorService executor, final Task task) {
+
+		final int nbrVars = this.vars.length;
+		if (executor == null) {
+			for (int i = 0; i < nbrVars; i++)
+				task.run(i);
+			return;
+		}
+
+		ArrayList< Future<Void> > futures = new ArrayList< Future<Void> > (this.nbrThreads);
+		final int chunk = (nbrVars + this.nbrThreads - 1) / this.nbrThreads;
+		for (int start = 0; start < nbrVars; start += chunk) {
+			final int from = start;
+			final int to = Math.min(start + chunk, nbrVars);
+			futures.add(executor.submit(new Callable<Void> () {
+				public Void call() {
+					for (int i = from; i < to; i++)
+						task.run(i);
+					return null;
+				}
+			}));
+		}
+
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException (e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException (e.getCause());
+			}
+		}
+	}
+
+	/** @return the overall problem */
+	public DCOPProblemInterface<V, U> getProblem () {
+		return this.problem;
+	}
+
+	/** @return the number of variables */
+	public int getNbrVars () {
+		return this.vars.length;
+	}
+
+	/** Returns the name of a variable
+	 * @param var 	the index of the variable
+	 * @return its name
+	 */
+	public String getVariable (int var) {
+		return this.vars[var];
+	}
+
+	/** Returns the index of a variable
+	 * @param var 	the name of the variable
+	 * @return its index, or -1 if it is unknown
+	 */
+	public int indexOf (String var) {
+		Integer index = this.indexes.get(var);
+		return (index == null ? -1 : index);
+	}
+
+	/** Returns the domain of a variable
+	 * @param var 	the index of the variable
+	 * @return its domain
+	 */
+	public V[] getDomain (int var) {
+		return this.domains[var];
+	}
+
+	/** Returns the neighbors of a variable
+	 * @param var 	the index of the variable
+	 * @return the indexes of its neighbors
+	 */
+	public int[] getNeighbors (int var) {
+		return this.neighbors[var];
+	}
+
+	/** Returns the evaluator of a variable, which knows the values of the variable's neighbors in the current cycle
+	 * @param var 	the index of the variable
+	 * @return its evaluator
+	 */
+	public LocalCostEvaluator<V, U> getEvaluator (int var) {
+		return this.evaluators[var];
+	}
+
+	/** Returns the random number stream of a variable
+	 * @param var 	the index of the variable
+	 * @return its random number stream
+	 * @warning The stream must only be used when making decisions for that variable.
+	 */
+	public SplittableRandom getRandom (int var) {
+		return this.randoms[var];
+	}
+
+	/** Returns the current value of a variable
+	 * @param var 	the index of the variable
+	 * @return the index of its value in the current cycle
+	 */
+	public int getValue (int var) {
+		return this.values[var];
+	}
+
+	/** @return the number of assignments in the trajectory, including the initial assignment */
+	public int getTrajectoryLength () {
+		return this.trajectory.size();
+	}
+
+	/** Returns the value of a variable in a given cycle
+	 * @param cycle 	the cycle, 0 being the initial assignment
+	 * @param var 		the variable
+	 * @return its value
+	 */
+	public V getValue (int cycle, String var) {
+		int i = this.indexes.get(var);
+		return this.domains[i][this.trajectory.get(cycle)[i]];
+	}
+
+	/** Returns the assignment to all variables in a given cycle
+	 * @param cycle 	the cycle, 0 being the initial assignment
+	 * @return the assignment
+	 */
+	public Map<String, V> getAssignment (int cycle) {
+		int[] vals = this.trajectory.get(cycle);
+		HashMap<String, V> out = new HashMap<String, V> (this.vars.length);
+		for (int i = 0; i < this.vars.length; i++)
+			out.put(this.vars[i], this.domains[i][vals[i]]);
+		return out;
+	}
+
+	/** Returns the total utility of the assignment in a given cycle
+	 * @param cycle 	the cycle, 0 being the initial assignment
+	 * @return the utility
+	 */
+	public U getUtility (int cycle) {
+		return this.problem.getUtility(this.getAssignment(cycle)).getUtility(0);
+	}
+
+	/** @return the solution that the distributed module would report */
+	public Map<String, V> getSolution () {
+		return this.rule.getSolution();
+	}
+
+}
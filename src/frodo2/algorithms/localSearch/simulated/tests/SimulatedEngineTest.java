@@ -0,0 +1,200 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Tests for the simulated synchronous engine */
+package frodo2.algorithms.localSearch.simulated.tests;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import frodo2.algorithms.RandGraphFactory;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.dsa.DSA;
+import frodo2.algorithms.localSearch.dsa.DSAsolver;
+import frodo2.algorithms.localSearch.simulated.SimulatedEngine;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableInteger;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the SimulatedEngine
+ * @author Thomas Leaute
+ */
+public class SimulatedEngineTest extends TestCase {
+
+	/** The number of decision cycles */
+	private static final int NBR_CYCLES = 30;
+
+	/** The path to the agent configuration file */
+	private final String agentFile;
+
+	/** Whether to maximize utility or minimize cost */
+	private final boolean maximize;
+
+	/** The agent configuration */
+	private Document agentDesc;
+
+	/** The problem */
+	private XCSPparser<AddableInteger, AddableInteger> problem;
+
+	/** Constructor
+	 * @param method 		the test method
+	 * @param agentFile 	the path to the agent configuration file
+	 * @param maximize 		whether to maximize utility or minimize cost
+	 */
+	public SimulatedEngineTest(String method, String agentFile, boolean maximize) {
+		super(method);
+		this.agentFile = agentFile;
+		this.maximize = maximize;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the SimulatedEngine");
+
+		String[] agentFiles = new String[] {
+				"src/frodo2/algorithms/localSearch/dsa/DSAagent.xml",
+				"src/frodo2/algorithms/localSearch/mgm/MGMagent.xml",
+				"src/frodo2/algorithms/localSearch/mgm/mgm2/MGM2agent.xml",
+				"src/frodo2/algorithms/localSearch/dsasdp/DSASDPagent.xml",
+				"src/frodo2/algorithms/localSearch/gdba/GDBAagent.xml",
+				"src/frodo2/algorithms/localSearch/coopt/COOPTagent.xml"
+		};
+
+		for (String agentFile : agentFiles) {
+			TestSuite tmp = new TestSuite ("Tests with " + agentFile);
+			for (boolean maximize : new boolean[] { false, true })
+				tmp.addTest(new RepeatedTest (new SimulatedEngineTest ("testDeterminism", agentFile, maximize), 20));
+			suite.addTest(tmp);
+		}
+
+		for (boolean maximize : new boolean[] { false, true })
+			suite.addTest(new RepeatedTest (new SimulatedEngineTest ("testSeededDSA", "src/frodo2/algorithms/localSearch/dsa/DSAagent.xml", maximize), 20));
+
+		for (boolean maximize : new boolean[] { false, true })
+			suite.addTest(new RepeatedTest (new SimulatedEngineTest ("testMGMmonotonicity", "src/frodo2/algorithms/localSearch/mgm/MGMagent.xml", maximize), 50));
+
+		return suite;
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	@Override
+	protected void setUp () throws Exception {
+		this.agentDesc = XCSPparser.parse(this.agentFile, false);
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	@Override
+	protected void tearDown () {
+		this.agentDesc = null;
+		this.problem = null;
+	}
+
+	/** Runs the engine
+	 * @param seed 			the seed
+	 * @param nbrThreads 	the number of threads
+	 * @return the engine after the run
+	 * @throws Exception 	if an error occurs
+	 */
+	private SimulatedEngine<AddableInteger, AddableInteger> run (long seed, int nbrThreads) throws Exception {
+
+		SimulatedEngine<AddableInteger, AddableInteger> engine = new SimulatedEngine<AddableInteger, AddableInteger> (
+				this.problem, SimulatedEngine.createRule(this.agentDesc, this.problem), seed);
+		engine.setNbrThreads(nbrThreads);
+		engine.run(NBR_CYCLES);
+		return engine;
+	}
+
+	/** Checks that the same seed yields the same trajectory, regardless of the number of threads
+	 * @throws Exception 	if an error occurs
+	 */
+	public void testDeterminism () throws Exception {
+
+		this.problem = new XCSPparser<AddableInteger, AddableInteger> (
+				AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 2), this.maximize, 0, true));
+
+		long seed = (long) (Math.random() * Integer.MAX_VALUE);
+		SimulatedEngine<AddableInteger, AddableInteger> engine1 = this.run(seed, 1);
+		SimulatedEngine<AddableInteger, AddableInteger> engine2 = this.run(seed, 4);
+
+		assertEquals(NBR_CYCLES + 1, engine1.getTrajectoryLength());
+		assertEquals(engine1.getTrajectoryLength(), engine2.getTrajectoryLength());
+		for (int cycle = 0; cycle < engine1.getTrajectoryLength(); cycle++)
+			assertEquals("Cycle " + cycle, engine1.getAssignment(cycle), engine2.getAssignment(cycle));
+
+		Map<String, AddableInteger> solution = engine1.getSolution();
+		assertEquals(engine2.getSolution(), solution);
+		assertEquals(this.problem.getVariables(), solution.keySet());
+	}
+
+	/** Checks that the distributed DSA is reproducible for a given seed, and follows the same trajectory as the engine
+	 * @throws Exception 	if an error occurs
+	 */
+	@SuppressWarnings("unchecked")
+	public void testSeededDSA () throws Exception {
+
+		Document problemDoc = AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 2), this.maximize, 0, true);
+		this.problem = new XCSPparser<AddableInteger, AddableInteger> (problemDoc);
+		for (Element module : (List<Element>) this.agentDesc.getRootElement().getChild("modules").getChildren()) 
+			if (module.getAttributeValue("className").equals(DSA.class.getName())) 
+				module.setAttribute("nbrCycles", Integer.toString(NBR_CYCLES));
+
+		long seed = (long) (Math.random() * Integer.MAX_VALUE);
+		DSAsolver<AddableInteger, AddableInteger> solver = new DSAsolver<AddableInteger, AddableInteger> (this.agentDesc);
+		solver.setSeed(seed);
+		Map<String, AddableInteger> solution = solver.solve(problemDoc).getAssignments();
+		assertEquals(this.problem.getVariables(), solution.keySet());
+		assertEquals(solution, solver.solve(problemDoc).getAssignments());
+
+		// Run the engine for the number of cycles DSA actually performs
+		SimulatedEngine<AddableInteger, AddableInteger> engine = new SimulatedEngine<AddableInteger, AddableInteger> (
+				this.problem, SimulatedEngine.createRule(this.agentDesc, this.problem), seed);
+		engine.run();
+		assertEquals(engine.getSolution(), solution);
+	}
+
+	/** Checks that MGM never degrades the solution quality on problems without infeasible assignments
+	 * @throws Exception 	if an error occurs
+	 */
+	public void testMGMmonotonicity () throws Exception {
+
+		this.problem = new XCSPparser<AddableInteger, AddableInteger> (
+				AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 30, 2), this.maximize, 0, false, 0.0));
+
+		SimulatedEngine<AddableInteger, AddableInteger> engine = this.run((long) (Math.random() * Integer.MAX_VALUE), 1);
+
+		AddableInteger previous = engine.getUtility(0);
+		for (int cycle = 1; cycle < engine.getTrajectoryLength(); cycle++) {
+			AddableInteger util = engine.getUtility(cycle);
+			if (this.maximize)
+				assertTrue(util + " < " + previous, util.compareTo(previous) >= 0);
+			else
+				assertTrue(util + " > " + previous, util.compareTo(previous) <= 0);
+			previous = util;
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.localSearch.tests;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import frodo2.algorithms.localSearch.CycleWindow;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the CycleWindow
+ * @author Thomas Leaute
+ */
+public class CycleWindowTest extends TestCase {
+
+	/** Constructor
+	 * @param method 	the test method
+	 */
+	public CycleWindowTest(String method) {
+		super(method);
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the CycleWindow");
+
+		suite.addTest(new CycleWindowTest ("testBasic"));
+		suite.addTest(new RepeatedTest (new CycleWindowTest ("testRandom"), 200));
+
+		return suite;
+	}
+
+	/** Tests put, get, isComplete and discardBefore on a small example */
+	public void testBasic () {
+
+		CycleWindow<String> window = new CycleWindow<String> (Arrays.asList("a", "b"), 2);
+		assertEquals(2, window.size());
+		assertEquals(2, window.capacity());
+
+		window.put("a", 1, "a1");
+		assertEquals("a1", window.get("a", 1));
+		assertNull(window.get("b", 1));
+		assertNull(window.get("c", 1));
+		assertFalse(window.isComplete(1));
+
+		window.put("b", 1, "b1");
+		assertTrue(window.isComplete(1));
+		assertEquals("b1", window.get(window.indexOf("b"), 1));
+
+		// Cycle 3 collides with cycle 1, which is still live: the window must grow
+		window.put("a", 3, "a3");
+		assertEquals(4, window.capacity());
+		assertEquals("a1", window.get("a", 1));
+		assertEquals("a3", window.get("a", 3));
+		assertFalse(window.isComplete(3));
+
+		// Once cycle 1 is discarded, its slot can be reused without growing
+		window.discardBefore(2);
+		assertNull(window.get("a", 1));
+		assertFalse(window.isComplete(1));
+		window.put("b", 5, "b5");
+		assertEquals(4, window.capacity());
+		assertEquals("b5", window.get("b", 5));
+
+		// Entries for discarded cycles are ignored
+		window.put("a", 1, "a1");
+		assertNull(window.get("a", 1));
+	}
+
+	/** Tests the window against a HashMap, with random in-flight windows */
+	public void testRandom () {
+
+		String[] senders = new String [1 + (int) (Math.random() * 5)];
+		for (int i = 0; i < senders.length; i++)
+			senders[i] = "x" + i;
+		CycleWindow<Integer> window = new CycleWindow<Integer> (Arrays.asList(senders), 1);
+		HashMap<String, Integer> expected = new HashMap<String, Integer> ();
+
+		int maxDelay = 1 + (int) (Math.random() * 10);
+		int floor = 0;
+		for (int step = 0; step < 1000; step++) {
+
+			// Record an entry for a random sender and a cycle within the window
+			int sender = (int) (Math.random() * senders.length);
+			int cycle = floor + (int) (Math.random() * maxDelay);
+			int entry = (int) (Math.random() * 1000);
+			window.put(senders[sender], cycle, entry);
+			expected.put(senders[sender] + "-" + cycle, entry);
+
+			// Occasionally move the floor
+			if (Math.random() < .1) {
+				floor++;
+				window.discardBefore(floor);
+			}
+
+			for (int c = floor; c < floor + maxDelay; c++) {
+				boolean complete = true;
+				for (int i = 0; i < senders.length; i++) {
+					Integer exp = expected.get(senders[i] + "-" + c);
+					assertEquals(exp, window.get(i, c));
+					complete &= (exp != null);
+				}
+				assertEquals(complete, window.isComplete(c));
+			}
+		}
+
+		// The capacity must only depend on the window, not on the number of cycles
+		assertTrue(window.capacity() <= 2 * maxDelay);
+	}
+
+}
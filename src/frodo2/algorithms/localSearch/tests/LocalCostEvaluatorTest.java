@@ -0,0 +1,219 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+/** Tests for the local search algorithms */
+package frodo2.algorithms.localSearch.tests;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import frodo2.algorithms.RandGraphFactory;
+import frodo2.algorithms.XCSPparser;
+import frodo2.algorithms.localSearch.LocalCostEvaluator;
+import frodo2.algorithms.test.AllTests;
+import frodo2.solutionSpaces.AddableConflicts;
+import frodo2.solutionSpaces.AddableInteger;
+import frodo2.solutionSpaces.UtilitySolutionSpace;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** JUnit tests for the LocalCostEvaluator
+ * @author Thomas Leaute
+ */
+public class LocalCostEvaluatorTest extends TestCase {
+
+	/** Whether to maximize or minimize */
+	private final boolean maximize;
+
+	/** Whether variables should have binary domains */
+	private final boolean binary;
+
+	/** The random problem */
+	private XCSPparser<AddableInteger, AddableInteger> problem;
+
+	/** The variable whose local costs are evaluated */
+	private String var;
+
+	/** The neighbors of \a var */
+	private String[] neighbors;
+
+	/** The spaces involving \a var */
+	private List< ? extends UtilitySolutionSpace<AddableInteger, AddableInteger> > spaces;
+
+	/** The utility value used for infeasible assignments */
+	private AddableInteger infeasibleUtil;
+
+	/** Constructor
+	 * @param maximize 	whether to maximize or minimize
+	 * @param binary 	whether variables should have binary domains
+	 */
+	public LocalCostEvaluatorTest(boolean maximize, boolean binary) {
+		super("test");
+		this.maximize = maximize;
+		this.binary = binary;
+	}
+
+	/** @return the test suite */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("Tests for the LocalCostEvaluator");
+
+		for (boolean maximize : new boolean[] { false, true })
+			for (boolean binary : new boolean[] { true, false })
+				suite.addTest(new RepeatedTest (new LocalCostEvaluatorTest (maximize, binary), 200));
+
+		return suite;
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	@Override
+	protected void setUp () {
+
+		this.problem = new XCSPparser<AddableInteger, AddableInteger> (
+				AllTests.generateProblem(RandGraphFactory.getRandGraph(15, 40, 1), this.maximize, 0, this.binary));
+
+		// Pick a variable, preferably with neighbors
+		String[] vars = this.problem.getVariables().toArray(new String [0]);
+		do {
+			this.var = vars[(int) (Math.random() * vars.length)];
+		} while (this.problem.getNbrNeighbors(this.var) == 0 && Math.random() < .9);
+
+		this.neighbors = this.problem.getNeighborVars(this.var).toArray(new String [0]);
+		this.spaces = this.problem.getSolutionSpaces(this.var, false);
+		this.infeasibleUtil = (this.maximize ? this.problem.getMinInfUtility() : this.problem.getPlusInfUtility());
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	@Override
+	protected void tearDown () throws Exception {
+		super.tearDown();
+		this.problem = null;
+		this.var = null;
+		this.neighbors = null;
+		this.spaces = null;
+		this.infeasibleUtil = null;
+	}
+
+	/** Tests the incremental costs against direct lookups in the spaces, as neighbors change values */
+	public void test () {
+
+		AddableInteger[] dom = this.problem.getDomain(this.var);
+		LocalCostEvaluator<AddableInteger, AddableInteger> evaluator =
+				new LocalCostEvaluator<AddableInteger, AddableInteger> (this.var, dom, this.spaces, this.infeasibleUtil);
+		HashMap<String, AddableInteger> context = new HashMap<String, AddableInteger> ();
+
+		this.checkCosts(evaluator, context);
+
+		for (int step = 0; step < 5 * this.neighbors.length; step++) {
+
+			// Change the value of a random neighbor
+			String neighbor = this.neighbors[(int) (Math.random() * this.neighbors.length)];
+			AddableInteger[] neighborDom = this.problem.getDomain(neighbor);
+			AddableInteger value = neighborDom[(int) (Math.random() * neighborDom.length)];
+			context.put(neighbor, value);
+			evaluator.setNeighborValue(neighbor, value);
+
+			this.checkCosts(evaluator, context);
+
+			// Check the hypothetical costs for another neighbor taking another value
+			neighbor = this.neighbors[(int) (Math.random() * this.neighbors.length)];
+			neighborDom = this.problem.getDomain(neighbor);
+			value = neighborDom[(int) (Math.random() * neighborDom.length)];
+			HashMap<String, AddableInteger> context2 = new HashMap<String, AddableInteger> (context);
+			context2.put(neighbor, value);
+			for (int i = 0; i < dom.length; i++) {
+				context2.put(this.var, dom[i]);
+				this.assertSameCost(this.getCost(context2), evaluator.getCost(i, neighbor, value));
+				this.assertSameCost(this.getCost(context2, neighbor), evaluator.getSharedCost(i, neighbor, value));
+			}
+
+			// Check the pairwise utilities
+			HashMap<String, AddableInteger> pair = new HashMap<String, AddableInteger> ();
+			pair.put(neighbor, value);
+			for (int i = 0; i < dom.length; i++) {
+				pair.put(this.var, dom[i]);
+				assertEquals(this.getCost(pair).getUtility(), evaluator.getPairUtility(i, neighbor, value));
+			}
+		}
+	}
+
+	/** Checks the costs of all values of the variable
+	 * @param evaluator 	the evaluator
+	 * @param context 		the current values of the neighbors
+	 */
+	private void checkCosts (LocalCostEvaluator<AddableInteger, AddableInteger> evaluator, Map<String, AddableInteger> context) {
+
+		AddableInteger[] dom = evaluator.getDomain();
+		HashMap<String, AddableInteger> assignments = new HashMap<String, AddableInteger> (context);
+		for (int i = 0; i < dom.length; i++) {
+			assertEquals(i, evaluator.indexOf(dom[i]));
+			assignments.put(this.var, dom[i]);
+			AddableConflicts<AddableInteger> cost = this.getCost(assignments);
+			this.assertSameCost(cost, evaluator.getCost(i));
+			assertEquals(cost.getUtility(), evaluator.getUtility(i));
+		}
+	}
+
+	/** Computes the cost of an assignment by direct lookups
+	 * @param assignments 	the assignment
+	 * @return the sum of the utilities of all spaces whose scopes are fully assigned, and the number of infeasible ones
+	 */
+	private AddableConflicts<AddableInteger> getCost (Map<String, AddableInteger> assignments) {
+		return this.getCost(assignments, null);
+	}
+
+	/** Computes the cost of an assignment by direct lookups, restricted to the spaces involving a given variable
+	 * @param assignments 	the assignment
+	 * @param involving 	the variable; if \c null, all spaces are considered
+	 * @return the sum of the utilities of all such spaces whose scopes are fully assigned, and the number of infeasible ones
+	 */
+	private AddableConflicts<AddableInteger> getCost (Map<String, AddableInteger> assignments, String involving) {
+
+		AddableInteger util = this.infeasibleUtil.getZero();
+		int conflicts = 0;
+		spaces: for (UtilitySolutionSpace<AddableInteger, AddableInteger> space : this.spaces) {
+			if (involving != null && ! Arrays.asList(space.getVariables()).contains(involving))
+				continue;
+			for (String v : space.getVariables())
+				if (! assignments.containsKey(v))
+					continue spaces;
+
+			AddableInteger u = space.getUtility(assignments);
+			if (u.equals(this.infeasibleUtil))
+				conflicts++;
+			util = util.add(u);
+		}
+
+		return new AddableConflicts<AddableInteger> (util, conflicts);
+	}
+
+	/** Checks that two costs are equal
+	 * @param expected 	the expected cost
+	 * @param actual 	the actual cost
+	 */
+	private void assertSameCost (AddableConflicts<AddableInteger> expected, AddableConflicts<AddableInteger> actual) {
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+}
@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Random;
 
 import org.jdom2.Element;
@@ -71,6 +72,68 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 
 	/** The type of the messages containing the assignment history */
 	private static final MessageType CONV_STATS_MSG_TYPE = new MessageType ("Max-Sum", "ConvStats");
+	
+	/** The type of the messages an agent sends to itself to send its scheduled message with the largest residual */
+	private static final MessageType FLUSH_MSG_TYPE = new MessageType ("Max-Sum", "Flush");
+	
+	/** The marginal utilities sent by a variable or function node */
+	private class Outbox {
+		
+		/** For each neighbor, the last marginal utility sent to it */
+		private final HashMap< String, UtilitySolutionSpace<V, U> > lastMsgsOut = new HashMap< String, UtilitySolutionSpace<V, U> > ();
+		
+		/** For each neighbor, the message scheduled to be sent to it */
+		private final HashMap<String, ScheduledMsg> scheduled = new HashMap<String, ScheduledMsg> ();
+	}
+	
+	/** A message waiting to be sent by the residual scheduler */
+	private class ScheduledMsg implements Comparable<ScheduledMsg> {
+		
+		/** The outbox of the sender node */
+		private final Outbox outbox;
+		
+		/** The destination node */
+		private final String neighbor;
+		
+		/** The destination agent */
+		private final String agent;
+		
+		/** The message */
+		private final Message msg;
+		
+		/** The marginal utility in the message */
+		private final UtilitySolutionSpace<V, U> marginalUtil;
+		
+		/** The largest change of the marginal utility compared to the last one sent */
+		private final double residual;
+		
+		/** Whether this message has been superseded by a newer one */
+		private boolean stale = false;
+		
+		/** Constructor
+		 * @param outbox 		the outbox of the sender node
+		 * @param neighbor 		the destination node
+		 * @param agent 		the destination agent
+		 * @param msg 			the message
+		 * @param marginalUtil 	the marginal utility in the message
+		 * @param residual 		the largest change of the marginal utility compared to the last one sent
+		 */
+		private ScheduledMsg (Outbox outbox, String neighbor, String agent, Message msg, UtilitySolutionSpace<V, U> marginalUtil, double residual) {
+			this.outbox = outbox;
+			this.neighbor = neighbor;
+			this.agent = agent;
+			this.msg = msg;
+			this.marginalUtil = marginalUtil;
+			this.residual = residual;
+		}
+
+		/** Messages with larger residuals come first 
+		 * @see java.lang.Comparable#compareTo(java.lang.Object) 
+		 */
+		public int compareTo(ScheduledMsg o) {
+			return Double.compare(o.residual, this.residual);
+		}
+	}
 
 	/** Information about an internal variable */
 	private class VarInfo extends VariableNode<V, U> {
@@ -87,6 +150,9 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 		/** The current optimal value for this variable */
 		private V optVal;
 		
+		/** The marginal utilities sent to the function nodes */
+		private final Outbox outbox = new Outbox ();
+		
 		/** Constructor
 		 * @param varName 		The name of this variable
 		 * @param agent 		The agent controlling this variable node
@@ -154,6 +220,19 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 		return new Hypercube<V, U> (new String[] { varName }, doms, utils, infeasibleUtil);
 	}
 	
+	/** Converts a utility to a double, mapping the infinite utilities to the infinite doubles
+	 * @param util 	the utility
+	 * @return the corresponding double
+	 */
+	private double toDouble (U util) {
+		if (util.equals(this.plusInf)) 
+			return Double.POSITIVE_INFINITY;
+		else if (util.equals(this.minInf)) 
+			return Double.NEGATIVE_INFINITY;
+		else 
+			return util.doubleValue();
+	}
+	
 	/** Returns a scaled random space
 	 * @param varName 	the name of the (only) variable
 	 * @param dom 		the domain of the variable
@@ -196,6 +275,18 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 		/** The remaining number of iterations for this node */
 		private int nbrIter;
 		
+		/** The marginal utilities sent to the variable nodes */
+		private final Outbox outbox = new Outbox ();
+		
+		/** The resolved constraint, or \c null if it is not a Hypercube, in which case outgoing messages are computed using join and blindProject */
+		private Hypercube<V, U> cube;
+		
+		/** The utilities of the resolved constraint, as doubles, in the order of its utility array */
+		private double[] table;
+		
+		/** For each variable in the scope of the constraint, the distance in \a table between two consecutive values */
+		private int[] steps;
+		
 		/** Constructor
 		 * @param name 		The name of the constraint
 		 * @param space 	The constraint
@@ -211,10 +302,34 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 				if (! synchronous) 
 					for (String var : space.getVariables()) 
 						this.addVariable(var, problem.getDomain(var));
+				
+				if (space instanceof Hypercube && this.nbrNeighbors > 0 && space.getNumberOfSolutions() < Integer.MAX_VALUE) 
+					this.initTable(((Hypercube<V, U>) space).resolve());
+				
 			} else 
 				this.nbrNeighbors = 0;
 		}
 		
+		/** Precomputes the utility table of the constraint as an array of doubles
+		 * @param cube 	the resolved constraint
+		 */
+		private void initTable (Hypercube<V, U> cube) {
+			
+			this.cube = cube;
+			
+			final int nbrVars = cube.getNumberOfVariables();
+			this.steps = new int [nbrVars];
+			int step = 1;
+			for (int i = nbrVars - 1; i >= 0; i--) {
+				this.steps[i] = step;
+				step *= cube.getDomain(i).length;
+			}
+			
+			this.table = new double [step];
+			for (int i = 0; i < step; i++) 
+				this.table[i] = toDouble(cube.getUtility(i));
+		}
+		
 		/** Adds a variable to this FunctionInfo
 		 * @param varName 	the variable name
 		 * @param dom 		the variable domain
@@ -282,6 +397,12 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 	/** The infeasible utility */
 	private final U infeasibleUtil;
 	
+	/** The utility representing plus infinity */
+	private U plusInf;
+	
+	/** The utility representing minus infinity */
+	private U minInf;
+	
 	/** Whether to initialize the algorithm with random messages, or with messages full of zeros */
 	private final boolean randomInit;
 
@@ -296,6 +417,18 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 
 	/** The name of this agent */
 	private String agentName;
+	
+	/** The damping factor in [0, 1), rounded to the nearest percent: each marginal utility sent is a weighted sum of the one computed and the last one sent */
+	private final int damping;
+	
+	/** In asynchronous mode, the marginal utilities whose largest change compared to the last one sent is not above this threshold are not sent; disabled if negative */
+	private final double epsilon;
+	
+	/** In asynchronous mode, if not \c null, the messages waiting to be sent, by decreasing residuals */
+	private final PriorityQueue<ScheduledMsg> schedule;
+	
+	/** Whether a FLUSH_MSG_TYPE message is already on its way */
+	private boolean flushing = false;
 
 	/** Constructor
 	 * @param problem       this agent's problem
@@ -307,6 +440,8 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 		this.maximize = problem.maximize();
 		this.infeasibleUtil = (this.maximize ? problem.getMinInfUtility() : problem.getPlusInfUtility());
 		this.zero = this.problem.getZeroUtility();
+		this.plusInf = problem.getPlusInfUtility();
+		this.minInf = problem.getMinInfUtility();
 
 		this.convergence = Boolean.parseBoolean(parameters.getAttributeValue("convergence"));
 		this.assignmentHistoriesMap = (this.convergence ? new HashMap< String, ArrayList< CurrentAssignment<V> > >() : null);
@@ -323,6 +458,24 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 			this.randomInit = Boolean.parseBoolean(randomInitStr);
 		else 
 			this.randomInit = true;
+		
+		String dampingStr = parameters.getAttributeValue("damping");
+		if (dampingStr != null) {
+			this.damping = (int) Math.round(100 * Double.parseDouble(dampingStr));
+			assert this.damping >= 0 && this.damping < 100 : "The damping factor must be in [0, 1)";
+		} else 
+			this.damping = 0;
+		
+		String epsilonStr = parameters.getAttributeValue("epsilon");
+		if (epsilonStr != null && ! this.synchronous) 
+			this.epsilon = Double.parseDouble(epsilonStr);
+		else 
+			this.epsilon = -1.0;
+		
+		if (! this.synchronous && Boolean.parseBoolean(parameters.getAttributeValue("residual"))) 
+			this.schedule = new PriorityQueue<ScheduledMsg> ();
+		else 
+			this.schedule = null;
 
 		this.varInfos = new HashMap<String, VarInfo> ();
 	}
@@ -342,6 +495,9 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 		this.synchronous = false;
 		this.convergence = false;
 		this.assignmentHistoriesMap = new HashMap< String, ArrayList< CurrentAssignment<V> > > ();
+		this.damping = 0;
+		this.epsilon = -1.0;
+		this.schedule = null;
 	}
 
 	/** Parses the problem */
@@ -378,6 +534,7 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 								zeroSpace (varInfo.getVarName(), varInfo.getDom()));
 					space.setName("start");
 					this.queue.sendMessage(function.getAgent(), new VariableMsg<V, U> (function.getName(), space));
+					varInfo.outbox.lastMsgsOut.put(function.getName(), space);
 				}
 			}
 		}
@@ -395,11 +552,12 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 
 	/** @see StatsReporterWithConvergence#getMsgTypes() */
 	public Collection<MessageType> getMsgTypes() {
-		ArrayList<MessageType> types = new ArrayList<MessageType> (4);
+		ArrayList<MessageType> types = new ArrayList<MessageType> (5);
 		types.add(FactorGraphGen.OUTPUT_MSG_TYPE);
 		types.add(FUNCTION_MSG_TYPE);
 		types.add(VARIABLE_MSG_TYPE);
 		types.add(AgentInterface.ALL_AGENTS_IDLE);
+		types.add(FLUSH_MSG_TYPE);
 		return types;
 	}
 
@@ -485,17 +643,24 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 				
 				assert varInfo.lastMsgsIn.size() == varInfo.nbrNeighbors : "Insufficient number of messages received";
 
-				// Compute the new optimal assignment to the destination variable, as the argmax of the join of the marginal utilities received from all function nodes
+				// Compute the suffix sums of the marginal utilities received, in the order of the function nodes
+				ArrayList< FunctionNode<V, U> > functions = varInfo.getFunctions();
+				final int nbrFunctions = functions.size();
+				final int domSize = varInfo.getDom().length;
+				@SuppressWarnings("unchecked")
+				U[][] suffixes = (U[][]) Array.newInstance(this.zero.getClass(), nbrFunctions + 1, domSize);
+				Arrays.fill(suffixes[nbrFunctions], this.zero);
+				for (int j = nbrFunctions - 1; j >= 0; j--) {
+					UtilitySolutionSpace<V, U> space = varInfo.lastMsgsIn.get(functions.get(j).getName());
+					for (int i = 0; i < domSize; i++) 
+						suffixes[j][i] = suffixes[j+1][i].add(space.getUtility(i));
+				}
+
+				// Compute the new optimal assignment to the destination variable, as the argmax of the sum of the marginal utilities received from all function nodes
 				int newOptIndex = 0;
 				U newOpt = this.infeasibleUtil;
-				final int domSize = (int) marginalUtil.getNumberOfSolutions();
 				for (int i = 0; i < domSize; i++) { // for each possible assignment to my variable
-
-					AddableDelayed<U> sumDelayed = this.zero.addDelayed();
-					for (UtilitySolutionSpace<V, U> space : varInfo.lastMsgsIn.values()) 
-						sumDelayed.addDelayed(space.getUtility(i));
-					U sum = sumDelayed.resolve();
-
+					U sum = suffixes[0][i];
 					if (this.maximize ? sum.compareTo(newOpt) >= 0 : sum.compareTo(newOpt) <= 0) {
 						newOpt = sum;
 						newOptIndex = i;
@@ -513,20 +678,17 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 						assignmentHistoriesMap.get(var).add(new CurrentAssignment<V>(queue.getCurrentTime(), 0, newOptVal));
 				}
 
-				// Compute and send a new message to each neighboring function node
-				for (FunctionNode<V, U> function : varInfo.getFunctions()) {
+				// Compute and send a new message to each neighboring function node, maintaining the prefix sum of the marginal utilities received
+				@SuppressWarnings("unchecked")
+				U[] prefix = (U[]) Array.newInstance(this.zero.getClass(), domSize);
+				Arrays.fill(prefix, this.zero);
+				for (int j = 0; j < nbrFunctions; j++) {
+					FunctionNode<V, U> function = functions.get(j);
 
-					// Join all last marginal utilities received from all neighboring function nodes except the current one
+					// Sum all last marginal utilities received from all neighboring function nodes except the current one
 					marginalUtil = this.zeroSpace(varInfo.getVarName(), varInfo.getDom());
-					for (Map.Entry< String, UtilitySolutionSpace<V, U> > entry : varInfo.lastMsgsIn.entrySet()) {
-						if (! function.getName().equals(entry.getKey())) {
-							UtilitySolutionSpace<V, U> space = entry.getValue();
-							for (int i = 0; i < domSize; i++) {
-								U util = space.getUtility(i);
-								marginalUtil.setUtility(i, marginalUtil.getUtility(i).add(util));
-							}
-						}
-					}
+					for (int i = 0; i < domSize; i++) 
+						marginalUtil.setUtility(i, prefix[i].add(suffixes[j+1][i]));
 
 					// Look up the number of feasible utilities
 					AddableDelayed<U> scalarDelayed = this.zero.addDelayed();
@@ -539,7 +701,7 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 						}
 					}
 
-					// Rescale the join such that its utilities sum up to zero (ignoring infeasible ones)
+					// Rescale the sum such that its utilities sum up to zero (ignoring infeasible ones)
 					if (nbrNonINFutils > 0) {
 						U scalar = scalarDelayed.resolve();
 						scalar = scalar.divide(scalar.fromInt(nbrNonINFutils));
@@ -548,7 +710,14 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 					}
 
 					// Send the message
-					this.queue.sendMessage(function.getAgent(), new VariableMsg<V, U> (function.getName(), marginalUtil));
+					this.send(varInfo.outbox, function.getName(), function.getAgent(), function.getName(), marginalUtil, true);
+					
+					// Update the prefix sum
+					if (j + 1 < nbrFunctions) {
+						UtilitySolutionSpace<V, U> space = varInfo.lastMsgsIn.get(function.getName());
+						for (int i = 0; i < domSize; i++) 
+							prefix[i] = prefix[i].add(space.getUtility(i));
+					}
 				}
 
 				// In synchronous mode, clear all the last messages received once I have responded to them
@@ -595,6 +764,13 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 			if (functionInfo.nbrIter <= 0) 
 				destinations.retainAll(Arrays.asList(senderVar));
 			
+			// Compute all messages in a single sweep over the constraint if possible
+			if (functionInfo.cube != null && this.sweep(functionInfo, destinations)) {
+				if (this.synchronous) 
+					functionInfo.lastMsgsIn.clear();
+				return;
+			}
+			
 			// Compute and send a message to each neighboring variable node
 			final int nbrOtherSpaces = functionInfo.lastMsgsIn.size() - 1;
 			for (String var : destinations) {
@@ -626,13 +802,25 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 					marginalUtil = marginalUtil.resolve();
 				
 				// Send the message
-				this.queue.sendMessage(destAgent, new FunctionMsg<V, U> (functionInfo.getName(), marginalUtil));
+				this.send(functionInfo.outbox, var, destAgent, functionInfo.getName(), marginalUtil, false);
 			}
 			
 			// In synchronous mode, clear all the last messages received once I have responded to them
 			if (this.synchronous) 
 				functionInfo.lastMsgsIn.clear();
 			
+		} else if (msgType.equals(FLUSH_MSG_TYPE)) { // send the scheduled message with the largest residual
+			
+			this.flushing = false;
+			ScheduledMsg next;
+			while ((next = this.schedule.poll()) != null && next.stale);
+			if (next != null) {
+				next.outbox.scheduled.remove(next.neighbor);
+				next.outbox.lastMsgsOut.put(next.neighbor, next.marginalUtil);
+				this.queue.sendMessage(next.agent, next.msg);
+			}
+			this.flush();
+			
 		} else if (msgType.equals(AgentInterface.ALL_AGENTS_IDLE)) {
 			
 			// Send the stats
@@ -648,7 +836,186 @@ public class MaxSum < V extends Addable<V>, U extends Addable<U> > implements St
 			
 			this.queue.sendMessageToSelf(new Message (AgentInterface.AGENT_FINISHED));
 			this.varInfos = null;
+			if (this.schedule != null) 
+				this.schedule.clear();
+		}
+	}
+
+	/** Computes and sends the messages of a function node in a single sweep over its utility table
+	 * 
+	 * For each destination variable and each of its values, the sweep keeps track of the entry in the table that maximizes 
+	 * (or minimizes) the sum of the constraint and of the last marginal utilities received from all other variables, 
+	 * computed using prefix and suffix sums over the scope. The utility of each message is then recomputed exactly from that entry. 
+	 * @param info 			the function node
+	 * @param destinations 	the destination variables
+	 * @return \c false if the messages could not be computed, because a marginal utility received is not expressed over the domain of the constraint
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean sweep (FunctionInfo info, Collection<String> destinations) {
+		
+		Hypercube<V, U> cube = info.cube;
+		final int nbrVars = cube.getNumberOfVariables();
+		final V[][] doms = cube.getDomains();
+		
+		// Convert the marginal utilities received to arrays aligned with the domains of the constraint
+		U[][] msgs = (U[][]) Array.newInstance(this.zero.getClass(), nbrVars, 0);
+		double[][] msgsDouble = new double [nbrVars][];
+		int[][] bestEntries = new int [nbrVars][];
+		double[][] bestUtils = new double [nbrVars][];
+		for (int j = 0; j < nbrVars; j++) {
+			
+			UtilitySolutionSpace<V, U> msg = info.lastMsgsIn.get(cube.getVariable(j));
+			V[] dom = doms[j];
+			final int domSize = dom.length;
+			if (! Arrays.equals(dom, msg.getDomain(0))) 
+				return false;
+			
+			msgs[j] = (U[]) Array.newInstance(this.zero.getClass(), domSize);
+			msgsDouble[j] = new double [domSize];
+			for (int k = 0; k < domSize; k++) 
+				msgsDouble[j][k] = this.toDouble(msgs[j][k] = msg.getUtility(k));
+			
+			if (destinations.contains(cube.getVariable(j))) {
+				Arrays.fill(bestEntries[j] = new int [domSize], -1);
+				bestUtils[j] = new double [domSize];
+			}
 		}
+		
+		// Sweep through the constraint
+		final double[] table = info.table;
+		final int[] vals = new int [nbrVars];
+		final double[] prefix = new double [nbrVars + 1];
+		final double[] suffix = new double [nbrVars + 1];
+		for (int entry = 0; entry < table.length; entry++) {
+			
+			for (int j = 0; j < nbrVars; j++) 
+				prefix[j+1] = prefix[j] + msgsDouble[j][vals[j]];
+			for (int j = nbrVars - 1; j >= 0; j--) 
+				suffix[j] = suffix[j+1] + msgsDouble[j][vals[j]];
+			
+			// Update the best entry for each destination variable
+			final double util = table[entry];
+			for (int j = 0; j < nbrVars; j++) {
+				int[] entries = bestEntries[j];
+				if (entries != null) {
+					final int val = vals[j];
+					final double sum = util + prefix[j] + suffix[j+1];
+					if (entries[val] < 0 || (this.maximize ? sum > bestUtils[j][val] : sum < bestUtils[j][val])) {
+						entries[val] = entry;
+						bestUtils[j][val] = sum;
+					}
+				}
+			}
+			
+			// Move to the next entry, the last variable varying fastest
+			for (int j = nbrVars - 1; j >= 0 && ++vals[j] == doms[j].length; j--) 
+				vals[j] = 0;
+		}
+		
+		// Compute and send the message to each destination variable
+		for (int j = 0; j < nbrVars; j++) {
+			int[] entries = bestEntries[j];
+			if (entries == null) 
+				continue;
+			
+			String var = cube.getVariable(j);
+			final int domSize = entries.length;
+			Hypercube<V, U> marginalUtil = this.zeroSpace(var, doms[j]);
+			for (int val = 0; val < domSize; val++) {
+				final int entry = entries[val];
+				AddableDelayed<U> sum = this.zero.addDelayed();
+				sum.addDelayed(cube.getUtility(entry));
+				for (int k = 0; k < nbrVars; k++) 
+					if (k != j) 
+						sum.addDelayed(msgs[k][(entry / info.steps[k]) % doms[k].length]);
+				marginalUtil.setUtility(val, sum.resolve());
+			}
+			
+			this.send(info.outbox, var, this.varInfos.get(var).getAgent(), info.getName(), marginalUtil, false);
+		}
+		
+		return true;
+	}
+
+	/** Sends a marginal utility, after damping, unless it has not changed enough since the last one sent
+	 * 
+	 * If the residual scheduler is enabled, the message is only scheduled, replacing any message previously scheduled to the same neighbor. 
+	 * @param outbox 		the outbox of the sender node
+	 * @param neighbor 		the destination node
+	 * @param agent 		the destination agent
+	 * @param functionName 	the name of the function node
+	 * @param marginalUtil 	the marginal utility
+	 * @param toFunction 	whether the destination is a function node
+	 */
+	private void send (Outbox outbox, String neighbor, String agent, String functionName, UtilitySolutionSpace<V, U> marginalUtil, boolean toFunction) {
+		
+		UtilitySolutionSpace<V, U> last = outbox.lastMsgsOut.get(neighbor);
+		double residual = Double.POSITIVE_INFINITY;
+		
+		if (last != null && (this.damping > 0 || this.epsilon >= 0 || this.schedule != null)) {
+			marginalUtil = marginalUtil.resolve();
+			final int domSize = (int) marginalUtil.getNumberOfSolutions();
+			
+			// Damp a copy of the marginal utility
+			if (this.damping > 0) {
+				marginalUtil = marginalUtil.clone();
+				U num = this.zero.fromInt(this.damping);
+				U den = this.zero.fromInt(100);
+				for (int i = 0; i < domSize; i++) {
+					U util = marginalUtil.getUtility(i);
+					U lastUtil = last.getUtility(i);
+					if (! this.isInfinite(util) && ! this.isInfinite(lastUtil)) 
+						marginalUtil.setUtility(i, util.add(lastUtil.subtract(util).multiply(num).divide(den)));
+				}
+			}
+			
+			// Compute the residual
+			residual = 0.0;
+			for (int i = 0; i < domSize; i++) {
+				double util = this.toDouble(marginalUtil.getUtility(i));
+				double lastUtil = this.toDouble(last.getUtility(i));
+				if (util != lastUtil) 
+					residual = Math.max(residual, Math.abs(util - lastUtil));
+			}
+			
+			// Drop the marginal utility if it has not changed enough, together with any older one still scheduled
+			if (residual <= this.epsilon) {
+				ScheduledMsg old = outbox.scheduled.remove(neighbor);
+				if (old != null) 
+					old.stale = true;
+				return;
+			}
+		}
+		
+		Message msg = (toFunction ? new VariableMsg<V, U> (functionName, marginalUtil) : new FunctionMsg<V, U> (functionName, marginalUtil));
+		
+		if (this.schedule == null) {
+			outbox.lastMsgsOut.put(neighbor, marginalUtil);
+			this.queue.sendMessage(agent, msg);
+			
+		} else { // schedule the message
+			ScheduledMsg scheduled = new ScheduledMsg (outbox, neighbor, agent, msg, marginalUtil, residual);
+			ScheduledMsg old = outbox.scheduled.put(neighbor, scheduled);
+			if (old != null) 
+				old.stale = true;
+			this.schedule.add(scheduled);
+			this.flush();
+		}
+	}
+	
+	/** Makes sure the agent will send its next scheduled message, after processing the messages it has already received */
+	private void flush () {
+		if (! this.flushing && ! this.schedule.isEmpty()) {
+			this.flushing = true;
+			this.queue.sendMessageToSelf(new Message (FLUSH_MSG_TYPE));
+		}
+	}
+	
+	/** @param util 	a utility
+	 * @return whether the utility is infinite
+	 */
+	private boolean isInfinite (U util) {
+		return util.equals(this.plusInf) || util.equals(this.minInf);
 	}
 
 	/** Checks if all my variable nodes have finished */
@@ -172,6 +172,26 @@ public class MaxSumTests< V extends Addable<V>, U extends Addable<U> > extends T
 		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableReal> (false, AddableReal.class, AllTests.DEFAULT_P2, false, false, true, 0.01, true), 100));
 		suite.addTest(tmp);
 		
+		tmp = new TestSuite ("Pure acyclic maximization problems with damping");
+		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableInteger> (true, AddableInteger.class, 0.0, false, true, true, 0.0, false, 0.5, -1.0, false), 200));
+		suite.addTest(tmp);
+		
+		tmp = new TestSuite ("Pure acyclic minimization problems with damping with synchronous rounds");
+		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableInteger> (false, AddableInteger.class, 0.0, false, true, true, 0.0, true, 0.5, -1.0, false), 200));
+		suite.addTest(tmp);
+		
+		tmp = new TestSuite ("Pure acyclic minimization problems without resending unchanged messages");
+		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableInteger> (false, AddableInteger.class, 0.0, false, true, true, 0.0, false, 0.0, 0.0, false), 200));
+		suite.addTest(tmp);
+		
+		tmp = new TestSuite ("Pure acyclic maximization problems with residual scheduling");
+		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableInteger> (true, AddableInteger.class, 0.0, false, true, true, 0.0, false, 0.0, 0.0, true), 200));
+		suite.addTest(tmp);
+		
+		tmp = new TestSuite ("Minimization problems with real-valued costs, damping and residual scheduling");
+		tmp.addTest(new RepeatedTest (new MaxSumTests<AddableInteger, AddableReal> (false, AddableReal.class, AllTests.DEFAULT_P2, false, false, true, 0.0, false, 0.5, 0.01, true), 100));
+		suite.addTest(tmp);
+		
 		return suite;
 	}
 	
@@ -199,6 +219,15 @@ public class MaxSumTests< V extends Addable<V>, U extends Addable<U> > extends T
 	/** Whether to run in synchronous mode */
 	private final boolean synchronous;
 	
+	/** The damping factor */
+	private final double damping;
+	
+	/** The threshold below which changed messages are not sent; disabled if negative */
+	private final double epsilon;
+	
+	/** Whether to use the residual scheduler */
+	private final boolean residual;
+	
 	/** Constructor
 	 * @param maximize 		Whether to maximize utility or minimize cost
 	 * @param classOfU 		The class of U
@@ -211,6 +240,24 @@ public class MaxSumTests< V extends Addable<V>, U extends Addable<U> > extends T
 	 */
 	public MaxSumTests (boolean maximize, Class<U> classOfU, double p2, boolean useTCP, boolean acyclic, boolean randomInit, double perturb, 
 			boolean synchronous) {
+		this (maximize, classOfU, p2, useTCP, acyclic, randomInit, perturb, synchronous, 0.0, -1.0, false);
+	}
+	
+	/** Constructor
+	 * @param maximize 		Whether to maximize utility or minimize cost
+	 * @param classOfU 		The class of U
+	 * @param p2 			The constraint tightness
+	 * @param useTCP 		Whether to use TCP pipes
+	 * @param acyclic 		Whether the graph should be acyclic
+	 * @param randomInit 	Whether to initialize the algorithm with random messages
+	 * @param perturb 		The maximum amount of perturbation to add to each variable's unary constraint
+	 * @param synchronous 	Whether to run in synchronous mode
+	 * @param damping 		The damping factor
+	 * @param epsilon 		The threshold below which changed messages are not sent; disabled if negative
+	 * @param residual 		Whether to use the residual scheduler
+	 */
+	public MaxSumTests (boolean maximize, Class<U> classOfU, double p2, boolean useTCP, boolean acyclic, boolean randomInit, double perturb, 
+			boolean synchronous, double damping, double epsilon, boolean residual) {
 		super ("test");
 		this.maximize = maximize;
 		this.classOfU = classOfU;
@@ -220,6 +267,9 @@ public class MaxSumTests< V extends Addable<V>, U extends Addable<U> > extends T
 		this.randomInit = randomInit;
 		this.maxPerturb = perturb;
 		this.synchronous = synchronous;
+		this.damping = damping;
+		this.epsilon = epsilon;
+		this.residual = residual;
 	}
 	
 	/** The test method 
@@ -245,6 +295,9 @@ public class MaxSumTests< V extends Addable<V>, U extends Addable<U> > extends T
 					module.setAttribute("maxNbrIter", "1000");
 				module.setAttribute("randomInit", Boolean.toString(this.randomInit));
 				module.setAttribute("synchronous", Boolean.toString(this.synchronous));
+				module.setAttribute("damping", Double.toString(this.damping));
+				module.setAttribute("epsilon", Double.toString(this.epsilon));
+				module.setAttribute("residual", Boolean.toString(this.residual));
 				
 			} else if (moduleClass.equals(FactorGraphGen.class.getName())) {
 				module.setAttribute("maxPerturb", Double.toString(this.maxPerturb));
@@ -165,7 +165,10 @@ public class UTILpropagation < Val extends Addable<Val>, U extends Addable<U> >
 	
 	/** @see frodo2.algorithms.odpop.UTILpropagationFullDomain#newVariableInfoInstanceInnerNode(java.lang.String, java.util.List, java.lang.String, Val[], java.util.List, int, frodo2.solutionSpaces.Addable) */
 	public VariableInfo newVariableInfoInstanceInnerNode(String var, List<String> children, String parent, Val[] ownVariableDomain, List<UtilitySolutionSpace<Val, U>> usedSpaces, int numberOfChildren, U zeroUtility) {
-		return new VariableInfo(var, parent, children.toArray(new String[0]), new InnerNodeTree<Val, U, LeafNode<U>>(var, ownVariableDomain, usedSpaces, numberOfChildren, problem.getZeroUtility(), leafNodeInstance(), infeasibleUtil, maximize, collectStats));
+		InnerNodeTree<Val, U, LeafNode<U>> tree = new InnerNodeTree<Val, U, LeafNode<U>>(var, ownVariableDomain, usedSpaces, numberOfChildren, problem.getZeroUtility(), leafNodeInstance(), infeasibleUtil, maximize, collectStats);
+		if (this.compactGoods) 
+			tree.useCompactGoods();
+		return new VariableInfo(var, parent, children.toArray(new String[0]), tree);
 	}
 	
 	/** @see frodo2.algorithms.odpop.UTILpropagationFullDomain#newVariableInfoInstanceLeafNode(java.lang.String, java.util.List, java.lang.String, Val[], java.util.List, int, frodo2.solutionSpaces.Addable) */
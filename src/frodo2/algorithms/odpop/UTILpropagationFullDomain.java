@@ -156,6 +156,9 @@ public class UTILpropagationFullDomain < Val extends Addable<Val>, U extends Add
 	
 	/** \c true when statistics should be collected in the tree, and \c false otherwise */
 	protected boolean collectStats;
+	
+	/** Whether the goods received from children should be stored in CompactGoodsMaps */
+	protected boolean compactGoods;
 
 	/**
 	 * Constructor for the statsreporter
@@ -176,6 +179,7 @@ public class UTILpropagationFullDomain < Val extends Addable<Val>, U extends Add
 		
 		this.collectStats = Boolean.parseBoolean(parameters.getAttributeValue("collectStats"));
 		this.reportStats = Boolean.parseBoolean(parameters.getAttributeValue("reportStats"));
+		this.compactGoods = Boolean.parseBoolean(parameters.getAttributeValue("compactGoods"));
 	}
 
 	/**
@@ -400,7 +404,10 @@ public class UTILpropagationFullDomain < Val extends Addable<Val>, U extends Add
 	 * @return	A new instance of the VariableInfo class
 	 */
 	public VariableInfo newVariableInfoInstanceInnerNode(String var, List<String> children, String parent, Val[] ownVariableDomain, List<UtilitySolutionSpace<Val, U>> usedSpaces, int numberOfChildren, U zeroUtility) {
-		return new VariableInfo(var, parent, children.toArray(new String[0]), new InnerNodeTree<Val, U, L>(var, ownVariableDomain, usedSpaces, numberOfChildren, problem.getZeroUtility(), leafNodeInstance(), infeasibleUtil, maximize, collectStats));
+		InnerNodeTree<Val, U, L> tree = new InnerNodeTree<Val, U, L>(var, ownVariableDomain, usedSpaces, numberOfChildren, problem.getZeroUtility(), leafNodeInstance(), infeasibleUtil, maximize, collectStats);
+		if (this.compactGoods) 
+			tree.useCompactGoods();
+		return new VariableInfo(var, parent, children.toArray(new String[0]), tree);
 	}
 	
 	/**
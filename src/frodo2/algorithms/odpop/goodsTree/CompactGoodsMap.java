@@ -0,0 +1,352 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.algorithms.odpop.goodsTree;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import frodo2.algorithms.odpop.goodsTree.InnerNodeTreeFullDomain.InnerNodeTree.IntArrayWrapper;
+
+/** A compact map from partial assignments to the utilities of the goods received from a child
+ *
+ * This map is a drop-in replacement for a HashMap<IntArrayWrapper, U>. The keys are not stored as objects:
+ * their integer arrays are copied next to each other in a single pool, and looked up by open addressing with linear probing.
+ * No object is allocated per entry apart from the utility itself.
+ * @author Thomas Leaute
+ * @param <K> the type of the keys
+ * @param <U> the type used for utility values
+ */
+public class CompactGoodsMap < K extends IntArrayWrapper, U > extends AbstractMap<K, U> implements Serializable {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = 4960209530874364133L;
+
+	/** Creates the keys returned when iterating over the map
+	 * @param <K> the type of the keys
+	 */
+	public static interface KeyFactory < K extends IntArrayWrapper > extends Serializable {
+
+		/** Creates a key
+		 * @param array 	the partial assignment
+		 * @return a key for the partial assignment
+		 */
+		public K newKey (int[] array);
+	}
+
+	/** The offset of an empty slot */
+	private static final int EMPTY = -1;
+
+	/** The offset of a slot whose entry has been removed */
+	private static final int REMOVED = -2;
+
+	/** The initial number of slots */
+	private static final int INIT_CAPACITY = 16;
+
+	/** Creates the keys returned when iterating over the map */
+	private final KeyFactory<K> factory;
+
+	/** The integer arrays of all keys, next to each other */
+	private int[] pool;
+
+	/** The number of integers used in \a pool */
+	private int poolSize;
+
+	/** For each slot, the offset of its key in \a pool, or EMPTY or REMOVED */
+	private int[] offsets;
+
+	/** For each slot, the length of its key */
+	private int[] lengths;
+
+	/** For each slot, the hash of its key */
+	private int[] hashes;
+
+	/** For each slot, its utility */
+	private Object[] utils;
+
+	/** The number of entries */
+	private int size;
+
+	/** The number of slots that are not EMPTY */
+	private int used;
+
+	/** Constructor
+	 * @param factory 	creates the keys returned when iterating over the map
+	 */
+	public CompactGoodsMap (KeyFactory<K> factory) {
+		this.factory = factory;
+		this.clear();
+	}
+
+	/** @see java.util.AbstractMap#clear() */
+	@Override
+	public void clear () {
+		this.pool = new int [4 * INIT_CAPACITY];
+		this.poolSize = 0;
+		this.allocate(INIT_CAPACITY);
+		this.size = 0;
+		this.used = 0;
+	}
+
+	/** Allocates empty slots
+	 * @param capacity 	the number of slots, a power of 2
+	 */
+	private void allocate (int capacity) {
+		this.offsets = new int [capacity];
+		Arrays.fill(this.offsets, EMPTY);
+		this.lengths = new int [capacity];
+		this.hashes = new int [capacity];
+		this.utils = new Object [capacity];
+	}
+
+	/** @see java.util.AbstractMap#size() */
+	@Override
+	public int size () {
+		return this.size;
+	}
+
+	/** Hashes a key
+	 * @param key 		the key
+	 * @param length 	the length of the key
+	 * @return the hash
+	 */
+	private static int hash (IntArrayWrapper key, final int length) {
+		int hash = length;
+		for (int i = 0; i < length; i++)
+			hash = 31 * hash + key.getValue(i);
+		return hash ^ (hash >>> 16);
+	}
+
+	/** Looks up a key
+	 * @param key 		the key
+	 * @param length 	the length of the key
+	 * @param hash 		the hash of the key
+	 * @return the slot containing the key if it is present, otherwise <tt>- slot - 1</tt> where \a slot is the slot where it should be inserted
+	 */
+	private int find (IntArrayWrapper key, final int length, final int hash) {
+
+		final int mask = this.offsets.length - 1;
+		int free = -1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			final int offset = this.offsets[slot];
+
+			if (offset == EMPTY)
+				return - (free >= 0 ? free : slot) - 1;
+
+			else if (offset == REMOVED) {
+				if (free < 0)
+					free = slot;
+
+			} else if (this.hashes[slot] == hash && this.lengths[slot] == length) {
+				int i = 0;
+				while (i < length && this.pool[offset + i] == key.getValue(i))
+					i++;
+				if (i == length)
+					return slot;
+			}
+		}
+	}
+
+	/** Looks up a key
+	 * @param key 	the key
+	 * @return the slot containing the key, or a negative number if it is absent
+	 */
+	private int find (Object key) {
+
+		if (! (key instanceof IntArrayWrapper))
+			return -1;
+
+		IntArrayWrapper wrapper = (IntArrayWrapper) key;
+		final int length = wrapper.getLength();
+		return this.find(wrapper, length, hash(wrapper, length));
+	}
+
+	/** @see java.util.AbstractMap#containsKey(java.lang.Object) */
+	@Override
+	public boolean containsKey (Object key) {
+		return this.find(key) >= 0;
+	}
+
+	/** @see java.util.AbstractMap#get(java.lang.Object) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public U get (Object key) {
+		final int slot = this.find(key);
+		return (slot >= 0 ? (U) this.utils[slot] : null);
+	}
+
+	/** @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public U put (K key, U util) {
+
+		final int length = key.getLength();
+		final int hash = hash(key, length);
+		int slot = this.find(key, length, hash);
+
+		if (slot >= 0) { // the key is already present
+			U old = (U) this.utils[slot];
+			this.utils[slot] = util;
+			return old;
+		}
+
+		// Copy the key to the pool
+		slot = - slot - 1;
+		if (this.poolSize + length > this.pool.length)
+			this.pool = Arrays.copyOf(this.pool, Math.max(2 * this.pool.length, this.poolSize + length));
+		for (int i = 0; i < length; i++)
+			this.pool[this.poolSize + i] = key.getValue(i);
+
+		if (this.offsets[slot] == EMPTY)
+			this.used++;
+		this.offsets[slot] = this.poolSize;
+		this.lengths[slot] = length;
+		this.hashes[slot] = hash;
+		this.utils[slot] = util;
+		this.poolSize += length;
+		this.size++;
+
+		// Keep at least half of the slots empty
+		if (2 * this.used > this.offsets.length)
+			this.rehash();
+
+		return null;
+	}
+
+	/** @see java.util.AbstractMap#remove(java.lang.Object) */
+	@SuppressWarnings("unchecked")
+	@Override
+	public U remove (Object key) {
+
+		final int slot = this.find(key);
+		if (slot < 0)
+			return null;
+
+		U old = (U) this.utils[slot];
+		this.removeSlot(slot);
+		return old;
+	}
+
+	/** Removes the entry in a slot
+	 * @param slot 	the slot
+	 */
+	private void removeSlot (int slot) {
+		this.offsets[slot] = REMOVED;
+		this.utils[slot] = null;
+		this.size--;
+	}
+
+	/** Moves all entries to new slots, dropping the removed ones and compacting the pool */
+	private void rehash () {
+
+		int[] oldOffsets = this.offsets;
+		int[] oldLengths = this.lengths;
+		int[] oldHashes = this.hashes;
+		Object[] oldUtils = this.utils;
+		int[] oldPool = this.pool;
+
+		int capacity = INIT_CAPACITY;
+		while (capacity < 4 * this.size)
+			capacity *= 2;
+		this.allocate(capacity);
+		this.pool = new int [Math.max(this.poolSize, 4 * INIT_CAPACITY)];
+		this.poolSize = 0;
+		this.used = this.size;
+
+		final int mask = capacity - 1;
+		for (int oldSlot = 0; oldSlot < oldOffsets.length; oldSlot++) {
+			final int offset = oldOffsets[oldSlot];
+			if (offset < 0)
+				continue;
+
+			int slot = oldHashes[oldSlot] & mask;
+			while (this.offsets[slot] != EMPTY)
+				slot = (slot + 1) & mask;
+
+			final int length = oldLengths[oldSlot];
+			System.arraycopy(oldPool, offset, this.pool, this.poolSize, length);
+			this.offsets[slot] = this.poolSize;
+			this.lengths[slot] = length;
+			this.hashes[slot] = oldHashes[oldSlot];
+			this.utils[slot] = oldUtils[oldSlot];
+			this.poolSize += length;
+		}
+	}
+
+	/** @see java.util.AbstractMap#entrySet()
+	 * @note Each key returned is a new object created by the KeyFactory, and the entries do not support setValue().
+	 */
+	@Override
+	public Set<Entry<K, U>> entrySet() {
+
+		return new AbstractSet< Entry<K, U> > () {
+
+			@Override
+			public Iterator<Entry<K, U>> iterator() {
+
+				return new Iterator< Entry<K, U> > () {
+
+					/** The next slot to look at */
+					private int next = 0;
+
+					/** The slot of the last entry returned */
+					private int last = -1;
+
+					public boolean hasNext() {
+						while (this.next < offsets.length && offsets[this.next] < 0)
+							this.next++;
+						return this.next < offsets.length;
+					}
+
+					@SuppressWarnings("unchecked")
+					public Entry<K, U> next() {
+						if (! this.hasNext())
+							throw new NoSuchElementException ();
+
+						this.last = this.next++;
+						final int offset = offsets[this.last];
+						K key = factory.newKey(Arrays.copyOfRange(pool, offset, offset + lengths[this.last]));
+						return new SimpleImmutableEntry<K, U> (key, (U) utils[this.last]);
+					}
+
+					@Override
+					public void remove() {
+						if (this.last < 0 || offsets[this.last] < 0)
+							throw new IllegalStateException ();
+						removeSlot(this.last);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+}
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import frodo2.algorithms.odpop.Good;
@@ -75,7 +76,7 @@ public class InnerNodeTree < Val extends Addable<Val>, U extends Addable<U>, L e
 	
 	/** For each child a map that stores the utilities received from children. This is needed due to 
 	 * the assumption that both domain and variable information can be incomplete */
-	protected ArrayList<HashMap<IntArrayWrapper, U>> goodsReceived;
+	protected ArrayList<Map<IntArrayWrapper, U>> goodsReceived;
 	
 	/**
 	 * A constructor 
@@ -1904,7 +1905,7 @@ public class InnerNodeTree < Val extends Addable<Val>, U extends Addable<U>, L e
 			childrenVariables 		= new boolean[numberOfChildren][numberOfVariables];
 			childrenVariablesReportingOrder = new String[numberOfChildren][];
 			ownVariables 			= new boolean [numberOfVariables];
-			goodsReceived 			= new ArrayList<HashMap<IntArrayWrapper, U>>(numberOfChildren);
+			goodsReceived 			= new ArrayList<Map<IntArrayWrapper, U>>(numberOfChildren);
 			upperBounds 			= (U[])new Addable[numberOfChildren];
 			separatorSizePerChild 	= new int[numberOfChildren];
 			unpackedVariablesPerChild = new String[numberOfChildren][]; 
@@ -1936,7 +1937,7 @@ public class InnerNodeTree < Val extends Addable<Val>, U extends Addable<U>, L e
 			}
 			
 			for(int i = 0; i < numberOfChildren; i++) {
-				goodsReceived.add(new HashMap<IntArrayWrapper, U>());
+				goodsReceived.add(this.<IntArrayWrapper>newGoodsMap(16));
 			}
 		}
 		
@@ -2483,6 +2484,21 @@ public class InnerNodeTree < Val extends Addable<Val>, U extends Addable<U>, L e
 		return new IntArrayWrapper(size);
 	}
 	
+	/**
+	 * @see frodo2.algorithms.odpop.goodsTree.InnerNodeTreeFullDomain.InnerNodeTree#useCompactGoods()
+	 */
+	@Override
+	public void useCompactGoods() {
+		super.useCompactGoods();
+		if(goodsReceived == null)
+			return;
+		
+		for(int i = 0; i < goodsReceived.size(); i++) {
+			assert goodsReceived.get(i).isEmpty();
+			goodsReceived.set(i, this.<IntArrayWrapper>newGoodsMap(16));
+		}
+	}
+	
 	/**
 	 * 
 	 * The IntArrayWrapper is used as a key for (partial) assignments.
@@ -27,9 +27,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import frodo2.algorithms.odpop.Good;
+import frodo2.algorithms.odpop.goodsTree.CompactGoodsMap;
 import frodo2.algorithms.odpop.goodsTree.GoodsTree;
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.AddableDelayed;
@@ -86,12 +88,15 @@ extends GoodsTree<Val, U, L> {
 	/** For each child a map that stores the utilities received from children. This is needed due to 
 	 * the assumption that both domain and variable information can be incomplete */
 	// @todo this can be removed as soon as information is complete
-	protected ArrayList<HashMap<IntArrayWrapper, U>> goodsReceived;
+	protected ArrayList<Map<IntArrayWrapper, U>> goodsReceived;
 
 	/** If domain or variable information is incomplete received goods must be stored, otherwise they
 	 * can be discarded after processing */
 	protected boolean storeReceivedGoods = true;
 
+	/** Whether the received goods are stored in CompactGoodsMaps rather than in HashMaps */
+	protected boolean compactGoods = false;
+
 	/** \c true when this variable has a local problem, and false otherwise */
 	protected boolean hasLocalProblem;
 
@@ -1506,7 +1511,7 @@ extends GoodsTree<Val, U, L> {
 			childrenVariables 		= new boolean[numberOfChildren][numberOfVariables];
 			childrenVariablesReportingOrder = new String[numberOfChildren][];
 			ownVariables 			= new boolean [numberOfVariables];
-			goodsReceived 			= new ArrayList<HashMap<IntArrayWrapper, U>>(numberOfChildren);
+			goodsReceived 			= new ArrayList<Map<IntArrayWrapper, U>>(numberOfChildren);
 			upperBounds 			= (U[])new Addable[numberOfChildren];
 			separatorSizePerChild 	= new int[numberOfChildren];
 			unpackedVariablesPerChild = new String[numberOfChildren][];
@@ -1539,7 +1544,7 @@ extends GoodsTree<Val, U, L> {
 			}
 			
 			for(int i = 0; i < numberOfChildren; i++) {
-				goodsReceived.add(new HashMap<IntArrayWrapper, U>());
+				goodsReceived.add(this.<IntArrayWrapper>newGoodsMap(16));
 				// @todo remove this when done!
 				childrenVariablesReportingOrder[i] = new String[1];
 				childrenVariablesReportingOrder[i][0] = this.ownVariable;
@@ -2448,6 +2453,40 @@ extends GoodsTree<Val, U, L> {
 		return new IntArrayWrapper(size);
 	}
 	
+	/**
+	 * Stores the goods received from children in CompactGoodsMaps, which keep all partial assignments 
+	 * in a single int array instead of one IntArrayWrapper object per good
+	 * @warning Must be called before any good has been received
+	 */
+	public void useCompactGoods() {
+		this.compactGoods = true;
+		if(goodsReceived == null)
+			return;
+		
+		for(int i = 0; i < goodsReceived.size(); i++) {
+			assert goodsReceived.get(i).isEmpty();
+			goodsReceived.set(i, this.<IntArrayWrapper>newGoodsMap(16));
+		}
+	}
+	
+	/**
+	 * @param <K> the type of the keys, which must be the type returned by createIntArrayWrapper(int[])
+	 * @param capacity 	the expected number of goods
+	 * @return a new, empty map to store the goods received from a child
+	 */
+	protected < K extends IntArrayWrapper > Map<K, U> newGoodsMap(int capacity) {
+		if(!this.compactGoods)
+			return new HashMap<K, U>(capacity);
+		
+		return new CompactGoodsMap<K, U>(new CompactGoodsMap.KeyFactory<K> () {
+			private static final long serialVersionUID = -3021583957734598271L;
+			@SuppressWarnings("unchecked")
+			public K newKey(int[] array) {
+				return (K) createIntArrayWrapper(array);
+			}
+		});
+	}
+	
 	/**
 	 * 
 	 * The IntArrayWrapper is used as a key for (partial) assignments.
@@ -2525,6 +2564,13 @@ extends GoodsTree<Val, U, L> {
 		public int getValue(int index) {
 			return array[index];
 		}
+		
+		/**
+		 * @return the length of the array
+		 */
+		public int getLength() {
+			return array.length;
+		}
 
 		/**
 		 * @see java.lang.Object#toString()
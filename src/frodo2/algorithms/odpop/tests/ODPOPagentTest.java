@@ -148,6 +148,9 @@ public class ODPOPagentTest < V extends Addable<V>, U extends Addable<U> > exten
 	/** The class used for utility values */
 	private Class<U> utilClass;
 	
+	/** Whether the goods received from children should be stored in CompactGoodsMaps */
+	private boolean compactGoods;
+	
 	/** Creates a JUnit test case corresponding to the input method
 	 * @param string 			name of the method
 	 * @param useCentralMailer 	\c true when the central mailer is to be tested
@@ -165,6 +168,20 @@ public class ODPOPagentTest < V extends Addable<V>, U extends Addable<U> > exten
 		this.utilClass = utilClass;
 	}
 
+	/** Creates a JUnit test case corresponding to the input method
+	 * @param string 			name of the method
+	 * @param useCentralMailer 	\c true when the central mailer is to be tested
+	 * @param useDelay 			whether to use message delays
+	 * @param startMsgType 		the type of the start message
+	 * @param domClass 			The class used for variable values
+	 * @param utilClass 		the class used for utility values
+	 * @param compactGoods 		whether the goods received from children should be stored in CompactGoodsMaps
+	 */
+	public ODPOPagentTest(String string, boolean useCentralMailer, boolean useDelay, MessageType startMsgType, Class<V> domClass, Class<U> utilClass, boolean compactGoods) {
+		this (string, useCentralMailer, useDelay, startMsgType, domClass, utilClass);
+		this.compactGoods = compactGoods;
+	}
+
 	/** Sets the type of the start message for all modules
 	 * @param startMsgType 		the new type for the start message
 	 * @throws JDOMException 	if parsing the agent configuration file failed
@@ -209,6 +226,10 @@ public class ODPOPagentTest < V extends Addable<V>, U extends Addable<U> > exten
 		tmp.addTest(new RepeatedTest (new ODPOPagentTest<AddableInteger, AddableInteger> ("testRandomSharedMemory", false, false, null, AddableInteger.class, AddableInteger.class), 500));
 		suite.addTest(tmp);
 		
+		tmp = new TestSuite ("Tests using QueueIOPipes and integer utilities and compact goods maps");
+		tmp.addTest(new RepeatedTest (new ODPOPagentTest<AddableInteger, AddableInteger> ("testRandomSharedMemory", false, false, null, AddableInteger.class, AddableInteger.class, true), 500));
+		suite.addTest(tmp);
+		
 		tmp = new TestSuite ("Tests using QueueIOPipes and integer utilities and real-valued variables");
 		tmp.addTest(new RepeatedTest (new ODPOPagentTest<AddableReal, AddableInteger> ("testRandomSharedMemory", false, false, null, AddableReal.class, AddableInteger.class), 500));
 		suite.addTest(tmp);
@@ -241,6 +262,11 @@ public class ODPOPagentTest < V extends Addable<V>, U extends Addable<U> > exten
 		
 		agentDesc = XCSPparser.parse("src/frodo2/algorithms/odpop/ODPOPagent.xml", false);
 		this.setStartMsgType(startMsgType);
+		if (this.compactGoods) {
+			for (Element module : (List<Element>) agentDesc.getRootElement().getChild("modules").getChildren()) 
+				if (module.getAttributeValue("className").equals(UTILpropagation.class.getName())) 
+					module.setAttribute("compactGoods", "true");
+		}
 
 		nbrMsgsReceived = 0;
 		nbrAgentsFinished = 0;
@@ -55,9 +55,16 @@ import frodo2.algorithms.dpop.restart.test.AllTestsS_DPOP;
 import frodo2.algorithms.dpop.stochastic.test.AllTestsStochDPOP;
 import frodo2.algorithms.dpop.test.AllTestsDPOP;
 import frodo2.algorithms.duct.tests.AllTestsDUCT;
+import frodo2.algorithms.localSearch.anytime.tests.AnytimeTrackerTest;
 import frodo2.algorithms.localSearch.dsa.tests.AllTestsDSA;
+import frodo2.algorithms.localSearch.gdba.tests.BreakoutModifiersTest;
 import frodo2.algorithms.localSearch.mgm.mgm2.tests.MGM2agentTest;
+import frodo2.algorithms.localSearch.mgm.mgm2.tests.MGM2asyncTest;
 import frodo2.algorithms.localSearch.mgm.tests.MGMagentTest;
+import frodo2.algorithms.localSearch.portfolio.tests.PortfolioSolverTest;
+import frodo2.algorithms.localSearch.simulated.tests.SimulatedEngineTest;
+import frodo2.algorithms.localSearch.tests.CycleWindowTest;
+import frodo2.algorithms.localSearch.tests.LocalCostEvaluatorTest;
 import frodo2.algorithms.maxsum.tests.MaxSumTests;
 import frodo2.algorithms.mpc_discsp.tests.MPC_DisWCSP4tests;
 import frodo2.algorithms.odpop.tests.AllTestsODPOP;
@@ -109,9 +116,16 @@ public class AllTests {
 		
 		suite.addTest(TestCountSolutions.suite());
 		
+		suite.addTest(LocalCostEvaluatorTest.suite());
+		suite.addTest(CycleWindowTest.suite());
+		suite.addTest(BreakoutModifiersTest.suite());
+		suite.addTest(SimulatedEngineTest.suite());
+		suite.addTest(PortfolioSolverTest.suite());
 		suite.addTest(AllTestsDSA.suite());
 		suite.addTest(MGMagentTest.suite());
 		suite.addTest(MGM2agentTest.suite());
+		suite.addTest(MGM2asyncTest.suite());
+		suite.addTest(AnytimeTrackerTest.suite());
 		suite.addTest(MaxSumTests.suite());
 		
 		suite.addTest(AllTestsSynchBB.suite());
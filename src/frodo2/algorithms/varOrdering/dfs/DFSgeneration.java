@@ -743,6 +743,7 @@ public class DFSgeneration < V extends Addable<V>, U extends Addable<U> > implem
 		private void reset () {
 			this.scores = null;
 			this.neighborAgents = null;
+			this.knownVars.clear();
 			this.started = false;
 		}
 
@@ -32,6 +32,7 @@ import org.jdom2.Document;
 
 import frodo2.algorithms.AgentFactory;
 import frodo2.algorithms.AgentInterface;
+import frodo2.algorithms.CompiledAgentDescription;
 import frodo2.communication.IncomingMsgPolicyInterface;
 import frodo2.communication.Message;
 import frodo2.communication.MessageType;
@@ -72,6 +73,10 @@ public class Constructor implements IncomingMsgPolicyInterface<MessageType> {
 	/** Is true when the experiments are run in the same JVM as the controller*/
 	private boolean local;
 	
+	/** The last compiled agent description, reused as long as agents are created from the same description */
+	@SuppressWarnings("rawtypes")
+	private CompiledAgentDescription compiledDesc;
+	
 	/**
 	 * Constructor to be used when this constructor is attached to a daemon
 	 * @param local 			whether the experiments are run in the same JVM as the controller
@@ -111,7 +116,7 @@ public class Constructor implements IncomingMsgPolicyInterface<MessageType> {
 	 * @see IncomingMsgPolicyInterface#notifyIn(Message)
 	 * @author Brammert Ottens, Thomas Leaute
 	 */
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void notifyIn(Message msg) {
 		MessageType type = msg.getType();
 		AgentInterface<?> agent = null;
@@ -135,11 +140,22 @@ public class Constructor implements IncomingMsgPolicyInterface<MessageType> {
 				System.exit(1);
 			}
 			
+			// Compile the agent description, unless it is the same as for the previous agent
+			if (this.compiledDesc == null || this.compiledDesc.getDescription() != agentDoc) {
+				try {
+					this.compiledDesc = new CompiledAgentDescription (agentDoc);
+				} catch (Exception e) {
+					System.err.println("Failed to parse the agent description");
+					e.printStackTrace();
+					return;
+				}
+			}
+			
 			if(local) {
-				agent = AgentFactory.createAgent(outputToDaemon, prob, agentDoc, null);
+				agent = AgentFactory.createAgent(outputToDaemon, (ProblemInterface) prob, compiledDesc, null);
 			} else {
 				agent = AgentFactory.createAgent(outputToDaemon, queue.getOutputPipe(LocalWhitePages.CONTROLLER_ID), 
-						prob, agentDoc, statsToController, agentPort);	
+						(ProblemInterface) prob, compiledDesc, statsToController, agentPort);	
 			}
 			
 			tellUser("Taking ownership of Agent " + agent.getID());
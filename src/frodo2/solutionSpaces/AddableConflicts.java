@@ -107,6 +107,11 @@ public class AddableConflicts < U extends Addable<U>> implements Addable<Addable
 		return utility;
 	}
 
+	/** @return the number of conflicts */
+	public int getConflicts() {
+		return conflicts;
+	}
+
 	/** 
 	 * @see frodo2.solutionSpaces.AddableLimited#min(frodo2.solutionSpaces.AddableLimited)
 	 */
@@ -36,6 +36,35 @@ public class AddableInteger implements Addable<AddableInteger> {
 	/** The value */
 	private int integer;
 	
+	/** Lazily created cache of the AddableIntegers for small values, which are shared by all variable domains and deserialized messages */
+	private static class Cache {
+		
+		/** The smallest cached value */
+		static final int LOW = -128;
+		
+		/** The largest cached value */
+		static final int HIGH = 1023;
+		
+		/** The cached instances, for all values between LOW and HIGH */
+		static final AddableInteger[] INSTANCES = new AddableInteger [HIGH - LOW + 1];
+		
+		static {
+			for (int i = 0; i < INSTANCES.length; i++) 
+				INSTANCES[i] = new AddableInteger (LOW + i);
+		}
+	}
+	
+	/** Returns an AddableInteger for the given value, reusing a shared instance for small values
+	 * @param integer 	the integer value
+	 * @return an AddableInteger whose value is \a integer
+	 * @note Unlike fromInt(), this method does not convert Integer.MAX_VALUE and Integer.MIN_VALUE to infinities. 
+	 */
+	public static AddableInteger valueOf (final int integer) {
+		if (integer >= Cache.LOW && integer <= Cache.HIGH) 
+			return Cache.INSTANCES[integer - Cache.LOW];
+		return new AddableInteger (integer);
+	}
+	
 	/**
 	 * Empty constructor for creating zero, plus and minus infinity
 	 */
@@ -77,6 +106,8 @@ public class AddableInteger implements Addable<AddableInteger> {
 			return MinInfinity.MIN_INF;
 			
 		default:
+			if (this.integer >= Cache.LOW && this.integer <= Cache.HIGH) 
+				return Cache.INSTANCES[this.integer - Cache.LOW];
 			return this;
 		}
 	}
@@ -89,13 +120,13 @@ public class AddableInteger implements Addable<AddableInteger> {
 			return MinInfinity.MIN_INF;
 		} else {
 			try {
-				return new AddableInteger (Integer.parseInt(str));
+				return valueOf(Integer.parseInt(str));
 				
 			} catch (NumberFormatException e) { // does not look like an int
 				
 				// Try to parse it as a double, and truncate
 				System.err.println("WARNING! Attempting to parse `" + str + "' as a double and truncate it to an int");
-				return new AddableInteger ((int) Double.parseDouble(str));
+				return valueOf((int) Double.parseDouble(str));
 			}
 		}
 	}
@@ -111,7 +142,7 @@ public class AddableInteger implements Addable<AddableInteger> {
 			return PlusInfinity.PLUS_INF;
 		
 		else 
-			return new AddableInteger (nbr);
+			return valueOf(nbr);
 	}
 	
 	/** @return the value as an int */
@@ -79,6 +79,12 @@ public interface DCOPProblemInterface < V extends Addable<V>, U extends Addable<
 	 */
 	public boolean addVariable (String name, String owner, V[] domain);
 	
+	/** Removes a variable, together with all the spaces involving it
+	 * @param name 	variable name
+	 * @return 		\c true if the variable was present and has been removed
+	 */
+	public boolean removeVariable (String name);
+	
 	/** Looks up the domain of a variable
 	 * @param var 	the name of the variable
 	 * @return 		the domain for the input variable, or \c null if the variable or its domain is unknown
@@ -0,0 +1,534 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.solutionSpaces.JaCoP;
+
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.StringTokenizer;
+
+import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableInteger;
+
+/** An XCSP intensional constraint compiled into a tree of \c int evaluators
+ *
+ * Unlike Predicate, which decomposes the functional expression into JaCoP constraints that must be propagated and searched
+ * for each assignment, a CompiledPredicate directly computes the value of the expression from the values of the variables,
+ * without allocating any object. Expressions whose root is Boolean are hard constraints; all others are soft constraints
+ * whose value is the utility.
+ *
+ * The semantics are those of the JaCoP decomposition: divisions truncate towards zero, the result of a modulo is non-negative
+ * (except between two constants, which uses Java's remainder), and a division or modulo by 0 anywhere in the expression makes
+ * the assignment infeasible, even if it appears in a branch that does not determine the result.
+ * @author Thomas Leaute
+ * @warning Arithmetic is performed on \c int values and is not checked for overflow.
+ */
+public class CompiledPredicate {
+
+	/** An integer-valued node of the expression tree */
+	private static abstract class IntNode {
+
+		/** @param vals 	the values of the variables in the scope
+		 * @return the value of the node
+		 * @throws ArithmeticException 	if the expression involves a division by 0
+		 */
+		abstract int eval (int[] vals) throws ArithmeticException;
+
+		/** @return whether this node is a constant */
+		boolean isConst () {
+			return false;
+		}
+	}
+
+	/** A Boolean-valued node of the expression tree */
+	private static abstract class BoolNode {
+
+		/** @param vals 	the values of the variables in the scope
+		 * @return the value of the node
+		 * @throws ArithmeticException 	if the expression involves a division by 0
+		 */
+		abstract boolean eval (int[] vals) throws ArithmeticException;
+	}
+
+	/** A constant */
+	private static final class Const extends IntNode {
+
+		/** The value of the constant */
+		final int val;
+
+		/** Constructor
+		 * @param val 	the value of the constant
+		 */
+		Const (int val) {
+			this.val = val;
+		}
+
+		/** @see IntNode#eval(int[]) */
+		@Override
+		int eval (int[] vals) {
+			return this.val;
+		}
+
+		/** @see IntNode#isConst() */
+		@Override
+		boolean isConst () {
+			return true;
+		}
+	}
+
+	/** A variable */
+	private static final class Var extends IntNode {
+
+		/** The index of the variable in the scope */
+		final int index;
+
+		/** Constructor
+		 * @param index 	the index of the variable in the scope
+		 */
+		Var (int index) {
+			this.index = index;
+		}
+
+		/** @see IntNode#eval(int[]) */
+		@Override
+		int eval (int[] vals) {
+			return vals[this.index];
+		}
+	}
+
+	/** The root of the expression tree if it is integer-valued, \c null otherwise */
+	private final IntNode intRoot;
+
+	/** The root of the expression tree if it is Boolean-valued, \c null otherwise */
+	private final BoolNode boolRoot;
+
+	/** The number of variables in the scope */
+	private final int arity;
+
+	/** Constructor
+	 * @param intRoot 	the integer-valued root, or \c null
+	 * @param boolRoot 	the Boolean-valued root, or \c null
+	 * @param arity 	the number of variables in the scope
+	 */
+	private CompiledPredicate (IntNode intRoot, BoolNode boolRoot, int arity) {
+		this.intRoot = intRoot;
+		this.boolRoot = boolRoot;
+		this.arity = arity;
+	}
+
+	/** Compiles an intensional constraint
+	 * @param scope 				the variables in the scope of the constraint
+	 * @param constraintParameters 	the XCSP parameters of the constraint
+	 * @param predicateParameters 	the XCSP parameters of the predicate or function
+	 * @param description 			the functional representation of the predicate or function
+	 * @return the compiled constraint, or \c null if the expression uses a construct that is not supported
+	 */
+	public static CompiledPredicate compile (String[] scope, String constraintParameters, String predicateParameters, String description) {
+
+		// Map the formal parameters to variables in the scope or constants
+		HashMap<String, Integer> scopeIndexes = new HashMap<String, Integer> (scope.length);
+		for (int i = 0; i < scope.length; i++)
+			scopeIndexes.put(scope[i], i);
+		HashMap<String, IntNode> mapping = new HashMap<String, IntNode> ();
+		StringTokenizer tokenizer = new StringTokenizer (predicateParameters, " \n\t");
+		StringTokenizer tokenizerConstraint = new StringTokenizer (constraintParameters, " \n\t");
+		while (tokenizer.hasMoreTokens()) {
+
+			String formal = tokenizer.nextToken();
+			if (formal.equals("int"))
+				continue;
+
+			if (! tokenizerConstraint.hasMoreTokens())
+				return null;
+			String actual = tokenizerConstraint.nextToken();
+
+			Integer index = scopeIndexes.get(actual);
+			if (index != null)
+				mapping.put(formal, new Var (index));
+			else {
+				try {
+					mapping.put(formal, new Const (Integer.parseInt(actual)));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+
+		// Parse the expression
+		tokenizer = new StringTokenizer (description.replace(" ", "").replace("\n", "").replace("\t", "").replace("\r", ""), "(,)");
+		Object root;
+		try {
+			root = parse(tokenizer.nextToken(), tokenizer, mapping);
+		} catch (NoSuchElementException e) { // missing arguments
+			return null;
+		}
+		if (tokenizer.hasMoreTokens()) // trailing tokens
+			return null;
+
+		if (root instanceof IntNode)
+			return new CompiledPredicate ((IntNode) root, null, scope.length);
+		else if (root instanceof BoolNode)
+			return new CompiledPredicate (null, (BoolNode) root, scope.length);
+		else
+			return null;
+	}
+
+	/** @return whether this is a hard constraint */
+	public boolean isHard () {
+		return this.boolRoot != null;
+	}
+
+	/** @return the number of variables in the scope */
+	public int getArity () {
+		return this.arity;
+	}
+
+	/** Checks whether a hard constraint is satisfied
+	 * @param vals 	the values of the variables in the scope
+	 * @return whether the hard constraint is satisfied
+	 * @warning Only applicable to hard constraints.
+	 */
+	public boolean holds (int[] vals) {
+		assert this.boolRoot != null : "Not a hard constraint";
+		try {
+			return this.boolRoot.eval(vals);
+		} catch (ArithmeticException e) { // division by 0
+			return false;
+		}
+	}
+
+	/** Computes the value of a soft constraint
+	 * @param vals 	the values of the variables in the scope
+	 * @return the value of the soft constraint
+	 * @throws ArithmeticException 	if the assignment is infeasible because it involves a division by 0
+	 * @warning Only applicable to soft constraints.
+	 */
+	public int evaluate (int[] vals) throws ArithmeticException {
+		assert this.intRoot != null : "Not a soft constraint";
+		return this.intRoot.eval(vals);
+	}
+
+	/** Computes the utility of an assignment
+	 * @param <U> 				the type used for utility values
+	 * @param vals 				the values of the variables in the scope
+	 * @param infeasibleUtil 	the infeasible utility
+	 * @return the utility of the assignment
+	 */
+	public < U extends Addable<U> > U getUtility (int[] vals, U infeasibleUtil) {
+
+		if (this.boolRoot != null)
+			return this.holds(vals) ? infeasibleUtil.getZero() : infeasibleUtil;
+
+		try {
+			return infeasibleUtil.fromInt(this.intRoot.eval(vals));
+		} catch (ArithmeticException e) { // division by 0
+			return infeasibleUtil;
+		}
+	}
+
+	/** Computes the utilities of all assignments to the variables, in the order of a Hypercube's utility array
+	 * @param <U> 				the type used for utility values
+	 * @param order 			for each variable in the iteration order, its index in the scope
+	 * @param domains 			for each variable in the iteration order, its domain
+	 * @param utils 			the output array of utilities, of size the product of the domain sizes
+	 * @param defaultUtil 		the utility added to all feasible utilities
+	 * @param infeasibleUtil 	the infeasible utility
+	 */
+	public < U extends Addable<U> > void fill (int[] order, AddableInteger[][] domains, U[] utils, U defaultUtil, U infeasibleUtil) {
+
+		final int nbrVars = order.length;
+		assert nbrVars == this.arity;
+		if (utils.length == 0) 
+			return;
+
+		// Convert the domains to ints
+		int[][] doms = new int [nbrVars][];
+		for (int i = 0; i < nbrVars; i++) {
+			AddableInteger[] dom = domains[i];
+			int[] intDom = doms[i] = new int [dom.length];
+			for (int j = dom.length - 1; j >= 0; j--)
+				intDom[j] = dom[j].intValue();
+		}
+
+		// Initialize the assignment to the first values
+		int[] vals = new int [this.arity];
+		int[] valIndexes = new int [nbrVars];
+		for (int i = 0; i < nbrVars; i++)
+			vals[order[i]] = doms[i][0];
+
+		final boolean hard = (this.boolRoot != null);
+		final U zero = defaultUtil;
+		final boolean addDefault = ! defaultUtil.equals(defaultUtil.getZero());
+		final int nbrUtils = utils.length;
+		final int last = nbrVars - 1;
+		for (int u = 0; ; ) {
+
+			// Compute the utility of the current assignment
+			if (hard)
+				utils[u] = (this.holds(vals) ? zero : infeasibleUtil);
+			else {
+				try {
+					U util = infeasibleUtil.fromInt(this.intRoot.eval(vals));
+					utils[u] = (addDefault ? util.add(defaultUtil) : util);
+				} catch (ArithmeticException e) { // division by 0
+					utils[u] = infeasibleUtil;
+				}
+			}
+
+			if (++u >= nbrUtils)
+				return;
+
+			// Move to the next assignment
+			for (int i = last; i >= 0; i--) {
+				int[] dom = doms[i];
+				if (++valIndexes[i] < dom.length) {
+					vals[order[i]] = dom[valIndexes[i]];
+					break;
+				}
+				valIndexes[i] = 0;
+				vals[order[i]] = dom[0];
+			}
+		}
+	}
+
+	/** Parses the expression
+	 * @param token 		the current token
+	 * @param tokenizer 	the tokenizer
+	 * @param mapping 		a mapping from the names of the formal parameters to variables or constants
+	 * @return an IntNode or a BoolNode, or \c null if the expression is not supported
+	 * @throws NoSuchElementException 	if the expression is missing arguments
+	 */
+	private static Object parse (String token, StringTokenizer tokenizer, HashMap<String, IntNode> mapping) throws NoSuchElementException {
+
+		IntNode node = mapping.get(token);
+		if (node != null)
+			return node;
+
+		try {
+			return new Const (Integer.parseInt(token));
+		} catch (NumberFormatException e) { } // not an integer
+
+		// Unary operators
+		if (token.equals("abs") || token.equals("neg")) {
+			final IntNode n1 = toInt(parse(tokenizer.nextToken(), tokenizer, mapping));
+			if (n1 == null)
+				return null;
+
+			IntNode out;
+			if (token.equals("abs"))
+				out = new IntNode () { int eval (int[] vals) { return Math.abs(n1.eval(vals)); } };
+			else
+				out = new IntNode () { int eval (int[] vals) { return - n1.eval(vals); } };
+			return fold(out, n1, null);
+		}
+
+		else if (token.equals("not")) {
+			final BoolNode b1 = toBool(parse(tokenizer.nextToken(), tokenizer, mapping));
+			if (b1 == null)
+				return null;
+			return new BoolNode () { boolean eval (int[] vals) { return ! b1.eval(vals); } };
+		}
+
+		// Binary arithmetic operators
+		else if (token.equals("add") || token.equals("sub") || token.equals("mul") || token.equals("div") || token.equals("mod")
+				|| token.equals("pow") || token.equals("min") || token.equals("max")) {
+			final IntNode n1 = toInt(parse(tokenizer.nextToken(), tokenizer, mapping));
+			final IntNode n2 = toInt(parse(tokenizer.nextToken(), tokenizer, mapping));
+			if (n1 == null || n2 == null)
+				return null;
+
+			IntNode out;
+			if (token.equals("add")) {
+				if (n2 instanceof Const) {
+					final int c2 = ((Const) n2).val;
+					out = new IntNode () { int eval (int[] vals) { return n1.eval(vals) + c2; } };
+				} else
+					out = new IntNode () { int eval (int[] vals) { return n1.eval(vals) + n2.eval(vals); } };
+			} else if (token.equals("sub"))
+				out = new IntNode () { int eval (int[] vals) { return n1.eval(vals) - n2.eval(vals); } };
+			else if (token.equals("mul")) {
+				if (n1 instanceof Const) {
+					final int c1 = ((Const) n1).val;
+					out = new IntNode () { int eval (int[] vals) { return c1 * n2.eval(vals); } };
+				} else
+					out = new IntNode () { int eval (int[] vals) { return n1.eval(vals) * n2.eval(vals); } };
+			} else if (token.equals("div"))
+				out = new IntNode () { int eval (int[] vals) { return n1.eval(vals) / n2.eval(vals); } };
+			else if (token.equals("mod")) {
+				if (n1.isConst() && n2.isConst()) { // JaCoP uses Java's remainder on constants
+					int c2 = ((Const) n2).val;
+					return (c2 == 0 ? null : new Const (((Const) n1).val % c2));
+				}
+				out = new IntNode () { int eval (int[] vals) {
+					int d = Math.abs(n2.eval(vals));
+					int r = n1.eval(vals) % d;
+					return (r < 0 ? r + d : r);
+				} };
+			}
+			else if (token.equals("pow"))
+				out = new IntNode () { int eval (int[] vals) { return pow(n1.eval(vals), n2.eval(vals)); } };
+			else if (token.equals("min"))
+				out = new IntNode () { int eval (int[] vals) { return Math.min(n1.eval(vals), n2.eval(vals)); } };
+			else
+				out = new IntNode () { int eval (int[] vals) { return Math.max(n1.eval(vals), n2.eval(vals)); } };
+			return fold(out, n1, n2);
+		}
+
+		// Comparison operators
+		else if (token.equals("eq") || token.equals("ne") || token.equals("ge") || token.equals("gt") || token.equals("le") || token.equals("lt")) {
+			Object o1 = parse(tokenizer.nextToken(), tokenizer, mapping);
+			Object o2 = parse(tokenizer.nextToken(), tokenizer, mapping);
+
+			// eq and ne can also be applied to Boolean expressions
+			if (o1 instanceof BoolNode && o2 instanceof BoolNode) {
+				final BoolNode b1 = (BoolNode) o1;
+				final BoolNode b2 = (BoolNode) o2;
+				if (token.equals("eq"))
+					return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) == b2.eval(vals); } };
+				else if (token.equals("ne"))
+					return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) != b2.eval(vals); } };
+				return null;
+			}
+
+			final IntNode n1 = toInt(o1);
+			final IntNode n2 = toInt(o2);
+			if (n1 == null || n2 == null)
+				return null;
+
+			if (token.equals("eq"))
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) == n2.eval(vals); } };
+			else if (token.equals("ne"))
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) != n2.eval(vals); } };
+			else if (token.equals("ge"))
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) >= n2.eval(vals); } };
+			else if (token.equals("gt"))
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) > n2.eval(vals); } };
+			else if (token.equals("le"))
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) <= n2.eval(vals); } };
+			else
+				return new BoolNode () { boolean eval (int[] vals) { return n1.eval(vals) < n2.eval(vals); } };
+		}
+
+		// Binary logical operators
+		else if (token.equals("and") || token.equals("or") || token.equals("xor") || token.equals("iff")) {
+			final BoolNode b1 = toBool(parse(tokenizer.nextToken(), tokenizer, mapping));
+			final BoolNode b2 = toBool(parse(tokenizer.nextToken(), tokenizer, mapping));
+			if (b1 == null || b2 == null)
+				return null;
+
+			// No short-circuiting: JaCoP posts the arithmetic constraints of both operands, so a division by 0 in either is infeasible
+			if (token.equals("and"))
+				return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) & b2.eval(vals); } };
+			else if (token.equals("or"))
+				return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) | b2.eval(vals); } };
+			else if (token.equals("xor"))
+				return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) != b2.eval(vals); } };
+			else
+				return new BoolNode () { boolean eval (int[] vals) { return b1.eval(vals) == b2.eval(vals); } };
+		}
+
+		else if (token.equals("if")) {
+			final BoolNode cond = toBool(parse(tokenizer.nextToken(), tokenizer, mapping));
+			Object o2 = parse(tokenizer.nextToken(), tokenizer, mapping);
+			Object o3 = parse(tokenizer.nextToken(), tokenizer, mapping);
+			if (cond == null)
+				return null;
+
+			if (o2 instanceof IntNode && o3 instanceof IntNode) {
+				final IntNode n2 = (IntNode) o2;
+				final IntNode n3 = (IntNode) o3;
+				return new IntNode () { int eval (int[] vals) { // both branches are evaluated, as for and/or
+					int then = n2.eval(vals), otherwise = n3.eval(vals);
+					return cond.eval(vals) ? then : otherwise;
+				} };
+
+			} else if (o2 instanceof BoolNode && o3 instanceof BoolNode) {
+				final BoolNode b2 = (BoolNode) o2;
+				final BoolNode b3 = (BoolNode) o3;
+				return new BoolNode () { boolean eval (int[] vals) {
+					boolean then = b2.eval(vals), otherwise = b3.eval(vals);
+					return cond.eval(vals) ? then : otherwise;
+				} };
+			}
+
+			return null;
+		}
+
+		return null; // unknown token
+	}
+
+	/** Replaces a node with a constant if all its arguments are constants
+	 * @param node 	the node
+	 * @param n1 	its first argument
+	 * @param n2 	its second argument, or \c null
+	 * @return the input node, or an equivalent constant, or \c null if the constant expression is undefined (as JaCoP would then fail)
+	 */
+	private static IntNode fold (IntNode node, IntNode n1, IntNode n2) {
+
+		if (! n1.isConst() || (n2 != null && ! n2.isConst()))
+			return node;
+
+		try {
+			return new Const (node.eval(null));
+		} catch (ArithmeticException e) { // division by 0
+			return null;
+		}
+	}
+
+	/** @param node 	the result of parse()
+	 * @return the node as an IntNode, or \c null if it is not one
+	 */
+	private static IntNode toInt (Object node) {
+		return (node instanceof IntNode ? (IntNode) node : null);
+	}
+
+	/** @param node 	the result of parse()
+	 * @return the node as a BoolNode, or \c null if it is not one
+	 */
+	private static BoolNode toBool (Object node) {
+		return (node instanceof BoolNode ? (BoolNode) node : null);
+	}
+
+	/** Integer power, consistent with the JaCoP decomposition of pow
+	 * @param base 	the base
+	 * @param exp 	the exponent
+	 * @return \a base to the power \a exp
+	 * @throws ArithmeticException 	if \a exp is negative and |\a base| is not 1, i.e. the result is not an integer
+	 */
+	private static int pow (int base, int exp) throws ArithmeticException {
+
+		if (exp < 0) {
+			if (base == 1)
+				return 1;
+			else if (base == -1)
+				return (exp % 2 == 0 ? 1 : -1);
+			throw new ArithmeticException ("Non-integer power");
+		}
+
+		int out = 1;
+		for (int b = base; exp > 0; exp >>= 1, b *= b)
+			if ((exp & 1) != 0)
+				out *= b;
+		return out;
+	}
+
+}
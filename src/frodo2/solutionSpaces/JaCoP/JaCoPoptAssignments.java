@@ -61,12 +61,6 @@ public class JaCoPoptAssignments implements BasicUtilitySolutionSpace< AddableIn
 	/** The names of the projected variables for which we want to search the values given an assignment */
 	private final String[] projectedVarNames;
 	
-	/** The JaCoP store*/
-	private Store store;
-	
-	/** The consistency of the JaCoP Store */
-	private boolean isConsistent;
-	
 	/** The variable names, including the projected out and sliced out variables, but excluding the utility variable */
 	HashMap<String, AddableInteger[]> allVars;
 
@@ -151,37 +145,31 @@ public class JaCoPoptAssignments implements BasicUtilitySolutionSpace< AddableIn
 		if(varNames.length != 0 && variablesValues.length < varNames.length){ ///@todo the condition varNames.length != 0 is necessary as we do not use explicit ScalarHypercube
 			return null;
 		}
-		
-		ArrayList<AddableInteger> out = new ArrayList<AddableInteger>();
 
-		// If the store does not exist yet, we create it
-		if(this.store == null){
-			this.store = space.createStore();
-			isConsistent = store.consistency();
-		}
+		// Borrow a store from the pool, in which the variables already have the domains of the space
+		JaCoPstorePool pool = space.getStorePool();
+		Store store = pool.acquire(space);
 		
 		// The problem is infeasible, we just choose any assignment to each projected variable
-		if(!isConsistent){
-
-			AddableInteger[] dom;
-			for(int i = 0; i < projectedVarNames.length; i++){
-				// We take the first value of the domain
-				dom = space.getDomain(projectedVarNames[i]);
-				if(dom != null){
-					out.add(this.space.getDomain(projectedVarNames[i])[0]);
-				}else{
-					out.add(this.space.getProjVarDomain(projectedVarNames[i])[0]);
-				}
-			}
-			
-			return out;
-			
+		if(store == null)
+			return this.defaultAssignment();
+
+		try {
+			return this.getUtility(store, variablesValues);
+		} finally {
+			pool.release(store);
 		}
+	}
+	
+	/** Computes the optimal assignments to the projected variables in the input store
+	 * @param store 			a consistent store containing the constraints of the space
+	 * @param variablesValues 	the values for the variables of the space
+	 * @return the optimal assignments to the projected variables
+	 */
+	private ArrayList<AddableInteger> getUtility (Store store, AddableInteger[] variablesValues) {
 
-		int lvlReminder = store.level;
-		
 		// Change the store level to be able to ground variables in an reversible manner
-		store.setLevel(lvlReminder+1);
+		store.setLevel(store.level+1);
 		
 		for(int i = 0; i < varNames.length; i++){
 			// Find the variable in the store
@@ -192,27 +180,8 @@ public class JaCoPoptAssignments implements BasicUtilitySolutionSpace< AddableIn
 			try{
 				var.domain.in(store.level, var, variablesValues[i].intValue(), variablesValues[i].intValue());
 			}catch (org.jacop.core.FailException e){
-				
-				for(int k = store.level; k > lvlReminder; k--){
-					store.removeLevel(k);
-				}
-				
-				store.setLevel(lvlReminder);
-			
 				// The problem is infeasible, we just choose any assignment to each projected variable
-				
-				AddableInteger[] dom;
-				for(int j = 0; j < projectedVarNames.length; j++){
-					// We take the first value of the domain
-					dom = space.getDomain(projectedVarNames[j]);
-					if(dom != null){
-						out.add(this.space.getDomain(projectedVarNames[j])[0]);
-					}else{
-						out.add(this.space.getProjVarDomain(projectedVarNames[j])[0]);
-					}
-				}
-				
-				return out;	
+				return this.defaultAssignment();
 			}
 		}
 		
@@ -248,39 +217,34 @@ public class JaCoPoptAssignments implements BasicUtilitySolutionSpace< AddableIn
 			
 		if(!result){
 			// The problem is infeasible, we can choose any assignment to each projected variable
-			
-			AddableInteger[] dom;
-			for(int i = 0; i < projectedVarNames.length; i++){
-				// We take the first value of the domain
-				dom = space.getDomain(projectedVarNames[i]);
-				if(dom != null){
-					out.add(this.space.getDomain(projectedVarNames[i])[0]);
-				}else{
-					out.add(this.space.getProjVarDomain(projectedVarNames[i])[0]);
-				}
-			}
-			
-			return out;
-			
+			return this.defaultAssignment();
 		}
-			
-		//search.getSolution();
 		
+		ArrayList<AddableInteger> out = new ArrayList<AddableInteger>(projectedVarNames.length);
 		for (int j=0; j < (projectedVarNames.length); j++){
 			assert search.getSolution()[j].singleton(): "In a solution, all the variables must be grounded";
 			out.add(new AddableInteger(search.getSolution()[j].valueEnumeration().nextElement()));
 		}
 		
+		return out;
+	}
+	
+	/** @return an arbitrary assignment to the projected variables, used when the problem is infeasible */
+	private ArrayList<AddableInteger> defaultAssignment () {
 		
-		// Store backtrack
-		for(int k = store.level; k > lvlReminder; k--){
-			store.removeLevel(k);
+		ArrayList<AddableInteger> out = new ArrayList<AddableInteger>(projectedVarNames.length);
+		AddableInteger[] dom;
+		for(int i = 0; i < projectedVarNames.length; i++){
+			// We take the first value of the domain
+			dom = space.getDomain(projectedVarNames[i]);
+			if(dom != null){
+				out.add(dom[0]);
+			}else{
+				out.add(this.space.getProjVarDomain(projectedVarNames[i])[0]);
+			}
 		}
 		
-		store.setLevel(lvlReminder);
-
 		return out;
-		
 	}
 
 	/** @see BasicUtilitySolutionSpace#getUtility(java.lang.String[], Addable[]) */
@@ -0,0 +1,131 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.solutionSpaces.JaCoP;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.jacop.core.FailException;
+import org.jacop.core.IntVar;
+import org.jacop.core.IntervalDomain;
+import org.jacop.core.Store;
+
+import frodo2.solutionSpaces.AddableInteger;
+
+/** A pool of JaCoP stores that all contain the same constraint model
+ *
+ * Building a store requires parsing all the XCSP constraints and creating all the JaCoP variables and constraints.
+ * The spaces obtained from a given space by slicing, projecting or reordering all have the same constraints,
+ * and only differ by the domains of their variables, which are subsets of the original domains.
+ * They can therefore share the stores built for the original space: a query acquires a store,
+ * in which the domains of the variables are restricted at a new store level, and the store is backtracked when it is released.
+ * @author Thomas Leaute
+ */
+final class JaCoPstorePool {
+
+	/** The maximum number of idle stores kept in the pool */
+	private static final int MAX_IDLE_STORES = 4;
+
+	/** The space whose constraints and domains are used to build the stores */
+	private final JaCoPutilSpace<?> template;
+
+	/** The stores that are not currently in use, all at level 0 */
+	private final ArrayList<Store> idle = new ArrayList<Store> ();
+
+	/** Whether the constraints of the template have been found to be inconsistent */
+	private boolean inconsistent = false;
+
+	/** Constructor
+	 * @param template 	the space whose constraints and domains are used to build the stores
+	 */
+	JaCoPstorePool (JaCoPutilSpace<?> template) {
+		this.template = template;
+	}
+
+	/** Acquires a store in which the variables have the domains of the input space
+	 * @param space 	a space with the same constraints as the template, and domains that are subsets of the template's
+	 * @return a consistent store, which must be released after use, unless the caller adds variables or constraints to it; 
+	 * 			or \c null if the space is inconsistent
+	 */
+	Store acquire (JaCoPutilSpace<?> space) {
+
+		// Get an idle store, or build a new one
+		Store store = null;
+		synchronized (this) {
+			if (this.inconsistent)
+				return null;
+			if (! this.idle.isEmpty())
+				store = this.idle.remove(this.idle.size() - 1);
+		}
+		if (store == null) {
+			store = this.template.createStore();
+			if (! store.consistency()) {
+				synchronized (this) {
+					this.inconsistent = true;
+				}
+				return null;
+			}
+		}
+
+		// Restrict the domains of the variables whose domains differ from the template's
+		store.setLevel(store.level + 1);
+		try {
+			for (Map.Entry<String, AddableInteger[]> entry : space.allVars.entrySet()) {
+
+				AddableInteger[] dom = entry.getValue();
+				if (dom == this.template.allVars.get(entry.getKey()))
+					continue;
+
+				IntVar var = (IntVar) store.findVariable(entry.getKey());
+				assert var != null : "Variable " + entry.getKey() + " not found in the store!";
+				IntervalDomain jacopDom = new IntervalDomain (dom.length);
+				for (AddableInteger val : dom)
+					jacopDom.unionAdapt(val.intValue(), val.intValue());
+				var.domain.in(store.level, var, jacopDom);
+			}
+
+			if (store.consistency())
+				return store;
+
+		} catch (FailException e) { }
+
+		this.release(store);
+		return null;
+	}
+
+	/** Backtracks a store and puts it back into the pool
+	 * @param store 	a store previously returned by acquire()
+	 */
+	void release (Store store) {
+
+		for (int k = store.level; k > 0; k--)
+			store.removeLevel(k);
+		store.setLevel(0);
+
+		synchronized (this) {
+			if (this.idle.size() < MAX_IDLE_STORES)
+				this.idle.add(store);
+		}
+	}
+
+}
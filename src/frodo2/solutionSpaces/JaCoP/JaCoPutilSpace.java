@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 import org.jdom2.Element;
@@ -80,6 +81,9 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 	/** The consistency of the JaCoP Store */
 	private boolean isConsistent;
 
+	/** The pool of stores shared by all spaces derived from the same constraint model */
+	private JaCoPstorePool storePool;
+
 	/** The XCSP relations in this space */
 	private HashMap<String, Element> relations;
 
@@ -116,6 +120,15 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 	/** The owner of this space */
 	private String owner;
 
+	/** If this space consists of a single predicate or function, its compiled expression */
+	private CompiledPredicate compiled;
+
+	/** For each variable of the space, its index in the scope of the compiled expression */
+	private int[] compiledIndexes;
+
+	/** Whether an attempt has already been made at compiling the expression */
+	private boolean compilationAttempted;
+
 	/** Constructor				construct an explicit JaCoPutilSpace that owns only one constraint
 	 * @param name				the name of the JaCoPutilSpace corresponds to the name of its XCSP constraint
 	 * @param owner 			the owner
@@ -457,6 +470,7 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 
 		JaCoPutilSpace<U> out = new JaCoPutilSpace<U> (this.name + "_reordered", this.constraints, this.relations, this.allVars, this.vars, this.projectedVars, this.slicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
 		out.vars = variablesOrder;
+		out.storePool = this.getStorePool();
 
 		return out;
 
@@ -685,6 +699,7 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 
 		JaCoPutilSpace<U> outSpace = new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
 				newVars, newProjectedVars, newSlicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
+		outSpace.storePool = this.getStorePool();
 		JaCoPoptAssignments assignments = new JaCoPoptAssignments (this, outSpace.vars, vars);
 
 		ProjOutput<AddableInteger, U> out = new ProjOutput<AddableInteger, U> (outSpace, vars, assignments);
@@ -723,6 +738,7 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 
 		JaCoPutilSpace<U> outSpace = new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
 				newVars, newProjectedVars, newSlicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
+		outSpace.storePool = this.getStorePool();
 		JaCoPoptAssignments assignments = new JaCoPoptAssignments (this, outSpace.vars, new String[] {variableName});
 
 		ProjOutput<AddableInteger, U> out = new ProjOutput<AddableInteger, U> (outSpace, 
@@ -750,6 +766,7 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 
 		JaCoPutilSpace<U> outSpace = new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
 				newVars, newProjectedVars, newSlicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
+		outSpace.storePool = this.getStorePool();
 		JaCoPoptAssignments assignments = new JaCoPoptAssignments (this, outSpace.vars, this.getVariables());
 
 		ProjOutput<AddableInteger, U> out = new ProjOutput<AddableInteger, U> (outSpace, 
@@ -858,6 +875,48 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 		return new JaCoPutilSpace<U> (newName, newVars, newCons, newRel, this.maximize, this.infeasibleUtil);
 	}
 
+	/** Compiles the expression of the space if it consists of a single predicate or function, over all of its variables
+	 * @return the compiled expression, or \c null if the space cannot be evaluated by a CompiledPredicate
+	 */
+	private CompiledPredicate getCompiled () {
+		
+		if (this.compilationAttempted) 
+			return this.compiled;
+		this.compilationAttempted = true;
+		
+		if (this.constraints.size() != 1 || this.projectedVars.length > 0 || this.slicedVars.length > 0 || this.allVars.size() != this.vars.length) 
+			return null;
+		
+		// Look up the predicate or function
+		Element constraint = this.constraints.values().iterator().next();
+		String reference = constraint.getAttributeValue("reference");
+		Element relation = (reference == null ? null : this.relations.get(reference));
+		if (relation == null || ! (relation.getName().equals("predicate") || relation.getName().equals("function"))) 
+			return null;
+		Element expression = relation.getChild("expression");
+		if (constraint.getChild("parameters") == null || relation.getChild("parameters") == null 
+				|| expression == null || expression.getChild("functional") == null) 
+			return null;
+		
+		String[] scope = constraint.getAttributeValue("scope").trim().split("\\s+");
+		if (scope.length != this.vars.length) 
+			return null;
+		CompiledPredicate compiled = CompiledPredicate.compile(scope, constraint.getChildText("parameters"), 
+				relation.getChildText("parameters"), expression.getChildText("functional"));
+		if (compiled == null) 
+			return null;
+		
+		// Map each variable to its index in the scope
+		List<String> scopeList = Arrays.asList(scope);
+		int[] indexes = new int [this.vars.length];
+		for (int i = 0; i < this.vars.length; i++) 
+			if ((indexes[i] = scopeList.indexOf(this.vars[i])) < 0) 
+				return null;
+		
+		this.compiledIndexes = indexes;
+		return this.compiled = compiled;
+	}
+
 	/**
 	 * This method constructs the store and creates all the JaCoP variables needed in it as well as all the JaCoP constraints.
 	 * This method is called only once, when we need the store and it has not been created yet. It's not located in the constructor because
@@ -1012,6 +1071,7 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 		JaCoPutilSpace<U> out = new JaCoPutilSpace<U> ("sliced" + new Object().hashCode(), this.constraints, this.relations, newAllVars,
 				newVars.toArray(new String[newVars.size()]),Arrays.copyOf(this.projectedVars, this.projectedVars.length),
 				newSlicedVars.toArray(new String[newSlicedVars.size()]), this.maximize, this.defaultUtil, this.infeasibleUtil);
+		out.storePool = this.getStorePool();
 		
 		return out;
 	}
@@ -1104,7 +1164,6 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 	}
 
 	/** @see BasicUtilitySolutionSpace#getUtility(Addable[]) */
-	@SuppressWarnings("unchecked")
 	public U getUtility(AddableInteger[] variablesValues) {
 		// The input does not specify a value for each variable
 		if(variablesValues.length < vars.length){
@@ -1120,15 +1179,36 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 			return this.defaultUtil;
 		}
 
-		// If the store does not exist yet, we create it
-		if(this.store == null){
-			this.store = createStore();
-			isConsistent = store.consistency();
+		// If the space is a single intensional constraint, directly evaluate its compiled expression
+		CompiledPredicate compiled = this.getCompiled();
+		if (compiled != null) {
+			final int[] indexes = this.compiledIndexes;
+			int[] vals = new int [indexes.length];
+			for (int i = indexes.length - 1; i >= 0; i--) 
+				vals[indexes[i]] = variablesValues[i].intValue();
+			return compiled.getUtility(vals, this.infeasibleUtil).add(this.defaultUtil);
 		}
-		
-		if(!isConsistent){
+
+		// Borrow a store from the pool, in which the variables already have the domains of this space
+		JaCoPstorePool pool = this.getStorePool();
+		Store store = pool.acquire(this);
+		if (store == null) 
 			return this.infeasibleUtil;
+		
+		try {
+			return this.getUtility(store, variablesValues);
+		} finally {
+			pool.release(store);
 		}
+	}
+
+	/** Computes the utility of an assignment in the input store
+	 * @param store 			a consistent store containing the constraints of this space
+	 * @param variablesValues 	the values for the variables of this space
+	 * @return the utility of the assignment
+	 */
+	@SuppressWarnings("unchecked")
+	private U getUtility (Store store, AddableInteger[] variablesValues) {
 
 		int lvlReminder = store.level;
 
@@ -1689,9 +1769,11 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 		// For now (and maybe forever) we will assume that all variables are projected in the same way (all minimized or all maximized)
 		assert (this.maximize == maximize) : "All variables must be projected the same way!";
 
-		return new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
+		JaCoPutilSpace<U> out = new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
 				newVars.toArray(new String[newVars.size()]), newProjectedVars.toArray(new String[newProjectedVars.size()]),
 				newSlicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
+		out.storePool = this.getStorePool();
+		return out;
 	}
 
 	/** @see UtilitySolutionSpace#blindProject(java.lang.String[], boolean) */
@@ -1710,9 +1792,11 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 		// For now (and maybe forever) we will assume that all variables are projected in the same way (all minimized or all maximized)
 		assert (this.maximize == maximize) : "All variables must be projected the same way!";
 
-		return new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
+		JaCoPutilSpace<U> out = new JaCoPutilSpace<U> (this.getName() + "projected", this.constraints, this.relations, newAllVars,
 				newVars.toArray(new String[newVars.size()]), newProjectedVars.toArray(new String[newProjectedVars.size()]),
 				newSlicedVars, this.maximize, this.defaultUtil, this.infeasibleUtil);
+		out.storePool = this.getStorePool();
+		return out;
 	}
 
 	/** @see UtilitySolutionSpace#blindProjectAll(boolean) */
@@ -1780,6 +1864,13 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 
 	}
 
+	/** @return the pool of stores shared by all the spaces derived from the same constraint model as this space */
+	synchronized JaCoPstorePool getStorePool () {
+		if (this.storePool == null) 
+			this.storePool = new JaCoPstorePool (this);
+		return this.storePool;
+	}
+
 	/**
 	 * @return the store associated to this solution space
 	 */
@@ -1850,6 +1941,13 @@ public class JaCoPutilSpace < U extends Addable<U> > implements UtilitySolutionS
 			long nbrSol = this.getNumberOfSolutions();
 			assert nbrSol < Integer.MAX_VALUE : "A hypercube can only contain up to " + Integer.MAX_VALUE + " solutions";
 
+			// If the space is a single intensional constraint, fill in the utilities in bulk using its compiled expression
+			CompiledPredicate compiled = this.getCompiled();
+			if (compiled != null) {
+				compiled.fill(this.compiledIndexes, doms, utils, this.defaultUtil, this.infeasibleUtil);
+				return out;
+			}
+
 			Iterator<AddableInteger, U> iter = this.iterator(outVars, doms);
 			for (int i = 0; i < (int)nbrSol; i++){
 				out.setUtility(i, iter.nextUtility());
@@ -311,8 +311,9 @@ public class JaCoPutilSpaceIter2 < U extends Addable<U> > implements SparseItera
 		// Get the JaCoP store
 		this.store = this.space.getStore();
 		if (store == null) {
-			store = this.space.createStore();
-			if (! store.consistency()){ // no feasible solution exists
+			// Take a store from the pool; it is never released because this iterator adds variables to it
+			store = this.space.getStorePool().acquire(this.space);
+			if (store == null){ // no feasible solution exists
 				this.searchTerminated = true;
 				return;
 			}
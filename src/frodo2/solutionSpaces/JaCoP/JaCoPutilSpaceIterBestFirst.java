@@ -92,14 +92,12 @@ public class JaCoPutilSpaceIterBestFirst < U extends Addable<U> > implements Ite
 		this.nbrSols = 0;
 		this.nbrSolLeft = this.nbrSols;
 
-		boolean isConsistent = true;
+		// Take a store from the pool; it is never released because this iterator adds variables to it
 		this.store = space.getStore();
-		if(this.store == null) {
-			this.store = space.createStore();
-			isConsistent = store.consistency();
-		}
+		if(this.store == null) 
+			this.store = space.getStorePool().acquire(space);
 
-		if(isConsistent){
+		if(this.store != null){
 
 			this.solListenerIndex = 1;
 
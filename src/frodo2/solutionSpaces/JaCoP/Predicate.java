@@ -498,13 +498,8 @@ public class Predicate extends DecomposedConstraint{
 					int max2 = (v2.max() == 0 ? -1 : v2.max());
 					
 					// Compute the bounds for the auxiliary variable aux = v1 / v2
-					int min = v1.min() / min2;
-					int max = min;
-					for (int tmp : Arrays.asList(v1.min() / max2, v1.max() / min2, v1.max() / max2)) {
-						min = Math.min(min, tmp);
-						max = Math.max(max, tmp);
-					}
-					IntVar aux = new IntVar(store, min, max);
+					int[] bounds = divBounds(v1.min(), v1.max(), min2, max2);
+					IntVar aux = new IntVar(store, bounds[0], bounds[1]);
 
 					auxilaryVariables.add(aux);
 					decompositionConstraints.add(new XdivYeqZ (v1, v2, aux));
@@ -537,12 +532,8 @@ public class Predicate extends DecomposedConstraint{
 					int max2 = (v2.max() == 0 ? -1 : v2.max());
 					
 					// Compute the bounds for the auxiliary variable aux = c1 / v2
-					int min = c1 / min2;
-					int max = min;
-					int tmp = c1 / max2;
-					min = Math.min(min, tmp);
-					max = Math.max(max, tmp);
-					IntVar aux = new IntVar(store, min, max);
+					int[] bounds = divBounds(c1, c1, min2, max2);
+					IntVar aux = new IntVar(store, bounds[0], bounds[1]);
 
 					auxilaryVariables.add(aux);
 					decompositionConstraints.add(new XdivYeqZ (new IntVar(store, c1, c1), v2, aux));
@@ -588,14 +579,8 @@ public class Predicate extends DecomposedConstraint{
 					IntVar T2 = new IntVar(store, v1.min() - auxilary.max(), v1.max()); // t2 = v1 - a
 					
 					// Compute the bounds for t1 = t2 / v2
-					int min = T2.min() / min2;
-					int max = min;
-					for (int tmp : Arrays.asList(T2.min() / max2, T2.max() / min2, T2.max() / max2)) {
-						min = Math.min(min, tmp);
-						max = Math.max(max, tmp);
-					}
-					
-					IntVar T1 = new IntVar(store, min, max);
+					int[] bounds = divBounds(T2.min(), T2.max(), min2, max2);
+					IntVar T1 = new IntVar(store, bounds[0], bounds[1]);
 					
 					auxilaryVariables.add(T1);
 					auxilaryVariables.add(T2);
@@ -661,14 +646,8 @@ public class Predicate extends DecomposedConstraint{
 					IntVar T2 = new IntVar(store, c1 - auxilary.max(), c1); // t2 = c1 - a
 					
 					// Compute the bounds for t1 = t2 / v2
-					int min = T2.min() / min2;
-					int max = min;
-					for (int tmp : Arrays.asList(T2.min() / max2, T2.max() / min2, T2.max() / max2)) {
-						min = Math.min(min, tmp);
-						max = Math.max(max, tmp);
-					}
-					
-					IntVar T1 = new IntVar(store, min, max);
+					int[] bounds = divBounds(T2.min(), T2.max(), min2, max2);
+					IntVar T1 = new IntVar(store, bounds[0], bounds[1]);
 					
 					auxilaryVariables.add(T1);
 					auxilaryVariables.add(T2);
@@ -839,7 +818,7 @@ public class Predicate extends DecomposedConstraint{
 					IntVar v2 = (IntVar) o2;
 					if (v1.max() <= v2.min()) 
 						return v1;
-					else if (v2.min() <= v1.min()) 
+					else if (v2.max() <= v1.min()) 
 						return v2;
 					IntVar auxilary = new IntVar(store, Math.min(v1.min(), v2.min()), Math.min(v1.max(), v2.max()));
 					auxilaryVariables.add(auxilary);
@@ -869,7 +848,7 @@ public class Predicate extends DecomposedConstraint{
 					IntVar v2 = (IntVar) o2;
 					if (c1 <= v2.min()) 
 						return c1;
-					else if (v2.min() <= c1) 
+					else if (v2.max() <= c1) 
 						return v2;
 					IntVar auxilary = new IntVar(store, Math.min(c1, v2.min()), Math.min(c1, v2.max()));
 					auxilaryVariables.add(auxilary);
@@ -1081,11 +1060,23 @@ public class Predicate extends DecomposedConstraint{
 								store, variableMaping);
 
 						if(o1 instanceof IntVar && o2 instanceof IntVar){
-						
-							return new AbsXeqY((IntVar) o1, (IntVar) o2);
+
+							IntVar v1 = (IntVar) o1;
+							IntVar v2 = (IntVar) o2;
+							if (v2.min() < 0) { // AbsXeqY assumes Y >= 0, which yields wrong results when it is reified
+								IntVar auxilary = new IntVar(store, 0, Math.max(Math.abs(v1.min()), Math.abs(v1.max())));
+								auxilaryVariables.add(auxilary);
+								decompositionConstraints.add(new AbsXeqY(v1, auxilary));
+								return new XeqY(auxilary, v2);
+							}
+
+							return new AbsXeqY(v1, v2);
 						
 						}else if(o1 instanceof IntVar && o2 instanceof Integer){
 							
+							if ((Integer) o2 < 0) 
+								return "false";
+							
 							IntVar auxilary = new IntVar(store, (Integer) o2,
 									(Integer) o2);
 							auxilaryVariables.add(auxilary);
@@ -1559,6 +1550,30 @@ public class Predicate extends DecomposedConstraint{
 	}
 
 
+	/** Computes the bounds of the integer division x / y
+	 * @param min1 	the lower bound on x
+	 * @param max1 	the upper bound on x
+	 * @param min2 	the lower bound on y
+	 * @param max2 	the upper bound on y
+	 * @return the lower and upper bounds on x / y, assuming y != 0
+	 * @note When the domain of y includes -1 or 1, dividing by these values yields the extreme results. 
+	 */
+	private static int[] divBounds (int min1, int max1, int min2, int max2) {
+		
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int y : new int[] { min2, max2, -1, 1 }) {
+			if (y < min2 || y > max2 || y == 0) 
+				continue;
+			for (int tmp : new int[] { min1 / y, max1 / y }) {
+				min = Math.min(min, tmp);
+				max = Math.max(max, tmp);
+			}
+		}
+		
+		return new int[] { min, max };
+	}
+
 	/** @see org.jacop.constraints.DecomposedConstraint#imposeDecomposition(org.jacop.core.Store) */
 	@Override
 	public void imposeDecomposition(Store store) {
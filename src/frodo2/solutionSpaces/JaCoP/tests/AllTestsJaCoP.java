@@ -36,6 +36,7 @@ public class AllTestsJaCoP {
 		TestSuite suite = new TestSuite("All tests for JaCoP");
 		//$JUnit-BEGIN$
 		suite.addTest(JaCopxcspParserTest.suite());
+		suite.addTest(CompiledPredicateTest.suite());
 		suite.addTest(JaCoPtests.suite());
 		//$JUnit-END$
 		return suite;
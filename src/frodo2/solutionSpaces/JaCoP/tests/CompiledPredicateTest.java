@@ -0,0 +1,368 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+ */
+
+package frodo2.solutionSpaces.JaCoP.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import org.jacop.constraints.XeqC;
+import org.jacop.core.IntVar;
+import org.jacop.core.Store;
+import org.jdom2.Element;
+
+import frodo2.solutionSpaces.AddableInteger;
+import frodo2.solutionSpaces.JaCoP.CompiledPredicate;
+import frodo2.solutionSpaces.JaCoP.JaCoPxcspParser;
+import junit.extensions.RepeatedTest;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests that CompiledPredicate agrees with the decomposition of intensional constraints into JaCoP constraints
+ * @author Thomas Leaute
+ */
+public class CompiledPredicateTest extends TestCase {
+
+	/** The number of variables in the scope */
+	private static final int NBR_VARS = 3;
+
+	/** The minimum value in the domains */
+	private static final int MIN_VAL = -3;
+
+	/** The maximum value in the domains */
+	private static final int MAX_VAL = 3;
+
+	/** The names of the variables */
+	private static final String[] SCOPE = new String[] {"x0", "x1", "x2"};
+
+	/** The parameters of the constraint */
+	private static final String PARAMS = "x0 x1 x2";
+
+	/** The formal parameters of the predicate or function */
+	private static final String FORMAL_PARAMS = "int X0 int X1 int X2";
+
+	/** The random number generator */
+	private Random rand;
+
+	/** Constructor
+	 * @param method 	the name of the test method
+	 */
+	public CompiledPredicateTest (String method) {
+		super (method);
+	}
+
+	/** @return the test suite for this test */
+	public static TestSuite suite () {
+		TestSuite suite = new TestSuite ("JUnit tests for CompiledPredicate");
+
+		suite.addTest(new CompiledPredicateTest ("testUnsupported"));
+		suite.addTest(new CompiledPredicateTest ("testFill"));
+		suite.addTest(new CompiledPredicateTest ("testJaCoP"));
+
+		TestSuite tmp = new TestSuite ("Tests on random soft constraints");
+		tmp.addTest(new RepeatedTest (new CompiledPredicateTest ("testRandomFunction"), 200));
+		suite.addTest(tmp);
+
+		tmp = new TestSuite ("Tests on random hard constraints");
+		tmp.addTest(new RepeatedTest (new CompiledPredicateTest ("testRandomPredicate"), 200));
+		suite.addTest(tmp);
+
+		return suite;
+	}
+
+	/** @see junit.framework.TestCase#setUp() */
+	@Override
+	protected void setUp () {
+		this.rand = new Random ();
+	}
+
+	/** @see junit.framework.TestCase#tearDown() */
+	@Override
+	protected void tearDown () {
+		this.rand = null;
+	}
+
+	/** Tests that unsupported expressions are not compiled */
+	public void testUnsupported () {
+		assertNull (CompiledPredicate.compile(new String[] {"x"}, "x", "int X", "foo(X)"));
+		assertNull (CompiledPredicate.compile(new String[] {"x"}, "x", "int X", "add(X)"));
+		assertNull (CompiledPredicate.compile(new String[] {"x"}, "x", "int X", "add(X, eq(X, 1))"));
+		assertNotNull (CompiledPredicate.compile(new String[] {"x"}, "x", "int X", "add(X, 1)"));
+	}
+
+	/** Tests the bulk computation of the utilities */
+	public void testFill () {
+
+		CompiledPredicate pred = CompiledPredicate.compile(new String[] {"x", "y"}, "y x", "int Y int X", "sub(mul(10, X), Y)");
+		assertFalse (pred.isHard());
+
+		AddableInteger[][] doms = new AddableInteger[][] {
+			{ new AddableInteger (1), new AddableInteger (2) },
+			{ new AddableInteger (3), new AddableInteger (4), new AddableInteger (5) } };
+		AddableInteger[] utils = new AddableInteger [6];
+		pred.fill(new int[] {1, 0}, doms, utils, new AddableInteger (100), AddableInteger.PlusInfinity.PLUS_INF);
+
+		// y = 1, 2 and x = 3, 4, 5; utility = 100 + 10 * x - y
+		int i = 0;
+		for (int y = 1; y <= 2; y++)
+			for (int x = 3; x <= 5; x++)
+				assertEquals (new AddableInteger (100 + 10 * x - y), utils[i++]);
+	}
+
+	/** Tests a random soft constraint */
+	public void testRandomFunction () {
+		this.checkRandom(false);
+	}
+
+	/** Tests a random hard constraint */
+	public void testRandomPredicate () {
+		this.checkRandom(true);
+	}
+
+	/** Compares the compiled expressions with their decompositions into JaCoP constraints */
+	public void testJaCoP () {
+		
+		final String[] functions = new String[] {
+				"add(mul(X0, 2), sub(X1, X2))", 
+				"div(X0, X1)", 
+				"div(3, X1)", 
+				"mod(X0, X1)", 
+				"mod(X0, -2)", 
+				"mod(-2, X1)", 
+				"add(mod(-2, 3), X0)", 
+				"abs(neg(X0))", 
+				"min(X0, X1)", 
+				"max(X0, min(X1, 1))", 
+				"if(gt(X0, X1), X2, neg(X2))", 
+		};
+		for (String expr : functions) 
+			this.compareWithJaCoP(expr, false);
+		
+		final String[] predicates = new String[] {
+				"le(min(X0, X1), -2)", 
+				"not(eq(abs(X0), min(X0, X1)))", 
+				"eq(abs(X0), X1)", 
+				"ne(div(X0, X1), X2)", 
+				"or(lt(X0, X1), eq(div(X1, X2), 1))", 
+				"and(ge(X0, X1), not(gt(X2, 1)))", 
+				"xor(eq(X0, X1), iff(le(X1, X2), lt(X0, 2)))", 
+		};
+		for (String expr : predicates) 
+			this.compareWithJaCoP(expr, true);
+	}
+	
+	/** Compares a compiled expression with the reference interpreter, for all assignments to the variables
+	 * @param hard 	whether to test a hard constraint
+	 */
+	private void checkRandom (boolean hard) {
+
+		String expr = (hard ? this.randBool(3) : this.randInt(3));
+		CompiledPredicate pred = CompiledPredicate.compile(SCOPE, PARAMS, FORMAL_PARAMS, expr);
+		int[] vals = new int [NBR_VARS];
+		Arrays.fill(vals, MIN_VAL);
+		
+		// Expressions that involve a constant division by 0 are not compiled
+		if (pred == null) {
+			try {
+				interpret(new StringTokenizer (expr.replace(" ", ""), "(,)"), vals);
+				fail (expr + " was not compiled");
+			} catch (ArithmeticException e) { }
+			return;
+		}
+		assertEquals (expr, hard, pred.isHard());
+
+		do {
+			AddableInteger expected;
+			try {
+				Object val = interpret(new StringTokenizer (expr.replace(" ", ""), "(,)"), vals)[0];
+				if (hard) 
+					expected = ((Boolean) val ? new AddableInteger (0) : AddableInteger.PlusInfinity.PLUS_INF);
+				else 
+					expected = new AddableInteger ((Integer) val);
+			} catch (ArithmeticException e) {
+				expected = AddableInteger.PlusInfinity.PLUS_INF;
+			}
+			assertEquals (expr + " " + Arrays.toString(vals), expected, pred.getUtility(vals, AddableInteger.PlusInfinity.PLUS_INF));
+		} while (next(vals));
+	}
+
+	/** Compares a compiled expression with its decomposition into JaCoP constraints, for all assignments to the variables
+	 * @param expr 	the functional expression
+	 * @param hard 	whether the expression is a predicate
+	 */
+	private void compareWithJaCoP (String expr, boolean hard) {
+		
+		CompiledPredicate pred = CompiledPredicate.compile(SCOPE, PARAMS, FORMAL_PARAMS, expr);
+		assertNotNull (expr, pred);
+		assertEquals (expr, hard, pred.isHard());
+
+		int[] vals = new int [NBR_VARS];
+		Arrays.fill(vals, MIN_VAL);
+		do {
+			// Decompose the expression in a store in which the variables have the full domain, and then assign them
+			Store store = new Store ();
+			for (String var : SCOPE) 
+				new IntVar (store, var, MIN_VAL, MAX_VAL);
+			Element constraint = new Element ("constraint");
+			constraint.addContent(new Element ("parameters").setText(PARAMS));
+			Element predicate = new Element (hard ? "predicate" : "function");
+			predicate.addContent(new Element ("parameters").setText(FORMAL_PARAMS));
+			predicate.addContent(new Element ("expression").addContent(new Element ("functional").setText(expr)));
+			ArrayList<IntVar> utilVars = new ArrayList<IntVar> ();
+			JaCoPxcspParser.parsePredicate(constraint, predicate, store, utilVars);
+			for (int i = 0; i < NBR_VARS; i++) 
+				store.impose(new XeqC ((IntVar) store.findVariable(SCOPE[i]), vals[i]));
+
+			AddableInteger util = pred.getUtility(vals, AddableInteger.PlusInfinity.PLUS_INF);
+			String msg = expr + " " + Arrays.toString(vals);
+			if (! store.consistency())
+				assertEquals (msg, AddableInteger.PlusInfinity.PLUS_INF, util);
+			else if (hard)
+				assertEquals (msg, new AddableInteger (0), util);
+			else {
+				assertTrue (msg, utilVars.get(0).singleton());
+				assertEquals (msg, new AddableInteger (utilVars.get(0).value()), util);
+			}
+		} while (next(vals));
+	}
+	
+	/** Moves to the next assignment to the variables
+	 * @param vals 	the current assignment
+	 * @return \c false if there is no next assignment
+	 */
+	private static boolean next (int[] vals) {
+		
+		for (int i = NBR_VARS - 1; i >= 0; i--) {
+			if (++vals[i] <= MAX_VAL)
+				return true;
+			vals[i] = MIN_VAL;
+		}
+		return false;
+	}
+	
+	/** A straightforward interpreter for functional expressions
+	 * 
+	 * All arguments are always evaluated, such that a division by 0 anywhere in the expression makes it undefined, 
+	 * as in the JaCoP decomposition. The \c mod operator returns a non-negative remainder, except when both its arguments 
+	 * are constant, in which case JaCoP uses Java's remainder operator. 
+	 * @param tokenizer 	the tokenizer
+	 * @param vals 			the values of the variables X0, X1...
+	 * @return an array containing an Integer or a Boolean, and whether the expression is constant
+	 * @throws ArithmeticException 	if the expression is undefined
+	 */
+	private static Object[] interpret (StringTokenizer tokenizer, int[] vals) throws ArithmeticException {
+		
+		String token = tokenizer.nextToken();
+		if (token.startsWith("X")) 
+			return new Object[] { vals[Integer.parseInt(token.substring(1))], false };
+		try {
+			return new Object[] { Integer.parseInt(token), true };
+		} catch (NumberFormatException e) { } // not a constant
+		
+		int nbrArgs = (token.equals("abs") || token.equals("neg") || token.equals("not") ? 1 : (token.equals("if") ? 3 : 2));
+		Object[] args = new Object [nbrArgs];
+		boolean cst = true;
+		for (int i = 0; i < nbrArgs; i++) {
+			Object[] arg = interpret(tokenizer, vals);
+			args[i] = arg[0];
+			cst &= (Boolean) arg[1];
+		}
+		
+		Object out;
+		if (token.equals("abs")) out = Math.abs((Integer) args[0]);
+		else if (token.equals("neg")) out = - (Integer) args[0];
+		else if (token.equals("not")) out = ! (Boolean) args[0];
+		else if (token.equals("add")) out = (Integer) args[0] + (Integer) args[1];
+		else if (token.equals("sub")) out = (Integer) args[0] - (Integer) args[1];
+		else if (token.equals("mul")) out = (Integer) args[0] * (Integer) args[1];
+		else if (token.equals("div")) out = (Integer) args[0] / (Integer) args[1];
+		else if (token.equals("mod")) {
+			int x = (Integer) args[0], y = (Integer) args[1];
+			out = (cst ? x % y : ((x % y) + Math.abs(y)) % Math.abs(y));
+		}
+		else if (token.equals("min")) out = Math.min((Integer) args[0], (Integer) args[1]);
+		else if (token.equals("max")) out = Math.max((Integer) args[0], (Integer) args[1]);
+		else if (token.equals("eq")) out = args[0].equals(args[1]);
+		else if (token.equals("ne")) out = ! args[0].equals(args[1]);
+		else if (token.equals("ge")) out = (Integer) args[0] >= (Integer) args[1];
+		else if (token.equals("gt")) out = (Integer) args[0] > (Integer) args[1];
+		else if (token.equals("le")) out = (Integer) args[0] <= (Integer) args[1];
+		else if (token.equals("lt")) out = (Integer) args[0] < (Integer) args[1];
+		else if (token.equals("and")) out = (Boolean) args[0] && (Boolean) args[1];
+		else if (token.equals("or")) out = (Boolean) args[0] || (Boolean) args[1];
+		else if (token.equals("xor")) out = (Boolean) args[0] ^ (Boolean) args[1];
+		else if (token.equals("iff")) out = args[0].equals(args[1]);
+		else if (token.equals("if")) out = ((Boolean) args[0] ? args[1] : args[2]);
+		else throw new IllegalArgumentException ("Unknown operator: " + token);
+		
+		return new Object[] { out, cst };
+	}
+
+	/** Generates a random integer expression
+	 * @param depth 	the maximum depth of the expression
+	 * @return an XCSP functional expression
+	 */
+	private String randInt (int depth) {
+
+		if (depth == 0 || this.rand.nextInt(3) == 0) { // leaf
+			if (this.rand.nextBoolean())
+				return "X" + this.rand.nextInt(NBR_VARS);
+			else
+				return Integer.toString(MIN_VAL + this.rand.nextInt(MAX_VAL - MIN_VAL + 1));
+		}
+
+		switch (this.rand.nextInt(10)) {
+		case 0: return "abs(" + this.randInt(depth - 1) + ")";
+		case 1: return "neg(" + this.randInt(depth - 1) + ")";
+		case 2: return "add(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 3: return "sub(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 4: return "mul(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 5: return "div(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 6: return "mod(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 7: return "min(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		case 8: return "max(" + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		default: return "if(" + this.randBool(depth - 1) + ", " + this.randInt(depth - 1) + ", " + this.randInt(depth - 1) + ")";
+		}
+	}
+
+	/** Generates a random Boolean expression
+	 * @param depth 	the maximum depth of the expression
+	 * @return an XCSP functional expression
+	 */
+	private String randBool (int depth) {
+
+		final String[] comparisons = new String[] {"eq", "ne", "ge", "gt", "le", "lt"};
+		if (depth <= 1 || this.rand.nextInt(3) == 0)
+			return comparisons[this.rand.nextInt(comparisons.length)] + "(" + this.randInt(depth) + ", " + this.randInt(depth) + ")";
+
+		switch (this.rand.nextInt(5)) {
+		case 0: return "not(" + this.randBool(depth - 1) + ")";
+		case 1: return "and(" + this.randBool(depth - 1) + ", " + this.randBool(depth - 1) + ")";
+		case 2: return "or(" + this.randBool(depth - 1) + ", " + this.randBool(depth - 1) + ")";
+		case 3: return "xor(" + this.randBool(depth - 1) + ", " + this.randBool(depth - 1) + ")";
+		default: return "iff(" + this.randBool(depth - 1) + ", " + this.randBool(depth - 1) + ")";
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors:
+<https://frodo-ai.tech>
+*/
+
+package frodo2.solutionSpaces;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/** A set of modifications to a DCOP, used to update a problem without restarting the algorithm from scratch
+ *
+ * The modifications are applied in the following order: variables are removed, variables are added, domains are modified,
+ * constraints are removed, and constraints are added. Updating a constraint amounts to removing it and adding its new version.
+ *
+ * The change must first be applied to the overall problem, which computes the set of variables and agents it affects.
+ * It can then be applied to the subproblem of each affected agent.
+ * A change is said to be incremental if it does not modify the constraint graph, nor any variable or domain;
+ * algorithms may then repair their previous solution rather than solving the new problem from scratch.
+ * @author Thomas Leaute
+ * @param <V> the type used for variable values
+ * @param <U> the type used for utility values
+ */
+public class ProblemChange < V extends Addable<V>, U extends Addable<U> > implements Serializable {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -1794522468385049131L;
+
+	/** The names of the variables to be removed */
+	private HashSet<String> removedVars = new HashSet<String> ();
+
+	/** For each variable to be added, its owner agent */
+	private LinkedHashMap<String, String> addedVars = new LinkedHashMap<String, String> ();
+
+	/** For each variable to be added or whose domain is modified, its new domain */
+	private HashMap<String, V[]> domains = new HashMap<String, V[]> ();
+
+	/** The names of the constraints to be removed */
+	private ArrayList<String> removedSpaces = new ArrayList<String> ();
+
+	/** The constraints to be added */
+	private ArrayList< UtilitySolutionSpace<V, U> > addedSpaces = new ArrayList< UtilitySolutionSpace<V, U> > ();
+
+	/** The variables involved in the change, computed when the change is applied to the overall problem */
+	private HashSet<String> changedVars;
+
+	/** For each variable involved in the change, its owner agent */
+	private HashMap<String, String> owners;
+
+	/** Whether the change preserves the constraint graph, the variables and their domains */
+	private boolean incremental;
+
+	/** Adds a constraint
+	 * @param space 	the constraint
+	 */
+	public void addConstraint (UtilitySolutionSpace<V, U> space) {
+		assert space.getName() != null : "Constraints added to a problem must have a name";
+		this.addedSpaces.add(space);
+	}
+
+	/** Removes a constraint
+	 * @param name 	the name of the constraint
+	 */
+	public void removeConstraint (String name) {
+		this.removedSpaces.add(name);
+	}
+
+	/** Replaces a constraint with a new version with the same name
+	 * @param space 	the new version of the constraint
+	 */
+	public void updateConstraint (UtilitySolutionSpace<V, U> space) {
+		this.removeConstraint(space.getName());
+		this.addConstraint(space);
+	}
+
+	/** Modifies the domain of a variable
+	 * @param var 	the variable
+	 * @param dom 	its new domain
+	 */
+	public void setDomain (String var, V[] dom) {
+		this.domains.put(var, dom);
+	}
+
+	/** Adds a variable
+	 * @param name 		the name of the variable
+	 * @param owner 	the agent owning the variable
+	 * @param dom 		the domain of the variable
+	 */
+	public void addVariable (String name, String owner, V[] dom) {
+		this.addedVars.put(name, owner);
+		this.domains.put(name, dom);
+	}
+
+	/** Removes a variable, and all constraints involving it
+	 * @param name 	the name of the variable
+	 */
+	public void removeVariable (String name) {
+		this.removedVars.add(name);
+	}
+
+	/** @return the variables involved in the change
+	 * @warning Only available after the change has been applied to the overall problem.
+	 */
+	public Set<String> getChangedVars () {
+		return this.changedVars;
+	}
+
+	/** @return the agents owning at least one variable involved in the change
+	 * @warning Only available after the change has been applied to the overall problem.
+	 */
+	public Set<String> getAffectedAgents () {
+
+		HashSet<String> agents = new HashSet<String> ();
+		for (String var : this.changedVars) {
+			String owner = this.owners.get(var);
+			if (owner != null)
+				agents.add(owner);
+		}
+
+		return agents;
+	}
+
+	/** @return whether the change preserves the constraint graph, the variables and their domains
+	 * @warning Only available after the change has been applied to the overall problem.
+	 */
+	public boolean isIncremental () {
+		return this.incremental;
+	}
+
+	/** Applies the change to a problem
+	 *
+	 * If the problem is the overall problem (i.e. it does not belong to any agent), this also computes the variables
+	 * and agents affected by the change. Otherwise, only the modifications involving the agent's variables are applied.
+	 * @param problem 	the problem
+	 */
+	public void applyTo (DCOPProblemInterface<V, U> problem) {
+
+		if (problem.getAgent() == null)
+			this.applyToOverall(problem);
+		else
+			this.applyToSubProblem(problem);
+	}
+
+	/** Applies the change to the overall problem, computing along the way the variables and agents affected by the change
+	 * @param problem 	the overall problem
+	 */
+	private void applyToOverall (DCOPProblemInterface<V, U> problem) {
+
+		// Look up the variables involved in the change
+		this.changedVars = new HashSet<String> (this.removedVars);
+		this.changedVars.addAll(this.domains.keySet());
+		HashSet<String> removedSpaces = new HashSet<String> (this.removedSpaces);
+		for (UtilitySolutionSpace<V, U> space : problem.getSolutionSpaces(true))
+			if (removedSpaces.contains(space.getName()))
+				this.changedVars.addAll(Arrays.asList(space.getVariables()));
+		for (UtilitySolutionSpace<V, U> space : this.addedSpaces)
+			this.changedVars.addAll(Arrays.asList(space.getVariables()));
+
+		// Record the owners of these variables, before some of them are removed
+		Map<String, String> allOwners = problem.getOwners();
+		this.owners = new HashMap<String, String> ();
+		for (String var : this.changedVars) {
+			String owner = this.addedVars.containsKey(var) ? this.addedVars.get(var) : allOwners.get(var);
+			if (owner != null)
+				this.owners.put(var, owner);
+		}
+
+		// The change can only be incremental if it does not touch the variables or their domains
+		this.incremental = this.removedVars.isEmpty() && this.domains.isEmpty();
+		HashMap< String, HashSet<String> > neighborsBefore = new HashMap< String, HashSet<String> > ();
+		if (this.incremental)
+			for (String var : this.changedVars)
+				neighborsBefore.put(var, new HashSet<String> (problem.getNeighborVars(var, true)));
+
+		this.apply(problem, null);
+
+		// The change is incremental only if it does not modify the constraint graph
+		if (this.incremental) {
+			for (Map.Entry< String, HashSet<String> > entry : neighborsBefore.entrySet()) {
+				if (! entry.getValue().equals(problem.getNeighborVars(entry.getKey(), true))) {
+					this.incremental = false;
+					break;
+				}
+			}
+		}
+	}
+
+	/** Applies to an agent's subproblem the modifications that involve the agent's variables
+	 * @param problem 	the agent's subproblem
+	 */
+	private void applyToSubProblem (DCOPProblemInterface<V, U> problem) {
+
+		assert this.changedVars != null : "The change must first be applied to the overall problem";
+
+		// Only consider the constraints involving at least one of the agent's variables
+		HashSet<String> myVars = new HashSet<String> (problem.getMyVars());
+		for (Map.Entry<String, String> entry : this.addedVars.entrySet())
+			if (problem.getAgent().equals(entry.getValue()))
+				myVars.add(entry.getKey());
+
+		this.apply(problem, myVars);
+	}
+
+	/** Applies the modifications to the input problem
+	 * @param problem 	the problem
+	 * @param myVars 	if not \c null, only constraints involving at least one of these variables are added
+	 */
+	private void apply (DCOPProblemInterface<V, U> problem, Set<String> myVars) {
+
+		for (String var : this.removedVars)
+			problem.removeVariable(var);
+
+		for (Map.Entry<String, String> entry : this.addedVars.entrySet())
+			if (myVars == null || myVars.contains(entry.getKey()))
+				problem.addVariable(entry.getKey(), entry.getValue(), this.domains.get(entry.getKey()));
+
+		for (Map.Entry<String, V[]> entry : this.domains.entrySet())
+			if (! this.addedVars.containsKey(entry.getKey()) && problem.getDomain(entry.getKey()) != null)
+				problem.setDomain(entry.getKey(), entry.getValue());
+
+		for (String name : this.removedSpaces)
+			problem.removeSpace(name);
+
+		for (UtilitySolutionSpace<V, U> space : this.addedSpaces) {
+
+			String[] scope = space.getVariables();
+			if (myVars != null && Collections.disjoint(myVars, Arrays.asList(scope)))
+				continue;
+
+			// Make sure all variables in the scope are known
+			for (String var : scope)
+				if (problem.getDomain(var) == null)
+					problem.addVariable(var, this.owners.get(var), space.getDomain(var));
+
+			UtilitySolutionSpace<V, U> clone = space.clone();
+			clone.setName(space.getName());
+			clone.setProblem(problem);
+			problem.addSolutionSpace(clone);
+		}
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString () {
+		return "ProblemChange"
+				+ "\n\tremovedVars = " + this.removedVars
+				+ "\n\taddedVars = " + this.addedVars
+				+ "\n\tdomains = " + this.domains.keySet()
+				+ "\n\tremovedSpaces = " + this.removedSpaces
+				+ "\n\taddedSpaces = " + this.addedSpaces.size()
+				+ "\n\tincremental = " + this.incremental;
+	}
+}
@@ -88,5 +88,12 @@ public interface ProblemInterface <V extends Addable<V>, U extends Addable<U>> e
 	 */
 	public void setNCCCs (long ncccs);
 	
+	/** Sets the random number streams to be used by the modules
+	 * @param streams 	the random number streams
+	 */
+	public void setRandomStreams (RandomStreams streams);
+	
+	/** @return the random number streams to be used by the modules; if none has been set, streams with a random master seed are created */
+	public RandomStreams getRandomStreams ();
 	
 }
@@ -0,0 +1,159 @@
+/*
+FRODO: a FRamework for Open/Distributed Optimization
+Copyright (C) 2008-2019  Thomas Leaute, Brammert Ottens & Radoslaw Szymanek
+
+FRODO is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+FRODO is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+
+How to contact the authors: 
+<https://frodo-ai.tech>
+ */
+
+package frodo2.solutionSpaces;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/** Reproducible streams of random numbers, derived from a master seed
+ * 
+ * Each agent and each variable has its own SplittableRandom, whose seed only depends on the master seed and on the name of 
+ * the agent or variable. The streams are therefore independent of each other, of the number of agents and threads, and of 
+ * the assignment of variables to agents, and two runs with the same master seed make the same random choices. 
+ * 
+ * An instance is handed to the modules of each agent through its problem (see ProblemInterface#getRandomStreams()). 
+ * The master seed is given by the attribute \c seed of the root element of the agent configuration file; if it is not 
+ * specified, a different master seed is drawn for each agent. 
+ * 
+ * @author Thomas Leaute
+ * @warning The instance of an agent must only be used by the thread of this agent; no synchronization is performed. 
+ */
+public class RandomStreams implements Serializable {
+
+	/** Used for serialization */
+	private static final long serialVersionUID = -3719212408856316420L;
+
+	/** The salt used to derive the seeds of the agents' streams */
+	private static final long AGENT_SALT = 0x5851f42d4c957f2dL;
+
+	/** The salt used to derive the seeds of the variables' streams */
+	private static final long VARIABLE_SALT = 0x14057b7ef767814fL;
+
+	/** The master seed */
+	private final long seed;
+
+	/** The stream of each agent, created on demand */
+	private transient HashMap<String, SplittableRandom> agentStreams;
+
+	/** The stream of each variable, created on demand */
+	private transient HashMap<String, SplittableRandom> varStreams;
+
+	/** Constructor with a random master seed */
+	public RandomStreams () {
+		this (new SplittableRandom ().nextLong());
+	}
+
+	/** Constructor
+	 * @param seed 	the master seed
+	 */
+	public RandomStreams (long seed) {
+		this.seed = seed;
+	}
+
+	/** @return the master seed */
+	public long getSeed () {
+		return this.seed;
+	}
+
+	/** Returns the stream of an agent
+	 * @param agent 	the name of the agent
+	 * @return the stream, which is created on the first call and then returned by all subsequent calls
+	 */
+	public SplittableRandom forAgent (String agent) {
+
+		if (this.agentStreams == null) 
+			this.agentStreams = new HashMap<String, SplittableRandom> ();
+
+		SplittableRandom stream = this.agentStreams.get(agent);
+		if (stream == null) 
+			this.agentStreams.put(agent, stream = newStream(this.seed, AGENT_SALT, agent));
+		return stream;
+	}
+
+	/** Returns the stream of a variable
+	 * @param var 	the name of the variable
+	 * @return the stream, which is created on the first call and then returned by all subsequent calls
+	 */
+	public SplittableRandom forVariable (String var) {
+
+		if (this.varStreams == null) 
+			this.varStreams = new HashMap<String, SplittableRandom> ();
+
+		SplittableRandom stream = this.varStreams.get(var);
+		if (stream == null) 
+			this.varStreams.put(var, stream = newStream(this.seed, VARIABLE_SALT, var));
+		return stream;
+	}
+
+	/** Creates a stream that only depends on the master seed and on a name
+	 * @param seed 	the master seed
+	 * @param salt 	the salt that distinguishes the kinds of streams
+	 * @param name 	the name
+	 * @return a new stream
+	 */
+	private static SplittableRandom newStream (long seed, long salt, String name) {
+
+		// 64-bit FNV-1a hash of the name, such that names with the same String.hashCode() still get different streams
+		long hash = 0xcbf29ce484222325L ^ salt;
+		for (int i = 0; i < name.length(); i++) 
+			hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+
+		return new SplittableRandom (mix(mix(seed + salt) ^ hash));
+	}
+
+	/** The finalizer of the SplitMix64 generator, used to decorrelate the derived seeds
+	 * @param z 	the input
+	 * @return the mixed input
+	 */
+	private static long mix (long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/** Draws a number from the standard normal distribution, using Marsaglia's polar method
+	 * @param random 	the stream
+	 * @return a normally distributed number with mean 0 and standard deviation 1
+	 * @note Unlike java.util.Random#nextGaussian(), the second number generated by the polar method is discarded, 
+	 * such that the method is stateless. 
+	 */
+	public static double nextGaussian (SplittableRandom random) {
+
+		double v1, v2, s;
+		do {
+			v1 = 2 * random.nextDouble() - 1;
+			v2 = 2 * random.nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+
+		return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString () {
+		return "RandomStreams(seed = " + this.seed + ")";
+	}
+
+}
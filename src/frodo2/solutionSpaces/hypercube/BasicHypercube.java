@@ -24,6 +24,7 @@ How to contact the authors:
 package frodo2.solutionSpaces.hypercube;
 
 import frodo2.solutionSpaces.Addable;
+import frodo2.solutionSpaces.AddableInteger;
 import frodo2.solutionSpaces.ProblemInterface;
 import frodo2.solutionSpaces.SolutionSpace;
 import frodo2.solutionSpaces.BasicUtilitySolutionSpace;
@@ -85,6 +86,23 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 	 */
 	protected transient HashMap< V, Integer >[] steps_hashmaps;
 	
+	/** The value of \a int_offsets for a variable whose domain is not a range of consecutive AddableIntegers */
+	protected static final int NOT_INT_CODED = Integer.MIN_VALUE;
+	
+	/** For each variable, the int value of the first value in its domain if this domain is a range of consecutive AddableIntegers, 
+	 *  and NOT_INT_CODED otherwise. 
+	 * 
+	 *  The step of a value of such an int-coded variable is computed directly from the int value, 
+	 *  without hashing, and the variable has no steps hashmap. 
+	 */
+	protected transient int[] int_offsets;
+	
+	/** For each int-coded variable, the size of its domain */
+	protected transient int[] int_sizes;
+	
+	/** For each int-coded variable, the step in the utility values array between two consecutive values in its domain */
+	protected transient int[] int_steps;
+	
 	/** The types of spaces that we know how to handle */
 	private static HashSet< Class<?> > knownSpaces;
 	
@@ -179,6 +197,9 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 		int domain_size;
 		int number_of_variables = variables2.length;
 		steps_hashmaps = new HashMap [ number_of_variables ];
+		int_offsets = new int [ number_of_variables ];
+		int_sizes = new int [ number_of_variables ];
+		int_steps = new int [ number_of_variables ];
 		
 		//init the step integer
 		int step = number_of_utility_values2;
@@ -194,6 +215,15 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 			//divided by the size of the domain of the current variable
 			step = step / domain_size;
 			
+			// If the domain is a range of consecutive AddableIntegers, the steps can be computed from the values' int codes
+			if (isIntRange(domain)) {
+				int_offsets[ i ] = ((AddableInteger) domain[ 0 ]).intValue();
+				int_sizes[ i ] = domain_size;
+				int_steps[ i ] = step;
+				continue;
+			}
+			int_offsets[ i ] = NOT_INT_CODED;
+			
 			//hashmap that maps a value of a variable to a step in the utility values "values" array
 			steps = new HashMap<V, Integer>(domain_size);
 			for( int j = 0, step_tmp = 0;  j < domain_size;  j++, step_tmp += step )
@@ -203,6 +233,58 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 		}
 	}
 	
+	/** Checks whether a domain is a range of consecutive AddableIntegers, in increasing order
+	 * @param domain 	the domain
+	 * @return \c true if the domain only contains AddableIntegers (and no infinity), and each value is the previous value plus one
+	 */
+	private static boolean isIntRange (Object[] domain) {
+		
+		if (domain.length == 0 || domain[0] == null || domain[0].getClass() != AddableInteger.class) 
+			return false;
+		
+		int first = ((AddableInteger) domain[0]).intValue();
+		if (first == NOT_INT_CODED || first > Integer.MAX_VALUE - domain.length) 
+			return false;
+		
+		for (int i = domain.length - 1; i > 0; i--) {
+			Object val = domain[i];
+			if (val == null || val.getClass() != AddableInteger.class || ((AddableInteger) val).intValue() != first + i) 
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/** Returns the step in the utility values array corresponding to a given variable taking a given value
+	 * @param var 	the index of the variable
+	 * @param val 	the value for the variable
+	 * @return the step, or -1 if the value is not in the domain of the variable
+	 */
+	protected final int getStep (final int var, final V val) {
+		
+		// Int-coded variable
+		if (this.int_offsets != null) {
+			final int offset = this.int_offsets[var];
+			if (offset != NOT_INT_CODED) {
+				if (val == null || val.getClass() != AddableInteger.class) 
+					return -1;
+				final int intVal = ((AddableInteger) val).intValue();
+				if (intVal < offset) 
+					return -1;
+				final int code = intVal - offset;
+				if (code < 0 || code >= this.int_sizes[var]) 
+					return -1;
+				return code * this.int_steps[var];
+			}
+		}
+		
+		HashMap<V, Integer> steps_hashmap = this.steps_hashmaps[var];
+		if (steps_hashmap == null) 
+			return -1;
+		Integer step = steps_hashmap.get(val);
+		return (step == null ? -1 : step);
+	}
+	
 	/** @see java.io.Externalizable#writeExternal(java.io.ObjectOutput) */
 	public void writeExternal(ObjectOutput out) throws IOException {
 		
@@ -507,11 +589,8 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 		//loop over all the variables in this hypercube
 		for( int i = 0 ;i < number_of_variables; i++ ) {
 			//find the step corresponding to the variable taking the associated value in the "variables_values"
-			HashMap<V, Integer> steps_hashmap = steps_hashmaps[i];
-			if ( steps_hashmap == null )
-				return -1;
-			Integer step = steps_hashmap.get( variables_values[i] );
-			if (step == null) 
+			int step = this.getStep( i, variables_values[i] );
+			if (step == -1) 
 				return -1;
 			utility_index += step;
 		}
@@ -662,13 +741,14 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 		int index = this.getIndex(var);
 		if (index >= 0) {
 			
-			// Adapt the steps_hashmaps
-			HashMap<V, Integer> oldSteps = this.steps_hashmaps[index];
-			HashMap<V, Integer> newSteps = new HashMap<V, Integer> (oldSteps.size());
+			// Adapt the steps_hashmaps; the variable is no longer int-coded
 			V[] oldDom = this.domains[index];
+			HashMap<V, Integer> newSteps = new HashMap<V, Integer> (oldDom.length);
 			for (int i = oldDom.length - 1; i >= 0; i--) 
-				newSteps.put(dom[i], oldSteps.get(oldDom[i]));
+				newSteps.put(dom[i], this.getStep(index, oldDom[i]));
 			this.steps_hashmaps[index] = newSteps;
+			if (this.int_offsets != null) 
+				this.int_offsets[index] = NOT_INT_CODED;
 			
 			// Set the domain
 			this.domains[index] = dom;
@@ -923,7 +1003,7 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 		
 		int[] steps = new int[number_of_variables];
 		for(int i = 0 ; i < number_of_variables ; i++)
-			steps[i] = steps_hashmaps[i].get(domains[i][1]);
+			steps[i] = this.getStep(i, domains[i][1]);
 		
 		//set steps_hashmaps according to the new domains
 		this.setStepsHashmaps(variables_order, new_domains, number_of_utility_values);
@@ -1691,7 +1771,7 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 			//reduction of the number of utility values due to the current variable taking a fixed value
 			number_of_values = number_of_values / domain_size;
 			
-			fixed_step += steps_hashmaps[ i ].get(variables_values[ index ]);
+			fixed_step += this.getStep(i, variables_values[ index ]);
 		}
 		
 		//create the array of utility values of the new hypercube
@@ -1704,7 +1784,7 @@ implements BasicUtilitySolutionSpace<V, U>, Externalizable {
 			index = fixed_step;
 			//compute the index of the next utility value
 			for( int j = 0; j < number_of_variables2; j++ )
-				index += steps_hashmaps[ j ].get( domains[ j ][ indexes[ j ]] );
+				index += this.getStep( j, domains[ j ][ indexes[ j ]] );
 			
 			// add the utility value to the array of utility values of the new Hypercube
 			new_values[ i ] = values[ index ];
@@ -24,21 +24,28 @@ package frodo2.solutionSpaces.hypercube;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.PriorityQueue;
 
 import frodo2.solutionSpaces.Addable;
 import frodo2.solutionSpaces.UtilitySolutionSpace.IteratorBestFirst;
 
 /** An iterator in best-first order
+ * 
+ * The feasible assignments are kept in a binary heap of indexes in the utility array, built in linear time 
+ * and lazily popped, such that each call to next*() only costs a logarithmic number of utility comparisons. 
  * @author Brammert Ottens, 20 nov 2009
  * @param <V> type used for domain values
  * @param <U> type used for utility values
  */
 public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U> > extends HypercubeIter<V, U> implements IteratorBestFirst<V, U>{
 
-	/** Ordered list of assignment */
-	private PriorityQueue<Assignment<U>> orderedAssignments;
+	/** Binary heap of the indexes in the utility array of the assignments not yet returned, the best at the top */
+	private int[] heap;
+	
+	/** The number of indexes in \a heap */
+	private int heapSize;
+	
+	/** \c true when values are to be ordered decreasingly, and \c false otherwise */
+	private final boolean maximize;
 	
 	/** Array used to calculate assignment based on index in utility array */
 	private int[] indexSteps;
@@ -57,6 +64,7 @@ public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U>
 		else
 			infeasibleUtil = space.getUtility(0).getPlusInfinity();
 		
+		this.maximize = maximize;
 		this.space = space;
 		this.utilities = space.values;
 		this.variables = space.variables;
@@ -86,51 +94,68 @@ public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U>
 			step *= nbrVals;
 		}
 		utilIndex = - steps[nbrVars - 1][0];
-			
 		
-		if(maximize)
-			orderedAssignments = new PriorityQueue<Assignment<U>>(1, new MaximizeComp<U>());
-		else
-			orderedAssignments = new PriorityQueue<Assignment<U>>(1, new MinimizeComp<U>());
+		// Collect the feasible assignments
+		this.heap = new int [(int) this.nbrSols];
+		for (int index = 0; index < this.nbrSols; index++) 
+			if(space.getUtility(index) != infeasibleUtil)
+				this.heap[this.heapSize++] = index;
 		
-		int index = 0;
-		while(index < this.nbrSols) {
-			U utility = space.getUtility(index);
-			if(utility != infeasibleUtil)
-				orderedAssignments.add(new Assignment<U>(index, utility));
-			index++;
-		}
+		// Heapify bottom-up, in linear time
+		for (int i = this.heapSize / 2 - 1; i >= 0; i--) 
+			this.siftDown(i);
 		
-		nbrSolLeft = orderedAssignments.size();
+		nbrSolLeft = this.heapSize;
 		nbrSols = nbrSolLeft;
 	}
 	
+	/**
+	 * @param index1 	the index of an assignment in the utility array
+	 * @param index2 	the index of another assignment in the utility array
+	 * @return \c true if the first assignment must be returned before the second
+	 */
+	private boolean before (int index1, int index2) {
+		int comp = this.utilities[index1].compareTo(this.utilities[index2]);
+		if (comp == 0) 
+			return index1 < index2;
+		return this.maximize ? comp > 0 : comp < 0;
+	}
 	
 	/**
-	 * Class containing a single assignment with its utility
-	 * 
-	 * @author Brammert Ottens, 20 nov 2009
-	 * @param <U> type used for utility values
-	 *
+	 * Moves an index down the heap until the heap property is restored
+	 * @param pos 	the position in the heap of the index
 	 */
-	private static class Assignment < U extends Addable<U>> {
-		
-		/** the index of the utility in the space utility array. Based on this the assignment can be determined*/
-		private int assignment;
-		
-		/** The utility corresponding to the assignment */
-		private U util;
+	private void siftDown (int pos) {
+		
+		final int[] heap = this.heap;
+		final int index = heap[pos];
+		final int half = this.heapSize / 2;
+		
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			int right = child + 1;
+			if (right < this.heapSize && this.before(heap[right], heap[child])) 
+				child = right;
+			if (! this.before(heap[child], index)) 
+				break;
+			heap[pos] = heap[child];
+			pos = child;
+		}
+		heap[pos] = index;
+	}
+	
+	/**
+	 * Removes the best assignment from the heap
+	 * @return the index of the best assignment in the utility array
+	 */
+	private int poll () {
 		
-		/**
-		 * Constructor
-		 * 
-		 * @param assignment the assignment
-		 * @param utilIndex the index to the corresponding utility
-		 */
-		public Assignment(int assignment, U utilIndex) {
-			this.assignment = assignment;
-			this.util = utilIndex;
+		int best = this.heap[0];
+		if (--this.heapSize > 0) {
+			this.heap[0] = this.heap[this.heapSize];
+			this.siftDown(0);
 		}
+		return best;
 	}
 	
 	/** @see frodo2.solutionSpaces.BasicUtilitySolutionSpace.Iterator#nextSolution() 
@@ -146,10 +171,10 @@ public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U>
 			return null;
 		}
 		
-		Assignment<U> ass = this.orderedAssignments.poll();
+		int index = this.poll();
 		this.nbrSolLeft--;
-		this.indexToAssignment(ass.assignment);
-		this.utility = ass.util;
+		this.indexToAssignment(index);
+		this.utility = this.utilities[index];
 		return this.solution;
 	}
 
@@ -164,10 +189,10 @@ public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U>
 			return null;
 		}
 		
-		Assignment<U> ass = this.orderedAssignments.poll();
+		int index = this.poll();
 		this.nbrSolLeft--;
-		this.indexToAssignment(ass.assignment);
-		this.utility = ass.util;
+		this.indexToAssignment(index);
+		this.utility = this.utilities[index];
 		return this.utility;
 	}
 	
@@ -193,43 +218,6 @@ public class HyperCubeIterBestFirst < V extends Addable<V>, U extends Addable<U>
 		}
 		solution[i] = this.domains[i][index];
 	}
-	
-	/**
-	 * Comparator used when maximizing
-	 * @author Brammert Ottens, 23 nov 2009
-	 * 
-	 * @param <U>	type used for utility values
-	 */
-	private static class MaximizeComp < U extends Addable<U> > implements Comparator<Assignment<U>> {
-		
-		/**
-		 * @param a1 assignment 1
-		 * @param a2 assignment 2
-		 * @return a2.util - a1.util
-		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
-		 */
-		public int compare(Assignment<U> a1, Assignment<U> a2) {
-			return a2.util.compareTo(a1.util);
-		}
-	}
-	
-	/**
-	 * Comparator used when minimizing
-	 * @author Brammert Ottens, 23 nov 2009
-	 * 
-	 * @param <U>	type used for utility values
-	 */
-	private static class MinimizeComp < U extends Addable<U> > implements Comparator<Assignment<U>> {
-		/** 
-		 * @param a1 assignment 1
-		 * @param a2 assignment 2
-		 * @return a1.util - a2.util
-		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
-		 */
-		public int compare(Assignment<U> a1, Assignment<U> a2) {
-			return a1.util.compareTo(a2.util);
-		}
-	}
 
 	/** @see frodo2.solutionSpaces.UtilitySolutionSpace.IteratorBestFirst#maximalCut() */
 	public U maximalCut() {
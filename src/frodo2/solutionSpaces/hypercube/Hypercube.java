@@ -1559,7 +1559,7 @@ extends HypercubeLimited<V, U, U> implements UtilitySolutionSpace<V, U> {
 		// One conditional optimal assignment
 		ArrayList<V> condOptAssignment;
 		
-		int step = steps_hashmaps[ nbrVarsKept - 1 ].get( domains[ nbrVarsKept - 1 ][ 1 ] );
+		int step = this.getStep( nbrVarsKept - 1, domains[ nbrVarsKept - 1 ][ 1 ] );
 		
 		U new_utility;
 		int index = 0;
@@ -1633,10 +1633,9 @@ extends HypercubeLimited<V, U, U> implements UtilitySolutionSpace<V, U> {
 		HashMap<String, V> opt = new HashMap<String, V> ();
 		for (int i = 0; i < variables.length; i++) {
 			V[] dom = domains[i];
-			HashMap<V, Integer> steps = steps_hashmaps[i];
 			V optVal = dom[0];
 			for (V val : dom) {
-				tmp = steps.get(val);
+				tmp = this.getStep(i, val);
 				if (tmp <= optIndex) {
 					step = tmp;
 					optVal = val;
@@ -1697,10 +1696,9 @@ extends HypercubeLimited<V, U, U> implements UtilitySolutionSpace<V, U> {
 			int step = 0, tmp;
 			for (int i = 0; i < variables.length; i++) {
 				V[] dom = domains[i];
-				HashMap<V, Integer> steps = steps_hashmaps[i];
 				V optVal = dom[0];
 				for (V val : dom) {
-					tmp = steps.get(val);
+					tmp = this.getStep(i, val);
 					if (tmp <= optIndex) {
 						step = tmp;
 						optVal = val;
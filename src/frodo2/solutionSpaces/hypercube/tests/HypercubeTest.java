@@ -191,6 +191,10 @@ public class HypercubeTest extends TestCase {
 		suiteTmp.addTest(new RepeatedTest (new HypercubeTest ("testGetUtility"), 1000));
 		testSuite.addTest(suiteTmp);
 		
+		suiteTmp = new TestSuite ("Tests for hypercubes with and without int-coded domains");
+		suiteTmp.addTest(new RepeatedTest (new HypercubeTest ("testIntCodedDomains"), 1000));
+		testSuite.addTest(suiteTmp);
+		
 		testSuite.addTest(new HypercubeTest ("testProjection"));
 
 		suiteTmp = new TestSuite ("Tests for the method testSerializationRandom");
@@ -763,6 +767,86 @@ public class HypercubeTest extends TestCase {
 		}
 	}
 
+	/** Compares a random hypercube, whose domains are ranges of consecutive integers, with the same hypercube in which each value v is replaced with 2v. 
+	 * 
+	 * The steps of the first hypercube are computed from the int codes of the values, while the steps of the second are looked up in hashmaps. 
+	 */
+	public void testIntCodedDomains () {
+		
+		Hypercube<AddableInteger, AddableInteger> h1 = random_hypercube();
+		String[] vars = h1.getVariables();
+		int nbrVars = vars.length;
+		
+		// Construct the second hypercube
+		AddableInteger[][] doms1 = h1.getDomains();
+		AddableInteger[][] doms2 = new AddableInteger [nbrVars][];
+		for (int i = 0; i < nbrVars; i++) {
+			doms2[i] = new AddableInteger [doms1[i].length];
+			for (int j = 0; j < doms1[i].length; j++) 
+				doms2[i][j] = new AddableInteger (2 * doms1[i][j].intValue());
+		}
+		AddableInteger[] utils = new AddableInteger [(int) h1.getNumberOfSolutions()];
+		for (int i = 0; i < utils.length; i++) 
+			utils[i] = h1.getUtility(i);
+		AddableInteger[] vals1 = new AddableInteger [nbrVars];
+		Arrays.fill(vals1, new AddableInteger (-1));
+		AddableInteger infeasibleUtil = h1.getUtility(vals1); // the utility of an assignment outside of the domains
+		Hypercube<AddableInteger, AddableInteger> h2 = new Hypercube<AddableInteger, AddableInteger> (vars, doms2, utils, infeasibleUtil);
+		
+		// Compare the utilities of random assignments, some of which are outside of the domains
+		AddableInteger[] vals2 = new AddableInteger [nbrVars];
+		for (int k = 0; k < 10; k++) {
+			for (int i = 0; i < nbrVars; i++) {
+				int val = (int) ((doms1[i].length + 2) * Math.random()) - 1;
+				vals1[i] = new AddableInteger (val);
+				vals2[i] = new AddableInteger (2 * val);
+			}
+			assertEquals (h1.getUtility(vars, vals1), h2.getUtility(vars, vals2));
+		}
+		
+		// Compare the slices
+		int var = (int) (nbrVars * Math.random());
+		int val = doms1[var][(int) (doms1[var].length * Math.random())].intValue();
+		assertSameUtils (h1.slice(vars[var], new AddableInteger[] { new AddableInteger (val) }), 
+				h2.slice(vars[var], new AddableInteger[] { new AddableInteger (2 * val) }));
+		val = doms1[nbrVars - 1][(int) (doms1[nbrVars - 1].length * Math.random())].intValue();
+		assertSameUtils (h1.slice(new AddableInteger[] { new AddableInteger (val) }), h2.slice(new AddableInteger[] { new AddableInteger (2 * val) }));
+		
+		// Compare the projections
+		assertSameUtils (h1.project(vars[var], true).space, h2.project(vars[var], true).space);
+		
+		// Compare the reordered hypercubes
+		String[] reversed = new String [nbrVars];
+		for (int i = 0; i < nbrVars; i++) 
+			reversed[i] = vars[nbrVars - 1 - i];
+		assertSameUtils (h1.changeVariablesOrder(reversed), h2.changeVariablesOrder(reversed));
+		
+		// Change a domain
+		AddableInteger[] newDom = new AddableInteger [doms1[var].length];
+		for (int j = 0; j < newDom.length; j++) 
+			newDom[j] = new AddableInteger (3 * j + 1);
+		h1 = h1.clone();
+		h1.setDomain(vars[var], newDom);
+		h2 = h2.clone();
+		h2.setDomain(vars[var], newDom);
+		for (int i = 0; i < nbrVars; i++) {
+			vals1[i] = h1.getDomain(i)[0];
+			vals2[i] = h2.getDomain(i)[0];
+		}
+		vals1[var] = vals2[var] = newDom[newDom.length - 1];
+		assertEquals (h1.getUtility(vars, vals1), h2.getUtility(vars, vals2));
+	}
+	
+	/** Checks that two spaces have the same utilities, in the same order
+	 * @param space1 	the first space
+	 * @param space2 	the second space
+	 */
+	private static void assertSameUtils (BasicUtilitySolutionSpace<AddableInteger, AddableInteger> space1, BasicUtilitySolutionSpace<AddableInteger, AddableInteger> space2) {
+		assertEquals (space1.getNumberOfSolutions(), space2.getNumberOfSolutions());
+		for (long i = space1.getNumberOfSolutions() - 1; i >= 0; i--) 
+			assertEquals (space1.getUtility(i), space2.getUtility(i));
+	}
+	
 	/** Computes a random sublist of the input list of variables
 	 * @param variables 	list of variables
 	 * @return 				a random sublist of variables